@@ -2,8 +2,10 @@ package com.zdata.student_course_registration;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class StudentCourseRegistrationApplication {
 
 	public static void main(String[] args) {
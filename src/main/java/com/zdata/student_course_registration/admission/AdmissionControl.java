@@ -0,0 +1,153 @@
+package com.zdata.student_course_registration.admission;
+
+import com.zdata.student_course_registration.metrics.ServiceMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Admission control for the API: a token-bucket rate limit per key and a global limit on
+ * requests executing at once. Both reject immediately instead of queueing, so a flood from
+ * a few clients costs them 429s rather than costing everyone else latency.
+ * <p>
+ * Each bucket is a single long updated by CAS, using the generic cell rate algorithm: it holds
+ * the time at which the bucket would be full again, so a bucket that is full is indistinguishable
+ * from an unused one and buckets never need to be created or evicted. Keys are hashed onto a fixed
+ * array of buckets, which bounds memory regardless of the number of clients.
+ */
+@Component
+public class AdmissionControl {
+
+    private final boolean enabled;
+    private final AdmissionProperties.Key key;
+    private final String clientHeader;
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final int maxConcurrent;
+    private final AtomicLongArray buckets;
+    private final LongSupplier clock;
+    private final long origin;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder overloaded = new LongAdder();
+
+    @Autowired
+    public AdmissionControl(AdmissionProperties properties, ServiceMetrics metrics) {
+        this(properties, metrics, System::nanoTime);
+    }
+
+    AdmissionControl(AdmissionProperties properties, ServiceMetrics metrics, LongSupplier clock) {
+        if (properties.getRate() <= 0 || properties.getBurst() < 1) {
+            throw new IllegalArgumentException("registration.admission.rate and burst must be positive");
+        }
+        if (Integer.bitCount(properties.getBuckets()) != 1) {
+            throw new IllegalArgumentException("registration.admission.buckets must be a power of two");
+        }
+        this.enabled = properties.isEnabled();
+        this.key = properties.getKey();
+        this.clientHeader = properties.getClientHeader();
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / properties.getRate());
+        this.burstNanos = intervalNanos * properties.getBurst();
+        this.maxConcurrent = properties.getMaxConcurrent();
+        this.buckets = new AtomicLongArray(enabled ? properties.getBuckets() : 1);
+        this.clock = clock;
+        // Keeps now() positive, so the initial 0 of every bucket means full
+        this.origin = clock.getAsLong() - 1;
+        metrics.counter("registration.admission.rejected", "Requests rejected by admission control",
+                rateLimited, LongAdder::sum, "reason", "rate");
+        metrics.counter("registration.admission.rejected", "Requests rejected by admission control",
+                overloaded, LongAdder::sum, "reason", "concurrency");
+        metrics.gauge("registration.admission.in-flight", "Admitted requests executing", inFlight, AtomicInteger::get);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public AdmissionProperties.Key key() {
+        return key;
+    }
+
+    /**
+     * @return Header that identifies the client, or an empty string to use the remote address.
+     */
+    public String clientHeader() {
+        return clientHeader;
+    }
+
+    /**
+     * Takes a token from the bucket of a client.
+     * @param client Client identifier.
+     * @return 0 if admitted, otherwise the nanoseconds until a token is available.
+     */
+    public long tryAcquireClient(String client) {
+        return tryAcquire(client.hashCode());
+    }
+
+    /**
+     * Takes a token from the bucket of a student.
+     * @param studentId ID of the student the request acts on.
+     * @return 0 if admitted, otherwise the nanoseconds until a token is available.
+     */
+    public long tryAcquireStudent(int studentId) {
+        // Offset so student 42 and a client whose name hashes to 42 land on different buckets
+        return tryAcquire(studentId + 0x5bd1e995);
+    }
+
+    private long tryAcquire(int hash) {
+        int index = spread(hash) & (buckets.length() - 1);
+        long now = clock.getAsLong() - origin;
+        while (true) {
+            long fullAt = buckets.get(index);
+            long next = Math.max(fullAt, now) + intervalNanos;
+            long excess = next - now - burstNanos;
+            if (excess > 0) {
+                rateLimited.increment();
+                return excess;
+            }
+            if (buckets.compareAndSet(index, fullAt, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Claims one of the global execution slots. Must be paired with {@link #exit()} when admitted.
+     * @return true if admitted, false if the limit is reached.
+     */
+    public boolean tryEnter() {
+        if (maxConcurrent <= 0) {
+            inFlight.incrementAndGet();
+            return true;
+        }
+        while (true) {
+            int current = inFlight.get();
+            if (current >= maxConcurrent) {
+                overloaded.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void exit() {
+        inFlight.decrementAndGet();
+    }
+
+    private static int spread(int hash) {
+        // Murmur3 finalizer, so sequential student IDs and similar client names spread over all buckets
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,32 @@
+package com.zdata.student_course_registration.admission;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "registration.admission")
+public class AdmissionProperties {
+
+    /**
+     * What a rate limit applies to.
+     */
+    public enum Key {
+        // The calling client: the client header if set, otherwise the remote address
+        CLIENT,
+        // The student in the request path, falling back to the client for paths without one
+        STUDENT
+    }
+
+    private boolean enabled = false;
+    private Key key = Key.CLIENT;
+    // Header that identifies the client, e.g. X-Client-Id behind a trusted gateway; empty uses the remote address
+    private String clientHeader = "";
+    // Sustained requests per second allowed per key
+    private double rate = 20;
+    // Requests a key may send at once after being idle
+    private int burst = 40;
+    // Rate buckets, a power of two; keys are hashed onto them, so memory is fixed and rare collisions share a bucket
+    private int buckets = 65_536;
+    // Requests executing at once across all clients; 0 disables the limit
+    private int maxConcurrent = 200;
+}
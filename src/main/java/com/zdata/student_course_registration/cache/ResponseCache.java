@@ -0,0 +1,214 @@
+package com.zdata.student_course_registration.cache;
+
+import com.zdata.student_course_registration.event.ChangeEvent;
+import com.zdata.student_course_registration.event.ChangeEventPublisher;
+import com.zdata.student_course_registration.metrics.ServiceMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of serialized listing responses, evicted by size (LRU) and age.
+ * <p>
+ * Entries are invalidated precisely through version stamps: every change that affects a listing
+ * bumps the listing's stamp once the change is visible, and an entry is only served while the
+ * stamp it was built under is still current. A response built concurrently with a change can
+ * therefore never be served after it. Stamps are striped, so unrelated listings sharing a stripe
+ * only cost an occasional extra miss.
+ */
+@Component
+public class ResponseCache {
+
+    /**
+     * Listings whose responses are cached.
+     */
+    public enum Listing {
+        // GET /courses; id is always 0
+        CATALOGUE,
+        // GET /students/{id}/courses
+        STUDENT_COURSES
+    }
+
+    public record Key(Listing listing, int id, boolean ndjson) {
+    }
+
+    /**
+     * A cached response body with its strong ETag.
+     */
+    public record Entry(byte[] body, String etag, long stamp, long createdNanos) {
+    }
+
+    public record Stats(long hits, long misses, long evictions, long invalidations, int entries, long bytes) {
+    }
+
+    private static final int STAMP_STRIPES = 4096;
+    private static final int SEGMENTS = 16;
+
+    private final boolean enabled;
+    private final long maxEntryBytes;
+    private final long ttlNanos;
+    private final AtomicLongArray stamps = new AtomicLongArray(STAMP_STRIPES);
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public ResponseCache(ResponseCacheProperties properties, ChangeEventPublisher changeEvents, ServiceMetrics metrics) {
+        this.enabled = properties.isEnabled();
+        this.maxEntryBytes = properties.getMaxEntrySize().toBytes();
+        this.ttlNanos = properties.getTtl().toNanos();
+        long segmentBytes = properties.getMaxSize().toBytes() / SEGMENTS;
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(segmentBytes);
+        }
+        if (enabled) {
+            changeEvents.addAppliedListener(this::onApplied);
+        }
+        metrics.counter("registration.cache.requests", "Cache lookups", hits, LongAdder::sum, "result", "hit");
+        metrics.counter("registration.cache.requests", "Cache lookups", misses, LongAdder::sum, "result", "miss");
+        metrics.counter("registration.cache.evictions", "Entries evicted by size or age", evictions, LongAdder::sum);
+        metrics.counter("registration.cache.invalidations", "Stale entries dropped after a change",
+                invalidations, LongAdder::sum);
+        metrics.gauge("registration.cache.entries", "Cached responses", this, cache -> cache.stats().entries());
+        metrics.gauge("registration.cache.bytes", "Bytes of cached response bodies", this, cache -> cache.stats().bytes());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long maxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    /**
+     * Returns the current stamp of a listing; read it before building a response to cache.
+     */
+    public long stamp(Listing listing, int id) {
+        return stamps.get(stripe(listing, id));
+    }
+
+    /**
+     * @return The cached response, or null if there is none or it is stale or expired.
+     */
+    public Entry get(Key key) {
+        if (!enabled) {
+            return null;
+        }
+        Segment segment = segmentFor(key);
+        Entry entry = segment.get(key);
+        if (entry != null) {
+            if (entry.stamp() != stamp(key.listing(), key.id())) {
+                segment.remove(key, entry);
+                invalidations.increment();
+            } else if (System.nanoTime() - entry.createdNanos() > ttlNanos) {
+                segment.remove(key, entry);
+                evictions.increment();
+            } else {
+                hits.increment();
+                return entry;
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Caches a response built under the given stamp.
+     * @param stamp Value of {@link #stamp(Listing, int)} read before the response was built.
+     * @return The entry, whether or not it could be cached.
+     */
+    public Entry put(Key key, byte[] body, long stamp) {
+        Entry entry = new Entry(body, '"' + DigestUtils.md5DigestAsHex(body) + '"', stamp, System.nanoTime());
+        if (enabled && body.length <= maxEntryBytes && stamp == stamp(key.listing(), key.id())) {
+            segmentFor(key).put(key, entry);
+        }
+        return entry;
+    }
+
+    public Stats stats() {
+        int entries = 0;
+        long bytes = 0;
+        for (Segment segment : segments) {
+            entries += segment.size();
+            bytes += segment.bytes();
+        }
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), invalidations.sum(), entries, bytes);
+    }
+
+    private void onApplied(ChangeEvent event) {
+        if (event instanceof ChangeEvent.Registered registered) {
+            invalidate(Listing.STUDENT_COURSES, registered.studentId());
+        } else if (event instanceof ChangeEvent.Dropped dropped) {
+            invalidate(Listing.STUDENT_COURSES, dropped.studentId());
+        } else if (event instanceof ChangeEvent.CourseCreated) {
+            invalidate(Listing.CATALOGUE, 0);
+        } else if (event instanceof ChangeEvent.Transaction transaction) {
+            transaction.changes().forEach(this::onApplied);
+        }
+    }
+
+    private void invalidate(Listing listing, int id) {
+        // Stale entries are dropped lazily by get() or pushed out by newer ones
+        stamps.incrementAndGet(stripe(listing, id));
+    }
+
+    private static int stripe(Listing listing, int id) {
+        int hash = (id * 0x9E3779B9) ^ listing.ordinal();
+        return (hash ^ (hash >>> 16)) & (STAMP_STRIPES - 1);
+    }
+
+    private Segment segmentFor(Key key) {
+        return segments[(key.hashCode() & 0x7fffffff) % SEGMENTS];
+    }
+
+    /**
+     * One LRU partition of the cache with its own byte budget.
+     */
+    private final class Segment {
+
+        private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+        private final long maxBytes;
+        private long bytes;
+
+        Segment(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        synchronized Entry get(Key key) {
+            return entries.get(key);
+        }
+
+        synchronized void put(Key key, Entry entry) {
+            Entry previous = entries.put(key, entry);
+            bytes += entry.body().length - (previous == null ? 0 : previous.body().length);
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (bytes > maxBytes && eldest.hasNext()) {
+                Entry evicted = eldest.next();
+                eldest.remove();
+                bytes -= evicted.body().length;
+                evictions.increment();
+            }
+        }
+
+        synchronized void remove(Key key, Entry entry) {
+            if (entries.remove(key, entry)) {
+                bytes -= entry.body().length;
+            }
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+
+        synchronized long bytes() {
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.zdata.student_course_registration.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "registration.cache")
+public class ResponseCacheProperties {
+
+    private boolean enabled = true;
+    // Total size of the cached response bodies; least recently used entries are evicted beyond it
+    private DataSize maxSize = DataSize.ofMegabytes(64);
+    // Larger responses are streamed instead of cached
+    private DataSize maxEntrySize = DataSize.ofMegabytes(1);
+    // Entries older than this are treated as misses even if nothing changed
+    private Duration ttl = Duration.ofMinutes(5);
+}
@@ -0,0 +1,25 @@
+package com.zdata.student_course_registration.config;
+
+import com.zdata.student_course_registration.index.CompactEnrollmentStore;
+import com.zdata.student_course_registration.index.EnrollmentStore;
+import com.zdata.student_course_registration.index.HashSetEnrollmentStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class EnrollmentStoreConfiguration {
+
+    /**
+     * Selects the enrollment storage layout with {@code registration.enrollment-store}:
+     * {@code compact} (sorted int arrays, default) or {@code hash} (concurrent hash sets).
+     */
+    @Bean
+    public EnrollmentStore enrollmentStore(@Value("${registration.enrollment-store:compact}") String type) {
+        return switch (type) {
+            case "compact" -> new CompactEnrollmentStore();
+            case "hash" -> new HashSetEnrollmentStore();
+            default -> throw new IllegalArgumentException("Unknown registration.enrollment-store '" + type + "'");
+        };
+    }
+}
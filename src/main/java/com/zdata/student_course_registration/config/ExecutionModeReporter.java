@@ -0,0 +1,38 @@
+package com.zdata.student_course_registration.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Logs which threads serve requests. The mode is chosen with Spring Boot's
+ * {@code spring.threads.virtual.enabled}: false uses Tomcat's platform-thread pool, true runs
+ * every request (and async response writing) on its own virtual thread. Boot silently ignores
+ * the property before Java 21, so that case is reported here.
+ */
+@Component
+public class ExecutionModeReporter implements InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutionModeReporter.class);
+
+    private final boolean virtualThreadsRequested;
+
+    public ExecutionModeReporter(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreadsRequested) {
+        this.virtualThreadsRequested = virtualThreadsRequested;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        int javaVersion = Runtime.version().feature();
+        if (!virtualThreadsRequested) {
+            log.info("Serving requests on platform threads");
+        } else if (javaVersion >= 21) {
+            log.info("Serving requests on virtual threads");
+        } else {
+            log.warn("spring.threads.virtual.enabled=true needs Java 21 or later but this is Java {}; "
+                    + "serving requests on platform threads", javaVersion);
+        }
+    }
+}
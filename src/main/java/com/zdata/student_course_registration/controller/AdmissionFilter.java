@@ -0,0 +1,104 @@
+package com.zdata.student_course_registration.controller;
+
+import com.zdata.student_course_registration.admission.AdmissionControl;
+import com.zdata.student_course_registration.admission.AdmissionProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies {@link AdmissionControl} to the student and course endpoints before they reach a controller,
+ * answering rejected requests with 429 (Too Many Requests) and a Retry-After header.
+ * An execution slot is held until the handler returns; streamed listings give it back once streaming starts.
+ */
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Component
+class AdmissionFilter extends OncePerRequestFilter {
+
+    static final String RATE_LIMITED = "Too many requests; retry later.";
+    static final String OVERLOADED = "Server is at capacity; retry later.";
+
+    private final AdmissionControl admission;
+
+    AdmissionFilter(AdmissionControl admission) {
+        this.admission = admission;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !admission.isEnabled() || !isApiPath(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String uri = request.getRequestURI();
+        int studentId = admission.key() == AdmissionProperties.Key.STUDENT ? studentIdOf(uri) : -1;
+        long waitNanos = studentId >= 0
+                ? admission.tryAcquireStudent(studentId)
+                : admission.tryAcquireClient(clientOf(request));
+        if (waitNanos > 0) {
+            reject(response, RATE_LIMITED, uri, retryAfterSeconds(waitNanos));
+            return;
+        }
+        if (!admission.tryEnter()) {
+            reject(response, OVERLOADED, uri, 1);
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            admission.exit();
+        }
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        String header = admission.clientHeader();
+        String client = header.isEmpty() ? null : request.getHeader(header);
+        return client != null ? client : request.getRemoteAddr();
+    }
+
+    private static void reject(HttpServletResponse response, String message, String uri, long retryAfterSeconds)
+            throws IOException {
+        byte[] body = ErrorBodies.TOO_MANY_REQUESTS.body(message, uri);
+        response.setStatus(ErrorBodies.TOO_MANY_REQUESTS.status().value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    static boolean isApiPath(String path) {
+        return path.startsWith("/students") || path.startsWith("/courses");
+    }
+
+    /**
+     * @return The student ID of a /students/{id}/... path, or -1 if the path names no student.
+     */
+    static int studentIdOf(String path) {
+        int start = "/students/".length();
+        if (!path.startsWith("/students/")) {
+            return -1;
+        }
+        int id = 0;
+        int at = start;
+        while (at < path.length() && path.charAt(at) >= '0' && path.charAt(at) <= '9' && at - start < 9) {
+            id = id * 10 + (path.charAt(at++) - '0');
+        }
+        boolean complete = at > start && (at == path.length() || path.charAt(at) == '/');
+        return complete ? id : -1;
+    }
+
+    static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+}
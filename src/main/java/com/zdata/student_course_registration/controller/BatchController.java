@@ -0,0 +1,122 @@
+package com.zdata.student_course_registration.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zdata.student_course_registration.dto.BatchItemResult;
+import com.zdata.student_course_registration.dto.CourseCreateRequest;
+import com.zdata.student_course_registration.dto.RegistrationRequest;
+import com.zdata.student_course_registration.dto.StudentCreateRequest;
+import com.zdata.student_course_registration.service.BatchImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+/**
+ * Bulk import endpoints. Each accepts either a JSON array or NDJSON (one object per line)
+ * and streams back one BatchItemResult per item in the same format, without buffering the
+ * whole request or response.
+ */
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RestController
+public class BatchController {
+
+    private final BatchImportService batchImportService;
+    private final ObjectMapper objectMapper;
+
+    public BatchController(BatchImportService batchImportService, ObjectMapper objectMapper) {
+        this.batchImportService = batchImportService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * POST /students:batch – Register many students
+     * @param request JSON array or NDJSON stream of StudentCreateRequest
+     * @param response Streamed BatchItemResult per item with HTTP Status 200 (OK)
+     */
+    @PostMapping(value = "/students:batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public void importStudents(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        runBatch(request, response, StudentCreateRequest.class, batchImportService::importStudents);
+    }
+
+    /**
+     * POST /courses:batch – Add many courses
+     * @param request JSON array or NDJSON stream of CourseCreateRequest
+     * @param response Streamed BatchItemResult per item with HTTP Status 200 (OK)
+     */
+    @PostMapping(value = "/courses:batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public void importCourses(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        runBatch(request, response, CourseCreateRequest.class, batchImportService::importCourses);
+    }
+
+    /**
+     * POST /students/registrations:batch – Register many students for courses
+     * @param request JSON array or NDJSON stream of RegistrationRequest
+     * @param response Streamed BatchItemResult per item with HTTP Status 200 (OK)
+     */
+    @PostMapping(value = "/students/registrations:batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public void importRegistrations(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        runBatch(request, response, RegistrationRequest.class, batchImportService::importRegistrations);
+    }
+
+    @FunctionalInterface
+    private interface BatchImport<T> {
+        int run(Iterator<T> items, Consumer<BatchItemResult> results);
+    }
+
+    private <T> void runBatch(HttpServletRequest request, HttpServletResponse response,
+                              Class<T> itemType, BatchImport<T> batchImport) throws IOException {
+        boolean ndjson = request.getContentType() != null
+                && MediaType.APPLICATION_NDJSON.isCompatibleWith(MediaType.parseMediaType(request.getContentType()));
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(ndjson ? MediaType.APPLICATION_NDJSON_VALUE : MediaType.APPLICATION_JSON_VALUE);
+
+        // readValues iterates the elements of a root-level array as well as a sequence of root-level objects
+        try (MappingIterator<T> items = objectMapper.readerFor(itemType).readValues(request.getInputStream());
+             JsonGenerator out = objectMapper.createGenerator(response.getOutputStream())) {
+            if (ndjson) {
+                out.setRootValueSeparator(new SerializedString("\n"));
+            } else {
+                out.writeStartArray();
+            }
+
+            int[] written = new int[1];
+            Consumer<BatchItemResult> writer = result -> {
+                try {
+                    out.writeObject(result);
+                    written[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            };
+            try {
+                batchImport.run(items, writer);
+            } catch (RuntimeException e) {
+                // MappingIterator wraps parse errors; the response is already streaming,
+                // so a malformed item is reported as a final result instead of an error status
+                if (!(e.getCause() instanceof JsonProcessingException cause)) {
+                    throw e;
+                }
+                writer.accept(new BatchItemResult(written[0], HttpStatus.BAD_REQUEST.value(), null,
+                        "Malformed batch item: " + cause.getOriginalMessage()));
+            }
+
+            if (ndjson) {
+                out.writeRaw('\n');
+            } else {
+                out.writeEndArray();
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.zdata.student_course_registration.controller;
+
+import com.zdata.student_course_registration.cache.ResponseCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class CacheController {
+
+    private final ResponseCache responseCache;
+
+    public CacheController(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    /**
+     * GET /cache/stats – Hit, miss, eviction and invalidation counts of the response cache
+     * @return ResponseEntity with ResponseCache.Stats and HTTP Status 200 (OK)
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<ResponseCache.Stats> getStats() {
+        return ResponseEntity.ok(responseCache.stats());
+    }
+}
@@ -1,43 +1,147 @@
 package com.zdata.student_course_registration.controller;
 
+import com.zdata.student_course_registration.cache.ResponseCache;
 import com.zdata.student_course_registration.dto.CourseCreateRequest;
+import com.zdata.student_course_registration.dto.CourseQuery;
 import com.zdata.student_course_registration.dto.CourseResponse;
+import com.zdata.student_course_registration.dto.EnrollmentCountResponse;
+import com.zdata.student_course_registration.dto.PageResponse;
+import com.zdata.student_course_registration.dto.SeatAvailability;
+import com.zdata.student_course_registration.dto.StudentResponse;
+import com.zdata.student_course_registration.feed.SeatAvailabilityFeed;
+import com.zdata.student_course_registration.idempotency.IdempotencyStore;
 import com.zdata.student_course_registration.service.CourseService;
+import com.zdata.student_course_registration.service.RegistrationService;
 import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
 import java.util.List;
 
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RestController
 @RequestMapping("/courses")
 public class CourseController {
 
     private final CourseService courseService;
+    private final RegistrationService registrationService;
+    private final ListingResponses listingResponses;
+    private final IdempotencyStore idempotencyStore;
+    private final SeatAvailabilityFeed seatFeed;
 
-    public CourseController(CourseService courseService) {
+    public CourseController(CourseService courseService, RegistrationService registrationService,
+                            ListingResponses listingResponses, IdempotencyStore idempotencyStore,
+                            SeatAvailabilityFeed seatFeed) {
         this.courseService = courseService;
+        this.registrationService = registrationService;
+        this.listingResponses = listingResponses;
+        this.idempotencyStore = idempotencyStore;
+        this.seatFeed = seatFeed;
     }
 
     /**
      * POST /courses – Add a new course
      * @param request CourseCreateRequest DTO
+     * @param idempotencyKey Optional key under which the outcome is replayed to retries
      * @return ResponseEntity with CourseResponse and HTTP Status 201 (Created)
      */
     @PostMapping
-    public ResponseEntity<CourseResponse> addCourse(@Valid @RequestBody CourseCreateRequest request) {
-        CourseResponse course = courseService.addCourse(request);
+    public ResponseEntity<CourseResponse> addCourse(
+            @Valid @RequestBody CourseCreateRequest request,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        CourseResponse course = idempotencyStore.execute(idempotencyKey, request, () -> courseService.addCourse(request));
         return new ResponseEntity<>(course, HttpStatus.CREATED);
     }
 
     /**
      * GET /courses – List all courses
-     * @return ResponseEntity with a list of CourseResponse and HTTP Status 200 (OK)
+     * Served from the response cache with an ETag, or streamed record by record if too large to cache;
+     * as a JSON array, or as NDJSON when the client accepts application/x-ndjson.
+     * @param accept Accept header of the request
+     * @param ifNoneMatch ETag of a previously received response
+     * @return ResponseEntity with the list of CourseResponse and HTTP Status 200 (OK), or 304 (Not Modified)
+     */
+    @GetMapping(params = {"!after", "!limit", "!instructor", "!codePrefix", "!q", "!available"})
+    public ResponseEntity<StreamingResponseBody> listAllCourses(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws IOException {
+        return listingResponses.respond(ResponseCache.Listing.CATALOGUE, 0, accept, ifNoneMatch,
+                courseService::streamCourses);
+    }
+
+    /**
+     * GET /courses?after=&limit=&instructor=&codePrefix=&q=&available= – List or search courses one page at a time
+     * Without search parameters every course is listed; otherwise only courses matching all given ones.
+     * @param after Return only courses with an ID greater than this (cursor from the previous page)
+     * @param limit Maximum number of courses per page
+     * @param query Instructor (exact), code prefix, title words (all of them) and whether a seat is free, all case-insensitive
+     * @return ResponseEntity with a page of CourseResponse and HTTP Status 200 (OK)
      */
     @GetMapping
-    public ResponseEntity<List<CourseResponse>> listAllCourses() {
-        List<CourseResponse> courses = courseService.listAllCourses();
-        return ResponseEntity.ok(courses);
+    public ResponseEntity<PageResponse<CourseResponse>> getCourses(
+            @RequestParam(required = false) Integer after,
+            @RequestParam(defaultValue = "" + PageResponse.DEFAULT_LIMIT) int limit,
+            CourseQuery query) {
+        if (query.isEmpty()) {
+            return ResponseEntity.ok(courseService.getCourses(after, limit));
+        }
+        return ResponseEntity.ok(registrationService.searchCourses(query, after, limit));
+    }
+
+    /**
+     * GET /courses/by-code?code= – Look up a course by code
+     * @param code Code of the course (case-insensitive)
+     * @return ResponseEntity with CourseResponse and HTTP Status 200 (OK)
+     */
+    @GetMapping("/by-code")
+    public ResponseEntity<CourseResponse> getCourseByCode(@RequestParam String code) {
+        return ResponseEntity.ok(courseService.getCourseByCode(code));
+    }
+
+    /**
+     * GET /courses/{courseId}/students?after=&limit= – List students enrolled in a course
+     * @param courseId Path variable for course ID
+     * @param after Return only students with an ID greater than this (cursor from the previous page)
+     * @param limit Maximum number of students per page
+     * @return ResponseEntity with a page of StudentResponse and HTTP Status 200 (OK)
+     */
+    @GetMapping("/{courseId}/students")
+    public ResponseEntity<PageResponse<StudentResponse>> getCourseRoster(
+            @PathVariable Integer courseId,
+            @RequestParam(required = false) Integer after,
+            @RequestParam(defaultValue = "" + PageResponse.DEFAULT_LIMIT) int limit) {
+        return ResponseEntity.ok(registrationService.getCourseRoster(courseId, after, limit));
+    }
+
+    /**
+     * GET /courses/{courseId}/enrollment-count – Number of students enrolled in a course
+     * @param courseId Path variable for course ID
+     * @return ResponseEntity with EnrollmentCountResponse and HTTP Status 200 (OK)
+     */
+    @GetMapping("/{courseId}/enrollment-count")
+    public ResponseEntity<EnrollmentCountResponse> getEnrollmentCount(@PathVariable Integer courseId) {
+        return ResponseEntity.ok(registrationService.getEnrollmentCount(courseId));
+    }
+
+    /**
+     * GET /courses/availability – Stream seat availability as Server-Sent Events
+     * The first event holds every course, or only those that changed after Last-Event-ID when resuming;
+     * later events hold the courses whose seats changed, each at most once per flush interval.
+     * @param lastEventId ID of the last event received before reconnecting
+     * @return Stream of seat availability events, each a list of SeatAvailability
+     */
+    @GetMapping(value = "/availability", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<List<SeatAvailability>>> streamAvailability(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return seatFeed.subscribe(lastEventId);
     }
 }
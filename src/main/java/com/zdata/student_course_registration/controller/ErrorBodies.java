@@ -0,0 +1,131 @@
+package com.zdata.student_course_registration.controller;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Pre-templated JSON error bodies for the domain exceptions and admission rejections, with the same
+ * fields as the map-based bodies of the other handlers: {@code timestamp}, {@code status},
+ * {@code error}, {@code message} and {@code path}. Rejections such as duplicate registrations or
+ * full courses are frequent, so their bodies are assembled from constant byte fragments into one
+ * exactly sized array instead of going through a map and reflective serialization.
+ */
+final class ErrorBodies {
+
+    static final ErrorBodies NOT_FOUND = new ErrorBodies(HttpStatus.NOT_FOUND);
+    static final ErrorBodies CONFLICT = new ErrorBodies(HttpStatus.CONFLICT);
+    static final ErrorBodies BAD_REQUEST = new ErrorBodies(HttpStatus.BAD_REQUEST);
+    static final ErrorBodies TOO_MANY_REQUESTS = new ErrorBodies(HttpStatus.TOO_MANY_REQUESTS);
+    static final ErrorBodies SERVICE_UNAVAILABLE = new ErrorBodies(HttpStatus.SERVICE_UNAVAILABLE);
+
+    private static final HttpHeaders JSON_HEADERS;
+
+    static {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        JSON_HEADERS = HttpHeaders.readOnlyHttpHeaders(headers);
+    }
+
+    private static final byte[] OPEN = ascii("{\"timestamp\":\"");
+    private static final byte[] PATH = ascii("\",\"path\":\"uri=");
+    private static final byte[] CLOSE = ascii("\"}");
+
+    // Formatting the clock is as expensive as the rest of the body, so it is done once per millisecond
+    private static volatile Timestamp timestamp = new Timestamp(0, new byte[0]);
+
+    private record Timestamp(long millis, byte[] text) {
+    }
+
+    private final HttpStatus status;
+    private final byte[] statusFields;
+
+    private ErrorBodies(HttpStatus status) {
+        this.status = status;
+        this.statusFields = ascii("\",\"status\":" + status.value() + ",\"error\":\"" + status.getReasonPhrase()
+                + "\",\"message\":\"");
+    }
+
+    /**
+     * @param message Exception message, escaped as needed.
+     * @param uri Request URI, reported as {@code uri=<uri>} like {@code WebRequest.getDescription(false)}.
+     * @return Response with this status and the serialized body.
+     */
+    ResponseEntity<byte[]> response(String message, String uri) {
+        return new ResponseEntity<>(body(message, uri), JSON_HEADERS, status);
+    }
+
+    HttpStatus status() {
+        return status;
+    }
+
+    /**
+     * @return The serialized body, for callers that write the response themselves.
+     */
+    byte[] body(String message, String uri) {
+        byte[] time = now();
+        int messageLength = plainLength(message);
+        byte[] escapedMessage = messageLength < 0 ? JsonStringEncoder.getInstance().quoteAsUTF8(message) : null;
+        int uriLength = plainLength(uri);
+        byte[] escapedUri = uriLength < 0 ? JsonStringEncoder.getInstance().quoteAsUTF8(uri) : null;
+
+        byte[] body = new byte[OPEN.length + time.length + statusFields.length
+                + (escapedMessage != null ? escapedMessage.length : messageLength)
+                + PATH.length + (escapedUri != null ? escapedUri.length : uriLength) + CLOSE.length];
+        int at = copy(OPEN, body, 0);
+        at = copy(time, body, at);
+        at = copy(statusFields, body, at);
+        at = escapedMessage != null ? copy(escapedMessage, body, at) : copyPlain(message, body, at);
+        at = copy(PATH, body, at);
+        at = escapedUri != null ? copy(escapedUri, body, at) : copyPlain(uri, body, at);
+        copy(CLOSE, body, at);
+        return body;
+    }
+
+    private static byte[] now() {
+        long millis = System.currentTimeMillis();
+        Timestamp current = timestamp;
+        if (current.millis() != millis) {
+            String text = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+            current = new Timestamp(millis, ascii(text));
+            timestamp = current;
+        }
+        return current.text();
+    }
+
+    /**
+     * @return Length of the text if it is printable ASCII that needs no JSON escaping, otherwise -1.
+     */
+    private static int plainLength(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x20 || c >= 0x7f || c == '"' || c == '\\') {
+                return -1;
+            }
+        }
+        return text.length();
+    }
+
+    private static int copyPlain(String text, byte[] target, int at) {
+        for (int i = 0; i < text.length(); i++) {
+            target[at++] = (byte) text.charAt(i);
+        }
+        return at;
+    }
+
+    private static int copy(byte[] source, byte[] target, int at) {
+        System.arraycopy(source, 0, target, at, source.length);
+        return at + source.length;
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
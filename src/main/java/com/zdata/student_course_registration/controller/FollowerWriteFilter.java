@@ -0,0 +1,52 @@
+package com.zdata.student_course_registration.controller;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Rejects writes on a replication follower with 503 (Service Unavailable): its state only changes
+ * through the leader's change log, so writes have to go to the leader.
+ */
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "registration.replication", name = "role", havingValue = "follower")
+@Component
+class FollowerWriteFilter extends OncePerRequestFilter {
+
+    static final String READ_ONLY = "This instance is a read-only follower; send writes to the leader.";
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !isWrite(HttpMethod.valueOf(request.getMethod()), request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        byte[] body = ErrorBodies.SERVICE_UNAVAILABLE.body(READ_ONLY, request.getRequestURI());
+        response.setStatus(ErrorBodies.SERVICE_UNAVAILABLE.status().value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    static boolean isWrite(HttpMethod method, String path) {
+        if (method == HttpMethod.GET || method == HttpMethod.HEAD || method == HttpMethod.OPTIONS) {
+            return false;
+        }
+        // A POST only because the courses to check are sent as a body
+        if (path.endsWith("/timetable/check")) {
+            return false;
+        }
+        return AdmissionFilter.isApiPath(path) || path.startsWith("/registrations");
+    }
+}
@@ -3,7 +3,15 @@ package com.zdata.student_course_registration.controller;
 import com.zdata.student_course_registration.exception.BadRequestException;
 import com.zdata.student_course_registration.exception.ConflictException;
 import com.zdata.student_course_registration.exception.ResourceNotFoundException;
+import com.zdata.student_course_registration.exception.ServiceUnavailableException;
+import com.zdata.student_course_registration.exception.TooManyRequestsException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -14,9 +22,12 @@ import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @ControllerAdvice // This annotation makes it a global exception handler
 public class GlobalExceptionHandler {
 
+    private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+
     // Handles validation errors from @Valid annotation
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Object> handleValidationExceptions(
@@ -37,50 +48,48 @@ public class GlobalExceptionHandler {
 
     // Handles custom ResourceNotFoundException
     @ExceptionHandler(ResourceNotFoundException.class)
-    public ResponseEntity<Object> handleResourceNotFoundException(
-            ResourceNotFoundException ex, WebRequest request) {
-        Map<String, Object> body = new HashMap<>();
-        body.put("timestamp", LocalDateTime.now());
-        body.put("status", HttpStatus.NOT_FOUND.value());
-        body.put("error", "Not Found");
-        body.put("message", ex.getMessage());
-        body.put("path", request.getDescription(false));
-
-        return new ResponseEntity<>(body, HttpStatus.NOT_FOUND);
+    public ResponseEntity<byte[]> handleResourceNotFoundException(
+            ResourceNotFoundException ex, HttpServletRequest request) {
+        return ErrorBodies.NOT_FOUND.response(ex.getMessage(), request.getRequestURI());
     }
 
     // Handles custom ConflictException
     @ExceptionHandler(ConflictException.class)
-    public ResponseEntity<Object> handleConflictException(
-            ConflictException ex, WebRequest request) {
-        Map<String, Object> body = new HashMap<>();
-        body.put("timestamp", LocalDateTime.now());
-        body.put("status", HttpStatus.CONFLICT.value());
-        body.put("error", "Conflict");
-        body.put("message", ex.getMessage());
-        body.put("path", request.getDescription(false));
-
-        return new ResponseEntity<>(body, HttpStatus.CONFLICT);
+    public ResponseEntity<byte[]> handleConflictException(
+            ConflictException ex, HttpServletRequest request) {
+        return ErrorBodies.CONFLICT.response(ex.getMessage(), request.getRequestURI());
     }
 
     // Handles custom BadRequestException
     @ExceptionHandler(BadRequestException.class)
-    public ResponseEntity<Object> handleBadRequestException(
-            BadRequestException ex, WebRequest request) {
-        Map<String, Object> body = new HashMap<>();
-        body.put("timestamp", LocalDateTime.now());
-        body.put("status", HttpStatus.BAD_REQUEST.value());
-        body.put("error", "Bad Request");
-        body.put("message", ex.getMessage());
-        body.put("path", request.getDescription(false));
+    public ResponseEntity<byte[]> handleBadRequestException(
+            BadRequestException ex, HttpServletRequest request) {
+        return ErrorBodies.BAD_REQUEST.response(ex.getMessage(), request.getRequestURI());
+    }
 
-        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+    // Handles custom TooManyRequestsException, raised when a bounded queue is full
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<byte[]> handleTooManyRequestsException(
+            TooManyRequestsException ex, HttpServletRequest request) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(ErrorBodies.TOO_MANY_REQUESTS.body(ex.getMessage(), request.getRequestURI()));
+    }
+
+    // Handles custom ServiceUnavailableException, raised when work is cut short by a shutdown or a timeout
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<byte[]> handleServiceUnavailableException(
+            ServiceUnavailableException ex, HttpServletRequest request) {
+        return ErrorBodies.SERVICE_UNAVAILABLE.response(ex.getMessage(), request.getRequestURI());
     }
 
     // Handles all other unhandled exceptions
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Object> handleGlobalException(
             Exception ex, WebRequest request) {
+        // Expected failures are counted per service method; anything reaching this handler is a bug
+        log.error("Unhandled exception for {}", request.getDescription(false), ex);
         Map<String, Object> body = new HashMap<>();
         body.put("timestamp", LocalDateTime.now());
         body.put("status", HttpStatus.INTERNAL_SERVER_ERROR.value());
@@ -0,0 +1,125 @@
+package com.zdata.student_course_registration.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes full listings straight from the stores to the response, one record at a time,
+ * so memory per response stays constant regardless of the number of records.
+ */
+final class JsonStreams {
+
+    private JsonStreams() {
+    }
+
+    /**
+     * @param objectMapper Mapper used to serialize each record.
+     * @param ndjson Write NDJSON instead of a JSON array.
+     * @param records Lazily evaluated records; consumed on the async response thread.
+     * @return ResponseEntity with a chunked JSON array or NDJSON body and HTTP Status 200 (OK)
+     */
+    static ResponseEntity<StreamingResponseBody> stream(ObjectMapper objectMapper, boolean ndjson, Stream<?> records) {
+        StreamingResponseBody body = outputStream -> write(objectMapper, ndjson, records, outputStream);
+        return ResponseEntity.ok().contentType(mediaType(ndjson)).body(body);
+    }
+
+    /**
+     * Serializes the records into memory, giving up once the output exceeds maxBytes.
+     * @return The serialized listing, or null if it is larger than maxBytes.
+     */
+    static byte[] serialize(ObjectMapper objectMapper, boolean ndjson, Stream<?> records, long maxBytes)
+            throws IOException {
+        BoundedBuffer buffer = new BoundedBuffer(maxBytes);
+        try {
+            write(objectMapper, ndjson, records, buffer);
+        } catch (BoundedBuffer.Overflow e) {
+            return null;
+        }
+        return buffer.toByteArray();
+    }
+
+    static void write(ObjectMapper objectMapper, boolean ndjson, Stream<?> records, OutputStream outputStream)
+            throws IOException {
+        try (records; JsonGenerator out = objectMapper.createGenerator(outputStream)) {
+            if (ndjson) {
+                out.setRootValueSeparator(new SerializedString("\n"));
+            } else {
+                out.writeStartArray();
+            }
+            Iterator<?> iterator = records.iterator();
+            while (iterator.hasNext()) {
+                out.writeObject(iterator.next());
+            }
+            if (ndjson) {
+                out.writeRaw('\n');
+            } else {
+                out.writeEndArray();
+            }
+        }
+    }
+
+    static MediaType mediaType(boolean ndjson) {
+        return ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON;
+    }
+
+    /**
+     * @param accept Accept header of the request.
+     * @return true if the client asks for application/x-ndjson.
+     */
+    static boolean wantsNdjson(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return false;
+        }
+        try {
+            return MediaType.parseMediaTypes(accept).stream()
+                    .anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static final class BoundedBuffer extends ByteArrayOutputStream {
+
+        // Thrown through the generator to abort serialization; carries no stack trace
+        private static final class Overflow extends RuntimeException {
+            Overflow() {
+                super(null, null, false, false);
+            }
+        }
+
+        private final long maxBytes;
+
+        BoundedBuffer(long maxBytes) {
+            super((int) Math.min(maxBytes, 8192));
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            ensureRoom(length);
+            super.write(bytes, offset, length);
+        }
+
+        @Override
+        public void write(int b) {
+            ensureRoom(1);
+            super.write(b);
+        }
+
+        private void ensureRoom(int length) {
+            if (count + (long) length > maxBytes) {
+                throw new Overflow();
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.zdata.student_course_registration.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zdata.student_course_registration.cache.ResponseCache;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Serves full listings from the {@link ResponseCache} when possible and streams them otherwise.
+ * Cached responses carry a strong ETag, so a matching If-None-Match is answered with 304.
+ */
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Component
+class ListingResponses {
+
+    private final ObjectMapper objectMapper;
+    private final ResponseCache responseCache;
+
+    ListingResponses(ObjectMapper objectMapper, ResponseCache responseCache) {
+        this.objectMapper = objectMapper;
+        this.responseCache = responseCache;
+    }
+
+    /**
+     * Streams a listing that is never cached.
+     * @param accept Accept header of the request; NDJSON is written if it asks for application/x-ndjson.
+     * @param records Lazily evaluated records.
+     * @return ResponseEntity with the listing and HTTP Status 200 (OK)
+     */
+    ResponseEntity<StreamingResponseBody> stream(String accept, Stream<?> records) {
+        return JsonStreams.stream(objectMapper, JsonStreams.wantsNdjson(accept), records);
+    }
+
+    /**
+     * @param listing Which listing is requested.
+     * @param id ID of the listing's owner, 0 for the catalogue.
+     * @param accept Accept header of the request; NDJSON is written if it asks for application/x-ndjson.
+     * @param ifNoneMatch If-None-Match header of the request.
+     * @param records Builds the lazily evaluated records; may be called twice and may throw
+     *                e.g. ResourceNotFoundException before anything is written.
+     * @return ResponseEntity with the listing and HTTP Status 200 (OK), or 304 (Not Modified)
+     */
+    ResponseEntity<StreamingResponseBody> respond(ResponseCache.Listing listing, int id, String accept,
+                                                  String ifNoneMatch, Supplier<Stream<?>> records) throws IOException {
+        boolean ndjson = JsonStreams.wantsNdjson(accept);
+        if (!responseCache.isEnabled()) {
+            return JsonStreams.stream(objectMapper, ndjson, records.get());
+        }
+
+        ResponseCache.Key key = new ResponseCache.Key(listing, id, ndjson);
+        ResponseCache.Entry entry = responseCache.get(key);
+        if (entry == null) {
+            // Read the stamp first, so a change racing with serialization makes the entry stale
+            long stamp = responseCache.stamp(listing, id);
+            byte[] body = JsonStreams.serialize(objectMapper, ndjson, records.get(), responseCache.maxEntryBytes());
+            if (body == null) {
+                return JsonStreams.stream(objectMapper, ndjson, records.get());
+            }
+            entry = responseCache.put(key, body, stamp);
+        }
+
+        if (matches(ifNoneMatch, entry.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(entry.etag()).build();
+        }
+        byte[] body = entry.body();
+        return ResponseEntity.ok()
+                .contentType(JsonStreams.mediaType(ndjson))
+                .contentLength(body.length)
+                .eTag(entry.etag())
+                .body(outputStream -> outputStream.write(body));
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
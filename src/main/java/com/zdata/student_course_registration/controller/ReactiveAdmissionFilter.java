@@ -0,0 +1,76 @@
+package com.zdata.student_course_registration.controller;
+
+import com.zdata.student_course_registration.admission.AdmissionControl;
+import com.zdata.student_course_registration.admission.AdmissionProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+/**
+ * WebFlux counterpart of {@link AdmissionFilter}. An execution slot is held until the response completes,
+ * except for the seat availability stream.
+ */
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Component
+class ReactiveAdmissionFilter implements WebFilter {
+
+    private static final String AVAILABILITY_STREAM = "/courses/availability";
+
+    private final AdmissionControl admission;
+
+    ReactiveAdmissionFilter(AdmissionControl admission) {
+        this.admission = admission;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String path = exchange.getRequest().getPath().value();
+        if (!admission.isEnabled() || !AdmissionFilter.isApiPath(path)) {
+            return chain.filter(exchange);
+        }
+        int studentId = admission.key() == AdmissionProperties.Key.STUDENT ? AdmissionFilter.studentIdOf(path) : -1;
+        long waitNanos = studentId >= 0
+                ? admission.tryAcquireStudent(studentId)
+                : admission.tryAcquireClient(clientOf(exchange.getRequest()));
+        if (waitNanos > 0) {
+            return reject(exchange.getResponse(), AdmissionFilter.RATE_LIMITED, path,
+                    AdmissionFilter.retryAfterSeconds(waitNanos));
+        }
+        // An event stream stays open for as long as the client listens, so it is rate limited but holds no slot
+        if (path.equals(AVAILABILITY_STREAM)) {
+            return chain.filter(exchange);
+        }
+        if (!admission.tryEnter()) {
+            return reject(exchange.getResponse(), AdmissionFilter.OVERLOADED, path, 1);
+        }
+        return Mono.defer(() -> chain.filter(exchange)).doFinally(signal -> admission.exit());
+    }
+
+    private String clientOf(ServerHttpRequest request) {
+        String header = admission.clientHeader();
+        String client = header.isEmpty() ? null : request.getHeaders().getFirst(header);
+        if (client != null) {
+            return client;
+        }
+        InetSocketAddress remote = request.getRemoteAddress();
+        return remote == null ? "" : remote.getHostString();
+    }
+
+    private static Mono<Void> reject(ServerHttpResponse response, String message, String path, long retryAfterSeconds) {
+        byte[] body = ErrorBodies.TOO_MANY_REQUESTS.body(message, path);
+        response.setStatusCode(ErrorBodies.TOO_MANY_REQUESTS.status());
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().setContentLength(body.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+}
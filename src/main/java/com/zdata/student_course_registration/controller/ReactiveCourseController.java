@@ -0,0 +1,137 @@
+package com.zdata.student_course_registration.controller;
+
+import com.zdata.student_course_registration.dto.CourseCreateRequest;
+import com.zdata.student_course_registration.dto.CourseQuery;
+import com.zdata.student_course_registration.dto.CourseResponse;
+import com.zdata.student_course_registration.dto.EnrollmentCountResponse;
+import com.zdata.student_course_registration.dto.PageResponse;
+import com.zdata.student_course_registration.dto.SeatAvailability;
+import com.zdata.student_course_registration.dto.StudentResponse;
+import com.zdata.student_course_registration.feed.SeatAvailabilityFeed;
+import com.zdata.student_course_registration.idempotency.IdempotencyStore;
+import com.zdata.student_course_registration.service.ReactiveCourseService;
+import com.zdata.student_course_registration.service.ReactiveRegistrationService;
+import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of {@link CourseController}, active with spring.main.web-application-type=reactive.
+ */
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RestController
+@RequestMapping("/courses")
+public class ReactiveCourseController {
+
+    private final ReactiveCourseService courseService;
+    private final ReactiveRegistrationService registrationService;
+    private final IdempotencyStore idempotencyStore;
+    private final SeatAvailabilityFeed seatFeed;
+
+    public ReactiveCourseController(ReactiveCourseService courseService, ReactiveRegistrationService registrationService,
+                                    IdempotencyStore idempotencyStore, SeatAvailabilityFeed seatFeed) {
+        this.courseService = courseService;
+        this.registrationService = registrationService;
+        this.idempotencyStore = idempotencyStore;
+        this.seatFeed = seatFeed;
+    }
+
+    /**
+     * POST /courses – Add a new course
+     * @param request CourseCreateRequest DTO
+     * @param idempotencyKey Optional key under which the outcome is replayed to retries
+     * @return CourseResponse with HTTP Status 201 (Created)
+     */
+    @PostMapping
+    public Mono<ResponseEntity<CourseResponse>> addCourse(
+            @Valid @RequestBody CourseCreateRequest request,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.executeReactive(idempotencyKey, request, () -> courseService.addCourse(request))
+                .map(course -> new ResponseEntity<>(course, HttpStatus.CREATED));
+    }
+
+    /**
+     * GET /courses – List all courses
+     * Streamed with backpressure as a JSON array, or as NDJSON when the client accepts application/x-ndjson.
+     * @return Flux of CourseResponse with HTTP Status 200 (OK)
+     */
+    @GetMapping(params = {"!after", "!limit", "!instructor", "!codePrefix", "!q", "!available"}, produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<CourseResponse> listAllCourses() {
+        return courseService.streamCourses();
+    }
+
+    /**
+     * GET /courses?after=&limit=&instructor=&codePrefix=&q=&available= – List or search courses one page at a time
+     * Without search parameters every course is listed; otherwise only courses matching all given ones.
+     * @param after Return only courses with an ID greater than this (cursor from the previous page)
+     * @param limit Maximum number of courses per page
+     * @param query Instructor (exact), code prefix, title words (all of them) and whether a seat is free, all case-insensitive
+     * @return Page of CourseResponse with HTTP Status 200 (OK)
+     */
+    @GetMapping
+    public Mono<PageResponse<CourseResponse>> getCourses(
+            @RequestParam(required = false) Integer after,
+            @RequestParam(defaultValue = "" + PageResponse.DEFAULT_LIMIT) int limit,
+            CourseQuery query) {
+        if (query.isEmpty()) {
+            return courseService.getCourses(after, limit);
+        }
+        return registrationService.searchCourses(query, after, limit);
+    }
+
+    /**
+     * GET /courses/by-code?code= – Look up a course by code
+     * @param code Code of the course (case-insensitive)
+     * @return CourseResponse with HTTP Status 200 (OK)
+     */
+    @GetMapping("/by-code")
+    public Mono<CourseResponse> getCourseByCode(@RequestParam String code) {
+        return courseService.getCourseByCode(code);
+    }
+
+    /**
+     * GET /courses/{courseId}/students?after=&limit= – List students enrolled in a course
+     * @param courseId Path variable for course ID
+     * @param after Return only students with an ID greater than this (cursor from the previous page)
+     * @param limit Maximum number of students per page
+     * @return Page of StudentResponse with HTTP Status 200 (OK)
+     */
+    @GetMapping("/{courseId}/students")
+    public Mono<PageResponse<StudentResponse>> getCourseRoster(
+            @PathVariable Integer courseId,
+            @RequestParam(required = false) Integer after,
+            @RequestParam(defaultValue = "" + PageResponse.DEFAULT_LIMIT) int limit) {
+        return registrationService.getCourseRoster(courseId, after, limit);
+    }
+
+    /**
+     * GET /courses/{courseId}/enrollment-count – Number of students enrolled in a course
+     * @param courseId Path variable for course ID
+     * @return EnrollmentCountResponse with HTTP Status 200 (OK)
+     */
+    @GetMapping("/{courseId}/enrollment-count")
+    public Mono<EnrollmentCountResponse> getEnrollmentCount(@PathVariable Integer courseId) {
+        return registrationService.getEnrollmentCount(courseId);
+    }
+
+    /**
+     * GET /courses/availability – Stream seat availability as Server-Sent Events
+     * The first event holds every course, or only those that changed after Last-Event-ID when resuming;
+     * later events hold the courses whose seats changed, each at most once per flush interval.
+     * @param lastEventId ID of the last event received before reconnecting
+     * @return Stream of seat availability events, each a list of SeatAvailability
+     */
+    @GetMapping(value = "/availability", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<List<SeatAvailability>>> streamAvailability(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return seatFeed.subscribe(lastEventId);
+    }
+}
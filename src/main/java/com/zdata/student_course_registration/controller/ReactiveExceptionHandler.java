@@ -0,0 +1,96 @@
+package com.zdata.student_course_registration.controller;
+
+import com.zdata.student_course_registration.exception.BadRequestException;
+import com.zdata.student_course_registration.exception.ConflictException;
+import com.zdata.student_course_registration.exception.ResourceNotFoundException;
+import com.zdata.student_course_registration.exception.ServiceUnavailableException;
+import com.zdata.student_course_registration.exception.TooManyRequestsException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * WebFlux counterpart of {@link GlobalExceptionHandler}, producing the same error bodies.
+ */
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@ControllerAdvice
+public class ReactiveExceptionHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveExceptionHandler.class);
+
+    // Handles validation errors from @Valid annotation
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<Object> handleValidationExceptions(WebExchangeBindException ex) {
+        Map<String, String> errors = new HashMap<>();
+        ex.getBindingResult().getFieldErrors().forEach(error ->
+                errors.put(error.getField(), error.getDefaultMessage()));
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.BAD_REQUEST.value());
+        body.put("error", "Bad Request");
+        body.put("message", "Validation failed");
+        body.put("details", errors);
+
+        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<byte[]> handleResourceNotFoundException(ResourceNotFoundException ex, ServerWebExchange exchange) {
+        return ErrorBodies.NOT_FOUND.response(ex.getMessage(), exchange.getRequest().getPath().value());
+    }
+
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<byte[]> handleConflictException(ConflictException ex, ServerWebExchange exchange) {
+        return ErrorBodies.CONFLICT.response(ex.getMessage(), exchange.getRequest().getPath().value());
+    }
+
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<byte[]> handleBadRequestException(BadRequestException ex, ServerWebExchange exchange) {
+        return ErrorBodies.BAD_REQUEST.response(ex.getMessage(), exchange.getRequest().getPath().value());
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<byte[]> handleTooManyRequestsException(TooManyRequestsException ex, ServerWebExchange exchange) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(ErrorBodies.TOO_MANY_REQUESTS.body(ex.getMessage(), exchange.getRequest().getPath().value()));
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<byte[]> handleServiceUnavailableException(ServiceUnavailableException ex,
+                                                                    ServerWebExchange exchange) {
+        return ErrorBodies.SERVICE_UNAVAILABLE.response(ex.getMessage(), exchange.getRequest().getPath().value());
+    }
+
+    // Handles all other unhandled exceptions
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<Object> handleGlobalException(Exception ex, ServerWebExchange exchange) {
+        log.error("Unhandled exception for {}", exchange.getRequest().getPath().value(), ex);
+        return error(HttpStatus.INTERNAL_SERVER_ERROR, "An unexpected error occurred: " + ex.getMessage(), exchange);
+    }
+
+    private static ResponseEntity<Object> error(HttpStatus status, String message, ServerWebExchange exchange) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", status.value());
+        body.put("error", status.getReasonPhrase());
+        body.put("message", message);
+        // Same format as WebRequest.getDescription(false) in the servlet handler
+        body.put("path", "uri=" + exchange.getRequest().getPath().value());
+        return new ResponseEntity<>(body, status);
+    }
+}
@@ -0,0 +1,221 @@
+package com.zdata.student_course_registration.controller;
+
+import com.zdata.student_course_registration.dto.CourseChangeRequest;
+import com.zdata.student_course_registration.dto.CourseChangeResponse;
+import com.zdata.student_course_registration.dto.CourseResponse;
+import com.zdata.student_course_registration.dto.PageResponse;
+import com.zdata.student_course_registration.dto.StudentCreateRequest;
+import com.zdata.student_course_registration.dto.StudentResponse;
+import com.zdata.student_course_registration.dto.RegistrationRequest;
+import com.zdata.student_course_registration.dto.TimetableCheckRequest;
+import com.zdata.student_course_registration.dto.TimetableCheckResponse;
+import com.zdata.student_course_registration.dto.WaitlistPositionResponse;
+import com.zdata.student_course_registration.idempotency.IdempotencyStore;
+import com.zdata.student_course_registration.queue.RegistrationQueue;
+import com.zdata.student_course_registration.service.ReactiveRegistrationService;
+import com.zdata.student_course_registration.service.ReactiveStudentService;
+import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of {@link StudentController}, active with spring.main.web-application-type=reactive.
+ */
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RestController
+@RequestMapping("/students")
+public class ReactiveStudentController {
+
+    private final ReactiveStudentService studentService;
+    private final ReactiveRegistrationService registrationService;
+    private final IdempotencyStore idempotencyStore;
+    private final RegistrationQueue registrationQueue;
+
+    public ReactiveStudentController(ReactiveStudentService studentService, ReactiveRegistrationService registrationService,
+                                     IdempotencyStore idempotencyStore, RegistrationQueue registrationQueue) {
+        this.studentService = studentService;
+        this.registrationService = registrationService;
+        this.idempotencyStore = idempotencyStore;
+        this.registrationQueue = registrationQueue;
+    }
+
+    /**
+     * POST /students – Register a new student
+     * @param request StudentCreateRequest DTO
+     * @param idempotencyKey Optional key under which the outcome is replayed to retries
+     * @return StudentResponse with HTTP Status 201 (Created)
+     */
+    @PostMapping
+    public Mono<ResponseEntity<StudentResponse>> registerStudent(
+            @Valid @RequestBody StudentCreateRequest request,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.executeReactive(idempotencyKey, request, () -> studentService.registerStudent(request))
+                .map(student -> new ResponseEntity<>(student, HttpStatus.CREATED));
+    }
+
+    /**
+     * GET /students – List all students
+     * Streamed with backpressure as a JSON array, or as NDJSON when the client accepts application/x-ndjson.
+     * @return Flux of StudentResponse with HTTP Status 200 (OK)
+     */
+    @GetMapping(params = {"!after", "!limit"}, produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<StudentResponse> listAllStudents() {
+        return studentService.streamStudents();
+    }
+
+    /**
+     * GET /students?after=&limit= – List students one page at a time
+     * @param after Return only students with an ID greater than this (cursor from the previous page)
+     * @param limit Maximum number of students per page
+     * @return Page of StudentResponse with HTTP Status 200 (OK)
+     */
+    @GetMapping
+    public Mono<PageResponse<StudentResponse>> getStudents(
+            @RequestParam(required = false) Integer after,
+            @RequestParam(defaultValue = "" + PageResponse.DEFAULT_LIMIT) int limit) {
+        return studentService.getStudents(after, limit);
+    }
+
+    /**
+     * GET /students/by-email?email= – Look up a student by email
+     * @param email Email of the student (case-insensitive)
+     * @return StudentResponse with HTTP Status 200 (OK)
+     */
+    @GetMapping("/by-email")
+    public Mono<StudentResponse> getStudentByEmail(@RequestParam String email) {
+        return studentService.getStudentByEmail(email);
+    }
+
+    /**
+     * POST /students/{studentId}/register/{courseId} – Register for a course
+     * @param studentId Path variable for student ID
+     * @param courseId Path variable for course ID
+     * In queued mode the attempt is only accepted, and the returned ticket reports the outcome later.
+     * @param idempotencyKey Optional key under which the outcome is replayed to retries
+     * @return Registration object with HTTP Status 200 (OK),
+     *         or in queued mode a TicketResponse with HTTP Status 202 (Accepted)
+     */
+    @PostMapping("/{studentId}/register/{courseId}")
+    public Mono<ResponseEntity<?>> registerForCourse(
+            @PathVariable Integer studentId,
+            @PathVariable Integer courseId,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        RegistrationRequest request = new RegistrationRequest(studentId, courseId);
+        if (registrationQueue.isEnabled()) {
+            return idempotencyStore.executeReactive(idempotencyKey, request,
+                            () -> Mono.fromCallable(() -> registrationQueue.submit(studentId, courseId)))
+                    .map(TicketController::accepted);
+        }
+        return idempotencyStore.executeReactive(idempotencyKey, request,
+                        () -> registrationService.registerForCourse(studentId, courseId))
+                .map(ResponseEntity::ok);
+    }
+
+    /**
+     * DELETE /students/{studentId}/drop/{courseId} – Drop a course
+     * @param studentId Path variable for student ID
+     * @param courseId Path variable for course ID
+     * @return HTTP Status 204 (No Content)
+     */
+    @DeleteMapping("/{studentId}/drop/{courseId}")
+    public Mono<ResponseEntity<Void>> dropCourse(@PathVariable Integer studentId, @PathVariable Integer courseId) {
+        return registrationService.dropCourse(studentId, courseId)
+                .thenReturn(ResponseEntity.noContent().build());
+    }
+
+    /**
+     * POST /students/{studentId}/courses/changes – Register for and drop several courses at once, all or nothing
+     * @param studentId Path variable for student ID
+     * @param request CourseChangeRequest DTO with the courses to register for and to drop
+     * @param idempotencyKey Optional key under which the outcome is replayed to retries
+     * @return CourseChangeResponse with HTTP Status 200 (OK)
+     */
+    @PostMapping("/{studentId}/courses/changes")
+    public Mono<CourseChangeResponse> changeCourses(
+            @PathVariable Integer studentId,
+            @Valid @RequestBody CourseChangeRequest request,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.executeReactive(idempotencyKey, List.of(studentId, request),
+                () -> registrationService.changeCourses(studentId, request.getRegister(), request.getDrop()));
+    }
+
+    /**
+     * POST /students/{studentId}/waitlist/{courseId} – Join the waitlist of a full course
+     * @param studentId Path variable for student ID
+     * @param courseId Path variable for course ID
+     * @return WaitlistPositionResponse with HTTP Status 200 (OK)
+     */
+    @PostMapping("/{studentId}/waitlist/{courseId}")
+    public Mono<WaitlistPositionResponse> joinWaitlist(@PathVariable Integer studentId, @PathVariable Integer courseId) {
+        return registrationService.joinWaitlist(studentId, courseId);
+    }
+
+    /**
+     * GET /students/{studentId}/waitlist/{courseId} – Get the position on a waitlist
+     * @param studentId Path variable for student ID
+     * @param courseId Path variable for course ID
+     * @return WaitlistPositionResponse with HTTP Status 200 (OK)
+     */
+    @GetMapping("/{studentId}/waitlist/{courseId}")
+    public Mono<WaitlistPositionResponse> getWaitlistPosition(@PathVariable Integer studentId, @PathVariable Integer courseId) {
+        return registrationService.getWaitlistPosition(studentId, courseId);
+    }
+
+    /**
+     * DELETE /students/{studentId}/waitlist/{courseId} – Leave a waitlist
+     * @param studentId Path variable for student ID
+     * @param courseId Path variable for course ID
+     * @return HTTP Status 204 (No Content)
+     */
+    @DeleteMapping("/{studentId}/waitlist/{courseId}")
+    public Mono<ResponseEntity<Void>> leaveWaitlist(@PathVariable Integer studentId, @PathVariable Integer courseId) {
+        return registrationService.leaveWaitlist(studentId, courseId)
+                .thenReturn(ResponseEntity.noContent().build());
+    }
+
+    /**
+     * POST /students/{studentId}/timetable/check – Check a proposed set of courses for clashing meetings
+     * @param studentId Path variable for student ID
+     * @param request TimetableCheckRequest DTO with the IDs of the proposed courses
+     * @return TimetableCheckResponse with HTTP Status 200 (OK)
+     */
+    @PostMapping("/{studentId}/timetable/check")
+    public Mono<TimetableCheckResponse> checkTimetable(@PathVariable Integer studentId,
+                                                       @Valid @RequestBody TimetableCheckRequest request) {
+        return registrationService.checkTimetable(studentId, request.getCourseIds());
+    }
+
+    /**
+     * GET /students/{studentId}/courses – List registered courses
+     * Streamed with backpressure as a JSON array, or as NDJSON when the client accepts application/x-ndjson.
+     * @param studentId Path variable for student ID
+     * @return Flux of CourseResponse with HTTP Status 200 (OK)
+     */
+    @GetMapping(value = "/{studentId}/courses", params = {"!after", "!limit"},
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<CourseResponse> getRegisteredCourses(@PathVariable Integer studentId) {
+        return registrationService.streamRegisteredCourses(studentId);
+    }
+
+    /**
+     * GET /students/{studentId}/courses?after=&limit= – List registered courses one page at a time
+     * @param studentId Path variable for student ID
+     * @param after Return only courses with an ID greater than this (cursor from the previous page)
+     * @param limit Maximum number of courses per page
+     * @return Page of CourseResponse with HTTP Status 200 (OK)
+     */
+    @GetMapping("/{studentId}/courses")
+    public Mono<PageResponse<CourseResponse>> getRegisteredCoursesPage(
+            @PathVariable Integer studentId,
+            @RequestParam(required = false) Integer after,
+            @RequestParam(defaultValue = "" + PageResponse.DEFAULT_LIMIT) int limit) {
+        return registrationService.getRegisteredCourses(studentId, after, limit);
+    }
+}
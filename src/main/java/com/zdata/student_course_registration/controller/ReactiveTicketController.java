@@ -0,0 +1,39 @@
+package com.zdata.student_course_registration.controller;
+
+import com.zdata.student_course_registration.dto.TicketResponse;
+import com.zdata.student_course_registration.queue.RegistrationQueue;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Non-blocking counterpart of {@link TicketController}, active with spring.main.web-application-type=reactive.
+ */
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RestController
+@RequestMapping("/registrations/tickets")
+public class ReactiveTicketController {
+
+    private final RegistrationQueue registrationQueue;
+
+    public ReactiveTicketController(RegistrationQueue registrationQueue) {
+        this.registrationQueue = registrationQueue;
+    }
+
+    /**
+     * GET /registrations/tickets/{ticketId}?wait= – Poll, or long-poll, a registration ticket
+     * @param ticketId Path variable for ticket ID
+     * @param wait Seconds to wait for the outcome if the ticket is still pending; 0 answers immediately
+     * @return TicketResponse with HTTP Status 200 (OK), still PENDING if the wait ran out
+     */
+    @GetMapping("/{ticketId}")
+    public Mono<TicketResponse> getTicket(@PathVariable long ticketId, @RequestParam(defaultValue = "0") int wait) {
+        return Mono.defer(() -> Mono.fromFuture(registrationQueue.awaitTicket(ticketId, Duration.ofSeconds(wait)), true));
+    }
+}
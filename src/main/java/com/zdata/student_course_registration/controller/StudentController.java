@@ -1,55 +1,126 @@
 package com.zdata.student_course_registration.controller;
 
-
+import com.zdata.student_course_registration.cache.ResponseCache;
+import com.zdata.student_course_registration.dto.CourseChangeRequest;
+import com.zdata.student_course_registration.dto.CourseChangeResponse;
 import com.zdata.student_course_registration.dto.CourseResponse;
+import com.zdata.student_course_registration.dto.PageResponse;
 import com.zdata.student_course_registration.dto.StudentCreateRequest;
 import com.zdata.student_course_registration.dto.StudentResponse;
-import com.zdata.student_course_registration.model.Course;
+import com.zdata.student_course_registration.dto.RegistrationRequest;
+import com.zdata.student_course_registration.dto.TicketResponse;
+import com.zdata.student_course_registration.dto.TimetableCheckRequest;
+import com.zdata.student_course_registration.dto.TimetableCheckResponse;
+import com.zdata.student_course_registration.dto.WaitlistPositionResponse;
+import com.zdata.student_course_registration.idempotency.IdempotencyStore;
 import com.zdata.student_course_registration.model.Registration;
+import com.zdata.student_course_registration.queue.RegistrationQueue;
 import com.zdata.student_course_registration.service.RegistrationService;
 import com.zdata.student_course_registration.service.StudentService;
 import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.util.List;
-import java.util.stream.Collectors;
 
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RestController
 @RequestMapping("/students")
 public class StudentController {
 
     private final StudentService studentService;
     private final RegistrationService registrationService;
+    private final ListingResponses listingResponses;
+    private final IdempotencyStore idempotencyStore;
+    private final RegistrationQueue registrationQueue;
 
-    public StudentController(StudentService studentService, RegistrationService registrationService) {
+    public StudentController(StudentService studentService, RegistrationService registrationService,
+                             ListingResponses listingResponses, IdempotencyStore idempotencyStore,
+                             RegistrationQueue registrationQueue) {
         this.studentService = studentService;
         this.registrationService = registrationService;
+        this.listingResponses = listingResponses;
+        this.idempotencyStore = idempotencyStore;
+        this.registrationQueue = registrationQueue;
     }
 
     /**
      * POST /students – Register a new student
      * @param request StudentCreateRequest DTO
+     * @param idempotencyKey Optional key under which the outcome is replayed to retries
      * @return ResponseEntity with StudentResponse and HTTP Status 201 (Created)
      */
     @PostMapping
-    public ResponseEntity<StudentResponse> registerStudent(@Valid @RequestBody StudentCreateRequest request) {
-        StudentResponse student = studentService.registerStudent(request);
+    public ResponseEntity<StudentResponse> registerStudent(
+            @Valid @RequestBody StudentCreateRequest request,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        StudentResponse student = idempotencyStore.execute(idempotencyKey, request,
+                () -> studentService.registerStudent(request));
         return new ResponseEntity<>(student, HttpStatus.CREATED);
     }
 
+    /**
+     * GET /students – List all students
+     * Streamed record by record as a JSON array, or as NDJSON when the client accepts application/x-ndjson.
+     * @param accept Accept header of the request
+     * @return ResponseEntity with a stream of StudentResponse and HTTP Status 200 (OK)
+     */
+    @GetMapping(params = {"!after", "!limit"})
+    public ResponseEntity<StreamingResponseBody> listAllStudents(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return listingResponses.stream(accept, studentService.streamStudents());
+    }
+
+    /**
+     * GET /students?after=&limit= – List students one page at a time
+     * @param after Return only students with an ID greater than this (cursor from the previous page)
+     * @param limit Maximum number of students per page
+     * @return ResponseEntity with a page of StudentResponse and HTTP Status 200 (OK)
+     */
+    @GetMapping
+    public ResponseEntity<PageResponse<StudentResponse>> getStudents(
+            @RequestParam(required = false) Integer after,
+            @RequestParam(defaultValue = "" + PageResponse.DEFAULT_LIMIT) int limit) {
+        return ResponseEntity.ok(studentService.getStudents(after, limit));
+    }
+
+    /**
+     * GET /students/by-email?email= – Look up a student by email
+     * @param email Email of the student (case-insensitive)
+     * @return ResponseEntity with StudentResponse and HTTP Status 200 (OK)
+     */
+    @GetMapping("/by-email")
+    public ResponseEntity<StudentResponse> getStudentByEmail(@RequestParam String email) {
+        return ResponseEntity.ok(studentService.getStudentByEmail(email));
+    }
+
     /**
      * POST /students/{studentId}/register/{courseId} – Register for a course
      * @param studentId Path variable for student ID
      * @param courseId Path variable for course ID
-     * @return ResponseEntity with Registration object and HTTP Status 200 (OK)
+     * In queued mode the attempt is only accepted, and the returned ticket reports the outcome later.
+     * @param idempotencyKey Optional key under which the outcome is replayed to retries
+     * @return ResponseEntity with Registration object and HTTP Status 200 (OK),
+     *         or in queued mode with a TicketResponse and HTTP Status 202 (Accepted)
      */
     @PostMapping("/{studentId}/register/{courseId}")
-    public ResponseEntity<Registration> registerForCourse(
+    public ResponseEntity<?> registerForCourse(
             @PathVariable Integer studentId,
-            @PathVariable Integer courseId) {
-        Registration registration = registrationService.registerForCourse(studentId, courseId);
+            @PathVariable Integer courseId,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        RegistrationRequest request = new RegistrationRequest(studentId, courseId);
+        if (registrationQueue.isEnabled()) {
+            TicketResponse ticket = idempotencyStore.execute(idempotencyKey, request,
+                    () -> registrationQueue.submit(studentId, courseId));
+            return TicketController.accepted(ticket);
+        }
+        Registration registration = idempotencyStore.execute(idempotencyKey, request,
+                () -> registrationService.registerForCourse(studentId, courseId));
         return ResponseEntity.ok(registration);
     }
 
@@ -67,17 +138,106 @@ public class StudentController {
         return ResponseEntity.noContent().build(); // 204 No Content for successful deletion
     }
 
+    /**
+     * POST /students/{studentId}/courses/changes – Register for and drop several courses at once, all or nothing
+     * @param studentId Path variable for student ID
+     * @param request CourseChangeRequest DTO with the courses to register for and to drop
+     * @param idempotencyKey Optional key under which the outcome is replayed to retries
+     * @return ResponseEntity with CourseChangeResponse and HTTP Status 200 (OK)
+     */
+    @PostMapping("/{studentId}/courses/changes")
+    public ResponseEntity<CourseChangeResponse> changeCourses(
+            @PathVariable Integer studentId,
+            @Valid @RequestBody CourseChangeRequest request,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        CourseChangeResponse changes = idempotencyStore.execute(idempotencyKey, List.of(studentId, request),
+                () -> registrationService.changeCourses(studentId, request.getRegister(), request.getDrop()));
+        return ResponseEntity.ok(changes);
+    }
+
+    /**
+     * POST /students/{studentId}/waitlist/{courseId} – Join the waitlist of a full course
+     * @param studentId Path variable for student ID
+     * @param courseId Path variable for course ID
+     * @return ResponseEntity with WaitlistPositionResponse and HTTP Status 200 (OK)
+     */
+    @PostMapping("/{studentId}/waitlist/{courseId}")
+    public ResponseEntity<WaitlistPositionResponse> joinWaitlist(
+            @PathVariable Integer studentId,
+            @PathVariable Integer courseId) {
+        return ResponseEntity.ok(registrationService.joinWaitlist(studentId, courseId));
+    }
+
+    /**
+     * GET /students/{studentId}/waitlist/{courseId} – Get the position on a waitlist
+     * @param studentId Path variable for student ID
+     * @param courseId Path variable for course ID
+     * @return ResponseEntity with WaitlistPositionResponse and HTTP Status 200 (OK)
+     */
+    @GetMapping("/{studentId}/waitlist/{courseId}")
+    public ResponseEntity<WaitlistPositionResponse> getWaitlistPosition(
+            @PathVariable Integer studentId,
+            @PathVariable Integer courseId) {
+        return ResponseEntity.ok(registrationService.getWaitlistPosition(studentId, courseId));
+    }
+
+    /**
+     * DELETE /students/{studentId}/waitlist/{courseId} – Leave a waitlist
+     * @param studentId Path variable for student ID
+     * @param courseId Path variable for course ID
+     * @return ResponseEntity with HTTP Status 204 (No Content)
+     */
+    @DeleteMapping("/{studentId}/waitlist/{courseId}")
+    public ResponseEntity<Void> leaveWaitlist(
+            @PathVariable Integer studentId,
+            @PathVariable Integer courseId) {
+        registrationService.leaveWaitlist(studentId, courseId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * POST /students/{studentId}/timetable/check – Check a proposed set of courses for clashing meetings
+     * @param studentId Path variable for student ID
+     * @param request TimetableCheckRequest DTO with the IDs of the proposed courses
+     * @return ResponseEntity with TimetableCheckResponse and HTTP Status 200 (OK)
+     */
+    @PostMapping("/{studentId}/timetable/check")
+    public ResponseEntity<TimetableCheckResponse> checkTimetable(
+            @PathVariable Integer studentId,
+            @Valid @RequestBody TimetableCheckRequest request) {
+        return ResponseEntity.ok(registrationService.checkTimetable(studentId, request.getCourseIds()));
+    }
+
     /**
      * GET /students/{studentId}/courses – List registered courses
+     * Served from the response cache with an ETag, or streamed record by record if too large to cache;
+     * as a JSON array, or as NDJSON when the client accepts application/x-ndjson.
      * @param studentId Path variable for student ID
-     * @return ResponseEntity with a list of CourseResponse and HTTP Status 200 (OK)
+     * @param accept Accept header of the request
+     * @param ifNoneMatch ETag of a previously received response
+     * @return ResponseEntity with the list of CourseResponse and HTTP Status 200 (OK), or 304 (Not Modified)
+     */
+    @GetMapping(value = "/{studentId}/courses", params = {"!after", "!limit"})
+    public ResponseEntity<StreamingResponseBody> getRegisteredCourses(
+            @PathVariable Integer studentId,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws IOException {
+        return listingResponses.respond(ResponseCache.Listing.STUDENT_COURSES, studentId, accept, ifNoneMatch,
+                () -> registrationService.streamRegisteredCourses(studentId));
+    }
+
+    /**
+     * GET /students/{studentId}/courses?after=&limit= – List registered courses one page at a time
+     * @param studentId Path variable for student ID
+     * @param after Return only courses with an ID greater than this (cursor from the previous page)
+     * @param limit Maximum number of courses per page
+     * @return ResponseEntity with a page of CourseResponse and HTTP Status 200 (OK)
      */
     @GetMapping("/{studentId}/courses")
-    public ResponseEntity<List<CourseResponse>> getRegisteredCourses(@PathVariable Integer studentId) {
-        List<Course> registeredCourses = registrationService.getRegisteredCourses(studentId);
-        List<CourseResponse> courseResponses = registeredCourses.stream()
-                .map(course -> new CourseResponse(course.getId(), course.getCode(), course.getTitle(), course.getInstructor()))
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(courseResponses);
+    public ResponseEntity<PageResponse<CourseResponse>> getRegisteredCoursesPage(
+            @PathVariable Integer studentId,
+            @RequestParam(required = false) Integer after,
+            @RequestParam(defaultValue = "" + PageResponse.DEFAULT_LIMIT) int limit) {
+        return ResponseEntity.ok(registrationService.getRegisteredCourses(studentId, after, limit));
     }
 }
@@ -0,0 +1,53 @@
+package com.zdata.student_course_registration.controller;
+
+import com.zdata.student_course_registration.dto.TicketResponse;
+import com.zdata.student_course_registration.queue.RegistrationQueue;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Outcomes of registration attempts accepted in queued mode.
+ */
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RestController
+@RequestMapping("/registrations/tickets")
+public class TicketController {
+
+    private final RegistrationQueue registrationQueue;
+
+    public TicketController(RegistrationQueue registrationQueue) {
+        this.registrationQueue = registrationQueue;
+    }
+
+    /**
+     * GET /registrations/tickets/{ticketId}?wait= – Poll, or long-poll, a registration ticket
+     * The request thread is released while waiting.
+     * @param ticketId Path variable for ticket ID
+     * @param wait Seconds to wait for the outcome if the ticket is still pending; 0 answers immediately
+     * @return TicketResponse with HTTP Status 200 (OK), still PENDING if the wait ran out
+     */
+    @GetMapping("/{ticketId}")
+    public CompletableFuture<TicketResponse> getTicket(
+            @PathVariable long ticketId,
+            @RequestParam(defaultValue = "0") int wait) {
+        return registrationQueue.awaitTicket(ticketId, Duration.ofSeconds(wait));
+    }
+
+    /**
+     * @return 202 (Accepted) with the ticket and its location.
+     */
+    static ResponseEntity<TicketResponse> accepted(TicketResponse ticket) {
+        return ResponseEntity.accepted()
+                .location(URI.create("/registrations/tickets/" + ticket.getTicketId()))
+                .body(ticket);
+    }
+}
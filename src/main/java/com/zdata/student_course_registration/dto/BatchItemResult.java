@@ -0,0 +1,23 @@
+package com.zdata.student_course_registration.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one item of a batch request.
+ * Status codes mirror the ones the single-item endpoint would return.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResult {
+    // Zero-based position of the item in the request body
+    private int index;
+    private int status;
+    // ID of the created entity, when there is one
+    private Integer id;
+    private String message;
+}
@@ -0,0 +1,23 @@
+package com.zdata.student_course_registration.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseChangeRequest {
+
+    // Courses to register for; all of them or none
+    @Size(max = 20, message = "At most 20 courses can be registered at once")
+    private List<@NotNull(message = "Course IDs must not be null") Integer> register;
+
+    // Courses to drop in the same step
+    @Size(max = 20, message = "At most 20 courses can be dropped at once")
+    private List<@NotNull(message = "Course IDs must not be null") Integer> drop;
+}
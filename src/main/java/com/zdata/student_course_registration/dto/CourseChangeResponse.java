@@ -0,0 +1,18 @@
+package com.zdata.student_course_registration.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseChangeResponse {
+    private Integer studentId;
+    private List<Integer> registered;
+    private List<Integer> dropped;
+    private LocalDateTime appliedAt;
+}
@@ -1,10 +1,20 @@
 package com.zdata.student_course_registration.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.zdata.student_course_registration.index.Timetable;
+import com.zdata.student_course_registration.model.MeetingTime;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -12,11 +22,42 @@ import lombok.NoArgsConstructor;
 public class CourseCreateRequest {
 
     @NotBlank(message = "Please provide a course code")
+    @Size(max = 32, message = "Course code must be at most 32 characters")
     private String code;
 
     @NotBlank(message = "Please provide a course title")
+    @Size(max = 200, message = "Course title must be at most 200 characters")
     private String title;
 
     @NotBlank(message = "Please provide an instructor name")
+    @Size(max = 200, message = "Instructor name must be at most 200 characters")
     private String instructor;
+
+    // Maximum number of enrolled students; null means unlimited
+    @Min(value = 1, message = "Course capacity must be at least 1")
+    private Integer capacity;
+
+    // Weekly meetings; optional, and without them the course never clashes with another
+    @Valid
+    private List<@NotNull(message = "Please provide the meeting") MeetingTime> meetings;
+
+    public CourseCreateRequest(String code, String title, String instructor, Integer capacity) {
+        this(code, title, instructor, capacity, null);
+    }
+
+    @JsonIgnore
+    @AssertTrue(message = "Meetings of a course must not overlap")
+    public boolean isMeetingsDisjoint() {
+        if (meetings == null || meetings.stream().anyMatch(meeting -> meeting == null || meeting.getDay() == null
+                || meeting.getStart() == null || meeting.getEnd() == null || !meeting.isEndAfterStart())) {
+            // Reported by the constraints of the meetings instead
+            return true;
+        }
+        try {
+            Timetable.of(0, meetings);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
 }
@@ -0,0 +1,25 @@
+package com.zdata.student_course_registration.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseQuery {
+    // Exact instructor name, case-insensitive
+    private String instructor;
+    // Start of the course code, case-insensitive
+    private String codePrefix;
+    // Words that must all appear in the title, case-insensitive
+    private String q;
+    // true for courses with a free seat, false for full ones
+    private Boolean available;
+
+    @JsonIgnore
+    public boolean isEmpty() {
+        return instructor == null && codePrefix == null && q == null && available == null;
+    }
+}
@@ -1,9 +1,13 @@
 package com.zdata.student_course_registration.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.zdata.student_course_registration.model.MeetingTime;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -13,4 +17,7 @@ public class CourseResponse {
     private String code;
     private String title;
     private String instructor;
+    private Integer capacity;
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<MeetingTime> meetings;
 }
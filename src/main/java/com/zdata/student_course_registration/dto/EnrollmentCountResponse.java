@@ -0,0 +1,13 @@
+package com.zdata.student_course_registration.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnrollmentCountResponse {
+    private Integer courseId;
+    private int enrolled;
+}
@@ -0,0 +1,19 @@
+package com.zdata.student_course_registration.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageResponse<T> {
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 1000;
+
+    private List<T> items;
+    // ID to pass as ?after= to fetch the next page, null when this is the last page
+    private Integer nextCursor;
+}
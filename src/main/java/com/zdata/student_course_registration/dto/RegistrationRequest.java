@@ -0,0 +1,17 @@
+package com.zdata.student_course_registration.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegistrationRequest {
+    @NotNull(message = "Please provide a student ID")
+    private Integer studentId;
+
+    @NotNull(message = "Please provide a course ID")
+    private Integer courseId;
+}
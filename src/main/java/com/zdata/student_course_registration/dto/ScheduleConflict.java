@@ -0,0 +1,23 @@
+package com.zdata.student_course_registration.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleConflict {
+    private Integer courseId;
+    private Integer conflictingCourseId;
+    // When both courses meet
+    private DayOfWeek day;
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime start;
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime end;
+}
@@ -0,0 +1,19 @@
+package com.zdata.student_course_registration.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatAvailability {
+    private Integer courseId;
+    // Omitted for courses without a capacity limit, like available
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer capacity;
+    private int enrolled;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer available;
+}
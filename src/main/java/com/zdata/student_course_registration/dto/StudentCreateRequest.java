@@ -1,6 +1,7 @@
 package com.zdata.student_course_registration.dto;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -11,10 +12,12 @@ import lombok.NoArgsConstructor;
 
 public class StudentCreateRequest {
     @NotBlank(message = "Student name cannot be blank")
+    @Size(max = 200, message = "Student name must be at most 200 characters")
     private String name;
 
     @NotBlank(message = "Student email cannot be blank")
     @Email(message = "Invalid email format")
+    @Size(max = 254, message = "Student email must be at most 254 characters")
     private String email;
 
 
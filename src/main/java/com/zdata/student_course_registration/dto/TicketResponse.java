@@ -0,0 +1,34 @@
+package com.zdata.student_course_registration.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * State of a queued registration attempt.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TicketResponse {
+
+    public enum State {
+        PENDING,
+        REGISTERED,
+        REJECTED,
+        FAILED
+    }
+
+    private long ticketId;
+    private Integer studentId;
+    private Integer courseId;
+    private State state;
+    // Status code the direct registration endpoint would have returned; 202 while pending
+    private int status;
+    private String message;
+    private LocalDateTime registeredAt;
+}
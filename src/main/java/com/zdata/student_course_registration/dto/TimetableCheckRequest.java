@@ -0,0 +1,20 @@
+package com.zdata.student_course_registration.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimetableCheckRequest {
+
+    @NotEmpty(message = "Please provide the course IDs to check")
+    @Size(max = 100, message = "At most 100 courses can be checked at once")
+    private List<@NotNull(message = "Course IDs must not be null") Integer> courseIds;
+}
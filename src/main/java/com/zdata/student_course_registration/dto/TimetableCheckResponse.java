@@ -0,0 +1,17 @@
+package com.zdata.student_course_registration.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimetableCheckResponse {
+    private Integer studentId;
+    // true if the courses fit together and with the student's registered courses
+    private boolean conflictFree;
+    private List<ScheduleConflict> conflicts;
+}
@@ -0,0 +1,17 @@
+package com.zdata.student_course_registration.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitlistPositionResponse {
+    private Integer studentId;
+    private Integer courseId;
+    // 1 for the student who gets the next free seat
+    private int position;
+    // Students waiting for the course in total
+    private int waiting;
+}
@@ -0,0 +1,35 @@
+package com.zdata.student_course_registration.event;
+
+import com.zdata.student_course_registration.model.Course;
+import com.zdata.student_course_registration.model.Student;
+
+import java.util.List;
+
+/**
+ * A state mutation performed by one of the services, published in apply order.
+ */
+public sealed interface ChangeEvent {
+
+    record StudentCreated(Student student) implements ChangeEvent {
+    }
+
+    record CourseCreated(Course course) implements ChangeEvent {
+    }
+
+    record Registered(Integer studentId, Integer courseId) implements ChangeEvent {
+    }
+
+    record Dropped(Integer studentId, Integer courseId) implements ChangeEvent {
+    }
+
+    record WaitlistJoined(Integer studentId, Integer courseId) implements ChangeEvent {
+    }
+
+    // Leaving voluntarily; promotion off the waitlist is implied by the Registered event
+    record WaitlistLeft(Integer studentId, Integer courseId) implements ChangeEvent {
+    }
+
+    // Registrations and drops applied all at once; logged as one record, so recovery never sees part of them
+    record Transaction(List<ChangeEvent> changes) implements ChangeEvent {
+    }
+}
@@ -0,0 +1,174 @@
+package com.zdata.student_course_registration.event;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Assigns each mutation a global sequence number and hands it to the registered listeners.
+ * Services publish while they still hold the locks protecting the mutated data, so the
+ * sequence order is a valid replay order. With no listeners registered, publishing is free.
+ * <p>
+ * Numbering is a single atomic increment, and listeners are called right away on the publishing
+ * thread, so unrelated writes never wait for each other here. Listeners therefore see changes
+ * concurrently and possibly out of sequence order; the ones that need the order restore it with
+ * {@link InOrderDelivery} under a lock of their own that only covers appending the change.
+ * <p>
+ * Creates are the exception: they are published before the new entity becomes visible, so nothing
+ * can refer to it before its creation is sequenced. Until it is visible it is tracked as pending, and
+ * whoever copies the in-memory state as of a sequence must first {@link #awaitVisible(long) wait} for it.
+ */
+@Component
+public class ChangeEventPublisher {
+
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+    // Told about changes once they are visible to readers; called without any ordering guarantee
+    private final List<Consumer<ChangeEvent>> appliedListeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong sequence = new AtomicLong();
+    // Sequences of creates published but not yet visible to readers
+    private final NavigableSet<Long> pendingCreates = new ConcurrentSkipListSet<>();
+
+    public void addListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(ChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    public void addAppliedListener(Consumer<ChangeEvent> listener) {
+        appliedListeners.add(listener);
+    }
+
+    /**
+     * Publishes a mutation to all listeners.
+     * @param event The mutation that is being applied.
+     * @return Sequence number of the event, or 0 if there are no listeners.
+     */
+    public long publish(ChangeEvent event) {
+        return publish(event, false);
+    }
+
+    /**
+     * Publishes the creation of an entity that is not visible to readers yet.
+     * The caller must make it visible and then call {@link #madeVisible(long)}, even if that fails.
+     * @param event The creation that is about to be applied.
+     * @return Sequence number of the event, or 0 if there are no listeners.
+     */
+    public long publishCreate(ChangeEvent event) {
+        return publish(event, true);
+    }
+
+    private long publish(ChangeEvent event, boolean pending) {
+        if (listeners.isEmpty()) {
+            return 0;
+        }
+        long next = sequence.incrementAndGet();
+        // Tracked before any listener sees it, so it is pending by the time a listener can cover the sequence
+        if (pending) {
+            pendingCreates.add(next);
+        }
+        // Every listener is told about every sequence, or the ones that restore the order would stall on it
+        RuntimeException failure = null;
+        for (ChangeListener listener : listeners) {
+            try {
+                listener.onChange(next, event);
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            pendingCreates.remove(next);
+            throw failure;
+        }
+        return next;
+    }
+
+    /**
+     * Marks a create published by {@link #publishCreate(ChangeEvent)} as visible to readers.
+     * @param sequence Sequence returned by {@link #publishCreate(ChangeEvent)}.
+     */
+    public void madeVisible(long sequence) {
+        if (sequence != 0) {
+            pendingCreates.remove(sequence);
+        }
+    }
+
+    /**
+     * Waits until every create up to the given sequence is visible to readers, so a copy of the
+     * in-memory state taken afterwards contains every change up to that sequence.
+     * Creates only have a few map updates left to do, so this spins briefly rather than blocking.
+     * @param sequence Sequence the copy must cover.
+     */
+    public void awaitVisible(long sequence) {
+        while (pendingCreates.floor(sequence) != null) {
+            LockSupport.parkNanos(this, 10_000);
+        }
+    }
+
+    /**
+     * Blocks until the event with the given sequence is durable, according to the persistence policy.
+     * Callers should release their own locks first.
+     * @param sequence Sequence returned by {@link #publish(ChangeEvent)}.
+     */
+    public void awaitDurable(long sequence) {
+        if (sequence == 0) {
+            return;
+        }
+        for (ChangeListener listener : listeners) {
+            listener.awaitDurable(sequence);
+        }
+    }
+
+    /**
+     * Tells the applied listeners that a published mutation is now visible to readers,
+     * e.g. so caches can drop what they derived from the previous state. Takes no lock.
+     * @param event The mutation that was applied.
+     */
+    public void applied(ChangeEvent event) {
+        for (Consumer<ChangeEvent> listener : appliedListeners) {
+            listener.accept(event);
+        }
+    }
+
+    /**
+     * @return true if {@link #awaitDurable(long)} can block, so non-blocking callers must not call it on an event loop.
+     */
+    public boolean awaitDurableBlocks() {
+        for (ChangeListener listener : listeners) {
+            if (listener.blocksUntilDurable()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return Sequence of the last event numbered; listeners may still be handling it and earlier ones.
+     */
+    public long currentSequence() {
+        return sequence.get();
+    }
+
+    /**
+     * Continues numbering after the given sequence, e.g. once state has been recovered from disk.
+     * Must not race with publishing.
+     * @param lastSequence Sequence of the last event already applied.
+     */
+    public void resetSequence(long lastSequence) {
+        sequence.set(lastSequence);
+        for (ChangeListener listener : listeners) {
+            listener.sequenceReset(lastSequence);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.zdata.student_course_registration.event;
+
+/**
+ * Receives every {@link ChangeEvent} with its sequence.
+ * Listeners are called on the mutating thread, so they must only hand the event off, never block.
+ * Concurrent mutations call them concurrently and not necessarily in sequence order; see
+ * {@link InOrderDelivery} for listeners that need the order.
+ */
+public interface ChangeListener {
+
+    /**
+     * @param sequence Position of the event in the global change order, starting at 1.
+     * @param event The mutation that was applied.
+     */
+    void onChange(long sequence, ChangeEvent event);
+
+    /**
+     * Called when numbering continues after the given sequence, e.g. on a follower, without any
+     * change in between being published.
+     * @param lastSequence Sequence of the last event already applied.
+     */
+    default void sequenceReset(long lastSequence) {
+    }
+
+    /**
+     * Blocks until the event with the given sequence has been made durable.
+     * Only listeners that persist events need to override this.
+     * @param sequence Sequence returned by {@link ChangeEventPublisher#publish(ChangeEvent)}.
+     */
+    default void awaitDurable(long sequence) {
+    }
+
+    /**
+     * @return true if {@link #awaitDurable(long)} can block the calling thread.
+     */
+    default boolean blocksUntilDurable() {
+        return false;
+    }
+}
@@ -0,0 +1,82 @@
+package com.zdata.student_course_registration.event;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Restores sequence order for a {@link ChangeListener} that needs it, since listeners are called
+ * concurrently and a later sequence can arrive first. Items are passed on as soon as every earlier
+ * sequence has been passed on; the ones that arrive early wait here until then.
+ * <p>
+ * Not thread-safe: the owner calls it under the lock that also guards what the sink writes to.
+ * @param <T> What the owner keeps per change, e.g. the encoded record.
+ */
+public class InOrderDelivery<T> {
+
+    /**
+     * Receives the items in sequence order.
+     */
+    public interface Sink<T> {
+        /**
+         * @param sequence Sequence of the change.
+         * @param item Item of the change, or null if the change was skipped.
+         */
+        void accept(long sequence, T item);
+    }
+
+    // Stands in for a skipped change among the early arrivals
+    private static final Object SKIPPED = new Object();
+
+    private final Sink<T> sink;
+    // Key: sequence, Value: item or SKIPPED
+    private final Map<Long, Object> early = new HashMap<>();
+    private long next;
+
+    /**
+     * @param lastSequence Sequence of the last change already delivered.
+     * @param sink Receives the items in sequence order.
+     */
+    public InOrderDelivery(long lastSequence, Sink<T> sink) {
+        this.sink = sink;
+        this.next = lastSequence + 1;
+    }
+
+    /**
+     * Hands over the item of one change, and passes on every item that is now in order.
+     * @param sequence Sequence of the change.
+     * @param item Item of the change, or null if the owner could not produce it; the change is then
+     *             passed on as skipped, so the ones after it are not held up.
+     */
+    @SuppressWarnings("unchecked")
+    public void add(long sequence, T item) {
+        if (sequence != next) {
+            if (sequence > next) {
+                early.put(sequence, item == null ? SKIPPED : item);
+            }
+            return;
+        }
+        sink.accept(sequence, item);
+        next++;
+        Object waiting;
+        while (!early.isEmpty() && (waiting = early.remove(next)) != null) {
+            sink.accept(next, waiting == SKIPPED ? null : (T) waiting);
+            next++;
+        }
+    }
+
+    /**
+     * @return Sequence of the last change passed on; every earlier one has been passed on too.
+     */
+    public long delivered() {
+        return next - 1;
+    }
+
+    /**
+     * Starts over after the given sequence, dropping any early arrivals.
+     * @param lastSequence Sequence of the last change already delivered.
+     */
+    public void reset(long lastSequence) {
+        early.clear();
+        next = lastSequence + 1;
+    }
+}
@@ -6,6 +6,6 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 @ResponseStatus(HttpStatus.BAD_REQUEST) // This annotation automatically sets the HTTP status code
 public class BadRequestException extends RuntimeException{
     public BadRequestException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
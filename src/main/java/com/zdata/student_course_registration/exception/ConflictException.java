@@ -6,6 +6,7 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 @ResponseStatus(HttpStatus.CONFLICT)
 public class ConflictException extends RuntimeException {
     public ConflictException(String message) {
-        super(message);
+        // Domain rejections are expected outcomes mapped to 4xx responses, so skip the stack trace
+        super(message, null, false, false);
     }
 }
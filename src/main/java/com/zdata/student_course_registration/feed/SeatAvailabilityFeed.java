@@ -0,0 +1,232 @@
+package com.zdata.student_course_registration.feed;
+
+import com.zdata.student_course_registration.dto.SeatAvailability;
+import com.zdata.student_course_registration.event.ChangeEvent;
+import com.zdata.student_course_registration.event.ChangeEventPublisher;
+import com.zdata.student_course_registration.metrics.ServiceMetrics;
+import com.zdata.student_course_registration.model.Course;
+import com.zdata.student_course_registration.service.CourseService;
+import com.zdata.student_course_registration.service.RegistrationService;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pushes seat availability to subscribers as Server-Sent Events instead of having them poll the catalogue.
+ * <p>
+ * Applied changes only mark their course as changed. Every flush interval, the marked courses are
+ * read once and sent to all subscribers as one event, so a course that changed many times in an
+ * interval is sent once with its latest counts, and the work per interval depends on the number of
+ * changed courses rather than on the number of subscribers times the size of the catalogue.
+ * <p>
+ * Each subscriber has a bounded buffer. A subscriber whose buffer is full is disconnected once it has
+ * received what is buffered. It then reconnects with the ID of the last event it saw, like browsers
+ * do, and gets the current counts of the courses that changed since, taken from the recently sent
+ * events. Subscribers without a usable ID, e.g. one from before a restart or from another instance,
+ * get every course.
+ */
+@Component
+public class SeatAvailabilityFeed implements InitializingBean, DisposableBean {
+
+    private static final String EVENT = "seats";
+
+    private final SeatFeedProperties properties;
+    private final CourseService courseService;
+    private final RegistrationService registrationService;
+    private final Set<Integer> changed = ConcurrentHashMap.newKeySet();
+    private final List<Sinks.Many<ServerSentEvent<List<SeatAvailability>>>> subscribers = new CopyOnWriteArrayList<>();
+    // Event IDs are only meaningful to the instance that issued them, since it started
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final LongAdder dropped = new LongAdder();
+
+    // Orders sending events with subscribing, so a new subscriber misses no event and gets none twice
+    private final Lock sendLock = new ReentrantLock();
+    // Guarded by sendLock: course IDs sent in each recent event, indexed by event number modulo the length
+    private final int[][] history;
+    private long lastEvent;
+    private long lastSentNanos = System.nanoTime();
+
+    private ScheduledExecutorService flusher;
+
+    public SeatAvailabilityFeed(SeatFeedProperties properties, CourseService courseService,
+                                RegistrationService registrationService, ChangeEventPublisher changeEvents,
+                                ServiceMetrics metrics) {
+        if (properties.getBufferSize() < 1 || properties.getHistory() < 1) {
+            throw new IllegalArgumentException("registration.seat-feed.buffer-size and history must be positive");
+        }
+        this.properties = properties;
+        this.courseService = courseService;
+        this.registrationService = registrationService;
+        this.history = new int[properties.getHistory()][];
+        changeEvents.addAppliedListener(this::onApplied);
+        metrics.gauge("registration.seat-feed.subscribers", "Connected seat availability subscribers",
+                subscribers, List::size);
+        metrics.counter("registration.seat-feed.dropped", "Subscribers disconnected for not keeping up",
+                dropped, LongAdder::sum);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "seat-feed-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getFlushInterval().toMillis();
+        flusher.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens a subscription. Its first event holds the current availability of every course, or, when
+     * resuming, of the courses that changed after the given event.
+     * @param lastEventId ID of the last event the subscriber received, or null.
+     * @return Events of the subscription, ending early if the subscriber falls behind.
+     */
+    public Flux<ServerSentEvent<List<SeatAvailability>>> subscribe(String lastEventId) {
+        return Flux.defer(() -> {
+            Sinks.Many<ServerSentEvent<List<SeatAvailability>>> sink = Sinks.many().unicast()
+                    .onBackpressureBuffer(Queues.<ServerSentEvent<List<SeatAvailability>>>get(properties.getBufferSize()).get());
+            sendLock.lock();
+            try {
+                Set<Integer> courseIds = changedSince(lastEventId);
+                List<SeatAvailability> seats = new ArrayList<>();
+                if (courseIds == null) {
+                    courseService.forEachCourse(course -> seats.add(availability(course)));
+                } else {
+                    for (int courseId : courseIds) {
+                        seats.add(availability(courseService.getCourseById(courseId)));
+                    }
+                }
+                sink.tryEmitNext(event(lastEvent, seats));
+                subscribers.add(sink);
+            } finally {
+                sendLock.unlock();
+            }
+            return sink.asFlux().doFinally(signal -> subscribers.remove(sink));
+        });
+    }
+
+    private void onApplied(ChangeEvent event) {
+        if (event instanceof ChangeEvent.Registered registered) {
+            changed.add(registered.courseId());
+        } else if (event instanceof ChangeEvent.Dropped drop) {
+            changed.add(drop.courseId());
+        } else if (event instanceof ChangeEvent.CourseCreated created) {
+            changed.add(created.course().getId());
+        } else if (event instanceof ChangeEvent.Transaction transaction) {
+            transaction.changes().forEach(this::onApplied);
+        }
+    }
+
+    /**
+     * Sends the courses changed since the last flush to every subscriber, or a heartbeat if it is time for one.
+     */
+    void flush() {
+        sendLock.lock();
+        try {
+            long now = System.nanoTime();
+            ServerSentEvent<List<SeatAvailability>> event;
+            if (!changed.isEmpty()) {
+                int[] courseIds = drainChanged();
+                List<SeatAvailability> seats = new ArrayList<>(courseIds.length);
+                for (int courseId : courseIds) {
+                    seats.add(availability(courseService.getCourseById(courseId)));
+                }
+                lastEvent++;
+                history[(int) (lastEvent % history.length)] = courseIds;
+                event = event(lastEvent, seats);
+            } else if (now - lastSentNanos >= properties.getHeartbeatInterval().toNanos()) {
+                event = ServerSentEvent.<List<SeatAvailability>>builder().comment("heartbeat").build();
+            } else {
+                return;
+            }
+            lastSentNanos = now;
+            for (Sinks.Many<ServerSentEvent<List<SeatAvailability>>> subscriber : subscribers) {
+                if (subscriber.tryEmitNext(event) == Sinks.EmitResult.FAIL_OVERFLOW) {
+                    // Ends the stream after what is buffered; the subscriber resumes from its last event
+                    subscriber.tryEmitComplete();
+                    subscribers.remove(subscriber);
+                    dropped.increment();
+                }
+            }
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    private int[] drainChanged() {
+        int[] courseIds = new int[changed.size()];
+        int count = 0;
+        // Removed before the counts are read, so a change racing with this flush is at worst sent twice
+        for (Iterator<Integer> it = changed.iterator(); it.hasNext(); ) {
+            Integer courseId = it.next();
+            it.remove();
+            if (count == courseIds.length) {
+                courseIds = Arrays.copyOf(courseIds, count * 2 + 1);
+            }
+            courseIds[count++] = courseId;
+        }
+        return Arrays.copyOf(courseIds, count);
+    }
+
+    /**
+     * @return IDs of the courses sent after the given event, or null if the ID cannot be resumed from.
+     */
+    private Set<Integer> changedSince(String lastEventId) {
+        if (lastEventId == null || !lastEventId.startsWith(epoch + "-")) {
+            return null;
+        }
+        long after;
+        try {
+            after = Long.parseLong(lastEventId.substring(epoch.length() + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (after > lastEvent || after < lastEvent - history.length || after < 0) {
+            return null;
+        }
+        Set<Integer> courseIds = new TreeSet<>();
+        for (long sent = after + 1; sent <= lastEvent; sent++) {
+            for (int courseId : history[(int) (sent % history.length)]) {
+                courseIds.add(courseId);
+            }
+        }
+        return courseIds;
+    }
+
+    private SeatAvailability availability(Course course) {
+        int enrolled = registrationService.enrolledCount(course.getId());
+        Integer capacity = course.getCapacity();
+        return new SeatAvailability(course.getId(), capacity, enrolled,
+                capacity == null ? null : Math.max(0, capacity - enrolled));
+    }
+
+    private ServerSentEvent<List<SeatAvailability>> event(long number, List<SeatAvailability> seats) {
+        return ServerSentEvent.builder(seats).id(epoch + "-" + number).event(EVENT).build();
+    }
+
+    @Override
+    public void destroy() {
+        flusher.shutdownNow();
+        subscribers.forEach(Sinks.Many::tryEmitComplete);
+    }
+}
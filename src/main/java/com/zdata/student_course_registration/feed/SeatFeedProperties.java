@@ -0,0 +1,20 @@
+package com.zdata.student_course_registration.feed;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "registration.seat-feed")
+public class SeatFeedProperties {
+
+    // Changes within one interval are coalesced into a single event per course
+    private Duration flushInterval = Duration.ofMillis(250);
+    // Events buffered for a subscriber that is not keeping up before it is disconnected
+    private int bufferSize = 64;
+    // Recent events remembered, so a reconnecting subscriber only gets what changed since its last one
+    private int history = 4096;
+    // A comment is sent when there were no events for this long, so idle connections stay open
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+}
@@ -0,0 +1,20 @@
+package com.zdata.student_course_registration.idempotency;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "registration.idempotency")
+public class IdempotencyProperties {
+
+    // When false the Idempotency-Key header is ignored and every request runs
+    private boolean enabled = true;
+    // Completed responses kept for replay; the oldest are evicted beyond it
+    private int maxEntries = 100_000;
+    // How long a key can be replayed after it was first used
+    private Duration ttl = Duration.ofHours(24);
+    // Longer keys are rejected
+    private int maxKeyLength = 255;
+}
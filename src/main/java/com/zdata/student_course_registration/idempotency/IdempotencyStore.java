@@ -0,0 +1,184 @@
+package com.zdata.student_course_registration.idempotency;
+
+import com.zdata.student_course_registration.exception.BadRequestException;
+import com.zdata.student_course_registration.exception.ConflictException;
+import com.zdata.student_course_registration.exception.ResourceNotFoundException;
+import com.zdata.student_course_registration.metrics.ServiceMetrics;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Outcomes of requests that carry an {@code Idempotency-Key} header, so that a retried request is
+ * answered from the stored outcome instead of running again.
+ * <p>
+ * The first request with a key claims it and runs; requests with the same key that arrive while it
+ * is running wait for its outcome instead of running concurrently. Successful results and domain
+ * rejections (404, 409, 400) are kept until the TTL expires or the store is full, oldest first.
+ * Unexpected failures are handed to the waiting duplicates but not kept, so a later retry runs again.
+ * A key is bound to the request it was first used with; reusing it for a different request is rejected.
+ */
+@Component
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final class Entry {
+        final String key;
+        final Object request;
+        final long expiresAtNanos;
+        final CompletableFuture<Object> outcome = new CompletableFuture<>();
+
+        Entry(String key, Object request, long expiresAtNanos) {
+            this.key = key;
+            this.request = request;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final int maxKeyLength;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Claimed entries in claim order, which is also expiry order; may hold entries already replaced in the map
+    private final Queue<Entry> claimOrder = new ConcurrentLinkedQueue<>();
+    private final LongAdder replays = new LongAdder();
+
+    public IdempotencyStore(IdempotencyProperties properties, ServiceMetrics metrics) {
+        this.enabled = properties.isEnabled();
+        this.maxEntries = properties.getMaxEntries();
+        this.ttlNanos = properties.getTtl().toNanos();
+        this.maxKeyLength = properties.getMaxKeyLength();
+        metrics.counter("registration.idempotency.replays", "Requests answered from a stored or in-flight outcome",
+                replays, LongAdder::sum);
+        metrics.gauge("registration.idempotency.entries", "Idempotency keys held", entries, Map::size);
+    }
+
+    /**
+     * Runs the action once per idempotency key and replays its outcome for repeated keys.
+     * @param key Value of the Idempotency-Key header, or null to just run the action.
+     * @param request Identifies the operation and its input, compared with equals() when the key is reused.
+     * @param action The work to run if the key is new.
+     * @return Result of the action, possibly from an earlier or concurrent request with the same key.
+     * @throws BadRequestException if the key is too long or was used for a different request.
+     */
+    public <T> T execute(String key, Object request, Supplier<T> action) {
+        if (!enabled || key == null) {
+            return action.get();
+        }
+        Entry fresh = new Entry(key, request, System.nanoTime() + ttlNanos);
+        Entry entry = claim(fresh);
+        if (entry != fresh) {
+            return replay(entry);
+        }
+        T result;
+        try {
+            result = action.get();
+        } catch (RuntimeException e) {
+            fail(entry, e);
+            throw e;
+        }
+        entry.outcome.complete(result);
+        return result;
+    }
+
+    /**
+     * Non-blocking variant of {@link #execute(String, Object, Supplier)}: duplicates subscribe to the
+     * outcome of the running request instead of waiting for it.
+     */
+    public <T> Mono<T> executeReactive(String key, Object request, Supplier<Mono<T>> action) {
+        if (!enabled || key == null) {
+            return Mono.defer(action);
+        }
+        return Mono.defer(() -> {
+            Entry fresh = new Entry(key, request, System.nanoTime() + ttlNanos);
+            Entry entry = claim(fresh);
+            if (entry != fresh) {
+                replays.increment();
+                @SuppressWarnings("unchecked")
+                Mono<T> outcome = (Mono<T>) Mono.fromFuture(entry.outcome, true);
+                return outcome;
+            }
+            return action.get()
+                    .doOnSuccess(entry.outcome::complete)
+                    .doOnError(e -> fail(entry, e))
+                    .doOnCancel(() -> fail(entry, new CancellationException("Request was cancelled")));
+        });
+    }
+
+    /**
+     * @return The given entry if it now owns the key, otherwise the live entry to replay.
+     */
+    private Entry claim(Entry fresh) {
+        if (fresh.key.length() > maxKeyLength) {
+            throw new BadRequestException(HEADER + " must not be longer than " + maxKeyLength + " characters.");
+        }
+        long now = System.nanoTime();
+        while (true) {
+            Entry existing = entries.putIfAbsent(fresh.key, fresh);
+            if (existing == null || (existing.isExpired(now) && entries.replace(fresh.key, existing, fresh))) {
+                claimOrder.add(fresh);
+                evict(now);
+                return fresh;
+            }
+            if (existing.isExpired(now)) {
+                // Another request replaced the expired entry first
+                continue;
+            }
+            if (!existing.request.equals(fresh.request)) {
+                throw new BadRequestException(HEADER + " '" + fresh.key + "' was already used for a different request.");
+            }
+            return existing;
+        }
+    }
+
+    private void evict(long now) {
+        while (true) {
+            Entry oldest = claimOrder.peek();
+            if (oldest == null || (entries.size() <= maxEntries && !oldest.isExpired(now))) {
+                return;
+            }
+            if (claimOrder.remove(oldest)) {
+                entries.remove(oldest.key, oldest);
+            }
+        }
+    }
+
+    private void fail(Entry entry, Throwable error) {
+        boolean rejection = error instanceof ResourceNotFoundException
+                || error instanceof ConflictException
+                || error instanceof BadRequestException;
+        // A cancellation after completion must not discard the stored outcome
+        if (entry.outcome.completeExceptionally(error) && !rejection) {
+            entries.remove(entry.key, entry);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T replay(Entry entry) {
+        replays.increment();
+        try {
+            return (T) entry.outcome.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
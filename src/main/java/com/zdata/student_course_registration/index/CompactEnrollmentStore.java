@@ -0,0 +1,131 @@
+package com.zdata.student_course_registration.index;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Enrollment store holding each student's courses as an immutable sorted {@code int[]}.
+ * <p>
+ * Student IDs are dense and start at 1, so students are addressed directly through lazily
+ * allocated pages of array slots instead of a hash map. A student with six courses costs one
+ * slot plus a 40-byte array, with no boxed Integers or hash nodes. Updates replace the array
+ * with a compare-and-set, so readers never lock and always see a consistent set.
+ */
+public class CompactEnrollmentStore implements EnrollmentStore {
+
+    private static final int PAGE_BITS = 12;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    // Directory of pages; replaced (never mutated in place once published) when it grows
+    private volatile AtomicReferenceArray<int[]>[] pages = newDirectory(64);
+    private final Object growLock = new Object();
+    private final LongAdder size = new LongAdder();
+
+    @Override
+    public boolean add(int studentId, int courseId) {
+        AtomicReferenceArray<int[]> page = pageFor(studentId, true);
+        int slot = studentId & PAGE_MASK;
+        while (true) {
+            int[] current = page.get(slot);
+            int[] updated = SortedIntArrays.insert(current == null ? SortedIntArrays.EMPTY : current, courseId);
+            if (updated == null) {
+                return false;
+            }
+            if (page.compareAndSet(slot, current, updated)) {
+                size.increment();
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public boolean remove(int studentId, int courseId) {
+        AtomicReferenceArray<int[]> page = pageFor(studentId, false);
+        if (page == null) {
+            return false;
+        }
+        int slot = studentId & PAGE_MASK;
+        while (true) {
+            int[] current = page.get(slot);
+            int[] updated = current == null ? null : SortedIntArrays.remove(current, courseId);
+            if (updated == null) {
+                return false;
+            }
+            if (page.compareAndSet(slot, current, updated)) {
+                size.decrement();
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public boolean contains(int studentId, int courseId) {
+        return SortedIntArrays.contains(coursesOf(studentId), courseId);
+    }
+
+    @Override
+    public int[] coursesOf(int studentId) {
+        AtomicReferenceArray<int[]> page = pageFor(studentId, false);
+        int[] courses = page == null ? null : page.get(studentId & PAGE_MASK);
+        return courses == null ? SortedIntArrays.EMPTY : courses;
+    }
+
+    @Override
+    public long size() {
+        return size.sum();
+    }
+
+    @Override
+    public void forEach(StudentCourses action) {
+        AtomicReferenceArray<int[]>[] directory = pages;
+        for (int p = 0; p < directory.length; p++) {
+            AtomicReferenceArray<int[]> page = directory[p];
+            if (page == null) {
+                continue;
+            }
+            for (int slot = 0; slot < PAGE_SIZE; slot++) {
+                int[] courses = page.get(slot);
+                if (courses != null && courses.length > 0) {
+                    action.accept((p << PAGE_BITS) | slot, courses);
+                }
+            }
+        }
+    }
+
+    private AtomicReferenceArray<int[]> pageFor(int studentId, boolean create) {
+        if (studentId < 0) {
+            if (create) {
+                throw new IllegalArgumentException("Student ID must not be negative: " + studentId);
+            }
+            return null;
+        }
+        int index = studentId >>> PAGE_BITS;
+        AtomicReferenceArray<int[]>[] directory = pages;
+        if (index < directory.length && directory[index] != null) {
+            return directory[index];
+        }
+        if (!create) {
+            return null;
+        }
+        synchronized (growLock) {
+            directory = pages;
+            if (index >= directory.length) {
+                directory = Arrays.copyOf(directory, Math.max(directory.length * 2, index + 1));
+            } else if (directory[index] == null) {
+                directory = directory.clone();
+            }
+            if (directory[index] == null) {
+                directory[index] = new AtomicReferenceArray<>(PAGE_SIZE);
+                pages = directory;
+            }
+            return directory[index];
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static AtomicReferenceArray<int[]>[] newDirectory(int length) {
+        return (AtomicReferenceArray<int[]>[]) new AtomicReferenceArray[length];
+    }
+}
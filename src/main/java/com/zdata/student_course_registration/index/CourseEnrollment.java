@@ -0,0 +1,245 @@
+package com.zdata.student_course_registration.index;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reverse enrollment index for a single course: the ID-ordered roster of enrolled students
+ * and a lock-free seat counter, so roster and count queries never scan other courses.
+ * <p>
+ * Seats are taken with a compare-and-set loop on a per-course counter, so different courses
+ * never contend with each other and a full course is rejected by a single volatile read.
+ * <p>
+ * A full course can have a waitlist. A seat given up while students are waiting is not released
+ * but handed to the student at the head, so it is never briefly free for someone else to take.
+ */
+public class CourseEnrollment {
+
+    private static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private final int capacity;
+    // Student IDs enrolled in the course in ascending order, for keyset paging.
+    // Replaced on every change (4 bytes per student, no boxing), so readers never lock.
+    private volatile int[] roster = SortedIntArrays.EMPTY;
+    // Student IDs restored in bulk but not yet merged into the roster (guarded by this)
+    private int[] deferred = SortedIntArrays.EMPTY;
+    private int deferredCount;
+    // Seats currently taken; never exceeds capacity
+    private final AtomicInteger seatsTaken = new AtomicInteger();
+    // Students waiting for a seat, created on first use and then never replaced (mutated under this)
+    private volatile Waitlist waitlist;
+
+    /**
+     * @param capacity Maximum number of seats, or null for an unlimited course.
+     */
+    public CourseEnrollment(Integer capacity) {
+        this.capacity = capacity == null ? UNLIMITED : capacity;
+    }
+
+    /**
+     * Takes a seat if one is free. Never overbooks, even under heavy contention.
+     * @return true if a seat was taken, false if the course is full.
+     */
+    public boolean tryAcquireSeat() {
+        int taken;
+        do {
+            taken = seatsTaken.get();
+            if (taken >= capacity) {
+                return false;
+            }
+        } while (!seatsTaken.compareAndSet(taken, taken + 1));
+        return true;
+    }
+
+    /**
+     * Takes a seat even if the course is full. Only used when replaying registrations
+     * that were accepted before, where the capacity check has already been made.
+     */
+    public void forceAcquireSeat() {
+        seatsTaken.incrementAndGet();
+    }
+
+    /**
+     * Gives back a seat taken with {@link #tryAcquireSeat()}.
+     */
+    public void releaseSeat() {
+        seatsTaken.decrementAndGet();
+    }
+
+    public boolean isFull() {
+        return seatsTaken.get() >= capacity;
+    }
+
+    public synchronized boolean add(int studentId) {
+        mergeDeferred();
+        int[] updated = SortedIntArrays.insert(roster, studentId);
+        if (updated == null) {
+            return false;
+        }
+        roster = updated;
+        return true;
+    }
+
+    public synchronized boolean remove(int studentId) {
+        mergeDeferred();
+        int[] updated = SortedIntArrays.remove(roster, studentId);
+        if (updated == null) {
+            return false;
+        }
+        roster = updated;
+        return true;
+    }
+
+    /**
+     * Queues a student that is known not to be on the roster yet, without copying the roster.
+     * Used when restoring many registrations at once; the IDs become visible to readers after
+     * {@link #mergeDeferred()}, which every mutation also calls first.
+     */
+    public synchronized void addDeferred(int studentId) {
+        if (deferredCount == deferred.length) {
+            deferred = Arrays.copyOf(deferred, Math.max(16, deferredCount * 2));
+        }
+        deferred[deferredCount++] = studentId;
+    }
+
+    /**
+     * Merges the students queued by {@link #addDeferred(int)} into the roster in one pass.
+     */
+    public synchronized void mergeDeferred() {
+        if (deferredCount == 0) {
+            return;
+        }
+        int[] merged = Arrays.copyOf(roster, roster.length + deferredCount);
+        System.arraycopy(deferred, 0, merged, roster.length, deferredCount);
+        Arrays.sort(merged);
+        roster = merged;
+        deferred = SortedIntArrays.EMPTY;
+        deferredCount = 0;
+    }
+
+    public boolean contains(int studentId) {
+        return SortedIntArrays.contains(roster, studentId);
+    }
+
+    public int count() {
+        return seatsTaken.get();
+    }
+
+    /**
+     * Adds a student to the waitlist if the course is full; joining again keeps the original place.
+     * @return 1-based position of the student, or 0 if a seat is free and the student was not added.
+     */
+    public synchronized int joinWaitlist(int studentId) {
+        Waitlist current = waitlist;
+        if (current != null && current.position(studentId) > 0) {
+            return current.position(studentId);
+        }
+        if (!isFull()) {
+            return 0;
+        }
+        if (current == null) {
+            current = new Waitlist();
+            waitlist = current;
+        }
+        current.add(studentId);
+        return current.size();
+    }
+
+    /**
+     * @return true if the student left the waitlist, false if they were not on it.
+     */
+    public boolean leaveWaitlist(int studentId) {
+        if (waitlist == null) {
+            return false;
+        }
+        synchronized (this) {
+            return waitlist.remove(studentId);
+        }
+    }
+
+    /**
+     * @return 1-based position of the student on the waitlist, or 0 if they are not on it.
+     */
+    public int waitlistPosition(int studentId) {
+        if (waitlist == null) {
+            return 0;
+        }
+        synchronized (this) {
+            return waitlist.position(studentId);
+        }
+    }
+
+    public int waitlistSize() {
+        if (waitlist == null) {
+            return 0;
+        }
+        synchronized (this) {
+            return waitlist.size();
+        }
+    }
+
+    /**
+     * @return ID of the student at the head of the waitlist, or -1 if nobody is waiting.
+     */
+    public int nextWaitlisted() {
+        if (waitlist == null) {
+            return -1;
+        }
+        synchronized (this) {
+            return waitlist.peek();
+        }
+    }
+
+    /**
+     * Gives up a seat: hands it to the given student if they are at the head of the waitlist,
+     * or releases it if nobody is waiting.
+     * @param next Student expected at the head of the waitlist, or -1 if it was empty.
+     * @return false if the head of the waitlist is no longer {@code next}; nothing changed then.
+     */
+    public synchronized boolean releaseSeatTo(int next) {
+        int head = waitlist == null ? -1 : waitlist.peek();
+        if (head != next) {
+            return false;
+        }
+        if (next == -1) {
+            seatsTaken.decrementAndGet();
+        } else {
+            waitlist.poll();
+        }
+        return true;
+    }
+
+    /**
+     * @return IDs of the waitlisted students, head first.
+     */
+    public int[] waitlisted() {
+        if (waitlist == null) {
+            return SortedIntArrays.EMPTY;
+        }
+        synchronized (this) {
+            return waitlist.toArray();
+        }
+    }
+
+    /**
+     * Appends a student to the waitlist without checking capacity, when restoring persisted state.
+     */
+    public synchronized void restoreWaitlisted(int studentId) {
+        if (waitlist == null) {
+            waitlist = new Waitlist();
+        }
+        waitlist.add(studentId);
+    }
+
+    /**
+     * Returns up to {@code limit} student IDs greater than {@code after}, in ascending order.
+     * @param after Exclusive lower bound, or null to start from the beginning.
+     * @param limit Maximum number of IDs to return.
+     * @return Page of student IDs.
+     */
+    public int[] page(Integer after, int limit) {
+        int[] snapshot = roster;
+        int from = after == null ? 0 : SortedIntArrays.firstAfter(snapshot, after);
+        return Arrays.copyOfRange(snapshot, from, (int) Math.min(snapshot.length, (long) from + limit));
+    }
+}
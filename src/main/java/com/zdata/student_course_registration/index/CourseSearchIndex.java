@@ -0,0 +1,195 @@
+package com.zdata.student_course_registration.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntPredicate;
+import java.util.regex.Pattern;
+
+/**
+ * Search index over the course catalogue: an inverted index from instructor and from title word to
+ * course IDs, and a prefix index from every prefix of the course code to course IDs.
+ * <p>
+ * Each key holds its course IDs as an ascending posting list. A query walks the shortest list of its
+ * criteria from the page cursor and checks the others by binary search, so it costs about the size of
+ * that list up to the end of the page, not the size of the catalogue. Courses are only ever added,
+ * and almost always in ID order, so adding one appends to each of its lists in amortized O(1).
+ */
+public class CourseSearchIndex {
+
+    // Longer prefixes are answered from the list of this length and checked against the code itself
+    static final int MAX_PREFIX = 16;
+
+    private static final Pattern WORD_SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final Map<String, PostingList> byInstructor = new ConcurrentHashMap<>();
+    private final Map<String, PostingList> byTitleWord = new ConcurrentHashMap<>();
+    private final Map<String, PostingList> byCodePrefix = new ConcurrentHashMap<>();
+    // Key: course ID, Value: normalized code; only for codes longer than MAX_PREFIX
+    private final Map<Integer, String> longCodes = new ConcurrentHashMap<>();
+
+    /**
+     * Indexes a new course. Must be called once per course.
+     * @param courseId ID of the course.
+     * @param code Course code.
+     * @param title Course title.
+     * @param instructor Instructor name.
+     */
+    public void add(int courseId, String code, String title, String instructor) {
+        if (instructor != null) {
+            postings(byInstructor, UniqueIndex.normalize(instructor)).add(courseId);
+        }
+        for (String word : words(title)) {
+            postings(byTitleWord, word).add(courseId);
+        }
+        String codeKey = UniqueIndex.normalize(code);
+        for (int length = 1; length <= Math.min(codeKey.length(), MAX_PREFIX); length++) {
+            postings(byCodePrefix, codeKey.substring(0, length)).add(courseId);
+        }
+        if (codeKey.length() > MAX_PREFIX) {
+            longCodes.put(courseId, codeKey);
+        }
+    }
+
+    /**
+     * Finds the courses that match every given criterion, one page at a time in ascending ID order.
+     * @param instructor Instructor name (case-insensitive), or null.
+     * @param codePrefix Start of the course code (case-insensitive), or null.
+     * @param text Words that must all appear in the title (case-insensitive), or null.
+     * @param after Return only courses with an ID greater than this, or null for the first page.
+     * @param limit Maximum number of course IDs to return.
+     * @param accept Further condition a course must meet, checked last.
+     * @return Matching course IDs in ascending order, or null if no criterion narrows the catalogue.
+     */
+    public int[] search(String instructor, String codePrefix, String text, Integer after, int limit,
+                        IntPredicate accept) {
+        List<PostingList> criteria = new ArrayList<>();
+        String prefixKey = null;
+        if (instructor != null && !instructor.isBlank()) {
+            criteria.add(byInstructor.get(UniqueIndex.normalize(instructor)));
+        }
+        if (codePrefix != null && !codePrefix.isBlank()) {
+            prefixKey = UniqueIndex.normalize(codePrefix);
+            criteria.add(byCodePrefix.get(prefixKey.substring(0, Math.min(prefixKey.length(), MAX_PREFIX))));
+        }
+        for (String word : words(text)) {
+            criteria.add(byTitleWord.get(word));
+        }
+        if (criteria.isEmpty()) {
+            return null;
+        }
+        int[][] ids = new int[criteria.size()][];
+        int[] sizes = new int[criteria.size()];
+        int driver = 0;
+        for (int c = 0; c < criteria.size(); c++) {
+            PostingList postings = criteria.get(c);
+            if (postings == null) {
+                return SortedIntArrays.EMPTY;
+            }
+            // Read once per query; a course still being indexed may be missing from some lists and is then skipped
+            PostingList.View view = postings.view;
+            ids[c] = view.ids;
+            sizes[c] = view.size;
+            if (sizes[c] < sizes[driver]) {
+                driver = c;
+            }
+        }
+
+        int[] page = new int[Math.min(limit, sizes[driver])];
+        int found = 0;
+        int start = after == null ? 0 : firstAfter(ids[driver], sizes[driver], after);
+        for (int i = start; i < sizes[driver] && found < page.length; i++) {
+            int courseId = ids[driver][i];
+            if (matchesAll(ids, sizes, driver, courseId)
+                    && matchesLongPrefix(prefixKey, courseId)
+                    && accept.test(courseId)) {
+                page[found++] = courseId;
+            }
+        }
+        return found == page.length ? page : Arrays.copyOf(page, found);
+    }
+
+    private static boolean matchesAll(int[][] ids, int[] sizes, int driver, int courseId) {
+        for (int c = 0; c < ids.length; c++) {
+            if (c != driver && Arrays.binarySearch(ids[c], 0, sizes[c], courseId) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean matchesLongPrefix(String prefixKey, int courseId) {
+        if (prefixKey == null || prefixKey.length() <= MAX_PREFIX) {
+            return true;
+        }
+        String codeKey = longCodes.get(courseId);
+        return codeKey != null && codeKey.startsWith(prefixKey);
+    }
+
+    private static int firstAfter(int[] ids, int size, int after) {
+        int position = Arrays.binarySearch(ids, 0, size, after);
+        return position >= 0 ? position + 1 : -position - 1;
+    }
+
+    private static PostingList postings(Map<String, PostingList> index, String key) {
+        return index.computeIfAbsent(key, k -> new PostingList());
+    }
+
+    /**
+     * Splits text into distinct lower-case words at every character that is not a letter or digit.
+     * @param text Title or search text, or null.
+     * @return Words in order of first appearance.
+     */
+    private static Set<String> words(String text) {
+        Set<String> words = new LinkedHashSet<>();
+        if (text != null) {
+            for (String word : WORD_SEPARATORS.split(text.toLowerCase(Locale.ROOT))) {
+                if (!word.isEmpty()) {
+                    words.add(word);
+                }
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Ascending course IDs of one key. Readers take the current view without locking; a writer appends
+     * in place past the end of the published view, or copies the array when it has to insert or grow.
+     */
+    private static final class PostingList {
+
+        private record View(int[] ids, int size) {
+        }
+
+        private volatile View view = new View(new int[2], 0);
+
+        synchronized void add(int courseId) {
+            int[] ids = view.ids;
+            int size = view.size;
+            if (size > 0 && ids[size - 1] >= courseId) {
+                // Out of ID order, e.g. from concurrent creates; never written over a view readers may hold
+                int position = Arrays.binarySearch(ids, 0, size, courseId);
+                if (position >= 0) {
+                    return;
+                }
+                position = -position - 1;
+                int[] updated = new int[Math.max(ids.length, size + 1)];
+                System.arraycopy(ids, 0, updated, 0, position);
+                updated[position] = courseId;
+                System.arraycopy(ids, position, updated, position + 1, size - position);
+                view = new View(updated, size + 1);
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size] = courseId;
+            view = new View(ids, size + 1);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.zdata.student_course_registration.index;
+
+import java.util.Arrays;
+
+/**
+ * Forward enrollment index: the set of course IDs each student is registered for.
+ * <p>
+ * Implementations must be safe for concurrent use; the registration service additionally
+ * serializes mutations of the same student, so add/remove never race for one student.
+ */
+public interface EnrollmentStore {
+
+    /**
+     * @return true if the course was added, false if the student was already registered for it.
+     */
+    boolean add(int studentId, int courseId);
+
+    /**
+     * @return true if the course was removed, false if the student was not registered for it.
+     */
+    boolean remove(int studentId, int courseId);
+
+    boolean contains(int studentId, int courseId);
+
+    /**
+     * @return Course IDs of the student in ascending order; empty if there are none. Must not be modified.
+     */
+    int[] coursesOf(int studentId);
+
+    /**
+     * @param after Return only course IDs greater than this, or null to start from the first.
+     * @param limit Maximum number of course IDs to return.
+     * @return Up to {@code limit} course IDs of the student in ascending order.
+     */
+    default int[] coursesOf(int studentId, Integer after, int limit) {
+        int[] courseIds = coursesOf(studentId);
+        int from = after == null ? 0 : SortedIntArrays.firstAfter(courseIds, after);
+        return Arrays.copyOfRange(courseIds, from, (int) Math.min(courseIds.length, (long) from + limit));
+    }
+
+    /**
+     * @return Total number of enrollments across all students.
+     */
+    long size();
+
+    /**
+     * Visits every student with at least one course. Weakly consistent with concurrent changes.
+     */
+    void forEach(StudentCourses action);
+
+    @FunctionalInterface
+    interface StudentCourses {
+        /**
+         * @param courseIds Course IDs of the student in ascending order. Must not be modified.
+         */
+        void accept(int studentId, int[] courseIds);
+    }
+}
@@ -0,0 +1,63 @@
+package com.zdata.student_course_registration.index;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Enrollment store backed by a concurrent map of concurrent hash sets (the original layout).
+ * Simple, but every enrollment costs a hash node and a boxed Integer.
+ */
+public class HashSetEnrollmentStore implements EnrollmentStore {
+
+    // Key: studentId, Value: Set of Course IDs the student is registered for
+    private final Map<Integer, Set<Integer>> studentRegistrations = new ConcurrentHashMap<>();
+    private final LongAdder size = new LongAdder();
+
+    @Override
+    public boolean add(int studentId, int courseId) {
+        if (studentRegistrations.computeIfAbsent(studentId, k -> ConcurrentHashMap.newKeySet()).add(courseId)) {
+            size.increment();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean remove(int studentId, int courseId) {
+        Set<Integer> courses = studentRegistrations.get(studentId);
+        if (courses != null && courses.remove(courseId)) {
+            size.decrement();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean contains(int studentId, int courseId) {
+        Set<Integer> courses = studentRegistrations.get(studentId);
+        return courses != null && courses.contains(courseId);
+    }
+
+    @Override
+    public int[] coursesOf(int studentId) {
+        Set<Integer> courses = studentRegistrations.get(studentId);
+        return courses == null ? SortedIntArrays.EMPTY : courses.stream().mapToInt(Integer::intValue).sorted().toArray();
+    }
+
+    @Override
+    public long size() {
+        return size.sum();
+    }
+
+    @Override
+    public void forEach(StudentCourses action) {
+        studentRegistrations.forEach((studentId, courses) -> {
+            int[] courseIds = courses.stream().mapToInt(Integer::intValue).sorted().toArray();
+            if (courseIds.length > 0) {
+                action.accept(studentId, courseIds);
+            }
+        });
+    }
+}
@@ -0,0 +1,59 @@
+package com.zdata.student_course_registration.index;
+
+import java.util.Arrays;
+
+/**
+ * Copy-on-write helpers for immutable, ascending int arrays used as compact sets.
+ */
+final class SortedIntArrays {
+
+    static final int[] EMPTY = new int[0];
+
+    private SortedIntArrays() {
+    }
+
+    static boolean contains(int[] values, int value) {
+        return Arrays.binarySearch(values, value) >= 0;
+    }
+
+    /**
+     * @return A new array with {@code value} inserted, or null if it is already present.
+     */
+    static int[] insert(int[] values, int value) {
+        int position = Arrays.binarySearch(values, value);
+        if (position >= 0) {
+            return null;
+        }
+        position = -position - 1;
+        int[] updated = new int[values.length + 1];
+        System.arraycopy(values, 0, updated, 0, position);
+        updated[position] = value;
+        System.arraycopy(values, position, updated, position + 1, values.length - position);
+        return updated;
+    }
+
+    /**
+     * @return A new array without {@code value}, or null if it is not present.
+     */
+    static int[] remove(int[] values, int value) {
+        int position = Arrays.binarySearch(values, value);
+        if (position < 0) {
+            return null;
+        }
+        if (values.length == 1) {
+            return EMPTY;
+        }
+        int[] updated = new int[values.length - 1];
+        System.arraycopy(values, 0, updated, 0, position);
+        System.arraycopy(values, position + 1, updated, position, values.length - position - 1);
+        return updated;
+    }
+
+    /**
+     * @return Index of the first value greater than {@code after}.
+     */
+    static int firstAfter(int[] values, int after) {
+        int position = Arrays.binarySearch(values, after);
+        return position >= 0 ? position + 1 : -position - 1;
+    }
+}
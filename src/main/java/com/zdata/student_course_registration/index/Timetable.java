@@ -0,0 +1,219 @@
+package com.zdata.student_course_registration.index;
+
+import com.zdata.student_course_registration.model.MeetingTime;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable weekly timetable: the meetings of one course, or of all courses a student is registered for.
+ * <p>
+ * Each meeting is an interval of minutes since Monday 00:00, packed with the ID of its course into a
+ * single long, and the longs are kept sorted by start. Since the meetings of a timetable do not overlap,
+ * only the last meeting that starts before another one ends can overlap it, so checking a course with
+ * k meetings against a timetable of n meetings takes k binary searches instead of a scan of the
+ * student's courses.
+ * <p>
+ * Only state recovered from disk can briefly hold overlapping meetings, while a drop that freed the
+ * time is still being replayed; the meetings then stay sorted, but clash checks may miss overlaps.
+ */
+public final class Timetable {
+
+    public static final Timetable EMPTY = new Timetable(new long[0]);
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int START_SHIFT = 46;
+    private static final int END_SHIFT = 32;
+    private static final long MINUTE_MASK = (1L << 14) - 1;
+
+    // [start:14 bits][end:14 bits][courseId:32 bits], ascending
+    private final long[] meetings;
+
+    private Timetable(long[] meetings) {
+        this.meetings = meetings;
+    }
+
+    /**
+     * @param courseId ID of the course.
+     * @param meetings Weekly meetings of the course, each ending after it starts.
+     * @return Timetable of the course, or {@link #EMPTY} if it has no meetings.
+     * @throws IllegalArgumentException if two of the meetings overlap.
+     */
+    public static Timetable of(int courseId, List<MeetingTime> meetings) {
+        if (meetings == null || meetings.isEmpty()) {
+            return EMPTY;
+        }
+        long[] packed = new long[meetings.size()];
+        for (int i = 0; i < packed.length; i++) {
+            MeetingTime meeting = meetings.get(i);
+            int day = (meeting.getDay().getValue() - 1) * MINUTES_PER_DAY;
+            packed[i] = pack(day + minuteOfDay(meeting.getStart()), day + minuteOfDay(meeting.getEnd()), courseId);
+        }
+        Arrays.sort(packed);
+        for (int i = 1; i < packed.length; i++) {
+            if (start(packed[i]) < end(packed[i - 1])) {
+                throw new IllegalArgumentException("Meetings of course " + courseId + " overlap");
+            }
+        }
+        return new Timetable(packed);
+    }
+
+    public boolean isEmpty() {
+        return meetings.length == 0;
+    }
+
+    /**
+     * @param other Timetable to check against, usually that of a single course.
+     * @return The first overlap between a meeting of this timetable and one of the other, or null if none.
+     */
+    public Overlap clash(Timetable other) {
+        for (long meeting : other.meetings) {
+            int start = start(meeting);
+            int end = end(meeting);
+            int before = firstStartingAtOrAfter(end) - 1;
+            if (before >= 0 && end(meetings[before]) > start) {
+                long existing = meetings[before];
+                return new Overlap(courseId(existing), courseId(meeting),
+                        Math.max(start, start(existing)), Math.min(end, end(existing)));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return A timetable with the meetings of both.
+     */
+    public Timetable with(Timetable other) {
+        if (other.meetings.length == 0) {
+            return this;
+        }
+        if (meetings.length == 0) {
+            return other;
+        }
+        long[] merged = new long[meetings.length + other.meetings.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < meetings.length && j < other.meetings.length) {
+            merged[k++] = meetings[i] <= other.meetings[j] ? meetings[i++] : other.meetings[j++];
+        }
+        while (i < meetings.length) {
+            merged[k++] = meetings[i++];
+        }
+        while (j < other.meetings.length) {
+            merged[k++] = other.meetings[j++];
+        }
+        return new Timetable(merged);
+    }
+
+    /**
+     * @return A timetable without the meetings of the given course.
+     */
+    public Timetable without(int courseId) {
+        int kept = 0;
+        long[] remaining = new long[meetings.length];
+        for (long meeting : meetings) {
+            if (courseId(meeting) != courseId) {
+                remaining[kept++] = meeting;
+            }
+        }
+        if (kept == meetings.length) {
+            return this;
+        }
+        return kept == 0 ? EMPTY : new Timetable(Arrays.copyOf(remaining, kept));
+    }
+
+    /**
+     * Finds every pair of overlapping meetings between the given timetables with a single sweep
+     * over their meetings in start order.
+     * @param timetables Timetables that may overlap each other; each one on its own must not overlap.
+     * @return Overlaps in order of their start, empty if the timetables fit together.
+     */
+    public static List<Overlap> overlaps(List<Timetable> timetables) {
+        int total = 0;
+        for (Timetable timetable : timetables) {
+            total += timetable.meetings.length;
+        }
+        long[] all = new long[total];
+        int at = 0;
+        for (Timetable timetable : timetables) {
+            System.arraycopy(timetable.meetings, 0, all, at, timetable.meetings.length);
+            at += timetable.meetings.length;
+        }
+        Arrays.sort(all);
+
+        List<Overlap> overlaps = new ArrayList<>();
+        // Meetings that have started and not yet ended at the start of the current one
+        long[] running = new long[total];
+        int runningCount = 0;
+        for (long meeting : all) {
+            int start = start(meeting);
+            int kept = 0;
+            for (int i = 0; i < runningCount; i++) {
+                long other = running[i];
+                if (end(other) > start) {
+                    running[kept++] = other;
+                    overlaps.add(new Overlap(courseId(other), courseId(meeting), start, Math.min(end(other), end(meeting))));
+                }
+            }
+            runningCount = kept;
+            running[runningCount++] = meeting;
+        }
+        return overlaps;
+    }
+
+    private int firstStartingAtOrAfter(int minute) {
+        int low = 0;
+        int high = meetings.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (start(meetings[middle]) < minute) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    private static long pack(int start, int end, int courseId) {
+        return (long) start << START_SHIFT | (long) end << END_SHIFT | Integer.toUnsignedLong(courseId);
+    }
+
+    private static int start(long meeting) {
+        return (int) (meeting >>> START_SHIFT & MINUTE_MASK);
+    }
+
+    private static int end(long meeting) {
+        return (int) (meeting >>> END_SHIFT & MINUTE_MASK);
+    }
+
+    private static int courseId(long meeting) {
+        return (int) meeting;
+    }
+
+    /**
+     * Time during which meetings of two courses overlap, in minutes since Monday 00:00.
+     */
+    public record Overlap(int courseId, int otherCourseId, int startMinute, int endMinute) {
+
+        public DayOfWeek day() {
+            return DayOfWeek.of(startMinute / MINUTES_PER_DAY + 1);
+        }
+
+        public LocalTime start() {
+            return LocalTime.ofSecondOfDay(startMinute % MINUTES_PER_DAY * 60L);
+        }
+
+        public LocalTime end() {
+            return LocalTime.ofSecondOfDay(endMinute % MINUTES_PER_DAY * 60L);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.zdata.student_course_registration.index;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Secondary index mapping a normalized unique key (e.g. student email, course code) to an entity ID.
+ * Uniqueness is enforced with an atomic reserve-then-bind step, so duplicate checks are O(1)
+ * and two concurrent creates with the same key cannot both succeed.
+ */
+public class UniqueIndex {
+
+    // Placeholder stored while a key is reserved but its entity is not yet inserted (IDs start at 1)
+    private static final Integer RESERVED = 0;
+
+    // Key: normalized key, Value: entity ID (or RESERVED)
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+    /**
+     * Normalizes a key so lookups are case-insensitive and ignore surrounding whitespace.
+     * @param key Raw key as supplied by the client.
+     * @return Normalized key.
+     */
+    public static String normalize(String key) {
+        return key.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Atomically reserves a key.
+     * @param normalizedKey Key produced by {@link #normalize(String)}.
+     * @return true if the key was free and is now reserved, false if it is already taken.
+     */
+    public boolean reserve(String normalizedKey) {
+        return ids.putIfAbsent(normalizedKey, RESERVED) == null;
+    }
+
+    /**
+     * Binds a previously reserved key to the ID of the inserted entity, making it visible to lookups.
+     * @param normalizedKey Reserved key.
+     * @param id ID of the inserted entity.
+     */
+    public void bind(String normalizedKey, Integer id) {
+        ids.put(normalizedKey, id);
+    }
+
+    /**
+     * Releases a reservation that was not followed by an insert.
+     * @param normalizedKey Reserved key.
+     */
+    public void release(String normalizedKey) {
+        ids.remove(normalizedKey, RESERVED);
+    }
+
+    /**
+     * Looks up the entity ID bound to a key.
+     * @param normalizedKey Key produced by {@link #normalize(String)}.
+     * @return Entity ID, or null if the key is unknown or only reserved.
+     */
+    public Integer lookup(String normalizedKey) {
+        Integer id = ids.get(normalizedKey);
+        return id == null || id.equals(RESERVED) ? null : id;
+    }
+
+    public int size() {
+        return ids.size();
+    }
+}
@@ -0,0 +1,150 @@
+package com.zdata.student_course_registration.index;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * First-come, first-served waitlist of one course.
+ * <p>
+ * Students are appended to an array and the head advances as they are promoted, so joining and
+ * promoting are O(1) amortized. A student who leaves only marks their slot; the slots are compacted
+ * when the array is full. A position is the distance from the head, which is O(1) while nobody ahead
+ * has left, and O(log n) otherwise, using a Fenwick tree that counts the vacated slots.
+ * <p>
+ * Not thread-safe; {@link CourseEnrollment} guards it.
+ */
+public class Waitlist {
+
+    private static final int VACATED = Integer.MIN_VALUE;
+
+    private int[] slots = new int[8];
+    private int head;
+    private int tail;
+    // Key: studentId, Value: index of the student's slot
+    private final Map<Integer, Integer> slotOf = new HashMap<>();
+    // Fenwick tree over slot indexes, counting vacated slots (1-based)
+    private int[] vacated = new int[slots.length + 1];
+    // Vacated slots between head and tail
+    private int vacatedAhead;
+
+    /**
+     * @return true if the student was added, false if they were already waiting.
+     */
+    public boolean add(int studentId) {
+        if (slotOf.containsKey(studentId)) {
+            return false;
+        }
+        if (tail == slots.length) {
+            compact();
+        }
+        slots[tail] = studentId;
+        slotOf.put(studentId, tail++);
+        return true;
+    }
+
+    /**
+     * @return true if the student left, false if they were not waiting.
+     */
+    public boolean remove(int studentId) {
+        Integer slot = slotOf.remove(studentId);
+        if (slot == null) {
+            return false;
+        }
+        slots[slot] = VACATED;
+        vacatedAhead++;
+        for (int i = slot + 1; i < vacated.length; i += i & -i) {
+            vacated[i]++;
+        }
+        return true;
+    }
+
+    /**
+     * @return ID of the student at the head, or -1 if nobody is waiting.
+     */
+    public int peek() {
+        skipVacated();
+        return head < tail ? slots[head] : -1;
+    }
+
+    /**
+     * Removes the student at the head.
+     * @return Their ID, or -1 if nobody is waiting.
+     */
+    public int poll() {
+        int studentId = peek();
+        if (studentId != -1) {
+            slotOf.remove(studentId);
+            head++;
+        }
+        return studentId;
+    }
+
+    /**
+     * @return 1-based position of the student, or 0 if they are not waiting.
+     */
+    public int position(int studentId) {
+        Integer slot = slotOf.get(studentId);
+        if (slot == null) {
+            return 0;
+        }
+        int ahead = slot - head;
+        if (vacatedAhead > 0) {
+            ahead -= vacatedBefore(slot) - vacatedBefore(head);
+        }
+        return ahead + 1;
+    }
+
+    public int size() {
+        return slotOf.size();
+    }
+
+    /**
+     * @return IDs of the waiting students, head first.
+     */
+    public int[] toArray() {
+        int[] studentIds = new int[size()];
+        int count = 0;
+        for (int i = head; i < tail; i++) {
+            if (slots[i] != VACATED) {
+                studentIds[count++] = slots[i];
+            }
+        }
+        return studentIds;
+    }
+
+    private void skipVacated() {
+        while (head < tail && slots[head] == VACATED) {
+            head++;
+            vacatedAhead--;
+        }
+    }
+
+    private int vacatedBefore(int slot) {
+        int count = 0;
+        for (int i = slot; i > 0; i -= i & -i) {
+            count += vacated[i];
+        }
+        return count;
+    }
+
+    /**
+     * Moves the waiting students to the front, growing the array if it is more than half full.
+     */
+    private void compact() {
+        int[] waiting = toArray();
+        if (waiting.length * 2 > slots.length) {
+            slots = new int[slots.length * 2];
+        } else {
+            Arrays.fill(slots, 0);
+        }
+        System.arraycopy(waiting, 0, slots, 0, waiting.length);
+        for (int i = 0; i < waiting.length; i++) {
+            slotOf.put(waiting[i], i);
+        }
+        head = 0;
+        tail = waiting.length;
+        vacated = new int[slots.length + 1];
+        vacatedAhead = 0;
+    }
+}
@@ -1,9 +1,11 @@
 package com.zdata.student_course_registration.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
 import java.util.Objects;
 
 @Data
@@ -15,6 +17,13 @@ public class Course {
     private String code;
     private String title;
     private String instructor;
+    // Maximum number of enrolled students; null means unlimited
+    private Integer capacity;
+    // Weekly meetings; null or empty for a course without fixed times
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<MeetingTime> meetings;
 
-
+    public Course(Integer id, String code, String title, String instructor, Integer capacity) {
+        this(id, code, title, instructor, capacity, null);
+    }
 }
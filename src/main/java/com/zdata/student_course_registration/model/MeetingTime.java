@@ -0,0 +1,39 @@
+package com.zdata.student_course_registration.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+/**
+ * One weekly meeting of a course, e.g. MONDAY 09:00-10:30. Times are whole minutes and a meeting
+ * ends on the day it starts.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MeetingTime {
+
+    @NotNull(message = "Please provide the day of the meeting")
+    private DayOfWeek day;
+
+    @NotNull(message = "Please provide the start time of the meeting")
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime start;
+
+    @NotNull(message = "Please provide the end time of the meeting")
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime end;
+
+    @JsonIgnore
+    @AssertTrue(message = "A meeting must end after it starts")
+    public boolean isEndAfterStart() {
+        return start == null || end == null || end.isAfter(start);
+    }
+}
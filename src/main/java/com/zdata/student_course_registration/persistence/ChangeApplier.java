@@ -0,0 +1,45 @@
+package com.zdata.student_course_registration.persistence;
+
+import com.zdata.student_course_registration.event.ChangeEvent;
+import com.zdata.student_course_registration.service.CourseService;
+import com.zdata.student_course_registration.service.RegistrationService;
+import com.zdata.student_course_registration.service.StudentService;
+
+/**
+ * Applies change events that were published elsewhere, e.g. read back from the write-ahead log or
+ * received from a replication leader, through the idempotent restore methods of the services.
+ * Nothing is published again.
+ */
+public final class ChangeApplier {
+
+    private final StudentService studentService;
+    private final CourseService courseService;
+    private final RegistrationService registrationService;
+
+    public ChangeApplier(StudentService studentService, CourseService courseService,
+                         RegistrationService registrationService) {
+        this.studentService = studentService;
+        this.courseService = courseService;
+        this.registrationService = registrationService;
+    }
+
+    public void apply(ChangeEvent event) {
+        if (event instanceof ChangeEvent.StudentCreated created) {
+            studentService.restoreStudent(created.student());
+        } else if (event instanceof ChangeEvent.CourseCreated created) {
+            courseService.restoreCourse(created.course());
+        } else if (event instanceof ChangeEvent.Registered registered) {
+            registrationService.restoreRegistration(registered.studentId(), registered.courseId());
+        } else if (event instanceof ChangeEvent.Dropped dropped) {
+            registrationService.restoreDrop(dropped.studentId(), dropped.courseId());
+        } else if (event instanceof ChangeEvent.WaitlistJoined joined) {
+            registrationService.restoreWaitlistChange(joined.studentId(), joined.courseId(), true);
+        } else if (event instanceof ChangeEvent.WaitlistLeft left) {
+            registrationService.restoreWaitlistChange(left.studentId(), left.courseId(), false);
+        } else if (event instanceof ChangeEvent.Transaction transaction) {
+            for (ChangeEvent change : transaction.changes()) {
+                apply(change);
+            }
+        }
+    }
+}
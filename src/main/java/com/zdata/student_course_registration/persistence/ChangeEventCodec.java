@@ -0,0 +1,165 @@
+package com.zdata.student_course_registration.persistence;
+
+import com.zdata.student_course_registration.event.ChangeEvent;
+import com.zdata.student_course_registration.event.ChangeListener;
+import com.zdata.student_course_registration.model.Course;
+import com.zdata.student_course_registration.model.MeetingTime;
+import com.zdata.student_course_registration.model.Student;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Compact binary encoding of change events and of the entities they carry,
+ * shared by the write-ahead log and the snapshot files.
+ */
+public final class ChangeEventCodec {
+
+    private static final byte STUDENT_CREATED = 1;
+    private static final byte COURSE_CREATED = 2;
+    private static final byte REGISTERED = 3;
+    private static final byte DROPPED = 4;
+    private static final byte WAITLIST_JOINED = 5;
+    private static final byte WAITLIST_LEFT = 6;
+    // A course with meetings; COURSE_CREATED stays in use for courses without, so older logs still read the same
+    private static final byte COURSE_SCHEDULED = 7;
+    private static final byte TRANSACTION = 8;
+
+    private ChangeEventCodec() {
+    }
+
+    public static void write(long sequence, ChangeEvent event, DataOutput out) throws IOException {
+        out.writeLong(sequence);
+        writeEvent(event, out);
+    }
+
+    private static void writeEvent(ChangeEvent event, DataOutput out) throws IOException {
+        if (event instanceof ChangeEvent.StudentCreated created) {
+            out.writeByte(STUDENT_CREATED);
+            writeStudent(created.student(), out);
+        } else if (event instanceof ChangeEvent.CourseCreated created) {
+            List<MeetingTime> meetings = created.course().getMeetings();
+            boolean scheduled = meetings != null && !meetings.isEmpty();
+            out.writeByte(scheduled ? COURSE_SCHEDULED : COURSE_CREATED);
+            writeCourse(created.course(), out);
+            if (scheduled) {
+                out.writeShort(meetings.size());
+                for (MeetingTime meeting : meetings) {
+                    out.writeInt(packMeeting(meeting));
+                }
+            }
+        } else if (event instanceof ChangeEvent.Registered registered) {
+            out.writeByte(REGISTERED);
+            out.writeInt(registered.studentId());
+            out.writeInt(registered.courseId());
+        } else if (event instanceof ChangeEvent.Dropped dropped) {
+            out.writeByte(DROPPED);
+            out.writeInt(dropped.studentId());
+            out.writeInt(dropped.courseId());
+        } else if (event instanceof ChangeEvent.WaitlistJoined joined) {
+            out.writeByte(WAITLIST_JOINED);
+            out.writeInt(joined.studentId());
+            out.writeInt(joined.courseId());
+        } else if (event instanceof ChangeEvent.WaitlistLeft left) {
+            out.writeByte(WAITLIST_LEFT);
+            out.writeInt(left.studentId());
+            out.writeInt(left.courseId());
+        } else if (event instanceof ChangeEvent.Transaction transaction) {
+            out.writeByte(TRANSACTION);
+            out.writeShort(transaction.changes().size());
+            for (ChangeEvent change : transaction.changes()) {
+                writeEvent(change, out);
+            }
+        } else {
+            throw new IllegalArgumentException("Unsupported change event " + event);
+        }
+    }
+
+    /**
+     * Decodes one event written by {@link #write(long, ChangeEvent, DataOutput)} and hands it to the handler.
+     */
+    public static void read(DataInput in, ChangeListener handler) throws IOException {
+        long sequence = in.readLong();
+        handler.onChange(sequence, readEvent(in));
+    }
+
+    private static ChangeEvent readEvent(DataInput in) throws IOException {
+        byte type = in.readByte();
+        return switch (type) {
+            case STUDENT_CREATED -> new ChangeEvent.StudentCreated(readStudent(in));
+            case COURSE_CREATED -> new ChangeEvent.CourseCreated(readCourse(in));
+            case COURSE_SCHEDULED -> {
+                Course course = readCourse(in);
+                MeetingTime[] meetings = new MeetingTime[in.readUnsignedShort()];
+                for (int i = 0; i < meetings.length; i++) {
+                    meetings[i] = unpackMeeting(in.readInt());
+                }
+                course.setMeetings(List.of(meetings));
+                yield new ChangeEvent.CourseCreated(course);
+            }
+            case REGISTERED -> new ChangeEvent.Registered(in.readInt(), in.readInt());
+            case DROPPED -> new ChangeEvent.Dropped(in.readInt(), in.readInt());
+            case WAITLIST_JOINED -> new ChangeEvent.WaitlistJoined(in.readInt(), in.readInt());
+            case WAITLIST_LEFT -> new ChangeEvent.WaitlistLeft(in.readInt(), in.readInt());
+            case TRANSACTION -> {
+                ChangeEvent[] changes = new ChangeEvent[in.readUnsignedShort()];
+                for (int i = 0; i < changes.length; i++) {
+                    changes[i] = readEvent(in);
+                }
+                yield new ChangeEvent.Transaction(List.of(changes));
+            }
+            default -> throw new IOException("Unknown change event type " + type);
+        };
+    }
+
+    public static void writeStudent(Student student, DataOutput out) throws IOException {
+        out.writeInt(student.getId());
+        out.writeUTF(student.getName());
+        out.writeUTF(student.getEmail());
+    }
+
+    public static Student readStudent(DataInput in) throws IOException {
+        return new Student(in.readInt(), in.readUTF(), in.readUTF());
+    }
+
+    public static void writeCourse(Course course, DataOutput out) throws IOException {
+        out.writeInt(course.getId());
+        out.writeUTF(course.getCode());
+        out.writeUTF(course.getTitle());
+        out.writeUTF(course.getInstructor());
+        // Capacities are at least 1, so 0 stands for unlimited
+        out.writeInt(course.getCapacity() == null ? 0 : course.getCapacity());
+    }
+
+    /**
+     * @return The meeting as {@code [day 1-7][start minute of day:11 bits][end minute of day:11 bits]}.
+     */
+    public static int packMeeting(MeetingTime meeting) {
+        return meeting.getDay().getValue() << 22
+                | minuteOfDay(meeting.getStart()) << 11
+                | minuteOfDay(meeting.getEnd());
+    }
+
+    public static MeetingTime unpackMeeting(int packed) {
+        return new MeetingTime(DayOfWeek.of(packed >>> 22),
+                LocalTime.ofSecondOfDay((packed >>> 11 & 0x7ff) * 60L),
+                LocalTime.ofSecondOfDay((packed & 0x7ff) * 60L));
+    }
+
+    private static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    public static Course readCourse(DataInput in) throws IOException {
+        Integer id = in.readInt();
+        String code = in.readUTF();
+        String title = in.readUTF();
+        String instructor = in.readUTF();
+        int capacity = in.readInt();
+        return new Course(id, code, title, instructor, capacity == 0 ? null : capacity);
+    }
+}
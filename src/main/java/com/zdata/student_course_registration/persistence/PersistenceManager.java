@@ -0,0 +1,145 @@
+package com.zdata.student_course_registration.persistence;
+
+import com.zdata.student_course_registration.event.ChangeEvent;
+import com.zdata.student_course_registration.event.ChangeEventPublisher;
+import com.zdata.student_course_registration.event.ChangeListener;
+import com.zdata.student_course_registration.service.CourseService;
+import com.zdata.student_course_registration.service.RegistrationService;
+import com.zdata.student_course_registration.service.StudentService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Makes the in-memory stores durable.
+ * On startup it rebuilds the services from the latest snapshot plus the log tail, before the
+ * web server accepts requests. Afterwards it logs every published change to the write-ahead log
+ * and periodically writes a snapshot so old log segments can be deleted.
+ */
+@Component
+@ConditionalOnProperty(prefix = "registration.persistence", name = "enabled", havingValue = "true")
+public class PersistenceManager implements ChangeListener, InitializingBean, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(PersistenceManager.class);
+
+    private final PersistenceProperties properties;
+    private final StudentService studentService;
+    private final CourseService courseService;
+    private final RegistrationService registrationService;
+    private final ChangeEventPublisher changeEvents;
+    private final SnapshotStore snapshotStore;
+    private final ChangeApplier changeApplier;
+    private final Lock snapshotLock = new ReentrantLock();
+
+    private WriteAheadLog writeAheadLog;
+    private ScheduledExecutorService snapshotScheduler;
+    private volatile long lastSnapshotSequence;
+
+    public PersistenceManager(PersistenceProperties properties, StudentService studentService,
+                              CourseService courseService, RegistrationService registrationService,
+                              ChangeEventPublisher changeEvents) {
+        this.properties = properties;
+        this.studentService = studentService;
+        this.courseService = courseService;
+        this.registrationService = registrationService;
+        this.changeEvents = changeEvents;
+        this.snapshotStore = new SnapshotStore(properties.getDirectory());
+        this.changeApplier = new ChangeApplier(studentService, courseService, registrationService);
+    }
+
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        Path directory = properties.getDirectory();
+        Files.createDirectories(directory);
+
+        long started = System.nanoTime();
+        long snapshotSequence = snapshotStore.restoreLatest(studentService, courseService, registrationService);
+        long lastSequence = snapshotSequence;
+        for (Path segment : WriteAheadLog.segments(directory)) {
+            lastSequence = Math.max(lastSequence, WriteAheadLog.recover(segment, snapshotSequence,
+                    (sequence, event) -> changeApplier.apply(event)));
+        }
+        log.info("Recovered {} students and {} courses up to change {} (snapshot {}) in {} ms",
+                studentService.studentCount(), courseService.courseCount(), lastSequence, snapshotSequence,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+
+        lastSnapshotSequence = snapshotSequence;
+        changeEvents.resetSequence(lastSequence);
+        writeAheadLog = new WriteAheadLog(directory, properties.getFsync(), properties.getFsyncInterval(), lastSequence + 1);
+        changeEvents.addListener(this);
+
+        long interval = properties.getSnapshotInterval().toMillis();
+        snapshotScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        snapshotScheduler.scheduleWithFixedDelay(this::snapshotIfChanged, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void onChange(long sequence, ChangeEvent event) {
+        writeAheadLog.append(sequence, event);
+    }
+
+    @Override
+    public void awaitDurable(long sequence) {
+        writeAheadLog.awaitDurable(sequence);
+    }
+
+    @Override
+    public boolean blocksUntilDurable() {
+        return properties.getFsync() == PersistenceProperties.FsyncPolicy.ALWAYS;
+    }
+
+    /**
+     * Rotates the log, writes a snapshot covering everything in the closed segments and deletes them.
+     * @return Sequence covered by the new snapshot.
+     */
+    public long snapshot() throws IOException {
+        // A j.u.c. lock rather than synchronized, so callers on virtual threads do not pin their carrier
+        snapshotLock.lock();
+        try {
+            long covered = writeAheadLog.rotate();
+            // A create in the closed segments may not be in the maps yet, and its segment is about to go
+            changeEvents.awaitVisible(covered);
+            snapshotStore.write(covered, studentService, courseService, registrationService);
+            WriteAheadLog.deleteSegmentsUpTo(properties.getDirectory(), covered);
+            snapshotStore.deleteOlderThan(covered);
+            lastSnapshotSequence = covered;
+            return covered;
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    private void snapshotIfChanged() {
+        try {
+            if (changeEvents.currentSequence() > lastSnapshotSequence) {
+                long covered = snapshot();
+                log.info("Wrote snapshot up to change {}", covered);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Snapshot failed", e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        snapshotScheduler.shutdownNow();
+        changeEvents.removeListener(this);
+        writeAheadLog.close();
+    }
+}
@@ -0,0 +1,32 @@
+package com.zdata.student_course_registration.persistence;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "registration.persistence")
+public class PersistenceProperties {
+
+    /**
+     * When a write-ahead-logged change counts as durable.
+     */
+    public enum FsyncPolicy {
+        // Requests wait until their change is fsynced; concurrent changes share one fsync (group commit)
+        ALWAYS,
+        // Changes are written and fsynced in batches every fsync-interval; requests never wait
+        INTERVAL,
+        // Changes are written in batches every fsync-interval and fsynced only on rotation and shutdown
+        NEVER
+    }
+
+    private boolean enabled = false;
+    // Directory holding the write-ahead log segments and snapshots
+    private Path directory = Path.of("data");
+    private FsyncPolicy fsync = FsyncPolicy.INTERVAL;
+    private Duration fsyncInterval = Duration.ofMillis(50);
+    // How often a snapshot is taken (when something changed), after which older log segments are deleted
+    private Duration snapshotInterval = Duration.ofMinutes(10);
+}
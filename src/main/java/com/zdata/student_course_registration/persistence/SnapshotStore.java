@@ -0,0 +1,344 @@
+package com.zdata.student_course_registration.persistence;
+
+import com.zdata.student_course_registration.event.ChangeEventPublisher;
+import com.zdata.student_course_registration.model.Course;
+import com.zdata.student_course_registration.model.MeetingTime;
+import com.zdata.student_course_registration.model.Student;
+import com.zdata.student_course_registration.service.CourseService;
+import com.zdata.student_course_registration.service.RegistrationService;
+import com.zdata.student_course_registration.service.StudentService;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Compact binary snapshots of all students, courses, registrations and waitlists.
+ * <p>
+ * A snapshot is taken while writes continue. Once every create up to its sequence is visible
+ * (see {@link ChangeEventPublisher#awaitVisible(long)}), it contains every event up to that sequence
+ * and possibly some later ones. Replaying the log tail on top of it is safe because
+ * restoring is idempotent. Files are written to a temporary name and renamed once fsynced.
+ * <p>
+ * Format version 4 is laid out for memory-mapped loading:
+ * <pre>
+ * header (64 bytes)  magic, version, sequence, record counts and section offsets
+ * courses            [int id][int capacity, 0 = unlimited][str code][str title][str instructor]
+ *                    [int meeting count][int packed meeting x count]
+ * students           [int id][str name][str email]
+ * enrollments        8-byte aligned ints: [studentId][count][courseId x count], course IDs ascending
+ * waitlists          ints to the end of the file: [courseId][count][studentId x count], head first
+ * </pre>
+ * where {@code str} is {@code [int length][UTF-8 bytes]}. Each section is mapped read-only and
+ * decoded in place; course ID runs are bulk-copied into int arrays without per-element parsing.
+ * The waitlist count is the last header field, after the end of the enrollments section.
+ * Version 3 files (without meetings), version 2 files (without waitlists either) and version 1 files
+ * (sequential tagged records) are still readable.
+ */
+public class SnapshotStore {
+
+    private static final int MAGIC = 0x53435253; // "SCRS"
+    private static final int VERSION = 4;
+    private static final int WITHOUT_MEETINGS_VERSION = 3;
+    private static final int WITHOUT_WAITLISTS_VERSION = 2;
+    private static final int LEGACY_VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+
+    // Record tags of the version 1 format
+    private static final byte END = 0;
+    private static final byte COURSE = 1;
+    private static final byte STUDENT = 2;
+    private static final byte REGISTRATIONS = 3;
+
+    private final Path directory;
+
+    public SnapshotStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Writes a snapshot of the current state.
+     * @param sequence Sequence of the last event the snapshot is guaranteed to contain; the caller must
+     *                 have waited for the creates up to it to become visible.
+     * @return Path of the snapshot file.
+     */
+    public Path write(long sequence, StudentService studentService, CourseService courseService,
+                      RegistrationService registrationService) throws IOException {
+        Path target = directory.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, sequence, SNAPSHOT_SUFFIX));
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.position(HEADER_SIZE);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            int[] counts = new int[4];
+            try {
+                courseService.forEachCourse(course -> {
+                    writeCourse(course, out);
+                    counts[0]++;
+                });
+                out.flush();
+                long studentsOffset = channel.position();
+
+                studentService.forEachStudent(student -> {
+                    writeStudent(student, out);
+                    counts[1]++;
+                });
+                out.flush();
+                for (long position = channel.position(); position % Long.BYTES != 0; position++) {
+                    out.writeByte(0);
+                }
+                out.flush();
+                long enrollmentsOffset = channel.position();
+
+                registrationService.forEachRegistration((studentId, courseIds) -> {
+                    writeIdRun(studentId, courseIds, out);
+                    counts[2]++;
+                });
+                out.flush();
+                long end = channel.position();
+
+                registrationService.forEachWaitlist((courseId, studentIds) -> {
+                    writeIdRun(courseId, studentIds, out);
+                    counts[3]++;
+                });
+                out.flush();
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC).putInt(VERSION).putLong(sequence)
+                        .putInt(counts[0]).putInt(counts[1]).putInt(counts[2])
+                        .putLong(HEADER_SIZE).putLong(studentsOffset).putLong(enrollmentsOffset).putLong(end)
+                        .putInt(counts[3]);
+                header.clear();
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return target;
+    }
+
+    /**
+     * Restores the most recent snapshot, if there is one.
+     * @return Sequence of the restored snapshot, or 0 if there is none.
+     */
+    public long restoreLatest(StudentService studentService, CourseService courseService,
+                              RegistrationService registrationService) throws IOException {
+        List<Path> snapshots = snapshots();
+        if (snapshots.isEmpty()) {
+            return 0;
+        }
+        return restore(snapshots.get(snapshots.size() - 1), studentService, courseService, registrationService);
+    }
+
+    /**
+     * Restores the given snapshot file.
+     * @return Sequence of the snapshot.
+     */
+    public long restore(Path snapshot, StudentService studentService, CourseService courseService,
+                        RegistrationService registrationService) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(HEADER_SIZE, channel.size()));
+            if (header.remaining() < 8 || header.getInt(0) != MAGIC) {
+                throw new IOException("Not a snapshot file: " + snapshot);
+            }
+            int version = header.getInt(4);
+            if (version == LEGACY_VERSION) {
+                return restoreLegacy(snapshot, studentService, courseService, registrationService);
+            }
+            if (version < WITHOUT_WAITLISTS_VERSION || version > VERSION || header.remaining() < HEADER_SIZE) {
+                throw new IOException("Unsupported snapshot version " + version + ": " + snapshot);
+            }
+
+            long sequence = header.getLong(8);
+            int courseCount = header.getInt(16);
+            int studentCount = header.getInt(20);
+            int enrolledStudentCount = header.getInt(24);
+            long coursesOffset = header.getLong(28);
+            long studentsOffset = header.getLong(36);
+            long enrollmentsOffset = header.getLong(44);
+            long end = header.getLong(52);
+
+            ByteBuffer courses = map(channel, coursesOffset, studentsOffset);
+            for (int i = 0; i < courseCount; i++) {
+                courseService.restoreCourse(readCourse(courses, version == VERSION));
+            }
+            ByteBuffer students = map(channel, studentsOffset, enrollmentsOffset);
+            for (int i = 0; i < studentCount; i++) {
+                studentService.restoreStudent(readStudent(students));
+            }
+            IntBuffer enrollments = map(channel, enrollmentsOffset, end).asIntBuffer();
+            for (int i = 0; i < enrolledStudentCount; i++) {
+                int studentId = enrollments.get();
+                int[] courseIds = new int[enrollments.get()];
+                enrollments.get(courseIds);
+                registrationService.restoreRegistrations(studentId, courseIds);
+            }
+            registrationService.finishRestore();
+            if (version >= WITHOUT_MEETINGS_VERSION) {
+                int waitlistCount = header.getInt(60);
+                IntBuffer waitlists = map(channel, end, channel.size()).asIntBuffer();
+                for (int i = 0; i < waitlistCount; i++) {
+                    int courseId = waitlists.get();
+                    int[] studentIds = new int[waitlists.get()];
+                    waitlists.get(studentIds);
+                    registrationService.restoreWaitlist(courseId, studentIds);
+                }
+            }
+            return sequence;
+        }
+    }
+
+    /**
+     * Deletes every snapshot older than the one for {@code sequence}.
+     */
+    public void deleteOlderThan(long sequence) throws IOException {
+        for (Path snapshot : snapshots()) {
+            if (sequenceOf(snapshot) < sequence) {
+                Files.deleteIfExists(snapshot);
+            }
+        }
+    }
+
+    private static ByteBuffer map(FileChannel channel, long from, long to) throws IOException {
+        if (to - from > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot section larger than 2 GB");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+    }
+
+    private static void writeCourse(Course course, DataOutputStream out) {
+        try {
+            out.writeInt(course.getId());
+            out.writeInt(course.getCapacity() == null ? 0 : course.getCapacity());
+            writeString(course.getCode(), out);
+            writeString(course.getTitle(), out);
+            writeString(course.getInstructor(), out);
+            List<MeetingTime> meetings = course.getMeetings() == null ? List.of() : course.getMeetings();
+            out.writeInt(meetings.size());
+            for (MeetingTime meeting : meetings) {
+                out.writeInt(ChangeEventCodec.packMeeting(meeting));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Course readCourse(ByteBuffer in, boolean withMeetings) {
+        Integer id = in.getInt();
+        int capacity = in.getInt();
+        Course course = new Course(id, readString(in), readString(in), readString(in), capacity == 0 ? null : capacity);
+        int meetingCount = withMeetings ? in.getInt() : 0;
+        if (meetingCount > 0) {
+            MeetingTime[] meetings = new MeetingTime[meetingCount];
+            for (int i = 0; i < meetingCount; i++) {
+                meetings[i] = ChangeEventCodec.unpackMeeting(in.getInt());
+            }
+            course.setMeetings(List.of(meetings));
+        }
+        return course;
+    }
+
+    private static void writeStudent(Student student, DataOutputStream out) {
+        try {
+            out.writeInt(student.getId());
+            writeString(student.getName(), out);
+            writeString(student.getEmail(), out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Student readStudent(ByteBuffer in) {
+        Integer id = in.getInt();
+        return new Student(id, readString(in), readString(in));
+    }
+
+    /**
+     * Writes an ID followed by a counted run of IDs; used for enrollments and for waitlists.
+     */
+    private static void writeIdRun(int id, int[] ids, DataOutputStream out) {
+        try {
+            out.writeInt(id);
+            out.writeInt(ids.length);
+            for (int each : ids) {
+                out.writeInt(each);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeString(String value, DataOutputStream out) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long restoreLegacy(Path snapshot, StudentService studentService, CourseService courseService,
+                                      RegistrationService registrationService) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot), 1 << 16))) {
+            in.readInt();
+            in.readInt();
+            long sequence = in.readLong();
+            for (byte type = in.readByte(); type != END; type = in.readByte()) {
+                switch (type) {
+                    case COURSE -> courseService.restoreCourse(ChangeEventCodec.readCourse(in));
+                    case STUDENT -> studentService.restoreStudent(ChangeEventCodec.readStudent(in));
+                    case REGISTRATIONS -> {
+                        Integer studentId = in.readInt();
+                        int[] courseIds = new int[in.readInt()];
+                        for (int i = 0; i < courseIds.length; i++) {
+                            courseIds[i] = in.readInt();
+                        }
+                        registrationService.restoreRegistrations(studentId, courseIds);
+                    }
+                    default -> throw new IOException("Corrupt snapshot " + snapshot + ": unknown record type " + type);
+                }
+            }
+            registrationService.finishRestore();
+            return sequence;
+        }
+    }
+
+    private List<Path> snapshots() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long sequenceOf(Path snapshot) {
+        String name = snapshot.getFileName().toString();
+        return Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length()));
+    }
+}
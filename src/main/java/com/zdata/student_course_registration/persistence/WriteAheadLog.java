@@ -0,0 +1,413 @@
+package com.zdata.student_course_registration.persistence;
+
+import com.zdata.student_course_registration.event.ChangeEvent;
+import com.zdata.student_course_registration.event.ChangeListener;
+import com.zdata.student_course_registration.event.InOrderDelivery;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, group-committed log of change events.
+ * <p>
+ * Appends encode and checksum the event on the calling thread without any lock, then only copy the
+ * record into an in-memory buffer, in sequence order, under a short lock. A single flusher thread swaps
+ * that buffer out and writes it to the current segment with a {@link FileChannel}, so all events
+ * that arrive while a write or fsync is in progress share the next one. Each record is framed as
+ * {@code [int length][int crc32][payload]}; a torn or corrupt record ends replay of its segment.
+ * Segments are named after the sequence of their first event. A segment is only ever written by the
+ * log that created it: recovery cuts each segment back to its last intact record, and new segments
+ * are never opened over an existing file, so no record is ever appended behind a torn one.
+ */
+public class WriteAheadLog implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final PersistenceProperties.FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition writesPending = lock.newCondition();
+    private final Condition batchWritten = lock.newCondition();
+    // Guarded by lock
+    private RecordBuffer active = new RecordBuffer();
+    private RecordBuffer spare = new RecordBuffer();
+    // Puts records appended concurrently back into sequence order before they reach the active buffer
+    private final InOrderDelivery<byte[]> inOrder;
+    // Sequence of the last record in the active buffer or before; all earlier ones are there too
+    private long appendedSequence;
+    private long writtenSequence;
+    private CompletableFuture<Long> rotation;
+    private boolean closing;
+    private IOException failure;
+
+    // Owned by the flusher thread
+    private FileChannel channel;
+    private long segmentSequence;
+    private final Thread flusher;
+
+    /**
+     * Opens a new segment and starts the flusher thread.
+     * @param nextSequence Sequence of the first event that will be appended.
+     * @throws java.nio.file.FileAlreadyExistsException if a segment starting at nextSequence exists,
+     *                                                  e.g. one that was not recovered first.
+     */
+    public WriteAheadLog(Path directory, PersistenceProperties.FsyncPolicy fsyncPolicy, Duration fsyncInterval,
+                         long nextSequence) throws IOException {
+        this.directory = directory;
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalNanos = fsyncInterval.toNanos();
+        this.appendedSequence = nextSequence - 1;
+        this.writtenSequence = nextSequence - 1;
+        this.inOrder = new InOrderDelivery<>(nextSequence - 1, (sequence, record) -> {
+            if (record != null) {
+                active.write(record, 0, record.length);
+            }
+            appendedSequence = sequence;
+        });
+        this.segmentSequence = nextSequence;
+        this.channel = openSegment(nextSequence);
+        this.flusher = new Thread(this::flushLoop, "wal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Buffers an event for the next group write. Never blocks on I/O.
+     * Every sequence must be appended exactly once, since later ones wait for the earlier ones.
+     * @throws UncheckedIOException if the event cannot be encoded, in which case it is skipped,
+     *                              or if an earlier write failed and the log is unusable.
+     */
+    public void append(long sequence, ChangeEvent event) {
+        byte[] record = null;
+        IOException encodeFailure = null;
+        try {
+            record = frame(sequence, event);
+        } catch (IOException e) {
+            encodeFailure = e;
+        }
+        lock.lock();
+        try {
+            inOrder.add(sequence, record);
+            if (fsyncPolicy == PersistenceProperties.FsyncPolicy.ALWAYS) {
+                writesPending.signal();
+            }
+            if (failure != null) {
+                throw new UncheckedIOException("Write-ahead log is unavailable", failure);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (encodeFailure != null) {
+            throw new UncheckedIOException("Change " + sequence + " could not be logged", encodeFailure);
+        }
+    }
+
+    /**
+     * Encodes one event as a framed record: {@code [int length][int crc32][payload]}.
+     */
+    private static byte[] frame(long sequence, ChangeEvent event) throws IOException {
+        RecordBuffer payload = new RecordBuffer(64);
+        ChangeEventCodec.write(sequence, event, new DataOutputStream(payload));
+        CRC32 crc = new CRC32();
+        crc.update(payload.array(), 0, payload.size());
+        return ByteBuffer.allocate(2 * Integer.BYTES + payload.size())
+                .putInt(payload.size())
+                .putInt((int) crc.getValue())
+                .put(payload.array(), 0, payload.size())
+                .array();
+    }
+
+    /**
+     * With the ALWAYS policy, blocks until the event is written and fsynced. Returns immediately otherwise.
+     */
+    public void awaitDurable(long sequence) {
+        if (fsyncPolicy != PersistenceProperties.FsyncPolicy.ALWAYS) {
+            return;
+        }
+        lock.lock();
+        try {
+            while (writtenSequence < sequence) {
+                if (failure != null) {
+                    throw new UncheckedIOException("Write-ahead log is unavailable", failure);
+                }
+                batchWritten.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the write-ahead log", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes out everything appended so far, fsyncs it and starts a new segment.
+     * @return Sequence of the last event in the closed segments.
+     */
+    public long rotate() throws IOException {
+        CompletableFuture<Long> done = new CompletableFuture<>();
+        lock.lock();
+        try {
+            if (failure != null) {
+                throw failure;
+            }
+            rotation = done;
+            writesPending.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            return done.join();
+        } catch (RuntimeException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException(e);
+        }
+    }
+
+    /**
+     * Writes out and fsyncs everything appended so far, then stops the flusher.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closing = true;
+            writesPending.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            RecordBuffer batch;
+            long batchSequence;
+            CompletableFuture<Long> rotate;
+            boolean close;
+            lock.lock();
+            try {
+                if (fsyncPolicy == PersistenceProperties.FsyncPolicy.ALWAYS) {
+                    while (active.size() == 0 && rotation == null && !closing) {
+                        writesPending.await();
+                    }
+                } else {
+                    long remaining = fsyncIntervalNanos;
+                    while (remaining > 0 && rotation == null && !closing) {
+                        remaining = writesPending.awaitNanos(remaining);
+                    }
+                }
+                batch = active;
+                active = spare;
+                batchSequence = appendedSequence;
+                rotate = rotation;
+                rotation = null;
+                close = closing;
+            } catch (InterruptedException e) {
+                failure = new InterruptedIOException("Write-ahead log flusher interrupted");
+                batchWritten.signalAll();
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            IOException error = null;
+            try {
+                boolean wrote = batch.size() > 0;
+                ByteBuffer bytes = ByteBuffer.wrap(batch.array(), 0, batch.size());
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                if (rotate != null || close || (wrote && fsyncPolicy != PersistenceProperties.FsyncPolicy.NEVER)) {
+                    channel.force(false);
+                }
+                // Nothing was logged since the last rotation if the next segment would have the current one's name
+                if (rotate != null && batchSequence + 1 != segmentSequence) {
+                    channel.close();
+                    segmentSequence = batchSequence + 1;
+                    channel = openSegment(segmentSequence);
+                }
+                if (close) {
+                    channel.close();
+                }
+            } catch (IOException e) {
+                error = e;
+            }
+
+            lock.lock();
+            try {
+                batch.reset();
+                spare = batch;
+                if (error != null) {
+                    failure = error;
+                } else {
+                    writtenSequence = batchSequence;
+                }
+                batchWritten.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            if (rotate != null) {
+                if (error != null) {
+                    rotate.completeExceptionally(error);
+                } else {
+                    rotate.complete(batchSequence);
+                }
+            }
+            if (close || error != null) {
+                return;
+            }
+        }
+    }
+
+    private FileChannel openSegment(long firstSequence) throws IOException {
+        return FileChannel.open(segmentPath(directory, firstSequence),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    static Path segmentPath(Path directory, long firstSequence) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * @return Log segments in the directory, oldest first.
+     */
+    public static List<Path> segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Deletes the segments that only hold events up to and including {@code sequence}.
+     */
+    public static void deleteSegmentsUpTo(Path directory, long sequence) throws IOException {
+        List<Path> segments = segments(directory);
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            if (firstSequence(segments.get(i + 1)) <= sequence + 1) {
+                Files.deleteIfExists(segments.get(i));
+            }
+        }
+    }
+
+    private static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * Replays the events of one segment that come after {@code afterSequence}.
+     * Stops quietly at the first torn or corrupt record.
+     * @return Highest sequence seen in the segment, or {@code afterSequence} if none is higher.
+     */
+    public static long replay(Path segment, long afterSequence, ChangeListener handler) throws IOException {
+        return replay(segment, afterSequence, handler, new long[1]);
+    }
+
+    /**
+     * Replays a segment like {@link #replay(Path, long, ChangeListener)}, then cuts off whatever follows
+     * its last intact record, such as a record torn by a crash. A segment without any intact record is
+     * deleted. Must run before a log is opened in the directory.
+     * @return Highest sequence seen in the segment, or {@code afterSequence} if none is higher.
+     */
+    public static long recover(Path segment, long afterSequence, ChangeListener handler) throws IOException {
+        long[] intactLength = new long[1];
+        long last = replay(segment, afterSequence, handler, intactLength);
+        if (intactLength[0] == 0) {
+            Files.delete(segment);
+        } else if (Files.size(segment) > intactLength[0]) {
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+                channel.truncate(intactLength[0]);
+                channel.force(true);
+            }
+        }
+        return last;
+    }
+
+    private static long replay(Path segment, long afterSequence, ChangeListener handler, long[] intactLength)
+            throws IOException {
+        long last = afterSequence;
+        CRC32 crc = new CRC32();
+        try (InputStream file = new BufferedInputStream(Files.newInputStream(segment), 1 << 16);
+             DataInputStream in = new DataInputStream(file)) {
+            while (true) {
+                byte[] payload;
+                try {
+                    int length = in.readInt();
+                    int checksum = in.readInt();
+                    if (length <= 0) {
+                        break;
+                    }
+                    payload = in.readNBytes(length);
+                    crc.reset();
+                    crc.update(payload);
+                    if (payload.length != length || (int) crc.getValue() != checksum) {
+                        break;
+                    }
+                } catch (EOFException e) {
+                    break;
+                }
+                long[] sequence = new long[1];
+                ChangeEventCodec.read(new DataInputStream(new ByteArrayInputStream(payload)), (seq, event) -> {
+                    sequence[0] = seq;
+                    if (seq > afterSequence) {
+                        handler.onChange(seq, event);
+                    }
+                });
+                last = Math.max(last, sequence[0]);
+                intactLength[0] += 2 * Integer.BYTES + payload.length;
+            }
+        }
+        return last;
+    }
+
+    /**
+     * Byte buffer whose backing array can be written out without copying.
+     */
+    private static final class RecordBuffer extends ByteArrayOutputStream {
+
+        RecordBuffer() {
+            this(1 << 16);
+        }
+
+        RecordBuffer(int size) {
+            super(size);
+        }
+
+        byte[] array() {
+            return buf;
+        }
+    }
+}
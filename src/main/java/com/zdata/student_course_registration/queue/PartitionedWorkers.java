@@ -0,0 +1,202 @@
+package com.zdata.student_course_registration.queue;
+
+import com.zdata.student_course_registration.exception.ServiceUnavailableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * A fixed set of worker threads, each owning a bounded FIFO queue. Items with the same partition key
+ * always go to the same worker, so they are handled one at a time and in the order they were offered.
+ * A worker takes whatever has queued up, up to a maximum, and hands it to the handler as one batch,
+ * so batches grow with the load instead of adding latency when it is low.
+ * <p>
+ * Offering is lock-free: producers append to a non-blocking queue and claim room with a CAS on its
+ * counter. A worker with nothing to do parks and is only unparked by an offer that finds it parked,
+ * so a busy worker is never signalled.
+ * <p>
+ * Every item offered is either handed to the handler or failed: if the handler throws, its batch is
+ * failed with what it threw, and items still queued when the workers are closed, or offered after
+ * that, are failed with a {@link ServiceUnavailableException}.
+ *
+ * @param <T> Type of the queued items.
+ */
+public final class PartitionedWorkers<T> implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionedWorkers.class);
+
+    // How long close waits for the workers to finish their current batch
+    private static final long CLOSE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final class Partition implements Runnable {
+        final Queue<T> items = new ConcurrentLinkedQueue<>();
+        final AtomicInteger size = new AtomicInteger();
+        final Thread thread;
+        volatile boolean parked;
+
+        Partition(String name) {
+            thread = new Thread(this, name);
+            thread.setDaemon(true);
+        }
+
+        boolean offer(T item) {
+            int current;
+            do {
+                current = size.get();
+                if (current >= capacity) {
+                    return false;
+                }
+            } while (!size.compareAndSet(current, current + 1));
+            items.offer(item);
+            if (closed) {
+                // Either close drains this item or the check here sees it closed, so it is never stranded
+                failQueued();
+            } else if (parked) {
+                LockSupport.unpark(thread);
+            }
+            return true;
+        }
+
+        void failQueued() {
+            T item;
+            while ((item = items.poll()) != null) {
+                size.decrementAndGet();
+                fail(item, new ServiceUnavailableException(name + " is shutting down; retry later."));
+            }
+        }
+
+        @Override
+        public void run() {
+            List<T> batch = new ArrayList<>(maxBatch);
+            while (!closed) {
+                T item;
+                while (batch.size() < maxBatch && (item = items.poll()) != null) {
+                    batch.add(item);
+                }
+                if (batch.isEmpty()) {
+                    // Announce the park before the last look, so an offer either is seen here or unparks
+                    parked = true;
+                    if (items.isEmpty()) {
+                        LockSupport.park(this);
+                    }
+                    parked = false;
+                    continue;
+                }
+                size.addAndGet(-batch.size());
+                try {
+                    handler.accept(batch);
+                } catch (Throwable e) {
+                    // The handler owns the items' outcomes, so this only fails those it left open
+                    log.error("Unhandled failure in batch of {} items", batch.size(), e);
+                    for (T failed : batch) {
+                        fail(failed, e);
+                    }
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    private final String name;
+    private final List<Partition> partitions;
+    private final int capacity;
+    private final int maxBatch;
+    private final Consumer<List<T>> handler;
+    private final BiConsumer<? super T, ? super Throwable> failure;
+    private volatile boolean closed;
+
+    /**
+     * Starts the workers.
+     * @param name Prefix of the worker thread names.
+     * @param partitions Number of workers.
+     * @param capacity Items each worker's queue holds before offers are refused.
+     * @param maxBatch Most items handed to the handler at once.
+     * @param handler Called on a worker thread with each batch, in queue order. The list is reused afterwards.
+     * @param failure Called with each item of a batch the handler threw on, and each item that is not
+     *                handled because the workers are closed, along with the reason. Must not throw.
+     */
+    public PartitionedWorkers(String name, int partitions, int capacity, int maxBatch, Consumer<List<T>> handler,
+                              BiConsumer<? super T, ? super Throwable> failure) {
+        if (partitions < 1 || capacity < 1 || maxBatch < 1) {
+            throw new IllegalArgumentException("partitions, capacity and maxBatch must be positive");
+        }
+        this.name = name;
+        this.capacity = capacity;
+        this.maxBatch = maxBatch;
+        this.handler = handler;
+        this.failure = failure;
+        this.partitions = new ArrayList<>(partitions);
+        for (int p = 0; p < partitions; p++) {
+            this.partitions.add(new Partition(name + "-" + p));
+        }
+        this.partitions.forEach(partition -> partition.thread.start());
+    }
+
+    /**
+     * Queues an item on the worker of its partition without blocking.
+     * @param partitionKey Items with equal keys are handled by the same worker in offer order.
+     * @return false if that worker's queue is full.
+     */
+    public boolean offer(int partitionKey, T item) {
+        return partitions.get(Math.floorMod(partitionKey, partitions.size())).offer(item);
+    }
+
+    /**
+     * @return Number of workers.
+     */
+    public int partitions() {
+        return partitions.size();
+    }
+
+    /**
+     * @return Items queued and not yet taken by a worker.
+     */
+    public int size() {
+        int size = 0;
+        for (Partition partition : partitions) {
+            size += partition.size.get();
+        }
+        return size;
+    }
+
+    /**
+     * Stops the workers once their current batch is handled, waiting up to 10 seconds for them, and
+     * fails the items still queued. A worker that is still busy after that is interrupted and left
+     * to finish its batch on its own.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        closed = true;
+        partitions.forEach(partition -> LockSupport.unpark(partition.thread));
+        long deadline = System.nanoTime() + CLOSE_TIMEOUT_NANOS;
+        for (Partition partition : partitions) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining > 0) {
+                TimeUnit.NANOSECONDS.timedJoin(partition.thread, remaining);
+            }
+            if (partition.thread.isAlive()) {
+                log.warn("{} is still handling a batch after {} s; interrupting it", partition.thread.getName(),
+                        TimeUnit.NANOSECONDS.toSeconds(CLOSE_TIMEOUT_NANOS));
+                partition.thread.interrupt();
+            }
+        }
+        partitions.forEach(Partition::failQueued);
+    }
+
+    private void fail(T item, Throwable reason) {
+        try {
+            failure.accept(item, reason);
+        } catch (RuntimeException e) {
+            log.error("Failure callback of {} threw", name, e);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.zdata.student_course_registration.queue;
+
+import com.zdata.student_course_registration.dto.RegistrationRequest;
+import com.zdata.student_course_registration.dto.TicketResponse;
+import com.zdata.student_course_registration.exception.ConflictException;
+import com.zdata.student_course_registration.exception.ResourceNotFoundException;
+import com.zdata.student_course_registration.exception.ServiceUnavailableException;
+import com.zdata.student_course_registration.exception.TooManyRequestsException;
+import com.zdata.student_course_registration.metrics.ServiceMetrics;
+import com.zdata.student_course_registration.service.CourseService;
+import com.zdata.student_course_registration.service.RegistrationService;
+import com.zdata.student_course_registration.service.StudentService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Queued registration mode: attempts are accepted into bounded per-course FIFO queues and applied
+ * by a few workers in batches, instead of every request contending on the same course at once.
+ * The caller gets a ticket and polls, or long-polls, for its outcome. Courses are partitioned over
+ * the workers, so attempts for one course are applied strictly in the order they were accepted.
+ * Every accepted ticket reaches a final state: tickets still queued when the application shuts down
+ * fail with 503, so a long poll on them returns instead of running into its timeout.
+ */
+@Component
+public class RegistrationQueue implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(RegistrationQueue.class);
+
+    private static final class Ticket {
+        final long id;
+        final Integer studentId;
+        final Integer courseId;
+        final long expiresAtNanos;
+        final CompletableFuture<TicketResponse> outcome = new CompletableFuture<>();
+
+        Ticket(long id, Integer studentId, Integer courseId, long expiresAtNanos) {
+            this.id = id;
+            this.studentId = studentId;
+            this.courseId = courseId;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        TicketResponse pending() {
+            return new TicketResponse(id, studentId, courseId, TicketResponse.State.PENDING,
+                    HttpStatus.ACCEPTED.value(), null, null);
+        }
+
+        TicketResponse current() {
+            TicketResponse done = outcome.getNow(null);
+            return done != null ? done : pending();
+        }
+
+        void complete(TicketResponse.State state, HttpStatus status, String message, LocalDateTime registeredAt) {
+            outcome.complete(new TicketResponse(id, studentId, courseId, state, status.value(), message, registeredAt));
+        }
+    }
+
+    private final RegistrationQueueProperties properties;
+    private final StudentService studentService;
+    private final CourseService courseService;
+    private final RegistrationService registrationService;
+    private final PartitionedWorkers<Ticket> workers;
+
+    private final AtomicLong lastTicketId = new AtomicLong();
+    private final Map<Long, Ticket> tickets = new ConcurrentHashMap<>();
+    // Tickets in issue order, which is also expiry order
+    private final Queue<Ticket> issueOrder = new ConcurrentLinkedQueue<>();
+    private final LongAdder rejected = new LongAdder();
+
+    public RegistrationQueue(RegistrationQueueProperties properties, StudentService studentService,
+                             CourseService courseService, RegistrationService registrationService,
+                             ServiceMetrics metrics) {
+        this.properties = properties;
+        this.studentService = studentService;
+        this.courseService = courseService;
+        this.registrationService = registrationService;
+        this.workers = properties.isEnabled()
+                ? new PartitionedWorkers<>("registration-queue", properties.getPartitions(), properties.getCapacity(),
+                        properties.getMaxBatch(), this::apply, RegistrationQueue::fail)
+                : null;
+        if (workers != null) {
+            metrics.gauge("registration.queue.depth", "Registration attempts waiting to be applied",
+                    workers, PartitionedWorkers::size);
+            metrics.gauge("registration.queue.tickets", "Registration tickets that can be polled", tickets, Map::size);
+            metrics.counter("registration.queue.rejected", "Registration attempts refused because the queue was full",
+                    rejected, LongAdder::sum);
+        }
+    }
+
+    public boolean isEnabled() {
+        return workers != null;
+    }
+
+    /**
+     * Accepts a registration attempt for processing in arrival order among the attempts for the course.
+     * Unknown students and courses, and courses that are already full, are rejected right away;
+     * all other rules are checked when the attempt is applied.
+     * @param studentId ID of the student.
+     * @param courseId ID of the course.
+     * @return The pending ticket.
+     * @throws ResourceNotFoundException if student or course is not found.
+     * @throws ConflictException if the course is full.
+     * @throws TooManyRequestsException if the queue of the course is full.
+     */
+    public TicketResponse submit(Integer studentId, Integer courseId) {
+        if (workers == null) {
+            throw new IllegalStateException("registration.queue.enabled is false");
+        }
+        if (studentService.getStudentById(studentId) == null) {
+            throw new ResourceNotFoundException("Student with ID " + studentId + " not found.");
+        }
+        if (!courseService.courseExists(courseId)) {
+            throw new ResourceNotFoundException("Course with ID " + courseId + " not found.");
+        }
+        // Every attempt already queued for a full course is ahead of this one, so it could not get a seat either
+        if (registrationService.isCourseFull(courseId)) {
+            throw new ConflictException("Course " + courseId + " is full.");
+        }
+        long now = System.nanoTime();
+        Ticket ticket = new Ticket(lastTicketId.incrementAndGet(), studentId, courseId,
+                now + properties.getTicketRetention().toNanos());
+        tickets.put(ticket.id, ticket);
+        if (!workers.offer(courseId, ticket)) {
+            tickets.remove(ticket.id);
+            rejected.increment();
+            throw new TooManyRequestsException("Registration queue for course " + courseId + " is full; retry later.");
+        }
+        issueOrder.add(ticket);
+        evict(now);
+        return ticket.pending();
+    }
+
+    /**
+     * @param ticketId ID of a ticket returned by {@link #submit(Integer, Integer)}.
+     * @return Current state of the ticket.
+     * @throws ResourceNotFoundException if the ticket is unknown or has expired.
+     */
+    public TicketResponse getTicket(long ticketId) {
+        return ticketOf(ticketId).current();
+    }
+
+    /**
+     * Waits without blocking for a ticket to be processed.
+     * @param ticketId ID of a ticket returned by {@link #submit(Integer, Integer)}.
+     * @param wait How long to wait at most, capped at registration.queue.max-wait.
+     * @return Completes with the outcome, or with the pending state once the wait is over.
+     * @throws ResourceNotFoundException if the ticket is unknown or has expired.
+     */
+    public CompletableFuture<TicketResponse> awaitTicket(long ticketId, Duration wait) {
+        Ticket ticket = ticketOf(ticketId);
+        long waitNanos = Math.min(wait.toNanos(), properties.getMaxWait().toNanos());
+        if (ticket.outcome.isDone() || waitNanos <= 0) {
+            return CompletableFuture.completedFuture(ticket.current());
+        }
+        // A copy, so the timeout completes only this caller's view of the outcome
+        return ticket.outcome.copy().completeOnTimeout(ticket.pending(), waitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Ticket ticketOf(long ticketId) {
+        Ticket ticket = tickets.get(ticketId);
+        if (ticket == null) {
+            throw new ResourceNotFoundException("Ticket with ID " + ticketId + " not found.");
+        }
+        return ticket;
+    }
+
+    private void apply(List<Ticket> batch) {
+        List<RegistrationRequest> requests = new ArrayList<>(batch.size());
+        for (Ticket ticket : batch) {
+            requests.add(new RegistrationRequest(ticket.studentId, ticket.courseId));
+        }
+        List<RuntimeException> rejections;
+        try {
+            rejections = registrationService.registerForCourses(requests);
+        } catch (Throwable e) {
+            log.error("Failed to apply {} queued registrations", batch.size(), e);
+            for (Ticket ticket : batch) {
+                fail(ticket, e);
+            }
+            return;
+        }
+        LocalDateTime appliedAt = LocalDateTime.now();
+        for (int i = 0; i < batch.size(); i++) {
+            RuntimeException rejection = rejections.get(i);
+            if (rejection == null) {
+                batch.get(i).complete(TicketResponse.State.REGISTERED, HttpStatus.OK, null, appliedAt);
+            } else {
+                HttpStatus status = rejection instanceof ConflictException ? HttpStatus.CONFLICT : HttpStatus.NOT_FOUND;
+                batch.get(i).complete(TicketResponse.State.REJECTED, status, rejection.getMessage(), null);
+            }
+        }
+    }
+
+    private static void fail(Ticket ticket, Throwable failure) {
+        if (failure instanceof ServiceUnavailableException) {
+            ticket.complete(TicketResponse.State.FAILED, HttpStatus.SERVICE_UNAVAILABLE,
+                    "Registration was not processed before shutdown; retry.", null);
+        } else {
+            ticket.complete(TicketResponse.State.FAILED, HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Registration could not be processed; retry.", null);
+        }
+    }
+
+    private void evict(long now) {
+        while (true) {
+            Ticket oldest = issueOrder.peek();
+            // Pending tickets are kept, since the queue already bounds how many there are
+            if (oldest == null || !oldest.outcome.isDone()
+                    || (tickets.size() <= properties.getMaxTickets() && now - oldest.expiresAtNanos < 0)) {
+                return;
+            }
+            if (issueOrder.remove(oldest)) {
+                tickets.remove(oldest.id, oldest);
+            }
+        }
+    }
+
+    /**
+     * Stops the workers, failing the tickets they have not applied yet.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        if (workers != null) {
+            workers.close();
+        }
+    }
+}
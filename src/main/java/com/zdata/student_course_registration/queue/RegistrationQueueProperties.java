@@ -0,0 +1,26 @@
+package com.zdata.student_course_registration.queue;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "registration.queue")
+public class RegistrationQueueProperties {
+
+    // When true, POST /students/{id}/register/{courseId} answers 202 with a ticket instead of registering inline
+    private boolean enabled = false;
+    // Worker threads; each course is always handled by the same one
+    private int partitions = 4;
+    // Pending attempts per partition before new ones are rejected with 429
+    private int capacity = 10_000;
+    // Attempts applied together, with one wait for durability
+    private int maxBatch = 256;
+    // How long a ticket can be polled after it was issued
+    private Duration ticketRetention = Duration.ofMinutes(10);
+    // Tickets kept at most, oldest processed ones are dropped first
+    private int maxTickets = 200_000;
+    // Upper bound of the wait parameter of a long poll, below the async request timeout
+    private Duration maxWait = Duration.ofSeconds(25);
+}
@@ -0,0 +1,240 @@
+package com.zdata.student_course_registration.replication;
+
+import com.zdata.student_course_registration.event.ChangeEvent;
+import com.zdata.student_course_registration.event.ChangeEventPublisher;
+import com.zdata.student_course_registration.metrics.ServiceMetrics;
+import com.zdata.student_course_registration.persistence.ChangeApplier;
+import com.zdata.student_course_registration.persistence.ChangeEventCodec;
+import com.zdata.student_course_registration.persistence.PersistenceProperties;
+import com.zdata.student_course_registration.persistence.SnapshotStore;
+import com.zdata.student_course_registration.service.CourseService;
+import com.zdata.student_course_registration.service.RegistrationService;
+import com.zdata.student_course_registration.service.StudentService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Follower side of log shipping: connects to the leader, catches up from a snapshot if the leader
+ * sends one, then applies the leader's changes in sequence order through the restore methods of
+ * the services, so it serves the same reads without accepting writes of its own. Lost connections
+ * are re-established, resuming after the last applied change.
+ * <p>
+ * Startup waits until the follower has caught up with the leader's position, so the web server
+ * never serves the empty state. A follower that already holds state cannot take a snapshot, since
+ * the services can only add to their state; if the leader can no longer stream the changes it
+ * missed, it stops following and must be restarted.
+ * <p>
+ * The changes of a multi-course transaction are applied one after the other, so a reader can
+ * briefly see part of one.
+ */
+@Component
+@ConditionalOnProperty(prefix = "registration.replication", name = "role", havingValue = "follower")
+public class ReplicationFollower implements InitializingBean, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicationFollower.class);
+
+    private final ReplicationProperties properties;
+    private final StudentService studentService;
+    private final CourseService courseService;
+    private final RegistrationService registrationService;
+    private final ChangeEventPublisher changeEvents;
+    private final ChangeApplier changeApplier;
+    private final CountDownLatch caughtUp = new CountDownLatch(1);
+
+    private volatile long appliedSequence;
+    private volatile long leaderSequence;
+    private volatile boolean closed;
+    private volatile Socket socket;
+    private Thread thread;
+    // Only touched by the follower thread
+    private boolean leaderLost;
+
+    public ReplicationFollower(ReplicationProperties properties, PersistenceProperties persistenceProperties,
+                               StudentService studentService, CourseService courseService,
+                               RegistrationService registrationService, ChangeEventPublisher changeEvents,
+                               ServiceMetrics metrics) {
+        if (persistenceProperties.isEnabled()) {
+            throw new IllegalStateException("registration.persistence.enabled must be false on a follower");
+        }
+        this.properties = properties;
+        this.studentService = studentService;
+        this.courseService = courseService;
+        this.registrationService = registrationService;
+        this.changeEvents = changeEvents;
+        this.changeApplier = new ChangeApplier(studentService, courseService, registrationService);
+        metrics.gauge("registration.replication.lag", "Changes the leader has reported and this follower has not applied",
+                this, follower -> Math.max(0, follower.leaderSequence - follower.appliedSequence));
+    }
+
+    @Override
+    public void afterPropertiesSet() throws InterruptedException {
+        thread = new Thread(this::follow, "replication-follower");
+        thread.setDaemon(true);
+        thread.start();
+        if (!caughtUp.await(properties.getStartupTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+            closed = true;
+            thread.interrupt();
+            throw new IllegalStateException("Could not catch up with the leader at " + properties.getLeaderHost()
+                    + ":" + properties.getLeaderPort() + " within " + properties.getStartupTimeout());
+        }
+        log.info("Caught up with the leader at change {}", appliedSequence);
+    }
+
+    /**
+     * @return Sequence of the last change applied from the leader.
+     */
+    public long appliedSequence() {
+        return appliedSequence;
+    }
+
+    private void follow() {
+        while (!closed) {
+            try {
+                followOnce();
+            } catch (StaleFollowerException e) {
+                log.error("Stopped following the leader: {}", e.getMessage());
+                return;
+            } catch (IOException e) {
+                // Once per outage rather than once per reconnection attempt
+                if (!closed && !leaderLost) {
+                    log.warn("Lost the leader at {}:{}: {}", properties.getLeaderHost(), properties.getLeaderPort(),
+                            e.toString());
+                }
+                leaderLost = true;
+            }
+            try {
+                Thread.sleep(properties.getReconnectDelay().toMillis());
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void followOnce() throws IOException {
+        try (Socket connection = new Socket()) {
+            socket = connection;
+            int heartbeatMillis = (int) properties.getHeartbeatInterval().toMillis();
+            connection.connect(new InetSocketAddress(properties.getLeaderHost(), properties.getLeaderPort()),
+                    heartbeatMillis * 3);
+            // Writing a snapshot can take the leader a while before it sends anything
+            connection.setSoTimeout((int) properties.getStartupTimeout().toMillis());
+            DataOutputStream out = new DataOutputStream(connection.getOutputStream());
+            out.writeInt(ReplicationProtocol.MAGIC);
+            out.writeLong(appliedSequence);
+            out.flush();
+            if (leaderLost) {
+                log.info("Reconnected to the leader, resuming after change {}", appliedSequence);
+                leaderLost = false;
+            }
+
+            DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream(), 1 << 16));
+            // The first position follows the changes the leader had when it started streaming
+            boolean positioned = false;
+            while (!closed) {
+                byte type = in.readByte();
+                // From then on the leader reports its position at least every heartbeat, so silence means it is gone
+                connection.setSoTimeout(heartbeatMillis * 3);
+                switch (type) {
+                    case ReplicationProtocol.SNAPSHOT -> restoreSnapshot(in);
+                    case ReplicationProtocol.CHANGE -> ChangeEventCodec.read(in, this::apply);
+                    case ReplicationProtocol.POSITION -> {
+                        leaderSequence = in.readLong();
+                        positioned = true;
+                    }
+                    default -> throw new IOException("Unknown replication frame type " + type);
+                }
+                if (positioned && appliedSequence >= leaderSequence) {
+                    caughtUp.countDown();
+                }
+            }
+        } finally {
+            socket = null;
+        }
+    }
+
+    private void restoreSnapshot(DataInputStream in) throws IOException {
+        long length = in.readLong();
+        if (appliedSequence > 0 || studentService.studentCount() > 0 || courseService.courseCount() > 0) {
+            throw new StaleFollowerException("the leader no longer holds the changes after change " + appliedSequence
+                    + " and this follower cannot restore a snapshot over its state; restart it to catch up");
+        }
+        Path directory = Files.createTempDirectory("replication-snapshot");
+        Path snapshot = directory.resolve("snapshot.bin");
+        try {
+            try (OutputStream file = Files.newOutputStream(snapshot)) {
+                copy(in, file, length);
+            }
+            long sequence = new SnapshotStore(directory).restore(snapshot, studentService, courseService,
+                    registrationService);
+            appliedSequence = sequence;
+            leaderSequence = Math.max(leaderSequence, sequence);
+            changeEvents.resetSequence(sequence);
+            log.info("Restored a snapshot of the leader up to change {} ({} bytes)", sequence, length);
+        } finally {
+            Files.deleteIfExists(snapshot);
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    private static void copy(InputStream in, OutputStream out, long length) throws IOException {
+        byte[] buffer = new byte[1 << 16];
+        while (length > 0) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, length));
+            if (read < 0) {
+                throw new EOFException("Snapshot ended " + length + " bytes early");
+            }
+            out.write(buffer, 0, read);
+            length -= read;
+        }
+    }
+
+    private void apply(long sequence, ChangeEvent event) {
+        if (sequence <= appliedSequence) {
+            return;
+        }
+        if (sequence != appliedSequence + 1) {
+            throw new StaleFollowerException("expected change " + (appliedSequence + 1) + " but received " + sequence);
+        }
+        changeApplier.apply(event);
+        appliedSequence = sequence;
+        // Keeps sequences seen by local listeners in step with the leader's
+        changeEvents.resetSequence(sequence);
+        changeEvents.applied(event);
+    }
+
+    private static final class StaleFollowerException extends RuntimeException {
+        StaleFollowerException(String message) {
+            super(message);
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        closed = true;
+        Socket current = socket;
+        if (current != null) {
+            current.close();
+        }
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+}
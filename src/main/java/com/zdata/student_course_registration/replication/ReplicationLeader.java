@@ -0,0 +1,305 @@
+package com.zdata.student_course_registration.replication;
+
+import com.zdata.student_course_registration.event.ChangeEvent;
+import com.zdata.student_course_registration.event.ChangeEventPublisher;
+import com.zdata.student_course_registration.event.ChangeListener;
+import com.zdata.student_course_registration.event.InOrderDelivery;
+import com.zdata.student_course_registration.metrics.ServiceMetrics;
+import com.zdata.student_course_registration.persistence.ChangeEventCodec;
+import com.zdata.student_course_registration.persistence.SnapshotStore;
+import com.zdata.student_course_registration.service.CourseService;
+import com.zdata.student_course_registration.service.RegistrationService;
+import com.zdata.student_course_registration.service.StudentService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Leader side of log shipping: listens for followers on a TCP port and streams every published
+ * change to each of them in sequence order, encoded like the write-ahead log.
+ * <p>
+ * Published changes are encoded once, on the publishing thread, and put in sequence order into a ring
+ * of the most recent {@code registration.replication.backlog} changes, and every follower has a sender thread that
+ * walks the ring at its own pace. A follower whose next change is no longer in the ring, or that
+ * is new, is first sent a snapshot of the current state and then the changes after it. A sender
+ * that is overtaken by the ring while streaming disconnects its follower.
+ * <p>
+ * Changes are shipped as soon as they are published, before they are durable on the leader, so
+ * with {@code fsync=interval} a leader that crashes can come back behind its followers.
+ */
+@Component
+@ConditionalOnProperty(prefix = "registration.replication", name = "role", havingValue = "leader")
+public class ReplicationLeader implements ChangeListener, InitializingBean, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicationLeader.class);
+
+    private final ReplicationProperties properties;
+    private final StudentService studentService;
+    private final CourseService courseService;
+    private final RegistrationService registrationService;
+    private final ChangeEventPublisher changeEvents;
+    private final AtomicReferenceArray<byte[]> backlog;
+    private final List<Sender> senders = new CopyOnWriteArrayList<>();
+
+    // Guards inOrder; held only to put an encoded change into the ring
+    private final Lock orderLock = new ReentrantLock();
+    private final InOrderDelivery<byte[]> inOrder;
+    // Sequence of the newest change in the backlog; every earlier one has been put there too
+    private volatile long lastSequence;
+    private volatile boolean closed;
+    private ServerSocket serverSocket;
+    private Thread acceptor;
+
+    public ReplicationLeader(ReplicationProperties properties, StudentService studentService,
+                             CourseService courseService, RegistrationService registrationService,
+                             ChangeEventPublisher changeEvents, ServiceMetrics metrics) {
+        if (properties.getBacklog() < 1) {
+            throw new IllegalArgumentException("registration.replication.backlog must be positive");
+        }
+        this.properties = properties;
+        this.studentService = studentService;
+        this.courseService = courseService;
+        this.registrationService = registrationService;
+        this.changeEvents = changeEvents;
+        this.backlog = new AtomicReferenceArray<>(properties.getBacklog());
+        // A change that could not be encoded leaves its slot stale, so a sender reaching it disconnects
+        this.inOrder = new InOrderDelivery<>(0, (sequence, record) -> {
+            if (record != null) {
+                backlog.set(slot(sequence), record);
+            }
+            lastSequence = sequence;
+        });
+        metrics.gauge("registration.replication.followers", "Followers connected to this leader",
+                senders, List::size);
+    }
+
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(new InetSocketAddress(properties.getBindAddress(), properties.getPort()));
+        // After any recovery from disk, which starts numbering after the recovered changes
+        sequenceReset(changeEvents.currentSequence());
+        changeEvents.addListener(this);
+        acceptor = new Thread(this::accept, "replication-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        log.info("Replication leader listening on {}", serverSocket.getLocalSocketAddress());
+    }
+
+    /**
+     * @return Port followers connect to, e.g. when the configured port is 0.
+     */
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void onChange(long sequence, ChangeEvent event) {
+        ByteArrayOutputStream record = new ByteArrayOutputStream(32);
+        IOException encodeFailure = null;
+        try {
+            ChangeEventCodec.write(sequence, event, new DataOutputStream(record));
+        } catch (IOException e) {
+            encodeFailure = e;
+        }
+        orderLock.lock();
+        try {
+            inOrder.add(sequence, encodeFailure == null ? record.toByteArray() : null);
+        } finally {
+            orderLock.unlock();
+        }
+        for (Sender sender : senders) {
+            if (sender.parked) {
+                LockSupport.unpark(sender.thread);
+            }
+        }
+        if (encodeFailure != null) {
+            throw new UncheckedIOException(encodeFailure);
+        }
+    }
+
+    @Override
+    public void sequenceReset(long lastSequence) {
+        orderLock.lock();
+        try {
+            inOrder.reset(lastSequence);
+            this.lastSequence = lastSequence;
+        } finally {
+            orderLock.unlock();
+        }
+    }
+
+    private void accept() {
+        while (!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+                Sender sender = new Sender(socket);
+                senders.add(sender);
+                sender.thread.start();
+            } catch (IOException e) {
+                if (!closed) {
+                    log.warn("Failed to accept a follower", e);
+                }
+            }
+        }
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % backlog.length());
+    }
+
+    /**
+     * @return The encoded change with the given sequence, or null if the ring no longer holds it.
+     */
+    private byte[] recorded(long sequence) {
+        byte[] record = backlog.get(slot(sequence));
+        // Every record starts with its sequence, which tells whether the slot has been reused since
+        if (record == null || sequenceOf(record) != sequence) {
+            return null;
+        }
+        return record;
+    }
+
+    private static long sequenceOf(byte[] record) {
+        long sequence = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            sequence = sequence << 8 | (record[i] & 0xff);
+        }
+        return sequence;
+    }
+
+    /**
+     * Streams the changes to one follower.
+     */
+    private final class Sender implements Runnable {
+        final Socket socket;
+        final Thread thread;
+        volatile boolean parked;
+
+        Sender(Socket socket) {
+            this.socket = socket;
+            this.thread = new Thread(this, "replication-sender-" + socket.getRemoteSocketAddress());
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try (socket) {
+                socket.setTcpNoDelay(true);
+                DataInputStream in = new DataInputStream(socket.getInputStream());
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 1 << 16));
+                if (in.readInt() != ReplicationProtocol.MAGIC) {
+                    log.warn("Rejected replication connection from {}: not a follower", socket.getRemoteSocketAddress());
+                    return;
+                }
+                long applied = in.readLong();
+                long next = catchUp(applied, out);
+                log.info("Follower {} connected at change {}, streaming from change {}",
+                        socket.getRemoteSocketAddress(), applied, next);
+                stream(next, out);
+            } catch (IOException e) {
+                if (!closed) {
+                    log.info("Follower {} disconnected: {}", socket.getRemoteSocketAddress(), e.toString());
+                }
+            } finally {
+                senders.remove(this);
+            }
+        }
+
+        /**
+         * Sends a snapshot unless the backlog still holds every change after the follower's position.
+         * @return Sequence of the first change to stream.
+         */
+        private long catchUp(long applied, DataOutputStream out) throws IOException {
+            long published = lastSequence;
+            boolean inBacklog = applied == published || (applied < published && recorded(applied + 1) != null);
+            if (inBacklog) {
+                return applied + 1;
+            }
+            Path directory = Files.createTempDirectory("replication-snapshot");
+            try {
+                // Every change up to this sequence is in memory once the creates among them are visible
+                long covered = lastSequence;
+                changeEvents.awaitVisible(covered);
+                Path snapshot = new SnapshotStore(directory).write(covered, studentService, courseService,
+                        registrationService);
+                out.writeByte(ReplicationProtocol.SNAPSHOT);
+                out.writeLong(Files.size(snapshot));
+                Files.copy(snapshot, out);
+                Files.delete(snapshot);
+                return covered + 1;
+            } finally {
+                Files.deleteIfExists(directory);
+            }
+        }
+
+        private void stream(long next, DataOutputStream out) throws IOException {
+            long heartbeatNanos = properties.getHeartbeatInterval().toNanos();
+            long lastPosition = 0;
+            while (!closed) {
+                long last = lastSequence;
+                while (next <= last) {
+                    byte[] record = recorded(next);
+                    if (record == null) {
+                        throw new IOException("Follower fell more than " + backlog.length() + " changes behind");
+                    }
+                    out.writeByte(ReplicationProtocol.CHANGE);
+                    out.write(record);
+                    next++;
+                }
+                long now = System.nanoTime();
+                if (now - lastPosition >= heartbeatNanos) {
+                    out.writeByte(ReplicationProtocol.POSITION);
+                    out.writeLong(next - 1);
+                    lastPosition = now;
+                }
+                out.flush();
+                // Announce the park before the last look, so a change either is seen here or unparks
+                parked = true;
+                if (lastSequence < next) {
+                    LockSupport.parkNanos(this, heartbeatNanos);
+                }
+                parked = false;
+            }
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // closing anyway
+            }
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        closed = true;
+        changeEvents.removeListener(this);
+        serverSocket.close();
+        senders.forEach(Sender::close);
+    }
+}
@@ -0,0 +1,35 @@
+package com.zdata.student_course_registration.replication;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "registration.replication")
+public class ReplicationProperties {
+
+    public enum Role {
+        // No replication
+        NONE,
+        // Accepts writes and streams every change to connected followers
+        LEADER,
+        // Applies the leader's changes and serves reads only
+        FOLLOWER
+    }
+
+    private Role role = Role.NONE;
+    // Address and port the leader listens on for followers
+    private String bindAddress = "127.0.0.1";
+    private int port = 7400;
+    // Where a follower finds its leader
+    private String leaderHost = "127.0.0.1";
+    private int leaderPort = 7400;
+    // Recent changes the leader keeps to catch followers up without a snapshot
+    private int backlog = 262_144;
+    // The leader reports its position at least this often, so followers can tell a quiet leader from a dead one
+    private Duration heartbeatInterval = Duration.ofSeconds(1);
+    private Duration reconnectDelay = Duration.ofSeconds(1);
+    // How long a follower waits at startup to catch up before it gives up
+    private Duration startupTimeout = Duration.ofSeconds(60);
+}
@@ -0,0 +1,24 @@
+package com.zdata.student_course_registration.replication;
+
+/**
+ * Wire format between leader and follower, all numbers big-endian as written by {@link java.io.DataOutput}.
+ * <pre>
+ * follower -> leader   [int MAGIC][long sequence of the last change the follower applied]
+ * leader -> follower   frames, each starting with a type byte:
+ *   SNAPSHOT           [long length][snapshot file], covering every change up to its sequence
+ *   CHANGE             a change event as encoded by ChangeEventCodec, sequence first
+ *   POSITION           [long sequence of the last change published by the leader]
+ * </pre>
+ * Changes always arrive in sequence order, starting right after the follower's or the snapshot's sequence.
+ */
+final class ReplicationProtocol {
+
+    static final int MAGIC = 0x53435252; // "SCRR"
+
+    static final byte SNAPSHOT = 1;
+    static final byte CHANGE = 2;
+    static final byte POSITION = 3;
+
+    private ReplicationProtocol() {
+    }
+}
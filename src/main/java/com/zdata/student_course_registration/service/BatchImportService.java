@@ -0,0 +1,188 @@
+package com.zdata.student_course_registration.service;
+
+import com.zdata.student_course_registration.dto.BatchItemResult;
+import com.zdata.student_course_registration.dto.CourseCreateRequest;
+import com.zdata.student_course_registration.dto.CourseResponse;
+import com.zdata.student_course_registration.dto.RegistrationRequest;
+import com.zdata.student_course_registration.dto.StudentCreateRequest;
+import com.zdata.student_course_registration.dto.StudentResponse;
+import com.zdata.student_course_registration.exception.BadRequestException;
+import com.zdata.student_course_registration.exception.ConflictException;
+import com.zdata.student_course_registration.exception.ResourceNotFoundException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Applies streamed bulk imports in fixed-size chunks.
+ * Items are pulled from an iterator and results are pushed to a consumer as each chunk completes,
+ * so memory use depends on the chunk size rather than the size of the import.
+ */
+@Service
+public class BatchImportService {
+
+    public static final int CHUNK_SIZE = 1000;
+
+    private final StudentService studentService;
+    private final CourseService courseService;
+    private final RegistrationService registrationService;
+    private final Validator validator;
+
+    public BatchImportService(StudentService studentService, CourseService courseService,
+                              RegistrationService registrationService, Validator validator) {
+        this.studentService = studentService;
+        this.courseService = courseService;
+        this.registrationService = registrationService;
+        this.validator = validator;
+    }
+
+    /**
+     * Registers students in chunks; email uniqueness is checked once per chunk.
+     * @param items Student creation details, in request order.
+     * @param results Receives one result per item, in request order.
+     * @return Number of items read.
+     */
+    public int importStudents(Iterator<StudentCreateRequest> items, Consumer<BatchItemResult> results) {
+        return importInChunks(items, results, chunk -> {
+            List<StudentResponse> created = studentService.registerStudents(chunk);
+            List<BatchItemResult> chunkResults = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                StudentResponse student = created.get(i);
+                chunkResults.add(student != null
+                        ? new BatchItemResult(0, HttpStatus.CREATED.value(), student.getId(), null)
+                        : new BatchItemResult(0, HttpStatus.CONFLICT.value(), null,
+                                "Student with email '" + chunk.get(i).getEmail() + "' already exists."));
+            }
+            return chunkResults;
+        });
+    }
+
+    /**
+     * Adds courses in chunks; code uniqueness is checked once per chunk.
+     * @param items Course creation details, in request order.
+     * @param results Receives one result per item, in request order.
+     * @return Number of items read.
+     */
+    public int importCourses(Iterator<CourseCreateRequest> items, Consumer<BatchItemResult> results) {
+        return importInChunks(items, results, chunk -> {
+            List<CourseResponse> created = courseService.addCourses(chunk);
+            List<BatchItemResult> chunkResults = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                CourseResponse course = created.get(i);
+                chunkResults.add(course != null
+                        ? new BatchItemResult(0, HttpStatus.CREATED.value(), course.getId(), null)
+                        : new BatchItemResult(0, HttpStatus.CONFLICT.value(), null,
+                                "Course with code '" + chunk.get(i).getCode() + "' already exists."));
+            }
+            return chunkResults;
+        });
+    }
+
+    /**
+     * Registers students for courses in chunks, applying the same business rules as a single registration.
+     * @param items Student/course pairs, in request order.
+     * @param results Receives one result per item, in request order.
+     * @return Number of items read.
+     */
+    public int importRegistrations(Iterator<RegistrationRequest> items, Consumer<BatchItemResult> results) {
+        return importInChunks(items, results, chunk -> {
+            List<BatchItemResult> chunkResults = new ArrayList<>(chunk.size());
+            for (RegistrationRequest request : chunk) {
+                chunkResults.add(register(request));
+            }
+            return chunkResults;
+        });
+    }
+
+    private BatchItemResult register(RegistrationRequest request) {
+        try {
+            registrationService.registerForCourse(request.getStudentId(), request.getCourseId());
+            return new BatchItemResult(0, HttpStatus.OK.value(), null, null);
+        } catch (ResourceNotFoundException e) {
+            return new BatchItemResult(0, HttpStatus.NOT_FOUND.value(), null, e.getMessage());
+        } catch (ConflictException e) {
+            return new BatchItemResult(0, HttpStatus.CONFLICT.value(), null, e.getMessage());
+        } catch (BadRequestException e) {
+            return new BatchItemResult(0, HttpStatus.BAD_REQUEST.value(), null, e.getMessage());
+        }
+    }
+
+    /**
+     * Reads items into chunks of {@link #CHUNK_SIZE}, validates each item and hands the valid ones
+     * to {@code apply} as one list. Results are emitted in request order once the chunk is applied.
+     * If reading fails part-way, the items read so far are still applied before the error propagates.
+     */
+    private <T> int importInChunks(Iterator<T> items, Consumer<BatchItemResult> results,
+                                   Function<List<T>, List<BatchItemResult>> apply) {
+        BatchItemResult[] chunkResults = new BatchItemResult[CHUNK_SIZE];
+        int[] validPositions = new int[CHUNK_SIZE];
+        List<T> valid = new ArrayList<>(CHUNK_SIZE);
+        int read = 0;
+        int filled = 0;
+        try {
+            while (items.hasNext()) {
+                T item = items.next();
+                String violations = validate(item);
+                if (violations != null) {
+                    chunkResults[filled] = new BatchItemResult(read, HttpStatus.BAD_REQUEST.value(), null, violations);
+                } else {
+                    validPositions[valid.size()] = filled;
+                    valid.add(item);
+                }
+                filled++;
+                read++;
+                if (filled == CHUNK_SIZE) {
+                    flushChunk(read - filled, filled, chunkResults, validPositions, valid, apply, results);
+                    filled = 0;
+                }
+            }
+        } finally {
+            if (filled > 0) {
+                flushChunk(read - filled, filled, chunkResults, validPositions, valid, apply, results);
+            }
+        }
+        return read;
+    }
+
+    private <T> void flushChunk(int chunkStart, int filled, BatchItemResult[] chunkResults, int[] validPositions,
+                                List<T> valid, Function<List<T>, List<BatchItemResult>> apply,
+                                Consumer<BatchItemResult> results) {
+        if (!valid.isEmpty()) {
+            List<BatchItemResult> applied = apply.apply(valid);
+            for (int i = 0; i < applied.size(); i++) {
+                BatchItemResult result = applied.get(i);
+                result.setIndex(chunkStart + validPositions[i]);
+                chunkResults[validPositions[i]] = result;
+            }
+        }
+        for (int i = 0; i < filled; i++) {
+            results.accept(chunkResults[i]);
+        }
+        Arrays.fill(chunkResults, 0, filled, null);
+        valid.clear();
+    }
+
+    private String validate(Object item) {
+        if (item == null) {
+            return "Item must be a JSON object";
+        }
+        Set<ConstraintViolation<Object>> violations = validator.validate(item);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        StringBuilder message = new StringBuilder("Validation failed:");
+        for (ConstraintViolation<Object> violation : violations) {
+            message.append(' ').append(violation.getPropertyPath()).append(" - ").append(violation.getMessage()).append(';');
+        }
+        return message.toString();
+    }
+}
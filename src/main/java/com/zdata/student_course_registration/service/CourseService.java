@@ -1,27 +1,70 @@
 package com.zdata.student_course_registration.service;
 
 import com.zdata.student_course_registration.dto.CourseCreateRequest;
+import com.zdata.student_course_registration.dto.CourseQuery;
+import com.zdata.student_course_registration.dto.PageResponse;
+import com.zdata.student_course_registration.event.ChangeEvent;
+import com.zdata.student_course_registration.event.ChangeEventPublisher;
+import com.zdata.student_course_registration.exception.BadRequestException;
 import com.zdata.student_course_registration.exception.ConflictException;
 import com.zdata.student_course_registration.exception.ResourceNotFoundException;
 import com.zdata.student_course_registration.dto.CourseResponse;
+import com.zdata.student_course_registration.index.CourseSearchIndex;
+import com.zdata.student_course_registration.index.Timetable;
+import com.zdata.student_course_registration.index.UniqueIndex;
+import com.zdata.student_course_registration.metrics.ServiceMetrics;
 import com.zdata.student_course_registration.model.Course;
+import com.zdata.student_course_registration.model.MeetingTime;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 
 @Service
 public class CourseService {
 
     // In-memory storage for courses
-    // Key: Course ID, Value: Course object
-    private final Map<Integer, Course> courses = new ConcurrentHashMap<>();
+    // Key: Course ID, Value: Course object; sorted so listings can page by ID
+    private final NavigableMap<Integer, Course> courses = new ConcurrentSkipListMap<>();
     // For generating unique course IDs
     private final AtomicInteger courseIdCounter = new AtomicInteger(1);
+    // Secondary index: normalized course code -> Course ID
+    private final UniqueIndex codeIndex = new UniqueIndex();
+    // Instructor, title word and code prefix indexes for searching the catalogue
+    private final CourseSearchIndex searchIndex = new CourseSearchIndex();
+    // Key: Course ID, Value: weekly meetings of the course; only for courses that have any
+    private final Map<Integer, Timetable> timetables = new ConcurrentHashMap<>();
+
+    private final ChangeEventPublisher changeEvents;
+
+    private final ServiceMetrics.Operation addCourseCalls;
+    private final ServiceMetrics.Operation addCoursesCalls;
+    private final ServiceMetrics.Operation getCourseByCodeCalls;
+    private final ServiceMetrics.Operation listAllCoursesCalls;
+    private final ServiceMetrics.Operation getCoursesCalls;
+    private final ServiceMetrics.Operation searchCoursesCalls;
+
+    public CourseService(ChangeEventPublisher changeEvents, ServiceMetrics metrics) {
+        this.changeEvents = changeEvents;
+        String service = CourseService.class.getSimpleName();
+        this.addCourseCalls = metrics.operation(service, "addCourse");
+        this.addCoursesCalls = metrics.operation(service, "addCourses");
+        this.getCourseByCodeCalls = metrics.operation(service, "getCourseByCode");
+        this.listAllCoursesCalls = metrics.operation(service, "listAllCourses");
+        this.getCoursesCalls = metrics.operation(service, "getCourses");
+        this.searchCoursesCalls = metrics.operation(service, "searchCourses");
+        metrics.gauge("registration.courses", "Offered courses", this, CourseService::courseCount);
+    }
 
     /**
      * Adds a new course.
@@ -30,17 +73,137 @@ public class CourseService {
      * @return CourseResponse of the newly added course.
      */
     public CourseResponse addCourse(CourseCreateRequest request) {
-        // Business Rule 1: code must be unique for each course.
-        boolean codeExists = courses.values().stream()
-                .anyMatch(course -> course.getCode().equalsIgnoreCase(request.getCode()));
-        if (codeExists) {
-            throw new ConflictException("Course with code '" + request.getCode() + "' already exists.");
+        long started = System.nanoTime();
+        try {
+            // Business Rule 1: code must be unique for each course.
+            // Reserving the key first makes the check O(1) and race-free between concurrent creates.
+            String codeKey = UniqueIndex.normalize(request.getCode());
+            if (!codeIndex.reserve(codeKey)) {
+                throw new ConflictException("Course with code '" + request.getCode() + "' already exists.");
+            }
+
+            Integer newId = courseIdCounter.getAndIncrement();
+            Course course = new Course(newId, request.getCode(), request.getTitle(), request.getInstructor(), request.getCapacity(),
+                    meetingsOf(request));
+            // Published before the course becomes visible, so it precedes any event that refers to it
+            ChangeEvent event = new ChangeEvent.CourseCreated(course);
+            long sequence;
+            try {
+                sequence = changeEvents.publishCreate(event);
+            } catch (RuntimeException | Error e) {
+                // Neither logged nor visible, so the code is free again
+                codeIndex.release(codeKey);
+                throw e;
+            }
+            try {
+                indexMeetings(course);
+                courses.put(newId, course);
+                searchIndex.add(newId, course.getCode(), course.getTitle(), course.getInstructor());
+                codeIndex.bind(codeKey, newId);
+            } finally {
+                changeEvents.madeVisible(sequence);
+            }
+            changeEvents.applied(event);
+            changeEvents.awaitDurable(sequence);
+            return new CourseResponse(course.getId(), course.getCode(), course.getTitle(), course.getInstructor(), course.getCapacity(), course.getMeetings());
+        } catch (RuntimeException e) {
+            addCourseCalls.failed(e);
+            throw e;
+        } finally {
+            addCourseCalls.record(started);
+        }
+    }
+
+    /**
+     * Adds a chunk of courses in one pass.
+     * Code uniqueness is checked once for the whole chunk, including duplicates within it,
+     * and IDs are allocated as a single contiguous block.
+     * @param requests Validated course creation details.
+     * @return CourseResponse for each request in order, or null where the code is already taken.
+     */
+    public List<CourseResponse> addCourses(List<CourseCreateRequest> requests) {
+        long started = System.nanoTime();
+        try {
+            String[] reservedKeys = new String[requests.size()];
+            int reserved = 0;
+            for (int i = 0; i < requests.size(); i++) {
+                String codeKey = UniqueIndex.normalize(requests.get(i).getCode());
+                if (codeIndex.reserve(codeKey)) {
+                    reservedKeys[i] = codeKey;
+                    reserved++;
+                }
+            }
+
+            int nextId = courseIdCounter.getAndAdd(reserved);
+            long sequence = 0;
+            List<CourseResponse> responses = new ArrayList<>(requests.size());
+            for (int i = 0; i < requests.size(); i++) {
+                if (reservedKeys[i] == null) {
+                    responses.add(null);
+                    continue;
+                }
+                CourseCreateRequest request = requests.get(i);
+                Course course = new Course(nextId++, request.getCode(), request.getTitle(), request.getInstructor(), request.getCapacity(),
+                        meetingsOf(request));
+                ChangeEvent event = new ChangeEvent.CourseCreated(course);
+                try {
+                    sequence = changeEvents.publishCreate(event);
+                } catch (RuntimeException | Error e) {
+                    // Neither this course nor the rest of the chunk were created, so their codes are free again
+                    releaseFrom(reservedKeys, i);
+                    throw e;
+                }
+                try {
+                    indexMeetings(course);
+                    courses.put(course.getId(), course);
+                    searchIndex.add(course.getId(), course.getCode(), course.getTitle(), course.getInstructor());
+                    codeIndex.bind(reservedKeys[i], course.getId());
+                } finally {
+                    changeEvents.madeVisible(sequence);
+                }
+                changeEvents.applied(event);
+                responses.add(new CourseResponse(course.getId(), course.getCode(), course.getTitle(), course.getInstructor(), course.getCapacity(), course.getMeetings()));
+            }
+            // One durability wait covers the whole chunk
+            changeEvents.awaitDurable(sequence);
+            return responses;
+        } catch (RuntimeException e) {
+            addCoursesCalls.failed(e);
+            throw e;
+        } finally {
+            addCoursesCalls.record(started);
+        }
+    }
+
+    private void releaseFrom(String[] reservedKeys, int first) {
+        for (int i = first; i < reservedKeys.length; i++) {
+            if (reservedKeys[i] != null) {
+                codeIndex.release(reservedKeys[i]);
+            }
         }
+    }
 
-        Integer newId = courseIdCounter.getAndIncrement();
-        Course course = new Course(newId, request.getCode(), request.getTitle(), request.getInstructor());
-        courses.put(newId, course);
-        return new CourseResponse(course.getId(), course.getCode(), course.getTitle(), course.getInstructor());
+    /**
+     * Retrieves a course by code (case-insensitive).
+     * @param code Code of the course.
+     * @return CourseResponse of the matching course.
+     * @throws ResourceNotFoundException if no course has this code.
+     */
+    public CourseResponse getCourseByCode(String code) {
+        long started = System.nanoTime();
+        try {
+            Integer courseId = codeIndex.lookup(UniqueIndex.normalize(code));
+            Course course = courseId == null ? null : courses.get(courseId);
+            if (course == null) {
+                throw new ResourceNotFoundException("Course with code '" + code + "' not found.");
+            }
+            return new CourseResponse(course.getId(), course.getCode(), course.getTitle(), course.getInstructor(), course.getCapacity(), course.getMeetings());
+        } catch (RuntimeException e) {
+            getCourseByCodeCalls.failed(e);
+            throw e;
+        } finally {
+            getCourseByCodeCalls.record(started);
+        }
     }
 
     /**
@@ -58,13 +221,146 @@ public class CourseService {
      * @return List of CourseResponse objects.
      */
     public List<CourseResponse> listAllCourses() {
+        long started = System.nanoTime();
+        try {
+            return courses.values().stream()
+                    .map(course -> new CourseResponse(course.getId(), course.getCode(), course.getTitle(), course.getInstructor(), course.getCapacity(), course.getMeetings()))
+                    .collect(Collectors.toList());
+        } catch (RuntimeException e) {
+            listAllCoursesCalls.failed(e);
+            throw e;
+        } finally {
+            listAllCoursesCalls.record(started);
+        }
+    }
+
+    /**
+     * Streams all courses in ascending ID order without copying the store.
+     * Weakly consistent with concurrent additions.
+     * @return Lazily evaluated stream of CourseResponse objects.
+     */
+    public Stream<CourseResponse> streamCourses() {
         return courses.values().stream()
-                .map(course -> new CourseResponse(course.getId(), course.getCode(), course.getTitle(), course.getInstructor()))
-                .collect(Collectors.toList());
+                .map(course -> new CourseResponse(course.getId(), course.getCode(), course.getTitle(), course.getInstructor(), course.getCapacity(), course.getMeetings()));
+    }
+
+    /**
+     * Lists courses one page at a time in ascending ID order.
+     * @param after Return only courses with an ID greater than this, or null for the first page.
+     * @param limit Maximum number of courses to return.
+     * @return Page of CourseResponse objects.
+     * @throws BadRequestException if limit is out of range.
+     */
+    public PageResponse<CourseResponse> getCourses(Integer after, int limit) {
+        long started = System.nanoTime();
+        try {
+            return Paging.page(courses, after, limit,
+                    course -> new CourseResponse(course.getId(), course.getCode(), course.getTitle(), course.getInstructor(), course.getCapacity(), course.getMeetings()));
+        } catch (RuntimeException e) {
+            getCoursesCalls.failed(e);
+            throw e;
+        } finally {
+            getCoursesCalls.record(started);
+        }
     }
 
+    /**
+     * Finds the courses matching a query, one page at a time in ascending ID order.
+     * Instructor, code prefix and title words are answered from the search index, so a query costs about
+     * the number of courses matching its most selective criterion rather than the size of the catalogue.
+     * Without any of them, courses are scanned in ID order.
+     * @param query Instructor, code prefix and title words to match; its availability is left to {@code accept}.
+     * @param after Return only courses with an ID greater than this, or null for the first page.
+     * @param limit Maximum number of courses to return.
+     * @param accept Further condition on the course ID, e.g. a free seat.
+     * @return Page of CourseResponse objects.
+     * @throws BadRequestException if limit is out of range.
+     */
+    public PageResponse<CourseResponse> searchCourses(CourseQuery query, Integer after, int limit, IntPredicate accept) {
+        long started = System.nanoTime();
+        try {
+            Paging.checkLimit(limit);
+            int[] courseIds = searchIndex.search(query.getInstructor(), query.getCodePrefix(), query.getQ(),
+                    after, limit, accept);
+            if (courseIds == null) {
+                return scanCourses(after, limit, accept);
+            }
+            List<CourseResponse> items = new ArrayList<>(courseIds.length);
+            for (int courseId : courseIds) {
+                Course course = courses.get(courseId);
+                items.add(new CourseResponse(course.getId(), course.getCode(), course.getTitle(), course.getInstructor(), course.getCapacity(), course.getMeetings()));
+            }
+            Integer nextCursor = courseIds.length == limit ? courseIds[courseIds.length - 1] : null;
+            return new PageResponse<>(items, nextCursor);
+        } catch (RuntimeException e) {
+            searchCoursesCalls.failed(e);
+            throw e;
+        } finally {
+            searchCoursesCalls.record(started);
+        }
+    }
+
+    private PageResponse<CourseResponse> scanCourses(Integer after, int limit, IntPredicate accept) {
+        NavigableMap<Integer, Course> tail = after == null ? courses : courses.tailMap(after, false);
+        List<CourseResponse> items = new ArrayList<>(Math.min(limit, 64));
+        for (Course course : tail.values()) {
+            if (accept.test(course.getId())) {
+                items.add(new CourseResponse(course.getId(), course.getCode(), course.getTitle(), course.getInstructor(), course.getCapacity(), course.getMeetings()));
+                if (items.size() == limit) {
+                    return new PageResponse<>(items, course.getId());
+                }
+            }
+        }
+        return new PageResponse<>(items, null);
+    }
 
     public boolean courseExists(Integer courseId) {
         return courses.containsKey(courseId);
     }
-}
\ No newline at end of file
+
+    /**
+     * Visits every course, e.g. to write a snapshot.
+     * @param action Called once per course.
+     */
+    public void forEachCourse(Consumer<Course> action) {
+        courses.values().forEach(action);
+    }
+
+    /**
+     * Re-inserts a course recovered from persisted state, keeping its original ID.
+     * No change event is published and calls for an already known ID are ignored.
+     * @param course Recovered course.
+     */
+    public void restoreCourse(Course course) {
+        if (courses.putIfAbsent(course.getId(), course) == null) {
+            indexMeetings(course);
+            searchIndex.add(course.getId(), course.getCode(), course.getTitle(), course.getInstructor());
+            codeIndex.bind(UniqueIndex.normalize(course.getCode()), course.getId());
+            courseIdCounter.accumulateAndGet(course.getId() + 1, Math::max);
+        }
+    }
+
+    /**
+     * @param courseId ID of the course.
+     * @return Weekly meetings of the course, or null if it is unknown or has no fixed times.
+     */
+    public Timetable getTimetable(Integer courseId) {
+        return timetables.get(courseId);
+    }
+
+    private void indexMeetings(Course course) {
+        Timetable timetable = Timetable.of(course.getId(), course.getMeetings());
+        if (!timetable.isEmpty()) {
+            timetables.put(course.getId(), timetable);
+        }
+    }
+
+    private static List<MeetingTime> meetingsOf(CourseCreateRequest request) {
+        List<MeetingTime> meetings = request.getMeetings();
+        return meetings == null || meetings.isEmpty() ? null : List.copyOf(meetings);
+    }
+
+    public int courseCount() {
+        return courses.size();
+    }
+}
@@ -0,0 +1,54 @@
+package com.zdata.student_course_registration.service;
+
+import com.zdata.student_course_registration.dto.PageResponse;
+import com.zdata.student_course_registration.exception.BadRequestException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.function.Function;
+
+/**
+ * Keyset pagination over ID-ordered stores. A page starts right after the cursor,
+ * so it costs O(log n + page size) and stays stable while entries are added.
+ */
+final class Paging {
+
+    private Paging() {
+    }
+
+    /**
+     * @param limit Requested page size.
+     * @throws BadRequestException if limit is out of range.
+     */
+    static void checkLimit(int limit) {
+        if (limit < 1 || limit > PageResponse.MAX_LIMIT) {
+            throw new BadRequestException("Limit must be between 1 and " + PageResponse.MAX_LIMIT + ".");
+        }
+    }
+
+    /**
+     * Returns the entries with an ID greater than {@code after}, in ascending ID order.
+     * @param store Entries keyed by ID.
+     * @param after Cursor from the previous page, or null for the first page.
+     * @param limit Maximum number of entries to return.
+     * @param mapper Converts an entry to its response DTO.
+     * @return Page whose nextCursor is set when more entries may follow.
+     * @throws BadRequestException if limit is out of range.
+     */
+    static <V, T> PageResponse<T> page(NavigableMap<Integer, V> store, Integer after, int limit,
+                                       Function<V, T> mapper) {
+        checkLimit(limit);
+        NavigableMap<Integer, V> tail = after == null ? store : store.tailMap(after, false);
+        List<T> items = new ArrayList<>(Math.min(limit, 64));
+        Integer last = null;
+        for (var entry : tail.entrySet()) {
+            items.add(mapper.apply(entry.getValue()));
+            last = entry.getKey();
+            if (items.size() == limit) {
+                return new PageResponse<>(items, last);
+            }
+        }
+        return new PageResponse<>(items, null);
+    }
+}
@@ -0,0 +1,54 @@
+package com.zdata.student_course_registration.service;
+
+import com.zdata.student_course_registration.dto.CourseCreateRequest;
+import com.zdata.student_course_registration.dto.CourseResponse;
+import com.zdata.student_course_registration.dto.PageResponse;
+import com.zdata.student_course_registration.event.ChangeEventPublisher;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking view of {@link CourseService} for the WebFlux API, over the same in-memory store.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCourseService {
+
+    private final CourseService courseService;
+    private final ChangeEventPublisher changeEvents;
+
+    public ReactiveCourseService(CourseService courseService, ChangeEventPublisher changeEvents) {
+        this.courseService = courseService;
+        this.changeEvents = changeEvents;
+    }
+
+    /**
+     * @see CourseService#addCourse(CourseCreateRequest)
+     */
+    public Mono<CourseResponse> addCourse(CourseCreateRequest request) {
+        return ReactiveWrites.run(changeEvents, () -> courseService.addCourse(request));
+    }
+
+    /**
+     * @see CourseService#getCourseByCode(String)
+     */
+    public Mono<CourseResponse> getCourseByCode(String code) {
+        return Mono.fromCallable(() -> courseService.getCourseByCode(code));
+    }
+
+    /**
+     * @see CourseService#getCourses(Integer, int)
+     */
+    public Mono<PageResponse<CourseResponse>> getCourses(Integer after, int limit) {
+        return Mono.fromCallable(() -> courseService.getCourses(after, limit));
+    }
+
+    /**
+     * Emits all courses in ascending ID order, reading the store only as fast as the subscriber requests.
+     */
+    public Flux<CourseResponse> streamCourses() {
+        return Flux.fromStream(courseService::streamCourses);
+    }
+}
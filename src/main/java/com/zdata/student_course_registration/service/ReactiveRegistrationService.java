@@ -0,0 +1,122 @@
+package com.zdata.student_course_registration.service;
+
+import com.zdata.student_course_registration.dto.CourseChangeResponse;
+import com.zdata.student_course_registration.dto.CourseQuery;
+import com.zdata.student_course_registration.dto.CourseResponse;
+import com.zdata.student_course_registration.dto.EnrollmentCountResponse;
+import com.zdata.student_course_registration.dto.PageResponse;
+import com.zdata.student_course_registration.dto.StudentResponse;
+import com.zdata.student_course_registration.dto.TimetableCheckResponse;
+import com.zdata.student_course_registration.dto.WaitlistPositionResponse;
+import com.zdata.student_course_registration.event.ChangeEventPublisher;
+import com.zdata.student_course_registration.model.Registration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Non-blocking view of {@link RegistrationService} for the WebFlux API, over the same in-memory stores.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveRegistrationService {
+
+    private final RegistrationService registrationService;
+    private final ChangeEventPublisher changeEvents;
+
+    public ReactiveRegistrationService(RegistrationService registrationService, ChangeEventPublisher changeEvents) {
+        this.registrationService = registrationService;
+        this.changeEvents = changeEvents;
+    }
+
+    /**
+     * @see RegistrationService#registerForCourse(Integer, Integer)
+     */
+    public Mono<Registration> registerForCourse(Integer studentId, Integer courseId) {
+        return ReactiveWrites.run(changeEvents, () -> registrationService.registerForCourse(studentId, courseId));
+    }
+
+    /**
+     * @see RegistrationService#dropCourse(Integer, Integer)
+     */
+    public Mono<Boolean> dropCourse(Integer studentId, Integer courseId) {
+        return ReactiveWrites.run(changeEvents, () -> registrationService.dropCourse(studentId, courseId));
+    }
+
+    /**
+     * @see RegistrationService#changeCourses(Integer, List, List)
+     */
+    public Mono<CourseChangeResponse> changeCourses(Integer studentId, List<Integer> register, List<Integer> drop) {
+        return ReactiveWrites.run(changeEvents, () -> registrationService.changeCourses(studentId, register, drop));
+    }
+
+    /**
+     * @see RegistrationService#joinWaitlist(Integer, Integer)
+     */
+    public Mono<WaitlistPositionResponse> joinWaitlist(Integer studentId, Integer courseId) {
+        return ReactiveWrites.run(changeEvents, () -> registrationService.joinWaitlist(studentId, courseId));
+    }
+
+    /**
+     * @see RegistrationService#leaveWaitlist(Integer, Integer)
+     */
+    public Mono<Void> leaveWaitlist(Integer studentId, Integer courseId) {
+        return ReactiveWrites.run(changeEvents, () -> {
+            registrationService.leaveWaitlist(studentId, courseId);
+            return null;
+        });
+    }
+
+    /**
+     * @see RegistrationService#getWaitlistPosition(Integer, Integer)
+     */
+    public Mono<WaitlistPositionResponse> getWaitlistPosition(Integer studentId, Integer courseId) {
+        return Mono.fromCallable(() -> registrationService.getWaitlistPosition(studentId, courseId));
+    }
+
+    /**
+     * @see RegistrationService#checkTimetable(Integer, List)
+     */
+    public Mono<TimetableCheckResponse> checkTimetable(Integer studentId, List<Integer> courseIds) {
+        return Mono.fromCallable(() -> registrationService.checkTimetable(studentId, courseIds));
+    }
+
+    /**
+     * Emits the courses a student is registered for in ascending course ID order.
+     * Errors with ResourceNotFoundException if the student is not found.
+     */
+    public Flux<CourseResponse> streamRegisteredCourses(Integer studentId) {
+        return Flux.defer(() -> Flux.fromStream(registrationService.streamRegisteredCourses(studentId)));
+    }
+
+    /**
+     * @see RegistrationService#getRegisteredCourses(Integer, Integer, int)
+     */
+    public Mono<PageResponse<CourseResponse>> getRegisteredCourses(Integer studentId, Integer after, int limit) {
+        return Mono.fromCallable(() -> registrationService.getRegisteredCourses(studentId, after, limit));
+    }
+
+    /**
+     * @see RegistrationService#searchCourses(CourseQuery, Integer, int)
+     */
+    public Mono<PageResponse<CourseResponse>> searchCourses(CourseQuery query, Integer after, int limit) {
+        return Mono.fromCallable(() -> registrationService.searchCourses(query, after, limit));
+    }
+
+    /**
+     * @see RegistrationService#getCourseRoster(Integer, Integer, int)
+     */
+    public Mono<PageResponse<StudentResponse>> getCourseRoster(Integer courseId, Integer after, int limit) {
+        return Mono.fromCallable(() -> registrationService.getCourseRoster(courseId, after, limit));
+    }
+
+    /**
+     * @see RegistrationService#getEnrollmentCount(Integer)
+     */
+    public Mono<EnrollmentCountResponse> getEnrollmentCount(Integer courseId) {
+        return Mono.fromCallable(() -> registrationService.getEnrollmentCount(courseId));
+    }
+}
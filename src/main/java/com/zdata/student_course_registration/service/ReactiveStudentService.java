@@ -0,0 +1,54 @@
+package com.zdata.student_course_registration.service;
+
+import com.zdata.student_course_registration.dto.PageResponse;
+import com.zdata.student_course_registration.dto.StudentCreateRequest;
+import com.zdata.student_course_registration.dto.StudentResponse;
+import com.zdata.student_course_registration.event.ChangeEventPublisher;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking view of {@link StudentService} for the WebFlux API, over the same in-memory store.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveStudentService {
+
+    private final StudentService studentService;
+    private final ChangeEventPublisher changeEvents;
+
+    public ReactiveStudentService(StudentService studentService, ChangeEventPublisher changeEvents) {
+        this.studentService = studentService;
+        this.changeEvents = changeEvents;
+    }
+
+    /**
+     * @see StudentService#registerStudent(StudentCreateRequest)
+     */
+    public Mono<StudentResponse> registerStudent(StudentCreateRequest request) {
+        return ReactiveWrites.run(changeEvents, () -> studentService.registerStudent(request));
+    }
+
+    /**
+     * @see StudentService#getStudentByEmail(String)
+     */
+    public Mono<StudentResponse> getStudentByEmail(String email) {
+        return Mono.fromCallable(() -> studentService.getStudentByEmail(email));
+    }
+
+    /**
+     * @see StudentService#getStudents(Integer, int)
+     */
+    public Mono<PageResponse<StudentResponse>> getStudents(Integer after, int limit) {
+        return Mono.fromCallable(() -> studentService.getStudents(after, limit));
+    }
+
+    /**
+     * Emits all students in ascending ID order, reading the store only as fast as the subscriber requests.
+     */
+    public Flux<StudentResponse> streamStudents() {
+        return Flux.fromStream(studentService::streamStudents);
+    }
+}
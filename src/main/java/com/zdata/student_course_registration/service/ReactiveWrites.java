@@ -0,0 +1,25 @@
+package com.zdata.student_course_registration.service;
+
+import com.zdata.student_course_registration.event.ChangeEventPublisher;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Runs a mutation of the in-memory stores for a reactive caller. The mutation itself never blocks,
+ * so it runs on the subscribing thread; only when waiting for durability can block (fsync=always)
+ * is it moved off the event loop.
+ */
+final class ReactiveWrites {
+
+    private ReactiveWrites() {
+    }
+
+    static <T> Mono<T> run(ChangeEventPublisher changeEvents, Callable<T> mutation) {
+        return Mono.defer(() -> {
+            Mono<T> result = Mono.fromCallable(mutation);
+            return changeEvents.awaitDurableBlocks() ? result.subscribeOn(Schedulers.boundedElastic()) : result;
+        });
+    }
+}
@@ -1,33 +1,104 @@
 package com.zdata.student_course_registration.service;
 
+import com.zdata.student_course_registration.dto.CourseChangeResponse;
+import com.zdata.student_course_registration.dto.CourseQuery;
+import com.zdata.student_course_registration.dto.CourseResponse;
+import com.zdata.student_course_registration.dto.EnrollmentCountResponse;
+import com.zdata.student_course_registration.dto.PageResponse;
+import com.zdata.student_course_registration.dto.RegistrationRequest;
+import com.zdata.student_course_registration.dto.ScheduleConflict;
+import com.zdata.student_course_registration.dto.StudentResponse;
+import com.zdata.student_course_registration.dto.TimetableCheckResponse;
+import com.zdata.student_course_registration.dto.WaitlistPositionResponse;
+import com.zdata.student_course_registration.event.ChangeEvent;
+import com.zdata.student_course_registration.event.ChangeEventPublisher;
 import com.zdata.student_course_registration.exception.BadRequestException;
 import com.zdata.student_course_registration.exception.ConflictException;
 import com.zdata.student_course_registration.exception.ResourceNotFoundException;
+import com.zdata.student_course_registration.index.CourseEnrollment;
+import com.zdata.student_course_registration.index.EnrollmentStore;
+import com.zdata.student_course_registration.index.Timetable;
+import com.zdata.student_course_registration.metrics.ServiceMetrics;
 import com.zdata.student_course_registration.model.Course;
 import com.zdata.student_course_registration.model.Registration;
 import com.zdata.student_course_registration.model.Student;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Service
 public class RegistrationService {
 
     private final StudentService studentService;
     private final CourseService courseService;
+    private final ChangeEventPublisher changeEvents;
+    private final ServiceMetrics metrics;
 
-    // In-memory storage for registrations
-    // Key: studentId, Value: Set of Course IDs the student is registered for
-    private final Map<Integer, Set<Integer>> studentRegistrations = new ConcurrentHashMap<>();
+    // In-memory storage for registrations: the course IDs each student is registered for
+    private final EnrollmentStore enrollments;
+    // Reverse index: Key: courseId, Value: roster and live enrollment count of the course
+    private final Map<Integer, CourseEnrollment> courseEnrollments = new ConcurrentHashMap<>();
+    // Key: studentId, Value: meetings of the student's registered courses; only for students who have any
+    private final Map<Integer, Timetable> timetables = new ConcurrentHashMap<>();
 
-    public RegistrationService(StudentService studentService, CourseService courseService) {
+    // Striped per-student locks so the forward and reverse indexes change together,
+    // while registrations of different students rarely contend
+    private static final int LOCK_STRIPES = 256;
+    private final Lock[] studentLocks = new Lock[LOCK_STRIPES];
+
+    private final ServiceMetrics.Operation registerForCourseCalls;
+    private final ServiceMetrics.Operation registerForCoursesCalls;
+    private final ServiceMetrics.Operation dropCourseCalls;
+    private final ServiceMetrics.Operation changeCoursesCalls;
+    private final ServiceMetrics.Operation joinWaitlistCalls;
+    private final ServiceMetrics.Operation leaveWaitlistCalls;
+    private final ServiceMetrics.Operation getWaitlistPositionCalls;
+    private final ServiceMetrics.Operation getRegisteredCoursesCalls;
+    private final ServiceMetrics.Operation getRegisteredCoursesPageCalls;
+    private final ServiceMetrics.Operation getCourseRosterCalls;
+    private final ServiceMetrics.Operation getEnrollmentCountCalls;
+    private final ServiceMetrics.Operation checkTimetableCalls;
+
+    public RegistrationService(StudentService studentService, CourseService courseService,
+                               EnrollmentStore enrollments, ChangeEventPublisher changeEvents,
+                               ServiceMetrics metrics) {
         this.studentService = studentService;
         this.courseService = courseService;
+        this.enrollments = enrollments;
+        this.changeEvents = changeEvents;
+        this.metrics = metrics;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            studentLocks[i] = new ReentrantLock();
+        }
+        String service = RegistrationService.class.getSimpleName();
+        this.registerForCourseCalls = metrics.operation(service, "registerForCourse");
+        this.registerForCoursesCalls = metrics.operation(service, "registerForCourses");
+        this.dropCourseCalls = metrics.operation(service, "dropCourse");
+        this.changeCoursesCalls = metrics.operation(service, "changeCourses");
+        this.joinWaitlistCalls = metrics.operation(service, "joinWaitlist");
+        this.leaveWaitlistCalls = metrics.operation(service, "leaveWaitlist");
+        this.getWaitlistPositionCalls = metrics.operation(service, "getWaitlistPosition");
+        this.getRegisteredCoursesCalls = metrics.operation(service, "getRegisteredCourses");
+        this.getRegisteredCoursesPageCalls = metrics.operation(service, "getRegisteredCoursesPage");
+        this.getCourseRosterCalls = metrics.operation(service, "getCourseRoster");
+        this.getEnrollmentCountCalls = metrics.operation(service, "getEnrollmentCount");
+        this.checkTimetableCalls = metrics.operation(service, "checkTimetable");
+        metrics.gauge("registration.registrations", "Registrations of students for courses",
+                this, RegistrationService::registrationCount);
     }
 
     /**
@@ -35,13 +106,65 @@ public class RegistrationService {
      * Business Rules:
      * 3. A student cannot register for the same course more than once.
      * 4. A student can drop only courses they are registered in (checked by dropCourse).
+     * 5. A course cannot enroll more students than its capacity.
+     * 6. A student cannot register for a course whose meetings overlap those of their other courses.
      * @param studentId ID of the student.
      * @param courseId ID of the course.
      * @return true if registration is successful.
      * @throws ResourceNotFoundException if student or course is not found.
-     * @throws ConflictException if student is already registered for the course.
+     * @throws ConflictException if student is already registered for the course, the course is full
+     *         or it clashes with the student's timetable.
      */
     public Registration registerForCourse(Integer studentId, Integer courseId) {
+        long started = System.nanoTime();
+        try {
+            changeEvents.awaitDurable(register(studentId, courseId));
+            // Return a Registration object for clarity, though not strictly stored as objects in this service
+            return new Registration(studentId, courseId, LocalDateTime.now());
+        } catch (RuntimeException e) {
+            registerForCourseCalls.failed(e);
+            throw e;
+        } finally {
+            registerForCourseCalls.record(started);
+        }
+    }
+
+    /**
+     * Registers students for courses one after the other, with the same business rules as
+     * {@link #registerForCourse(Integer, Integer)}, but waits for durability once for the whole batch.
+     * Rejections do not stop the batch; any other failure propagates and leaves the rest unapplied.
+     * @param requests Student/course pairs, applied in list order.
+     * @return One entry per request: null if the student was registered, otherwise the
+     *         ResourceNotFoundException or ConflictException that rejected it.
+     */
+    public List<RuntimeException> registerForCourses(List<RegistrationRequest> requests) {
+        long started = System.nanoTime();
+        try {
+            List<RuntimeException> rejections = new ArrayList<>(requests.size());
+            long lastSequence = 0;
+            for (RegistrationRequest request : requests) {
+                try {
+                    lastSequence = Math.max(lastSequence, register(request.getStudentId(), request.getCourseId()));
+                    rejections.add(null);
+                } catch (ResourceNotFoundException | ConflictException e) {
+                    rejections.add(e);
+                }
+            }
+            changeEvents.awaitDurable(lastSequence);
+            return rejections;
+        } catch (RuntimeException e) {
+            registerForCoursesCalls.failed(e);
+            throw e;
+        } finally {
+            registerForCoursesCalls.record(started);
+        }
+    }
+
+    /**
+     * Applies a registration and publishes its change event without waiting for it to be durable.
+     * @return Sequence of the change event.
+     */
+    private long register(Integer studentId, Integer courseId) {
         Student student = studentService.getStudentById(studentId);
         if (student == null) {
             throw new ResourceNotFoundException("Student with ID " + studentId + " not found.");
@@ -52,19 +175,52 @@ public class RegistrationService {
             throw new ResourceNotFoundException("Course with ID " + courseId + " not found.");
         }
 
-        // Business Rule 3: A student cannot register for the same course more than once.
-        Set<Integer> registeredCourses = studentRegistrations.computeIfAbsent(studentId, k -> ConcurrentHashMap.newKeySet());
-        if (!registeredCourses.add(courseId)) {
-            throw new ConflictException("Student " + studentId + " is already registered for course " + courseId + ".");
+        // Lock-free fast path: reject duplicates and full courses before taking any lock.
+        if (enrollments.contains(studentId, courseId)) {
+            throw alreadyRegistered(studentId, courseId);
+        }
+        CourseEnrollment enrollment = enrollmentOf(course);
+        if (enrollment.isFull()) {
+            throw courseFull(courseId);
         }
 
-        // Return a Registration object for clarity, though not strictly stored as objects in this service
-        return new Registration(studentId, courseId, LocalDateTime.now());
+        Timetable schedule = courseService.getTimetable(courseId);
+        ChangeEvent event = new ChangeEvent.Registered(studentId, courseId);
+        long sequence;
+        Lock lock = lockFor(studentId);
+        lock.lock();
+        try {
+            // Business Rule 3: A student cannot register for the same course more than once.
+            if (enrollments.contains(studentId, courseId)) {
+                throw alreadyRegistered(studentId, courseId);
+            }
+            // Business Rule 6: checked before taking a seat, so a clash never holds one
+            Timetable.Overlap clash = clashOf(studentId, schedule);
+            if (clash != null) {
+                throw scheduleClash(clash);
+            }
+            // Business Rule 5: A course cannot enroll more students than its capacity.
+            if (!enrollment.tryAcquireSeat()) {
+                throw courseFull(courseId);
+            }
+            enrollments.add(studentId, courseId);
+            enrollment.add(studentId);
+            addMeetings(studentId, schedule);
+            // A waitlisted student who got a seat directly no longer waits for one
+            enrollment.leaveWaitlist(studentId);
+            sequence = changeEvents.publish(event);
+        } finally {
+            lock.unlock();
+        }
+        changeEvents.applied(event);
+        return sequence;
     }
 
     /**
      * Drops a student from a course.
      * Business Rule 4: A student can drop only courses they are registered in.
+     * If students are waiting for the course, the freed seat goes to the first of them in the same step,
+     * skipping and removing waiting students whose timetable now clashes with the course.
      * @param studentId ID of the student.
      * @param courseId ID of the course.
      * @return true if course was successfully dropped.
@@ -72,22 +228,431 @@ public class RegistrationService {
      * @throws BadRequestException if student is not registered for the course.
      */
     public boolean dropCourse(Integer studentId, Integer courseId) {
-        Student student = studentService.getStudentById(studentId);
-        if (student == null) {
-            throw new ResourceNotFoundException("Student with ID " + studentId + " not found.");
+        long started = System.nanoTime();
+        try {
+            Student student = studentService.getStudentById(studentId);
+            if (student == null) {
+                throw new ResourceNotFoundException("Student with ID " + studentId + " not found.");
+            }
+
+            Course course = courseService.getCourseById(courseId);
+            if (course == null) {
+                throw new ResourceNotFoundException("Course with ID " + courseId + " not found.");
+            }
+
+            CourseEnrollment enrollment = courseEnrollments.get(courseId);
+            if (enrollment == null) {
+                throw notRegistered(studentId, courseId);
+            }
+            Timetable schedule = courseService.getTimetable(courseId);
+            ChangeEvent dropped = new ChangeEvent.Dropped(studentId, courseId);
+            ChangeEvent promoted = null;
+            long sequence;
+            while (true) {
+                // The promoted student's lock is needed too, so find them first and check again once locked
+                int next = enrollment.nextWaitlisted();
+                lockPair(studentId, next);
+                try {
+                    if (!enrollments.contains(studentId, courseId)) {
+                        // Business Rule 4: A student can drop only courses they are registered in.
+                        throw notRegistered(studentId, courseId);
+                    }
+                    if (next != -1 && clashOf(next, schedule) != null) {
+                        // Registered for an overlapping course while waiting, so the seat goes to the next in line
+                        if (enrollment.leaveWaitlist(next)) {
+                            changeEvents.publish(new ChangeEvent.WaitlistLeft(next, courseId));
+                        }
+                        continue;
+                    }
+                    if (!enrollment.releaseSeatTo(next)) {
+                        continue;
+                    }
+                    enrollments.remove(studentId, courseId);
+                    enrollment.remove(studentId);
+                    removeMeetings(studentId, courseId);
+                    sequence = changeEvents.publish(dropped);
+                    if (next != -1) {
+                        enrollments.add(next, courseId);
+                        enrollment.add(next);
+                        addMeetings(next, schedule);
+                        promoted = new ChangeEvent.Registered(next, courseId);
+                        sequence = changeEvents.publish(promoted);
+                    }
+                    break;
+                } finally {
+                    unlockPair(studentId, next);
+                }
+            }
+            changeEvents.applied(dropped);
+            if (promoted != null) {
+                changeEvents.applied(promoted);
+            }
+            changeEvents.awaitDurable(sequence);
+            return true;
+        } catch (RuntimeException e) {
+            dropCourseCalls.failed(e);
+            throw e;
+        } finally {
+            dropCourseCalls.record(started);
         }
+    }
 
-        Course course = courseService.getCourseById(courseId);
-        if (course == null) {
-            throw new ResourceNotFoundException("Course with ID " + courseId + " not found.");
+    /**
+     * Registers a student for some courses and drops others, all or nothing: if any of the changes would
+     * be rejected, none is applied. The rules are those of {@link #registerForCourse(Integer, Integer)}
+     * and {@link #dropCourse(Integer, Integer)}, with clashes checked against the timetable as it is
+     * after the drops, and seats freed by the drops go to waiting students as in dropCourse.
+     * <p>
+     * Locks are always taken in the same order, so concurrent changes cannot deadlock: first the stripes
+     * of the student and of the waiting students to promote, in ascending stripe order, then the
+     * monitors of the courses in ascending course ID order. Changes of different students to different
+     * courses share no lock unless their stripes collide.
+     * @param studentId ID of the student.
+     * @param register IDs of the courses to register for, or null for none.
+     * @param drop IDs of the courses to drop, or null for none.
+     * @return CourseChangeResponse with the applied changes.
+     * @throws ResourceNotFoundException if student or one of the courses is not found.
+     * @throws BadRequestException if no change is requested, a course is listed twice
+     *         or the student is not registered for a course to drop.
+     * @throws ConflictException if the student is already registered for a course to register for,
+     *         that course is full or it clashes with the resulting timetable.
+     */
+    public CourseChangeResponse changeCourses(Integer studentId, List<Integer> register, List<Integer> drop) {
+        long started = System.nanoTime();
+        try {
+            if (studentService.getStudentById(studentId) == null) {
+                throw new ResourceNotFoundException("Student with ID " + studentId + " not found.");
+            }
+            int[] registerIds = sortedCourseIds(register);
+            int[] dropIds = sortedCourseIds(drop);
+            if (registerIds.length + dropIds.length == 0) {
+                throw new BadRequestException("Please provide courses to register for or to drop.");
+            }
+            for (int courseId : registerIds) {
+                if (Arrays.binarySearch(dropIds, courseId) >= 0) {
+                    throw new BadRequestException("Course " + courseId + " is listed more than once.");
+                }
+            }
+
+            CourseEnrollment[] registerEnrollments = new CourseEnrollment[registerIds.length];
+            Timetable[] registerSchedules = new Timetable[registerIds.length];
+            for (int i = 0; i < registerIds.length; i++) {
+                Course course = courseService.getCourseById(registerIds[i]);
+                if (course == null) {
+                    throw new ResourceNotFoundException("Course with ID " + registerIds[i] + " not found.");
+                }
+                registerEnrollments[i] = enrollmentOf(course);
+                registerSchedules[i] = courseService.getTimetable(registerIds[i]);
+            }
+            CourseEnrollment[] dropEnrollments = new CourseEnrollment[dropIds.length];
+            Timetable[] dropSchedules = new Timetable[dropIds.length];
+            for (int i = 0; i < dropIds.length; i++) {
+                requireCourse(dropIds[i]);
+                dropEnrollments[i] = courseEnrollments.get(dropIds[i]);
+                if (dropEnrollments[i] == null) {
+                    throw notRegistered(studentId, dropIds[i]);
+                }
+                dropSchedules[i] = courseService.getTimetable(dropIds[i]);
+            }
+            CourseEnrollment[] monitors = inCourseOrder(registerIds, registerEnrollments, dropIds, dropEnrollments);
+
+            while (true) {
+                // Waiting students to promote are locked too, so find them first and check again once locked
+                int[] heads = new int[dropIds.length];
+                for (int i = 0; i < dropIds.length; i++) {
+                    heads[i] = dropEnrollments[i].nextWaitlisted();
+                }
+                int[] stripes = stripesOf(studentId, heads);
+                ChangeEvent transaction;
+                long sequence;
+                lockStripes(stripes);
+                try {
+                    for (int i = 0; i < dropIds.length; i++) {
+                        // Business Rule 4: A student can drop only courses they are registered in.
+                        if (!enrollments.contains(studentId, dropIds[i])) {
+                            throw notRegistered(studentId, dropIds[i]);
+                        }
+                    }
+                    Timetable planned = timetables.getOrDefault(studentId, Timetable.EMPTY);
+                    for (int dropId : dropIds) {
+                        planned = planned.without(dropId);
+                    }
+                    for (int i = 0; i < registerIds.length; i++) {
+                        // Business Rule 3: A student cannot register for the same course more than once.
+                        if (enrollments.contains(studentId, registerIds[i])) {
+                            throw alreadyRegistered(studentId, registerIds[i]);
+                        }
+                        // Business Rule 6, against the courses kept and the ones registered before this one
+                        if (registerSchedules[i] != null) {
+                            Timetable.Overlap clash = planned.clash(registerSchedules[i]);
+                            if (clash != null) {
+                                throw scheduleClash(clash);
+                            }
+                            planned = planned.with(registerSchedules[i]);
+                        }
+                    }
+                    if (removeClashingHeads(heads, dropIds, dropEnrollments, dropSchedules)) {
+                        continue;
+                    }
+                    transaction = holdingMonitors(monitors, 0, () -> applyChanges(studentId,
+                            registerIds, registerEnrollments, registerSchedules, dropIds, dropEnrollments, dropSchedules, heads));
+                    if (transaction == null) {
+                        continue;
+                    }
+                    sequence = changeEvents.publish(transaction);
+                } finally {
+                    unlockStripes(stripes);
+                }
+                changeEvents.applied(transaction);
+                changeEvents.awaitDurable(sequence);
+                return new CourseChangeResponse(studentId, Arrays.stream(registerIds).boxed().toList(),
+                        Arrays.stream(dropIds).boxed().toList(), LocalDateTime.now());
+            }
+        } catch (RuntimeException e) {
+            changeCoursesCalls.failed(e);
+            throw e;
+        } finally {
+            changeCoursesCalls.record(started);
+        }
+    }
+
+    /**
+     * Takes waiting students who would be promoted into a dropped course off its waitlist if the course
+     * clashes with their timetable, including with another course they would be promoted into.
+     * Their stripes must be locked.
+     * @return true if any was removed, so the heads have to be looked up again.
+     */
+    private boolean removeClashingHeads(int[] heads, int[] dropIds, CourseEnrollment[] dropEnrollments,
+                                        Timetable[] dropSchedules) {
+        boolean removed = false;
+        Map<Integer, Timetable> planned = new HashMap<>();
+        for (int i = 0; i < heads.length; i++) {
+            if (heads[i] == -1 || dropSchedules[i] == null) {
+                continue;
+            }
+            Timetable current = planned.getOrDefault(heads[i], timetables.getOrDefault(heads[i], Timetable.EMPTY));
+            if (current.clash(dropSchedules[i]) == null) {
+                planned.put(heads[i], current.with(dropSchedules[i]));
+            } else {
+                if (dropEnrollments[i].leaveWaitlist(heads[i])) {
+                    changeEvents.publish(new ChangeEvent.WaitlistLeft(heads[i], dropIds[i]));
+                }
+                removed = true;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Applies checked changes; the stripes of the student and the heads, and the monitors of all
+     * courses involved, must be held.
+     * @return The applied changes, or null if a waitlist head changed and nothing was applied.
+     * @throws ConflictException if a course to register for is full; nothing is applied then.
+     */
+    private ChangeEvent applyChanges(int studentId, int[] registerIds, CourseEnrollment[] registerEnrollments,
+                                     Timetable[] registerSchedules, int[] dropIds,
+                                     CourseEnrollment[] dropEnrollments, Timetable[] dropSchedules, int[] heads) {
+        // Someone may have joined a waitlist that was empty; nobody can change a head that is locked
+        for (int i = 0; i < dropIds.length; i++) {
+            if (dropEnrollments[i].nextWaitlisted() != heads[i]) {
+                return null;
+            }
+        }
+        // Business Rule 5: all seats are reserved before anything changes, and given back if one is missing
+        for (int i = 0; i < registerIds.length; i++) {
+            if (!registerEnrollments[i].tryAcquireSeat()) {
+                for (int j = 0; j < i; j++) {
+                    registerEnrollments[j].releaseSeat();
+                }
+                throw courseFull(registerIds[i]);
+            }
+        }
+        List<ChangeEvent> changes = new ArrayList<>(registerIds.length + 2 * dropIds.length);
+        for (int i = 0; i < dropIds.length; i++) {
+            Integer courseId = dropIds[i];
+            dropEnrollments[i].releaseSeatTo(heads[i]);
+            enrollments.remove(studentId, courseId);
+            dropEnrollments[i].remove(studentId);
+            removeMeetings(studentId, courseId);
+            changes.add(new ChangeEvent.Dropped(studentId, courseId));
+            if (heads[i] != -1) {
+                enrollments.add(heads[i], courseId);
+                dropEnrollments[i].add(heads[i]);
+                addMeetings(heads[i], dropSchedules[i]);
+                changes.add(new ChangeEvent.Registered(heads[i], courseId));
+            }
+        }
+        for (int i = 0; i < registerIds.length; i++) {
+            enrollments.add(studentId, registerIds[i]);
+            registerEnrollments[i].add(studentId);
+            registerEnrollments[i].leaveWaitlist(studentId);
+            addMeetings(studentId, registerSchedules[i]);
+            changes.add(new ChangeEvent.Registered(studentId, registerIds[i]));
+        }
+        return new ChangeEvent.Transaction(List.copyOf(changes));
+    }
+
+    /**
+     * Runs the action while holding the monitors of the given enrollments, taken in array order.
+     */
+    private static <T> T holdingMonitors(CourseEnrollment[] ordered, int from, Supplier<T> action) {
+        if (from == ordered.length) {
+            return action.get();
         }
+        synchronized (ordered[from]) {
+            return holdingMonitors(ordered, from + 1, action);
+        }
+    }
 
-        Set<Integer> registeredCourses = studentRegistrations.get(studentId);
-        if (registeredCourses == null || !registeredCourses.remove(courseId)) {
-            // Business Rule 4: A student can drop only courses they are registered in.
-            throw new BadRequestException("Student " + studentId + " is not registered for course " + courseId + ".");
+    /**
+     * Merges two ascending, disjoint course ID arrays with their enrollments into course ID order.
+     */
+    private static CourseEnrollment[] inCourseOrder(int[] firstIds, CourseEnrollment[] first,
+                                                    int[] secondIds, CourseEnrollment[] second) {
+        CourseEnrollment[] merged = new CourseEnrollment[first.length + second.length];
+        int i = 0;
+        int j = 0;
+        for (int k = 0; k < merged.length; k++) {
+            merged[k] = j == second.length || (i < first.length && firstIds[i] < secondIds[j]) ? first[i++] : second[j++];
+        }
+        return merged;
+    }
+
+    /**
+     * @return The course IDs in ascending order, empty for null.
+     * @throws BadRequestException if a course ID is listed twice.
+     */
+    private static int[] sortedCourseIds(List<Integer> courseIds) {
+        if (courseIds == null) {
+            return new int[0];
+        }
+        int[] sorted = courseIds.stream().mapToInt(Integer::intValue).sorted().toArray();
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] == sorted[i - 1]) {
+                throw new BadRequestException("Course " + sorted[i] + " is listed more than once.");
+            }
+        }
+        return sorted;
+    }
+
+    /**
+     * Puts a student on the waitlist of a full course. Joining again keeps the original place.
+     * @param studentId ID of the student.
+     * @param courseId ID of the course.
+     * @return WaitlistPositionResponse with the student's position.
+     * @throws ResourceNotFoundException if student or course is not found.
+     * @throws ConflictException if the student is already registered, the course has a free seat
+     *         or it clashes with the student's timetable.
+     */
+    public WaitlistPositionResponse joinWaitlist(Integer studentId, Integer courseId) {
+        long started = System.nanoTime();
+        try {
+            if (studentService.getStudentById(studentId) == null) {
+                throw new ResourceNotFoundException("Student with ID " + studentId + " not found.");
+            }
+            Course course = courseService.getCourseById(courseId);
+            if (course == null) {
+                throw new ResourceNotFoundException("Course with ID " + courseId + " not found.");
+            }
+
+            CourseEnrollment enrollment = enrollmentOf(course);
+            ChangeEvent event = new ChangeEvent.WaitlistJoined(studentId, courseId);
+            int position;
+            long sequence = 0;
+            Lock lock = lockFor(studentId);
+            lock.lock();
+            try {
+                if (enrollments.contains(studentId, courseId)) {
+                    throw alreadyRegistered(studentId, courseId);
+                }
+                Timetable.Overlap clash = clashOf(studentId, courseService.getTimetable(courseId));
+                if (clash != null) {
+                    throw scheduleClash(clash);
+                }
+                boolean waiting = enrollment.waitlistPosition(studentId) > 0;
+                position = enrollment.joinWaitlist(studentId);
+                if (position == 0) {
+                    throw new ConflictException("Course " + courseId + " has a free seat; register instead.");
+                }
+                if (!waiting) {
+                    sequence = changeEvents.publish(event);
+                }
+            } finally {
+                lock.unlock();
+            }
+            changeEvents.awaitDurable(sequence);
+            return new WaitlistPositionResponse(studentId, courseId, position, enrollment.waitlistSize());
+        } catch (RuntimeException e) {
+            joinWaitlistCalls.failed(e);
+            throw e;
+        } finally {
+            joinWaitlistCalls.record(started);
+        }
+    }
+
+    /**
+     * Takes a student off the waitlist of a course.
+     * @param studentId ID of the student.
+     * @param courseId ID of the course.
+     * @throws ResourceNotFoundException if student or course is not found.
+     * @throws BadRequestException if the student is not on the waitlist.
+     */
+    public void leaveWaitlist(Integer studentId, Integer courseId) {
+        long started = System.nanoTime();
+        try {
+            if (studentService.getStudentById(studentId) == null) {
+                throw new ResourceNotFoundException("Student with ID " + studentId + " not found.");
+            }
+            requireCourse(courseId);
+
+            CourseEnrollment enrollment = courseEnrollments.get(courseId);
+            long sequence;
+            Lock lock = lockFor(studentId);
+            lock.lock();
+            try {
+                if (enrollment == null || !enrollment.leaveWaitlist(studentId)) {
+                    throw new BadRequestException(notWaitlisted(studentId, courseId));
+                }
+                sequence = changeEvents.publish(new ChangeEvent.WaitlistLeft(studentId, courseId));
+            } finally {
+                lock.unlock();
+            }
+            changeEvents.awaitDurable(sequence);
+        } catch (RuntimeException e) {
+            leaveWaitlistCalls.failed(e);
+            throw e;
+        } finally {
+            leaveWaitlistCalls.record(started);
+        }
+    }
+
+    /**
+     * Returns a student's place on the waitlist of a course.
+     * @param studentId ID of the student.
+     * @param courseId ID of the course.
+     * @return WaitlistPositionResponse with the student's position.
+     * @throws ResourceNotFoundException if student or course is not found, or the student is not on the waitlist.
+     */
+    public WaitlistPositionResponse getWaitlistPosition(Integer studentId, Integer courseId) {
+        long started = System.nanoTime();
+        try {
+            if (studentService.getStudentById(studentId) == null) {
+                throw new ResourceNotFoundException("Student with ID " + studentId + " not found.");
+            }
+            requireCourse(courseId);
+
+            CourseEnrollment enrollment = courseEnrollments.get(courseId);
+            int position = enrollment == null ? 0 : enrollment.waitlistPosition(studentId);
+            if (position == 0) {
+                throw new ResourceNotFoundException(notWaitlisted(studentId, courseId));
+            }
+            return new WaitlistPositionResponse(studentId, courseId, position, enrollment.waitlistSize());
+        } catch (RuntimeException e) {
+            getWaitlistPositionCalls.failed(e);
+            throw e;
+        } finally {
+            getWaitlistPositionCalls.record(started);
         }
-        return true;
     }
 
     /**
@@ -97,16 +662,478 @@ public class RegistrationService {
      * @throws ResourceNotFoundException if student is not found.
      */
     public List<Course> getRegisteredCourses(Integer studentId) {
+        long started = System.nanoTime();
+        try {
+            Student student = studentService.getStudentById(studentId);
+            if (student == null) {
+                throw new ResourceNotFoundException("Student with ID " + studentId + " not found.");
+            }
+
+            int[] registeredCourseIds = enrollments.coursesOf(studentId);
+            List<Course> registeredCourses = new ArrayList<>(registeredCourseIds.length);
+            for (int courseId : registeredCourseIds) {
+                Course course = courseService.getCourseById(courseId);
+                if (course != null) { // Skip any courses that might have been deleted (edge case)
+                    registeredCourses.add(course);
+                }
+            }
+            return registeredCourses;
+        } catch (RuntimeException e) {
+            getRegisteredCoursesCalls.failed(e);
+            throw e;
+        } finally {
+            getRegisteredCoursesCalls.record(started);
+        }
+    }
+
+    /**
+     * Streams the courses a student is registered for in ascending course ID order.
+     * The student is checked eagerly; the courses are looked up as the stream is consumed.
+     * @param studentId ID of the student.
+     * @return Lazily evaluated stream of CourseResponse objects.
+     * @throws ResourceNotFoundException if student is not found.
+     */
+    public Stream<CourseResponse> streamRegisteredCourses(Integer studentId) {
         Student student = studentService.getStudentById(studentId);
         if (student == null) {
             throw new ResourceNotFoundException("Student with ID " + studentId + " not found.");
         }
+        return Arrays.stream(enrollments.coursesOf(studentId))
+                .mapToObj(courseService::getCourseById)
+                .filter(Objects::nonNull)
+                .map(course -> new CourseResponse(course.getId(), course.getCode(), course.getTitle(), course.getInstructor(), course.getCapacity(), course.getMeetings()));
+    }
+
+    /**
+     * Lists the courses a student is registered for, one page at a time in ascending course ID order.
+     * @param studentId ID of the student.
+     * @param after Return only courses with an ID greater than this, or null for the first page.
+     * @param limit Maximum number of courses to return.
+     * @return Page of CourseResponse objects.
+     * @throws ResourceNotFoundException if student is not found.
+     * @throws BadRequestException if limit is out of range.
+     */
+    public PageResponse<CourseResponse> getRegisteredCourses(Integer studentId, Integer after, int limit) {
+        long started = System.nanoTime();
+        try {
+            Student student = studentService.getStudentById(studentId);
+            if (student == null) {
+                throw new ResourceNotFoundException("Student with ID " + studentId + " not found.");
+            }
+            Paging.checkLimit(limit);
+
+            int[] courseIds = enrollments.coursesOf(studentId, after, limit);
+            List<CourseResponse> courses = new ArrayList<>(courseIds.length);
+            for (int courseId : courseIds) {
+                Course course = courseService.getCourseById(courseId);
+                if (course != null) {
+                    courses.add(new CourseResponse(course.getId(), course.getCode(), course.getTitle(), course.getInstructor(), course.getCapacity(), course.getMeetings()));
+                }
+            }
+            Integer nextCursor = courseIds.length == limit ? courseIds[courseIds.length - 1] : null;
+            return new PageResponse<>(courses, nextCursor);
+        } catch (RuntimeException e) {
+            getRegisteredCoursesPageCalls.failed(e);
+            throw e;
+        } finally {
+            getRegisteredCoursesPageCalls.record(started);
+        }
+    }
+
+    /**
+     * Lists the students enrolled in a course, one page at a time in ascending student ID order.
+     * @param courseId ID of the course.
+     * @param after Return only students with an ID greater than this, or null for the first page.
+     * @param limit Maximum number of students to return.
+     * @return Page of StudentResponse objects.
+     * @throws ResourceNotFoundException if course is not found.
+     * @throws BadRequestException if limit is out of range.
+     */
+    public PageResponse<StudentResponse> getCourseRoster(Integer courseId, Integer after, int limit) {
+        long started = System.nanoTime();
+        try {
+            requireCourse(courseId);
+            Paging.checkLimit(limit);
+
+            CourseEnrollment enrollment = courseEnrollments.get(courseId);
+            int[] studentIds = enrollment == null ? new int[0] : enrollment.page(after, limit);
+            List<StudentResponse> students = new ArrayList<>(studentIds.length);
+            for (int studentId : studentIds) {
+                Student student = studentService.getStudentById(studentId);
+                if (student != null) {
+                    students.add(new StudentResponse(student.getId(), student.getName(), student.getEmail()));
+                }
+            }
+            Integer nextCursor = studentIds.length == limit ? studentIds[studentIds.length - 1] : null;
+            return new PageResponse<>(students, nextCursor);
+        } catch (RuntimeException e) {
+            getCourseRosterCalls.failed(e);
+            throw e;
+        } finally {
+            getCourseRosterCalls.record(started);
+        }
+    }
+
+    /**
+     * Returns the live number of students enrolled in a course.
+     * @param courseId ID of the course.
+     * @return EnrollmentCountResponse with the current count.
+     * @throws ResourceNotFoundException if course is not found.
+     */
+    public EnrollmentCountResponse getEnrollmentCount(Integer courseId) {
+        long started = System.nanoTime();
+        try {
+            requireCourse(courseId);
+            CourseEnrollment enrollment = courseEnrollments.get(courseId);
+            return new EnrollmentCountResponse(courseId, enrollment == null ? 0 : enrollment.count());
+        } catch (RuntimeException e) {
+            getEnrollmentCountCalls.failed(e);
+            throw e;
+        } finally {
+            getEnrollmentCountCalls.record(started);
+        }
+    }
+
+    /**
+     * Searches the catalogue by instructor, code prefix and title words, and by whether a seat is free.
+     * Seat counts change with every registration, so availability is checked per candidate rather than indexed.
+     * @param query Criteria to match; those left null are not applied.
+     * @param after Return only courses with an ID greater than this, or null for the first page.
+     * @param limit Maximum number of courses to return.
+     * @return Page of matching CourseResponse objects in ascending course ID order.
+     * @throws BadRequestException if limit is out of range.
+     * @see CourseService#searchCourses(CourseQuery, Integer, int, IntPredicate)
+     */
+    public PageResponse<CourseResponse> searchCourses(CourseQuery query, Integer after, int limit) {
+        Boolean available = query.getAvailable();
+        if (available == null) {
+            return courseService.searchCourses(query, after, limit, courseId -> true);
+        }
+        return courseService.searchCourses(query, after, limit, courseId -> isCourseFull(courseId) != available);
+    }
+
+    /**
+     * Checks whether a set of courses fits into a student's timetable, and with each other, in one sweep
+     * over their meetings. Courses the student is already registered for are part of the timetable anyway.
+     * @param studentId ID of the student.
+     * @param courseIds IDs of the courses the student considers.
+     * @return TimetableCheckResponse listing every overlap, empty if the timetable works.
+     * @throws ResourceNotFoundException if the student or one of the courses is not found.
+     */
+    public TimetableCheckResponse checkTimetable(Integer studentId, List<Integer> courseIds) {
+        long started = System.nanoTime();
+        try {
+            if (studentService.getStudentById(studentId) == null) {
+                throw new ResourceNotFoundException("Student with ID " + studentId + " not found.");
+            }
+            List<Timetable> proposed = new ArrayList<>(courseIds.size() + 1);
+            Timetable current = timetables.get(studentId);
+            if (current != null) {
+                proposed.add(current);
+            }
+            Set<Integer> seen = new HashSet<>();
+            for (Integer courseId : courseIds) {
+                requireCourse(courseId);
+                Timetable schedule = courseService.getTimetable(courseId);
+                if (schedule != null && seen.add(courseId) && !enrollments.contains(studentId, courseId)) {
+                    proposed.add(schedule);
+                }
+            }
+            List<ScheduleConflict> conflicts = new ArrayList<>();
+            for (Timetable.Overlap overlap : Timetable.overlaps(proposed)) {
+                conflicts.add(new ScheduleConflict(overlap.courseId(), overlap.otherCourseId(),
+                        overlap.day(), overlap.start(), overlap.end()));
+            }
+            return new TimetableCheckResponse(studentId, conflicts.isEmpty(), conflicts);
+        } catch (RuntimeException e) {
+            checkTimetableCalls.failed(e);
+            throw e;
+        } finally {
+            checkTimetableCalls.record(started);
+        }
+    }
+
+    /**
+     * @param courseId ID of the course.
+     * @return true if every seat of the course is taken right now; a drop can free one at any time.
+     */
+    public boolean isCourseFull(Integer courseId) {
+        CourseEnrollment enrollment = courseEnrollments.get(courseId);
+        return enrollment != null && enrollment.isFull();
+    }
+
+    /**
+     * Unlike {@link #getEnrollmentCount(Integer)}, not recorded as an API call; meant for internal readers.
+     * @param courseId ID of the course.
+     * @return Students registered for the course right now, 0 for an unknown course.
+     */
+    public int enrolledCount(Integer courseId) {
+        CourseEnrollment enrollment = courseEnrollments.get(courseId);
+        return enrollment == null ? 0 : enrollment.count();
+    }
+
+    /**
+     * Visits the registered course IDs of every student, e.g. to write a snapshot.
+     * @param action Called with each student ID and its course IDs in ascending order.
+     */
+    public void forEachRegistration(EnrollmentStore.StudentCourses action) {
+        enrollments.forEach(action);
+    }
+
+    public long registrationCount() {
+        return enrollments.size();
+    }
+
+    /**
+     * Re-applies a registration recovered from persisted state. Capacity is not re-checked,
+     * no change event is published and already present registrations are ignored.
+     * @param studentId ID of the student.
+     * @param courseId ID of the course.
+     */
+    public void restoreRegistration(Integer studentId, Integer courseId) {
+        Course course = courseService.getCourseById(courseId);
+        if (course == null) {
+            return;
+        }
+        Lock lock = lockFor(studentId);
+        lock.lock();
+        try {
+            if (enrollments.add(studentId, courseId)) {
+                CourseEnrollment enrollment = enrollmentOf(course);
+                enrollment.forceAcquireSeat();
+                enrollment.add(studentId);
+                enrollment.leaveWaitlist(studentId);
+                addMeetings(studentId, courseService.getTimetable(courseId));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Re-applies all registrations of one student recovered from a snapshot, under a single lock.
+     * Capacity is not re-checked and no change events are published. Course rosters are only
+     * updated in bulk by {@link #finishRestore()}, which must be called before serving requests.
+     * @param studentId ID of the student.
+     * @param courseIds IDs of the courses the student is registered for.
+     */
+    public void restoreRegistrations(Integer studentId, int[] courseIds) {
+        Lock lock = lockFor(studentId);
+        lock.lock();
+        try {
+            for (int courseId : courseIds) {
+                Course course = courseService.getCourseById(courseId);
+                if (course != null && enrollments.add(studentId, courseId)) {
+                    CourseEnrollment enrollment = enrollmentOf(course);
+                    enrollment.forceAcquireSeat();
+                    enrollment.addDeferred(studentId);
+                    addMeetings(studentId, courseService.getTimetable(courseId));
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Publishes the roster entries queued by {@link #restoreRegistrations(Integer, int[])}.
+     */
+    public void finishRestore() {
+        courseEnrollments.values().forEach(CourseEnrollment::mergeDeferred);
+    }
+
+    /**
+     * Re-applies a drop recovered from persisted state. Missing registrations are ignored.
+     * @param studentId ID of the student.
+     * @param courseId ID of the course.
+     */
+    public void restoreDrop(Integer studentId, Integer courseId) {
+        Course course = courseService.getCourseById(courseId);
+        if (course == null) {
+            return;
+        }
+        Lock lock = lockFor(studentId);
+        lock.lock();
+        try {
+            if (enrollments.remove(studentId, courseId)) {
+                CourseEnrollment enrollment = enrollmentOf(course);
+                enrollment.remove(studentId);
+                enrollment.releaseSeat();
+                removeMeetings(studentId, courseId);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
 
-        Set<Integer> registeredCourseIds = studentRegistrations.getOrDefault(studentId, ConcurrentHashMap.newKeySet());
+    /**
+     * Visits the waitlist of every course that has waiting students, e.g. to write a snapshot.
+     * @param action Called with each course ID and its waitlisted student IDs, head first.
+     */
+    public void forEachWaitlist(EnrollmentStore.StudentCourses action) {
+        courseEnrollments.forEach((courseId, enrollment) -> {
+            int[] studentIds = enrollment.waitlisted();
+            if (studentIds.length > 0) {
+                action.accept(courseId, studentIds);
+            }
+        });
+    }
 
-        return registeredCourseIds.stream()
-                .map(courseService::getCourseById)
-                .filter(java.util.Objects::nonNull) // Filter out any courses that might have been deleted (edge case)
-                .collect(Collectors.toList());
+    /**
+     * Re-applies a waitlist recovered from persisted state, appending students not already waiting
+     * or registered.
+     * @param courseId ID of the course.
+     * @param studentIds IDs of the waitlisted students, head first.
+     */
+    public void restoreWaitlist(Integer courseId, int[] studentIds) {
+        Course course = courseService.getCourseById(courseId);
+        if (course == null) {
+            return;
+        }
+        CourseEnrollment enrollment = enrollmentOf(course);
+        for (int studentId : studentIds) {
+            // A snapshot is written while registrations go on, so it can hold a student in both places
+            if (!enrollments.contains(studentId, courseId)) {
+                enrollment.restoreWaitlisted(studentId);
+            }
+        }
+    }
+
+    /**
+     * Re-applies a waitlist change recovered from persisted state.
+     * @param studentId ID of the student.
+     * @param courseId ID of the course.
+     * @param joined true if the student joined the waitlist, false if they left it.
+     */
+    public void restoreWaitlistChange(Integer studentId, Integer courseId, boolean joined) {
+        Course course = courseService.getCourseById(courseId);
+        if (course == null) {
+            return;
+        }
+        CourseEnrollment enrollment = enrollmentOf(course);
+        if (joined) {
+            enrollment.restoreWaitlisted(studentId);
+        } else {
+            enrollment.leaveWaitlist(studentId);
+        }
+    }
+
+    private void requireCourse(Integer courseId) {
+        if (!courseService.courseExists(courseId)) {
+            throw new ResourceNotFoundException("Course with ID " + courseId + " not found.");
+        }
+    }
+
+    /**
+     * @param schedule Meetings of a course, or null if it has none.
+     * @return The first overlap of the course with the student's timetable, or null if it fits.
+     */
+    private Timetable.Overlap clashOf(int studentId, Timetable schedule) {
+        if (schedule == null) {
+            return null;
+        }
+        Timetable current = timetables.get(studentId);
+        return current == null ? null : current.clash(schedule);
+    }
+
+    // Timetables only change under the student's lock
+    private void addMeetings(int studentId, Timetable schedule) {
+        if (schedule != null) {
+            timetables.merge(studentId, schedule, Timetable::with);
+        }
+    }
+
+    private void removeMeetings(int studentId, Integer courseId) {
+        if (courseService.getTimetable(courseId) != null) {
+            timetables.computeIfPresent(studentId, (id, current) -> {
+                Timetable remaining = current.without(courseId);
+                return remaining.isEmpty() ? null : remaining;
+            });
+        }
+    }
+
+    private CourseEnrollment enrollmentOf(Course course) {
+        CourseEnrollment enrollment = courseEnrollments.get(course.getId());
+        return enrollment != null ? enrollment : courseEnrollments.computeIfAbsent(course.getId(), k -> {
+            CourseEnrollment created = new CourseEnrollment(course.getCapacity());
+            metrics.courseGauge("registration.course.enrollment", "Students enrolled in the course",
+                    course.getId(), created, CourseEnrollment::count);
+            return created;
+        });
+    }
+
+    private static ConflictException alreadyRegistered(Integer studentId, Integer courseId) {
+        return new ConflictException("Student " + studentId + " is already registered for course " + courseId + ".");
+    }
+
+    private static ConflictException courseFull(Integer courseId) {
+        return new ConflictException("Course " + courseId + " is full.");
+    }
+
+    private static ConflictException scheduleClash(Timetable.Overlap clash) {
+        return new ConflictException("Course " + clash.otherCourseId() + " clashes with course " + clash.courseId()
+                + " on " + clash.day() + " " + clash.start() + "-" + clash.end() + ".");
+    }
+
+    private static BadRequestException notRegistered(Integer studentId, Integer courseId) {
+        return new BadRequestException("Student " + studentId + " is not registered for course " + courseId + ".");
+    }
+
+    private static String notWaitlisted(Integer studentId, Integer courseId) {
+        return "Student " + studentId + " is not on the waitlist of course " + courseId + ".";
+    }
+
+    private Lock lockFor(Integer studentId) {
+        return studentLocks[Math.floorMod(studentId, LOCK_STRIPES)];
+    }
+
+    /**
+     * @param others Further students, -1 entries are ignored.
+     * @return Distinct lock stripes of the students in ascending order.
+     */
+    private static int[] stripesOf(int studentId, int[] others) {
+        int[] stripes = new int[others.length + 1];
+        stripes[0] = Math.floorMod(studentId, LOCK_STRIPES);
+        int count = 1;
+        for (int other : others) {
+            if (other != -1) {
+                stripes[count++] = Math.floorMod(other, LOCK_STRIPES);
+            }
+        }
+        return Arrays.stream(stripes, 0, count).sorted().distinct().toArray();
+    }
+
+    private void lockStripes(int[] stripes) {
+        for (int stripe : stripes) {
+            studentLocks[stripe].lock();
+        }
+    }
+
+    private void unlockStripes(int[] stripes) {
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            studentLocks[stripes[i]].unlock();
+        }
+    }
+
+    /**
+     * Locks the stripes of two students in stripe order, so concurrent pairs cannot deadlock.
+     * @param other Second student, or -1 for none.
+     */
+    private void lockPair(int studentId, int other) {
+        int first = Math.floorMod(studentId, LOCK_STRIPES);
+        int second = other == -1 ? first : Math.floorMod(other, LOCK_STRIPES);
+        studentLocks[Math.min(first, second)].lock();
+        if (first != second) {
+            studentLocks[Math.max(first, second)].lock();
+        }
+    }
+
+    private void unlockPair(int studentId, int other) {
+        int first = Math.floorMod(studentId, LOCK_STRIPES);
+        int second = other == -1 ? first : Math.floorMod(other, LOCK_STRIPES);
+        if (first != second) {
+            studentLocks[Math.max(first, second)].unlock();
+        }
+        studentLocks[Math.min(first, second)].unlock();
     }
 }
@@ -1,24 +1,51 @@
 package com.zdata.student_course_registration.service;
 
+import com.zdata.student_course_registration.dto.PageResponse;
 import com.zdata.student_course_registration.dto.StudentCreateRequest;
 import com.zdata.student_course_registration.dto.StudentResponse;
+import com.zdata.student_course_registration.exception.BadRequestException;
 import com.zdata.student_course_registration.exception.ConflictException;
+import com.zdata.student_course_registration.event.ChangeEvent;
+import com.zdata.student_course_registration.event.ChangeEventPublisher;
 import com.zdata.student_course_registration.exception.ResourceNotFoundException;
+import com.zdata.student_course_registration.index.UniqueIndex;
+import com.zdata.student_course_registration.metrics.ServiceMetrics;
 import com.zdata.student_course_registration.model.Student;
 import org.springframework.stereotype.Service;
 
-import java.util.Comparator;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class StudentService {
-    // Key: Student ID, Value: Student object
-    private final Map<Integer, Student> students = new ConcurrentHashMap<>();
+    // Key: Student ID, Value: Student object; sorted so listings can page by ID
+    private final NavigableMap<Integer, Student> students = new ConcurrentSkipListMap<>();
     // For generating unique student IDs
     private final AtomicInteger studentIdCounter = new AtomicInteger(1);
+    // Secondary index: normalized email -> Student ID
+    private final UniqueIndex emailIndex = new UniqueIndex();
+
+    private final ChangeEventPublisher changeEvents;
+
+    private final ServiceMetrics.Operation registerStudentCalls;
+    private final ServiceMetrics.Operation registerStudentsCalls;
+    private final ServiceMetrics.Operation getStudentByEmailCalls;
+    private final ServiceMetrics.Operation getStudentsCalls;
+
+    public StudentService(ChangeEventPublisher changeEvents, ServiceMetrics metrics) {
+        this.changeEvents = changeEvents;
+        String service = StudentService.class.getSimpleName();
+        this.registerStudentCalls = metrics.operation(service, "registerStudent");
+        this.registerStudentsCalls = metrics.operation(service, "registerStudents");
+        this.getStudentByEmailCalls = metrics.operation(service, "getStudentByEmail");
+        this.getStudentsCalls = metrics.operation(service, "getStudents");
+        metrics.gauge("registration.students", "Registered students", this, StudentService::studentCount);
+    }
 
     /**
      * Registers a new student.
@@ -28,17 +55,127 @@ public class StudentService {
      */
 
     public StudentResponse registerStudent(StudentCreateRequest request) {
-        // Business Rule 2: email must be unique for each student.
-        boolean emailExists = students.values().stream()
-                .anyMatch(student -> student.getEmail().equalsIgnoreCase(request.getEmail()));
-        if (emailExists) {
-            throw new ConflictException("Student with email '" + request.getEmail() + "' already exists.");
+        long started = System.nanoTime();
+        try {
+            // Business Rule 2: email must be unique for each student.
+            // Reserving the key first makes the check O(1) and race-free between concurrent creates.
+            String emailKey = UniqueIndex.normalize(request.getEmail());
+            if (!emailIndex.reserve(emailKey)) {
+                throw new ConflictException("Student with email '" + request.getEmail() + "' already exists.");
+            }
+
+            Integer newId = studentIdCounter.getAndIncrement();
+            Student student = new Student(newId, request.getName(), request.getEmail());
+            // Published before the student becomes visible, so it precedes any event that refers to it
+            long sequence;
+            try {
+                sequence = changeEvents.publishCreate(new ChangeEvent.StudentCreated(student));
+            } catch (RuntimeException | Error e) {
+                // Neither logged nor visible, so the email is free again
+                emailIndex.release(emailKey);
+                throw e;
+            }
+            try {
+                students.put(newId, student);
+                emailIndex.bind(emailKey, newId);
+            } finally {
+                changeEvents.madeVisible(sequence);
+            }
+            changeEvents.awaitDurable(sequence);
+            return new StudentResponse(student.getId(), student.getName(), student.getEmail());
+        } catch (RuntimeException e) {
+            registerStudentCalls.failed(e);
+            throw e;
+        } finally {
+            registerStudentCalls.record(started);
         }
+    }
+
+    /**
+     * Registers a chunk of students in one pass.
+     * Email uniqueness is checked once for the whole chunk, including duplicates within it,
+     * and IDs are allocated as a single contiguous block.
+     * @param requests Validated student creation details.
+     * @return StudentResponse for each request in order, or null where the email is already taken.
+     */
+    public List<StudentResponse> registerStudents(List<StudentCreateRequest> requests) {
+        long started = System.nanoTime();
+        try {
+            String[] reservedKeys = new String[requests.size()];
+            int reserved = 0;
+            for (int i = 0; i < requests.size(); i++) {
+                String emailKey = UniqueIndex.normalize(requests.get(i).getEmail());
+                if (emailIndex.reserve(emailKey)) {
+                    reservedKeys[i] = emailKey;
+                    reserved++;
+                }
+            }
 
-        Integer newId = studentIdCounter.getAndIncrement();
-        Student student = new Student(newId, request.getName(), request.getEmail());
-        students.put(newId, student);
-        return new StudentResponse(student.getId(), student.getName(), student.getEmail());
+            int nextId = studentIdCounter.getAndAdd(reserved);
+            long sequence = 0;
+            List<StudentResponse> responses = new ArrayList<>(requests.size());
+            for (int i = 0; i < requests.size(); i++) {
+                if (reservedKeys[i] == null) {
+                    responses.add(null);
+                    continue;
+                }
+                StudentCreateRequest request = requests.get(i);
+                Student student = new Student(nextId++, request.getName(), request.getEmail());
+                try {
+                    sequence = changeEvents.publishCreate(new ChangeEvent.StudentCreated(student));
+                } catch (RuntimeException | Error e) {
+                    // Neither this student nor the rest of the chunk were created, so their emails are free again
+                    releaseFrom(reservedKeys, i);
+                    throw e;
+                }
+                try {
+                    students.put(student.getId(), student);
+                    emailIndex.bind(reservedKeys[i], student.getId());
+                } finally {
+                    changeEvents.madeVisible(sequence);
+                }
+                responses.add(new StudentResponse(student.getId(), student.getName(), student.getEmail()));
+            }
+            // One durability wait covers the whole chunk
+            changeEvents.awaitDurable(sequence);
+            return responses;
+        } catch (RuntimeException e) {
+            registerStudentsCalls.failed(e);
+            throw e;
+        } finally {
+            registerStudentsCalls.record(started);
+        }
+    }
+
+    private void releaseFrom(String[] reservedKeys, int first) {
+        for (int i = first; i < reservedKeys.length; i++) {
+            if (reservedKeys[i] != null) {
+                emailIndex.release(reservedKeys[i]);
+            }
+        }
+    }
+
+    /**
+     * Retrieves a student by email (case-insensitive).
+     * @param email Email of the student.
+     * @return StudentResponse of the matching student.
+     * @throws ResourceNotFoundException if no student has this email.
+     */
+    public StudentResponse getStudentByEmail(String email) {
+        long started = System.nanoTime();
+        try {
+            Integer studentId = emailIndex.lookup(UniqueIndex.normalize(email));
+            Student student = studentId == null ? null : students.get(studentId);
+            if (student == null) {
+                throw new ResourceNotFoundException("Student with email '" + email + "' not found.");
+            }
+            return new StudentResponse(student.getId(), student.getName(), student.getEmail());
+        } catch (RuntimeException e) {
+            getStudentByEmailCalls.failed(e);
+            throw e;
+        } finally {
+            getStudentByEmailCalls.record(started);
+        }
     }
 
     /**
@@ -53,12 +190,57 @@ public class StudentService {
     }
 
     /**
-     * Retrieves all registered students.
-     * @return List of StudentResponse objects.
+     * Lists students one page at a time in ascending ID order.
+     * @param after Return only students with an ID greater than this, or null for the first page.
+     * @param limit Maximum number of students to return.
+     * @return Page of StudentResponse objects.
+     * @throws BadRequestException if limit is out of range.
      */
-    public Map<Integer, Student> getAllStudents() {
-        // Returns a copy of the map to prevent external modification
-        return new ConcurrentHashMap<>(students);
+    public PageResponse<StudentResponse> getStudents(Integer after, int limit) {
+        long started = System.nanoTime();
+        try {
+            return Paging.page(students, after, limit,
+                    student -> new StudentResponse(student.getId(), student.getName(), student.getEmail()));
+        } catch (RuntimeException e) {
+            getStudentsCalls.failed(e);
+            throw e;
+        } finally {
+            getStudentsCalls.record(started);
+        }
+    }
+
+    /**
+     * Streams all students in ascending ID order without copying the store.
+     * Weakly consistent with concurrent registrations.
+     * @return Lazily evaluated stream of StudentResponse objects.
+     */
+    public Stream<StudentResponse> streamStudents() {
+        return students.values().stream()
+                .map(student -> new StudentResponse(student.getId(), student.getName(), student.getEmail()));
+    }
+
+    /**
+     * Visits every student, e.g. to write a snapshot. Weakly consistent with concurrent registrations.
+     * @param action Called once per student.
+     */
+    public void forEachStudent(Consumer<Student> action) {
+        students.values().forEach(action);
+    }
+
+    /**
+     * Re-inserts a student recovered from persisted state, keeping its original ID.
+     * No change event is published and calls for an already known ID are ignored.
+     * @param student Recovered student.
+     */
+    public void restoreStudent(Student student) {
+        if (students.putIfAbsent(student.getId(), student) == null) {
+            emailIndex.bind(UniqueIndex.normalize(student.getEmail()), student.getId());
+            studentIdCounter.accumulateAndGet(student.getId() + 1, Math::max);
+        }
+    }
+
+    public int studentCount() {
+        return students.size();
     }
 
     // You can add more helper methods here if needed, e.g., to check student existence by ID
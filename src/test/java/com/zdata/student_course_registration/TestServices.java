@@ -0,0 +1,70 @@
+package com.zdata.student_course_registration;
+
+import com.zdata.student_course_registration.dto.CourseCreateRequest;
+import com.zdata.student_course_registration.dto.StudentCreateRequest;
+import com.zdata.student_course_registration.event.ChangeEventPublisher;
+import com.zdata.student_course_registration.index.CompactEnrollmentStore;
+import com.zdata.student_course_registration.index.EnrollmentStore;
+import com.zdata.student_course_registration.metrics.ServiceMetrics;
+import com.zdata.student_course_registration.model.MeetingTime;
+import com.zdata.student_course_registration.service.CourseService;
+import com.zdata.student_course_registration.service.RegistrationService;
+import com.zdata.student_course_registration.service.StudentService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The service layer wired by hand, without an application context, for tests and benchmarks,
+ * with shortcuts to create students and courses.
+ */
+public record TestServices(ChangeEventPublisher changeEvents, ServiceMetrics metrics, StudentService studentService,
+                           CourseService courseService, RegistrationService registrationService) {
+
+    public static TestServices create() {
+        return create(new CompactEnrollmentStore());
+    }
+
+    public static TestServices create(EnrollmentStore enrollments) {
+        ChangeEventPublisher changeEvents = new ChangeEventPublisher();
+        ServiceMetrics metrics = inMemoryMetrics();
+        StudentService studentService = new StudentService(changeEvents, metrics);
+        CourseService courseService = new CourseService(changeEvents, metrics);
+        return new TestServices(changeEvents, metrics, studentService, courseService,
+                new RegistrationService(studentService, courseService, enrollments, changeEvents, metrics));
+    }
+
+    /**
+     * @return Metrics kept in memory only, for components built outside the application context.
+     */
+    public static ServiceMetrics inMemoryMetrics() {
+        return new ServiceMetrics(new SimpleMeterRegistry(), true);
+    }
+
+    /**
+     * @return ID of a new student with the given name and the email {@code <name>@uni.edu}.
+     */
+    public Integer student(String name) {
+        return studentService.registerStudent(new StudentCreateRequest(name, name + "@uni.edu")).getId();
+    }
+
+    /**
+     * @return IDs of {@code count} new students named S0, S1, ...
+     */
+    public List<Integer> students(int count) {
+        List<Integer> studentIds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            studentIds.add(student("S" + i));
+        }
+        return studentIds;
+    }
+
+    /**
+     * @param capacity Seats of the course, or null for unlimited.
+     * @return ID of a new course taught by Ada, titled with its code.
+     */
+    public Integer course(String code, Integer capacity, MeetingTime... meetings) {
+        return courseService.addCourse(new CourseCreateRequest(code, code, "Ada", capacity, List.of(meetings))).getId();
+    }
+}
@@ -0,0 +1,57 @@
+package com.zdata.student_course_registration.admission;
+
+import com.zdata.student_course_registration.TestServices;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionControlTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+    private AdmissionControl admission(double rate, int burst, int maxConcurrent) {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setEnabled(true);
+        properties.setRate(rate);
+        properties.setBurst(burst);
+        properties.setMaxConcurrent(maxConcurrent);
+        return new AdmissionControl(properties, TestServices.inMemoryMetrics(), clock::get);
+    }
+
+    @Test
+    void burstIsAdmittedThenRefilledAtTheRate() {
+        AdmissionControl admission = admission(10, 5, 0);
+        for (int i = 0; i < 5; i++) {
+            assertThat(admission.tryAcquireClient("flooder")).isZero();
+        }
+        long wait = admission.tryAcquireClient("flooder");
+        assertThat(wait).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+        // Other clients keep their own full bucket
+        assertThat(admission.tryAcquireClient("fair")).isZero();
+        assertThat(admission.tryAcquireStudent(7)).isZero();
+
+        clock.addAndGet(wait);
+        assertThat(admission.tryAcquireClient("flooder")).isZero();
+        assertThat(admission.tryAcquireClient("flooder")).isPositive();
+
+        // An idle bucket refills up to the burst, not beyond it
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(60));
+        for (int i = 0; i < 5; i++) {
+            assertThat(admission.tryAcquireClient("flooder")).isZero();
+        }
+        assertThat(admission.tryAcquireClient("flooder")).isPositive();
+    }
+
+    @Test
+    void concurrencyLimitRejectsUntilASlotIsReleased() {
+        AdmissionControl admission = admission(10, 5, 2);
+        assertThat(admission.tryEnter()).isTrue();
+        assertThat(admission.tryEnter()).isTrue();
+        assertThat(admission.tryEnter()).isFalse();
+        admission.exit();
+        assertThat(admission.tryEnter()).isTrue();
+    }
+}
@@ -0,0 +1,185 @@
+package com.zdata.student_course_registration.benchmark;
+
+import com.zdata.student_course_registration.StudentCourseRegistrationApplication;
+import com.zdata.student_course_registration.dto.CourseCreateRequest;
+import com.zdata.student_course_registration.dto.StudentCreateRequest;
+import com.zdata.student_course_registration.service.CourseService;
+import com.zdata.student_course_registration.service.StudentService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fair clients registering for courses at a steady pace while a few abusive clients flood
+ * {@code GET /courses} from many connections each, with admission control off and then on.
+ * Every client identifies itself with {@code X-Client-Id}. Reports the latency of the fair clients
+ * and how the abusive requests were answered.
+ * Run with {@code mvn test -Pbenchmark -Dtest=AdmissionLoadBenchmark [-Dbenchmark.seconds=15]}.
+ */
+@Tag("benchmark")
+class AdmissionLoadBenchmark {
+
+    private static final int FAIR_CLIENTS = 50;
+    private static final Duration FAIR_INTERVAL = Duration.ofMillis(200);
+    private static final int ABUSIVE_CLIENTS = 4;
+    private static final int CONNECTIONS_PER_ABUSER = 32;
+    private static final Duration WARMUP = Duration.ofSeconds(3);
+    private static final Duration MEASUREMENT = Duration.ofSeconds(Integer.getInteger("benchmark.seconds", 15));
+    private static final int COURSES = 500;
+
+    @Test
+    void fairClientLatencyUnderAbuse() throws Exception {
+        // Both runs share this JVM, so an unreported run first keeps JIT warm-up out of either measurement
+        run(true);
+        Result unprotected = run(false);
+        System.out.println(unprotected.describe("admission off"));
+        Result protectedRun = run(true);
+        System.out.println(protectedRun.describe("admission on"));
+        System.out.printf("fair p99 %.1f ms -> %.1f ms%n",
+                unprotected.percentileMillis(0.99), protectedRun.percentileMillis(0.99));
+        assertThat(protectedRun.fairErrors).isZero();
+        assertThat(protectedRun.abusiveRejected).isPositive();
+    }
+
+    private Result run(boolean admission) throws Exception {
+        ConfigurableApplicationContext app = new SpringApplicationBuilder(StudentCourseRegistrationApplication.class)
+                .properties("server.port=0", "logging.level.root=warn")
+                // Arguments rather than default properties, which application.properties would override
+                .run("--registration.admission.enabled=" + admission,
+                        "--registration.admission.client-header=X-Client-Id");
+        try {
+            int port = app.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            CourseService courses = app.getBean(CourseService.class);
+            for (int c = 1; c <= COURSES; c++) {
+                courses.addCourse(new CourseCreateRequest("C" + c, "Course " + c, "Instructor", null));
+            }
+            StudentService students = app.getBean(StudentService.class);
+            int[] studentIds = new int[FAIR_CLIENTS];
+            for (int f = 0; f < FAIR_CLIENTS; f++) {
+                studentIds[f] = students.registerStudent(new StudentCreateRequest("Fair " + f, "fair" + f + "@uni.edu")).getId();
+            }
+            return drive(port, studentIds);
+        } finally {
+            app.close();
+        }
+    }
+
+    private static Result drive(int port, int[] studentIds) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        long measureFrom = System.nanoTime() + WARMUP.toNanos();
+        long measureUntil = measureFrom + MEASUREMENT.toNanos();
+        AtomicLong fairErrors = new AtomicLong();
+        AtomicLong abusiveServed = new AtomicLong();
+        AtomicLong abusiveRejected = new AtomicLong();
+        long[][] latencies = new long[FAIR_CLIENTS][];
+        int[] counts = new int[FAIR_CLIENTS];
+        CountDownLatch finished = new CountDownLatch(FAIR_CLIENTS + ABUSIVE_CLIENTS * CONNECTIONS_PER_ABUSER);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int a = 0; a < ABUSIVE_CLIENTS; a++) {
+            HttpRequest flood = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/courses"))
+                    .header("X-Client-Id", "abuser-" + a)
+                    .build();
+            for (int c = 0; c < CONNECTIONS_PER_ABUSER; c++) {
+                threads.add(new Thread(() -> {
+                    try {
+                        while (System.nanoTime() < measureUntil) {
+                            int status = client.send(flood, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            (status == 429 ? abusiveRejected : abusiveServed).incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        // counted neither way
+                    } finally {
+                        finished.countDown();
+                    }
+                }));
+            }
+        }
+        for (int f = 0; f < FAIR_CLIENTS; f++) {
+            int fair = f;
+            threads.add(new Thread(() -> {
+                long[] samples = new long[256];
+                int count = 0;
+                int courseId = 0;
+                long next = System.nanoTime() + fair * FAIR_INTERVAL.toNanos() / FAIR_CLIENTS;
+                try {
+                    while (next < measureUntil) {
+                        LockSupport.parkNanos(next - System.nanoTime());
+                        courseId = courseId % COURSES + 1;
+                        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port
+                                        + "/students/" + studentIds[fair] + "/register/" + courseId))
+                                .header("X-Client-Id", "fair-" + fair)
+                                .POST(HttpRequest.BodyPublishers.noBody())
+                                .build();
+                        // Latency is measured from the scheduled time, so a stalled server is not hidden by coordinated omission
+                        long scheduled = next;
+                        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        long ended = System.nanoTime();
+                        if (status != 200 && status != 409) {
+                            fairErrors.incrementAndGet();
+                        } else if (scheduled >= measureFrom) {
+                            if (count == samples.length) {
+                                samples = Arrays.copyOf(samples, count * 2);
+                            }
+                            samples[count++] = ended - scheduled;
+                        }
+                        next += FAIR_INTERVAL.toNanos();
+                    }
+                } catch (Exception e) {
+                    fairErrors.incrementAndGet();
+                } finally {
+                    latencies[fair] = samples;
+                    counts[fair] = count;
+                    finished.countDown();
+                }
+            }));
+        }
+        threads.forEach(thread -> {
+            thread.setDaemon(true);
+            thread.start();
+        });
+        finished.await();
+
+        long[] all = new long[Arrays.stream(counts).sum()];
+        int offset = 0;
+        for (int f = 0; f < FAIR_CLIENTS; f++) {
+            System.arraycopy(latencies[f], 0, all, offset, counts[f]);
+            offset += counts[f];
+        }
+        Arrays.sort(all);
+        return new Result(all, fairErrors.get(), abusiveServed.get(), abusiveRejected.get());
+    }
+
+    private record Result(long[] sortedLatencies, long fairErrors, long abusiveServed, long abusiveRejected) {
+
+        double percentileMillis(double percentile) {
+            if (sortedLatencies.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.min(sortedLatencies.length - 1, Math.ceil(percentile * sortedLatencies.length) - 1);
+            return sortedLatencies[Math.max(0, index)] / 1e6;
+        }
+
+        String describe(String mode) {
+            return String.format("%-13s fair: %,d requests, p50 %.1f ms, p99 %.1f ms, p99.9 %.1f ms, %d errors; "
+                            + "abusive: %,d served, %,d rejected",
+                    mode, sortedLatencies.length, percentileMillis(0.50), percentileMillis(0.99),
+                    percentileMillis(0.999), fairErrors, abusiveServed, abusiveRejected);
+        }
+    }
+}
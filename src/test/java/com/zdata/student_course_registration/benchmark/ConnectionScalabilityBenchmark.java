@@ -0,0 +1,107 @@
+package com.zdata.student_course_registration.benchmark;
+
+import com.zdata.student_course_registration.StudentCourseRegistrationApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Holds 10k concurrent keep-alive connections against {@code GET /courses/{id}/enrollment-count}, each sending
+ * a request every think time, first on the servlet stack (Tomcat) and then on the reactive stack (Netty).
+ * Reports how many connections were actually served, throughput, tail latency and timed out requests.
+ * The server runs in a forked JVM so client and server sockets do not share one file descriptor limit.
+ * Run with {@code mvn test -Pbenchmark -Dtest=ConnectionScalabilityBenchmark [-Dbenchmark.clients=10000] [-Dbenchmark.think-millis=20000]}.
+ */
+@Tag("benchmark")
+class ConnectionScalabilityBenchmark {
+
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 10_000);
+    private static final Duration RAMP_UP = Duration.ofSeconds(10);
+    private static final Duration MEASUREMENT = Duration.ofSeconds(Integer.getInteger("benchmark.seconds", 30));
+    private static final Duration THINK_TIME = Duration.ofMillis(Integer.getInteger("benchmark.think-millis", 20_000));
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    @Test
+    void servletVersusReactive() throws Exception {
+        KeepAliveLoadClient.Result servlet = run("servlet");
+        System.out.println(describe("servlet", servlet));
+        KeepAliveLoadClient.Result reactive = run("reactive");
+        System.out.println(describe("reactive", reactive));
+        assertThat(reactive.sortedLatencies()).isNotEmpty();
+    }
+
+    private static KeepAliveLoadClient.Result run(String webApplicationType) throws Exception {
+        int port = freePort();
+        Process server = new ProcessBuilder(
+                javaExecutable(), "-Xmx1g", "-cp", System.getProperty("java.class.path"),
+                StudentCourseRegistrationApplication.class.getName(),
+                "--server.port=" + port,
+                "--spring.main.web-application-type=" + webApplicationType,
+                "--logging.level.root=warn")
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            awaitReady(client, port);
+            HttpResponse<Void> created = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/courses"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(
+                                    "{\"code\":\"LOAD\",\"title\":\"Load\",\"instructor\":\"Load\"}"))
+                            .build(),
+                    HttpResponse.BodyHandlers.discarding());
+            assertThat(created.statusCode()).isEqualTo(201);
+            return new KeepAliveLoadClient(new InetSocketAddress("localhost", port), "/courses/1/enrollment-count",
+                    THINK_TIME.toMillis(), REQUEST_TIMEOUT.toMillis())
+                    .run(CLIENTS, RAMP_UP.toMillis(), MEASUREMENT.toMillis());
+        } finally {
+            server.destroy();
+            server.waitFor(30, TimeUnit.SECONDS);
+        }
+    }
+
+    private static String describe(String stack, KeepAliveLoadClient.Result result) {
+        return String.format("%-8s %,d clients, %,d connected, %,d served: %,.0f req/s, p50 %.1f ms, p99 %.1f ms, "
+                        + "p99.9 %.1f ms, %,d timed out, %,d failed",
+                stack, CLIENTS, result.connected(), result.served(), result.throughput(), result.percentileMillis(0.50),
+                result.percentileMillis(0.99), result.percentileMillis(0.999), result.timeouts(), result.failures());
+    }
+
+    private static void awaitReady(HttpClient client, int port) throws InterruptedException {
+        HttpRequest probe = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/courses")).build();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (System.nanoTime() < deadline) {
+            try {
+                if (client.send(probe, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(200);
+        }
+        throw new IllegalStateException("Server on port " + port + " did not start");
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static String javaExecutable() {
+        return System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+    }
+}
@@ -0,0 +1,54 @@
+package com.zdata.student_course_registration.benchmark;
+
+import com.zdata.student_course_registration.index.CompactEnrollmentStore;
+import com.zdata.student_course_registration.index.EnrollmentStore;
+import com.zdata.student_course_registration.index.HashSetEnrollmentStore;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures the retained heap of each enrollment store layout at 1M students x 6 courses.
+ * Run with {@code mvn test -Pbenchmark -Dtest=EnrollmentStoreFootprintBenchmark}.
+ */
+@Tag("benchmark")
+class EnrollmentStoreFootprintBenchmark {
+
+    private static final int STUDENTS = Integer.getInteger("benchmark.students", 1_000_000);
+    private static final int COURSES = 2_000;
+    private static final int COURSES_PER_STUDENT = 6;
+
+    @Test
+    void compareFootprints() {
+        long hash = footprint("hash", HashSetEnrollmentStore::new);
+        long compact = footprint("compact", CompactEnrollmentStore::new);
+        System.out.printf("compact uses %.1fx less heap than hash%n", (double) hash / compact);
+        assertThat(compact).isLessThan(hash);
+    }
+
+    private static long footprint(String name, Supplier<EnrollmentStore> factory) {
+        long before = usedHeap();
+        EnrollmentStore store = factory.get();
+        for (int studentId = 1; studentId <= STUDENTS; studentId++) {
+            for (int k = 0; k < COURSES_PER_STUDENT; k++) {
+                store.add(studentId, 1 + (studentId * 7 + k * 31) % COURSES);
+            }
+        }
+        long retained = usedHeap() - before;
+        assertThat(store.size()).isEqualTo((long) STUDENTS * COURSES_PER_STUDENT);
+        System.out.printf("%-8s %,d enrollments: %,d MB retained, %.1f bytes per enrollment%n",
+                name, store.size(), retained >> 20, (double) retained / store.size());
+        return retained;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,170 @@
+package com.zdata.student_course_registration.benchmark;
+
+import com.zdata.student_course_registration.StudentCourseRegistrationApplication;
+import com.zdata.student_course_registration.dto.CourseCreateRequest;
+import com.zdata.student_course_registration.dto.StudentCreateRequest;
+import com.zdata.student_course_registration.service.CourseService;
+import com.zdata.student_course_registration.service.StudentService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Closed-loop load test of {@code POST /students/{id}/register/{courseId}} with the application served on
+ * platform threads and then on virtual threads. Persistence runs with {@code fsync=always}, so every request
+ * blocks on the group commit and the number of requests in flight is what limits throughput.
+ * <p>
+ * Virtual threads need Java 21; on older JVMs only the platform-thread mode is measured. Run with
+ * {@code JAVA_HOME=<jdk 21> mvn test -Pbenchmark -Dtest=ExecutionModeLoadBenchmark
+ * [-Dbenchmark.users=1000] [-Dbenchmark.seconds=10]}.
+ */
+@Tag("benchmark")
+class ExecutionModeLoadBenchmark {
+
+    private static final int USERS = Integer.getInteger("benchmark.users", 1_000);
+    private static final Duration WARMUP = Duration.ofSeconds(3);
+    private static final Duration MEASUREMENT = Duration.ofSeconds(Integer.getInteger("benchmark.seconds", 10));
+    private static final int COURSES = 2_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void platformVersusVirtualThreads() throws Exception {
+        Result platform = run(false);
+        System.out.println(platform.describe("platform"));
+        assertThat(platform.errors).isZero();
+
+        if (Runtime.version().feature() < 21) {
+            System.out.println("virtual  skipped: needs Java 21, running on Java " + Runtime.version().feature());
+            return;
+        }
+        Result virtual = run(true);
+        System.out.println(virtual.describe("virtual"));
+        System.out.printf("virtual threads: %.2fx throughput, p99 %.1f ms -> %.1f ms%n",
+                virtual.throughput() / platform.throughput(), platform.percentileMillis(0.99), virtual.percentileMillis(0.99));
+        assertThat(virtual.errors).isZero();
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        ConfigurableApplicationContext app = new SpringApplicationBuilder(StudentCourseRegistrationApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "registration.persistence.enabled=true",
+                        "registration.persistence.directory=" + directory.resolve(virtualThreads ? "virtual" : "platform"),
+                        "registration.persistence.fsync=always",
+                        "logging.level.root=warn")
+                .run();
+        try {
+            int port = app.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            CourseService courses = app.getBean(CourseService.class);
+            for (int c = 1; c <= COURSES; c++) {
+                courses.addCourse(new CourseCreateRequest("C" + c, "Course " + c, "Instructor", null));
+            }
+            return drive(port, app.getBean(StudentService.class));
+        } finally {
+            app.close();
+        }
+    }
+
+    private static Result drive(int port, StudentService students) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        AtomicLong errors = new AtomicLong();
+        long[][] latencies = new long[USERS][];
+        int[] counts = new int[USERS];
+        long measureFrom = System.nanoTime() + WARMUP.toNanos();
+        long measureUntil = measureFrom + MEASUREMENT.toNanos();
+        CountDownLatch finished = new CountDownLatch(USERS);
+
+        for (int u = 0; u < USERS; u++) {
+            int user = u;
+            Thread thread = new Thread(() -> {
+                long[] samples = new long[1024];
+                int count = 0;
+                int studentId = 0;
+                int courseId = COURSES;
+                try {
+                    while (System.nanoTime() < measureUntil) {
+                        // Each user registers a student of its own for every course, so no request conflicts
+                        if (courseId == COURSES) {
+                            studentId = students.registerStudent(new StudentCreateRequest(
+                                    "Load " + user, "load" + user + "-" + System.nanoTime() + "@uni.edu")).getId();
+                            courseId = 0;
+                        }
+                        courseId++;
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(
+                                        "http://localhost:" + port + "/students/" + studentId + "/register/" + courseId))
+                                .POST(HttpRequest.BodyPublishers.noBody())
+                                .build();
+                        long started = System.nanoTime();
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        long ended = System.nanoTime();
+                        if (response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        } else if (started >= measureFrom && ended <= measureUntil) {
+                            if (count == samples.length) {
+                                samples = Arrays.copyOf(samples, count * 2);
+                            }
+                            samples[count++] = ended - started;
+                        }
+                    }
+                } catch (Exception e) {
+                    errors.incrementAndGet();
+                } finally {
+                    latencies[user] = samples;
+                    counts[user] = count;
+                    finished.countDown();
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+        finished.await();
+
+        int total = Arrays.stream(counts).sum();
+        long[] all = new long[total];
+        int offset = 0;
+        for (int u = 0; u < USERS; u++) {
+            System.arraycopy(latencies[u], 0, all, offset, counts[u]);
+            offset += counts[u];
+        }
+        Arrays.sort(all);
+        return new Result(all, errors.get());
+    }
+
+    private record Result(long[] sortedLatencies, long errors) {
+
+        double throughput() {
+            return sortedLatencies.length / (MEASUREMENT.toNanos() / 1e9);
+        }
+
+        double percentileMillis(double percentile) {
+            if (sortedLatencies.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.min(sortedLatencies.length - 1, Math.ceil(percentile * sortedLatencies.length) - 1);
+            return sortedLatencies[Math.max(0, index)] / 1e6;
+        }
+
+        String describe(String mode) {
+            return String.format("%-8s %d users: %,.0f req/s, p50 %.1f ms, p99 %.1f ms, p99.9 %.1f ms, %d errors",
+                    mode, USERS, throughput(), percentileMillis(0.50), percentileMillis(0.99),
+                    percentileMillis(0.999), errors);
+        }
+    }
+}
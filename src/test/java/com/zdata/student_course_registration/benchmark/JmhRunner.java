@@ -0,0 +1,45 @@
+package com.zdata.student_course_registration.benchmark;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatFactory;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the JMH benchmarks once per thread count and writes every result into a single JSON file,
+ * so a release can be diffed against the previous one.
+ * Started by {@code mvn verify -Pbenchmark}; narrow it with {@code -Djmh.includes=<regex>}
+ * and {@code -Djmh.threads=1,8}.
+ */
+public final class JmhRunner {
+
+    private JmhRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, FileNotFoundException {
+        String includes = args.length > 0 ? args[0] : JmhRunner.class.getPackageName() + ".*Jmh";
+        String resultFile = System.getProperty("jmh.result", "target/jmh-result.json");
+
+        List<RunResult> results = new ArrayList<>();
+        for (String threads : System.getProperty("jmh.threads", "1").split(",")) {
+            Options options = new OptionsBuilder()
+                    .include(includes)
+                    .threads(Integer.parseInt(threads.trim()))
+                    .build();
+            results.addAll(new Runner(options).run());
+        }
+
+        try (PrintStream out = new PrintStream(resultFile)) {
+            ResultFormatFactory.getInstance(ResultFormatType.JSON, out).writeOut(results);
+        }
+        System.out.println("JMH results written to " + resultFile);
+    }
+}
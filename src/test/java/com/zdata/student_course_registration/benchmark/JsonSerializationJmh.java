@@ -0,0 +1,74 @@
+package com.zdata.student_course_registration.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.zdata.student_course_registration.dto.CourseResponse;
+import com.zdata.student_course_registration.dto.PageResponse;
+import com.zdata.student_course_registration.dto.StudentResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning response DTOs into JSON bytes with the same Jackson configuration Spring MVC uses.
+ * {@code datasetSize} is the number of elements in the serialized lists.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class JsonSerializationJmh {
+
+    @Param({"10", "1000"})
+    public int datasetSize;
+
+    private ObjectWriter writer;
+    private StudentResponse student;
+    private List<CourseResponse> courses;
+    private PageResponse<StudentResponse> roster;
+
+    @Setup
+    public void prepare() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writer();
+        student = new StudentResponse(42, "Ada Lovelace", "ada@example.com");
+        courses = new ArrayList<>(datasetSize);
+        List<StudentResponse> students = new ArrayList<>(datasetSize);
+        for (int i = 1; i <= datasetSize; i++) {
+            courses.add(new CourseResponse(i, "CS" + i, "Course title " + i, "Instructor " + i, 120, null));
+            students.add(new StudentResponse(i, "Student " + i, "student" + i + "@example.com"));
+        }
+        roster = new PageResponse<>(students, datasetSize);
+    }
+
+    @Benchmark
+    public byte[] studentResponse() throws JsonProcessingException {
+        return writer.writeValueAsBytes(student);
+    }
+
+    @Benchmark
+    public byte[] courseList() throws JsonProcessingException {
+        return writer.writeValueAsBytes(courses);
+    }
+
+    @Benchmark
+    public byte[] rosterPage() throws JsonProcessingException {
+        return writer.writeValueAsBytes(roster);
+    }
+}
@@ -0,0 +1,259 @@
+package com.zdata.student_course_registration.benchmark;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Minimal HTTP/1.1 load generator that keeps many keep-alive connections open from a single selector thread.
+ * Every connection repeatedly sends one GET, waits for the response and then pauses for the think time,
+ * so the offered load is connections / think time no matter how slowly the server answers.
+ * A general-purpose client would spend more CPU than the server under test at 10k connections.
+ */
+final class KeepAliveLoadClient {
+
+    record Result(int connected, int served, long[] sortedLatencies, long timeouts, long failures, double seconds) {
+
+        double throughput() {
+            return sortedLatencies.length / seconds;
+        }
+
+        double percentileMillis(double percentile) {
+            if (sortedLatencies.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.min(sortedLatencies.length - 1, Math.ceil(percentile * sortedLatencies.length) - 1);
+            return sortedLatencies[Math.max(0, index)] / 1e6;
+        }
+    }
+
+    private final InetSocketAddress address;
+    private final byte[] request;
+    private final long thinkNanos;
+    private final long timeoutNanos;
+
+    private long[] latencies = new long[1 << 16];
+    private int latencyCount;
+    private long timeouts;
+    private long failures;
+    private int connected;
+    private int servedConnections;
+
+    KeepAliveLoadClient(InetSocketAddress address, String path, long thinkMillis, long timeoutMillis) {
+        this.address = address;
+        this.request = ("GET " + path + " HTTP/1.1\r\nHost: localhost\r\nAccept: application/json\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII);
+        this.thinkNanos = TimeUnit.MILLISECONDS.toNanos(thinkMillis);
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    }
+
+    /**
+     * Opens the connections evenly over the ramp-up, then records every response completed during the measurement.
+     */
+    Result run(int connections, long rampUpMillis, long measureMillis) throws IOException {
+        long started = System.nanoTime();
+        long measureFrom = started + TimeUnit.MILLISECONDS.toNanos(rampUpMillis);
+        long measureUntil = measureFrom + TimeUnit.MILLISECONDS.toNanos(measureMillis);
+        PriorityQueue<Timer> timers = new PriorityQueue<>((a, b) -> Long.compare(a.at, b.at));
+        Connection[] all = new Connection[connections];
+
+        try (Selector selector = Selector.open()) {
+            int opened = 0;
+            while (true) {
+                long now = System.nanoTime();
+                if (now >= measureUntil) {
+                    break;
+                }
+                // Open the connections that are due by now according to the ramp-up
+                long due = Math.min(connections, (now - started) * connections / Math.max(1, measureFrom - started) + 1);
+                while (opened < due) {
+                    Connection connection = new Connection();
+                    all[opened++] = connection;
+                    connection.connect(selector, now);
+                    timers.add(new Timer(connection.dueAt, connection));
+                }
+
+                // Timers are never removed; one whose deadline was superseded is skipped when it comes up
+                while (!timers.isEmpty() && timers.peek().at <= now) {
+                    Timer timer = timers.poll();
+                    if (timer.at == timer.connection.dueAt) {
+                        timer.connection.onTimer(now);
+                        schedule(timers, timer.connection, timer.at);
+                    }
+                }
+
+                long wait = timers.isEmpty() ? 10 : TimeUnit.NANOSECONDS.toMillis(timers.peek().at - now);
+                selector.select(Math.max(1, Math.min(wait, 10)));
+                for (SelectionKey key : selector.selectedKeys()) {
+                    Connection connection = (Connection) key.attachment();
+                    long previous = connection.dueAt;
+                    connection.onReady(key, System.nanoTime(), measureFrom, measureUntil);
+                    schedule(timers, connection, previous);
+                }
+                selector.selectedKeys().clear();
+            }
+        } finally {
+            for (Connection connection : all) {
+                if (connection != null) {
+                    connection.close();
+                }
+            }
+        }
+
+        long[] sorted = Arrays.copyOf(latencies, latencyCount);
+        Arrays.sort(sorted);
+        return new Result(connected, servedConnections, sorted, timeouts, failures, measureMillis / 1000.0);
+    }
+
+    private record Timer(long at, Connection connection) {
+    }
+
+    private static void schedule(PriorityQueue<Timer> timers, Connection connection, long previousDueAt) {
+        if (connection.dueAt != Long.MAX_VALUE && connection.dueAt != previousDueAt) {
+            timers.add(new Timer(connection.dueAt, connection));
+        }
+    }
+
+    private final class Connection {
+
+        private Selector selector;
+        private SocketChannel channel;
+        private final ByteBuffer input = ByteBuffer.allocate(4096);
+        // Deadline of the pending connect or response, or when the next request is due; MAX_VALUE when idle
+        long dueAt;
+        private long sentAt;
+        private boolean awaitingResponse;
+        private boolean open;
+        private boolean served;
+        // Set when the last response announced Connection: close
+        private boolean closeAfterResponse;
+
+        void connect(Selector selector, long now) throws IOException {
+            this.selector = selector;
+            channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            channel.connect(address);
+            channel.register(selector, SelectionKey.OP_CONNECT, this);
+            dueAt = now + timeoutNanos;
+        }
+
+        void onTimer(long now) {
+            if (!open || awaitingResponse) {
+                // Connect or response timed out: the server never got to this connection, so give it up
+                timeouts++;
+                close();
+                dueAt = Long.MAX_VALUE;
+                return;
+            }
+            try {
+                send(now);
+            } catch (IOException e) {
+                failures++;
+                close();
+                dueAt = Long.MAX_VALUE;
+            }
+        }
+
+        void onReady(SelectionKey key, long now, long measureFrom, long measureUntil) {
+            try {
+                if (key.isConnectable()) {
+                    channel.finishConnect();
+                    open = true;
+                    connected++;
+                    key.interestOps(SelectionKey.OP_READ);
+                    // Spread the first requests over one think time
+                    dueAt = now + ThreadLocalRandom.current().nextLong(Math.max(1, thinkNanos));
+                } else if (key.isReadable()) {
+                    read(now, measureFrom, measureUntil);
+                }
+            } catch (IOException e) {
+                failures++;
+                close();
+                dueAt = Long.MAX_VALUE;
+            }
+        }
+
+        private void send(long now) throws IOException {
+            input.clear();
+            channel.write(ByteBuffer.wrap(request));
+            sentAt = now;
+            awaitingResponse = true;
+            dueAt = now + timeoutNanos;
+        }
+
+        private void read(long now, long measureFrom, long measureUntil) throws IOException {
+            if (channel.read(input) < 0) {
+                throw new IOException("Connection closed by server");
+            }
+            int status = completeResponseStatus();
+            if (status < 0) {
+                return;
+            }
+            awaitingResponse = false;
+            if (!served) {
+                served = true;
+                servedConnections++;
+            }
+            if (status != 200) {
+                failures++;
+            } else if (sentAt >= measureFrom && now <= measureUntil) {
+                if (latencyCount == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, latencyCount * 2);
+                }
+                latencies[latencyCount++] = now - sentAt;
+            }
+            if (closeAfterResponse) {
+                // e.g. Tomcat's maxKeepAliveRequests; reconnect like a browser would
+                close();
+                connect(selector, now);
+            } else {
+                dueAt = now + thinkNanos;
+            }
+        }
+
+        /**
+         * @return Status code once the whole response is buffered, otherwise -1.
+         */
+        private int completeResponseStatus() {
+            String text = new String(input.array(), 0, input.position(), StandardCharsets.US_ASCII);
+            int headerEnd = text.indexOf("\r\n\r\n");
+            if (headerEnd < 0) {
+                return -1;
+            }
+            String headers = text.substring(0, headerEnd).toLowerCase();
+            closeAfterResponse = headers.contains("connection: close");
+            int bodyLength = text.length() - headerEnd - 4;
+            int lengthAt = headers.indexOf("content-length:");
+            if (lengthAt >= 0) {
+                int lineEnd = headers.indexOf("\r\n", lengthAt);
+                int contentLength = Integer.parseInt(
+                        headers.substring(lengthAt + 15, lineEnd < 0 ? headers.length() : lineEnd).trim());
+                if (bodyLength < contentLength) {
+                    return -1;
+                }
+            } else if (!text.endsWith("0\r\n\r\n")) {
+                return -1;
+            }
+            return Integer.parseInt(text.substring(9, 12));
+        }
+
+        void close() {
+            open = false;
+            try {
+                if (channel != null) {
+                    channel.close();
+                }
+            } catch (IOException e) {
+                // closing anyway
+            }
+        }
+    }
+}
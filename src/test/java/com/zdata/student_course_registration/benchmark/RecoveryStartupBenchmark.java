@@ -0,0 +1,99 @@
+package com.zdata.student_course_registration.benchmark;
+
+import com.zdata.student_course_registration.TestServices;
+import com.zdata.student_course_registration.dto.CourseCreateRequest;
+import com.zdata.student_course_registration.dto.StudentCreateRequest;
+import com.zdata.student_course_registration.persistence.PersistenceManager;
+import com.zdata.student_course_registration.persistence.PersistenceProperties;
+import com.zdata.student_course_registration.service.CourseService;
+import com.zdata.student_course_registration.service.RegistrationService;
+import com.zdata.student_course_registration.service.StudentService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares time-to-ready of recovering from the memory-mapped snapshot against replaying the full write-ahead log.
+ * Run with {@code mvn test -Pbenchmark -Dtest=RecoveryStartupBenchmark [-Dbenchmark.students=1000000]}.
+ */
+@Tag("benchmark")
+class RecoveryStartupBenchmark {
+
+    private static final int STUDENTS = Integer.getInteger("benchmark.students", 200_000);
+    private static final int COURSES = 500;
+    private static final int COURSES_PER_STUDENT = 6;
+    private static final int ROUNDS = 3;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void snapshotRecoveryVersusFullReplay() throws Exception {
+        Stores source = open();
+        for (int c = 0; c < COURSES; c++) {
+            source.courses.addCourse(new CourseCreateRequest("C" + c, "Course " + c, "Instructor " + (c % 40), null));
+        }
+        for (int s = 1; s <= STUDENTS; s++) {
+            source.students.registerStudent(new StudentCreateRequest("Student " + s, "student" + s + "@uni.edu"));
+            for (int k = 0; k < COURSES_PER_STUDENT; k++) {
+                source.registrations.registerForCourse(s, 1 + (s * 7 + k * 31) % COURSES);
+            }
+        }
+        source.persistence.destroy();
+
+        long replayNanos = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long started = System.nanoTime();
+            Stores replayed = open();
+            replayNanos = Math.min(replayNanos, System.nanoTime() - started);
+            assertThat(replayed.students.studentCount()).isEqualTo(STUDENTS);
+            replayed.persistence.destroy();
+        }
+
+        Stores snapshotted = open();
+        snapshotted.persistence.snapshot();
+        snapshotted.persistence.destroy();
+
+        long snapshotNanos = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long started = System.nanoTime();
+            Stores restored = open();
+            snapshotNanos = Math.min(snapshotNanos, System.nanoTime() - started);
+            assertThat(restored.students.studentCount()).isEqualTo(STUDENTS);
+            assertThat(restored.registrations.getEnrollmentCount(1).getEnrolled())
+                    .isEqualTo(source.registrations.getEnrollmentCount(1).getEnrolled());
+            restored.persistence.destroy();
+        }
+
+        System.out.printf("Recovery of %d students / %d enrollments: full log replay %d ms, mapped snapshot %d ms%n",
+                STUDENTS, STUDENTS * COURSES_PER_STUDENT,
+                TimeUnit.NANOSECONDS.toMillis(replayNanos), TimeUnit.NANOSECONDS.toMillis(snapshotNanos));
+    }
+
+    private Stores open() throws Exception {
+        PersistenceProperties properties = new PersistenceProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory);
+        properties.setFsync(PersistenceProperties.FsyncPolicy.NEVER);
+        properties.setSnapshotInterval(Duration.ofDays(1));
+
+        TestServices services = TestServices.create();
+        StudentService students = services.studentService();
+        CourseService courses = services.courseService();
+        RegistrationService registrations = services.registrationService();
+        PersistenceManager persistence = new PersistenceManager(properties, students, courses, registrations,
+                services.changeEvents());
+        persistence.afterPropertiesSet();
+        return new Stores(students, courses, registrations, persistence);
+    }
+
+    private record Stores(StudentService students, CourseService courses, RegistrationService registrations,
+                          PersistenceManager persistence) {
+    }
+}
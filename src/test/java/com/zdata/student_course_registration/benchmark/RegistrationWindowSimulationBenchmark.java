@@ -0,0 +1,244 @@
+package com.zdata.student_course_registration.benchmark;
+
+import com.zdata.student_course_registration.StudentCourseRegistrationApplication;
+import com.zdata.student_course_registration.dto.CourseCreateRequest;
+import com.zdata.student_course_registration.dto.StudentCreateRequest;
+import com.zdata.student_course_registration.dto.TicketResponse;
+import com.zdata.student_course_registration.exception.ConflictException;
+import com.zdata.student_course_registration.queue.RegistrationQueue;
+import com.zdata.student_course_registration.service.CourseService;
+import com.zdata.student_course_registration.service.RegistrationService;
+import com.zdata.student_course_registration.service.StudentService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Simulates the moment a registration window opens: every student is released at once and tries to
+ * register for a few popular courses, first by calling {@link RegistrationService} directly and then
+ * through the queued mode of {@link RegistrationQueue}. Persistence runs with {@code fsync=always}.
+ * <p>
+ * Reports how long the herd takes to be served, the latency of each attempt from the opening, and
+ * fairness: the share of each course's seats that went to the students who asked for it first.
+ * Run with {@code mvn test -Pbenchmark -Dtest=RegistrationWindowSimulationBenchmark [-Dbenchmark.students=2000] [-Dbenchmark.rounds=5]}.
+ */
+@Tag("benchmark")
+class RegistrationWindowSimulationBenchmark {
+
+    private static final int STUDENTS = Integer.getInteger("benchmark.students", 2_000);
+    private static final int COURSES = 40;
+    private static final int CAPACITY = 30;
+    private static final int CHOICES = 4;
+    private static final int ROUNDS = Integer.getInteger("benchmark.rounds", 5);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void directVersusQueued() throws Exception {
+        // Unreported runs first, so JIT warm-up in this JVM favours neither mode
+        run(false);
+        run(true);
+        // Thread scheduling makes single openings noisy, so the modes alternate and the median opening is reported
+        List<Result> direct = new ArrayList<>();
+        List<Result> queued = new ArrayList<>();
+        for (int round = 0; round < ROUNDS; round++) {
+            direct.add(run(false));
+            queued.add(run(true));
+        }
+        System.out.println(median(direct).describe("direct"));
+        System.out.println(median(queued).describe("queued"));
+        for (int round = 0; round < ROUNDS; round++) {
+            assertThat(direct.get(round).errors).isZero();
+            assertThat(queued.get(round).errors).isZero();
+            assertThat(queued.get(round).registered).isEqualTo(direct.get(round).registered);
+        }
+    }
+
+    private static Result median(List<Result> results) {
+        List<Result> sorted = new ArrayList<>(results);
+        sorted.sort(Comparator.comparingLong(Result::makespanNanos));
+        return sorted.get(sorted.size() / 2);
+    }
+
+    private Result run(boolean queued) throws Exception {
+        String mode = (queued ? "queued-" : "direct-") + System.nanoTime();
+        ConfigurableApplicationContext app = new SpringApplicationBuilder(StudentCourseRegistrationApplication.class)
+                .properties("server.port=0", "logging.level.root=warn")
+                .run("--registration.queue.enabled=" + queued,
+                        "--registration.persistence.enabled=true",
+                        "--registration.persistence.directory=" + directory.resolve(mode),
+                        "--registration.persistence.fsync=always");
+        try {
+            CourseService courses = app.getBean(CourseService.class);
+            int[] courseIds = new int[COURSES];
+            for (int c = 0; c < COURSES; c++) {
+                courseIds[c] = courses.addCourse(new CourseCreateRequest("C" + c, "Course " + c, "Instructor", CAPACITY)).getId();
+            }
+            StudentService students = app.getBean(StudentService.class);
+            int[] studentIds = new int[STUDENTS];
+            for (int s = 0; s < STUDENTS; s++) {
+                studentIds[s] = students.registerStudent(new StudentCreateRequest("S" + s, "s" + s + "@uni.edu")).getId();
+            }
+            return openWindow(courseIds, studentIds, app.getBean(RegistrationService.class),
+                    queued ? app.getBean(RegistrationQueue.class) : null);
+        } finally {
+            app.close();
+        }
+    }
+
+    private static Result openWindow(int[] courseIds, int[] studentIds, RegistrationService registrationService,
+                                     RegistrationQueue queue) throws InterruptedException {
+        // The same choices in both modes; a skewed pick so a few courses are far more popular than the rest
+        SplittableRandom random = new SplittableRandom(42);
+        Attempt[] attempts = new Attempt[STUDENTS * CHOICES];
+        for (int s = 0; s < STUDENTS; s++) {
+            for (int k = 0; k < CHOICES; k++) {
+                double u = random.nextDouble();
+                attempts[s * CHOICES + k] = new Attempt(studentIds[s], courseIds[(int) (u * u * u * courseIds.length)]);
+            }
+        }
+
+        AtomicLong errors = new AtomicLong();
+        CountDownLatch open = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(STUDENTS);
+        for (int s = 0; s < STUDENTS; s++) {
+            int first = s * CHOICES;
+            Thread student = new Thread(() -> {
+                try {
+                    open.await();
+                    if (queue == null) {
+                        for (int k = first; k < first + CHOICES; k++) {
+                            Attempt attempt = attempts[k];
+                            attempt.arrivedAt = System.nanoTime();
+                            try {
+                                registrationService.registerForCourse(attempt.studentId, attempt.courseId);
+                                attempt.registered = true;
+                            } catch (ConflictException e) {
+                                // full, or a repeated choice
+                            }
+                            attempt.resolvedAt = System.nanoTime();
+                        }
+                    } else {
+                        List<CompletableFuture<TicketResponse>> outcomes = new ArrayList<>(CHOICES);
+                        for (int k = first; k < first + CHOICES; k++) {
+                            Attempt attempt = attempts[k];
+                            attempt.arrivedAt = System.nanoTime();
+                            try {
+                                long ticketId = queue.submit(attempt.studentId, attempt.courseId).getTicketId();
+                                outcomes.add(queue.awaitTicket(ticketId, Duration.ofSeconds(25)));
+                            } catch (ConflictException e) {
+                                // Already full when the attempt arrived, so no ticket was issued
+                                attempt.resolvedAt = System.nanoTime();
+                                outcomes.add(null);
+                            }
+                        }
+                        for (int k = 0; k < CHOICES; k++) {
+                            if (outcomes.get(k) == null) {
+                                continue;
+                            }
+                            TicketResponse outcome = outcomes.get(k).get(1, TimeUnit.MINUTES);
+                            Attempt attempt = attempts[first + k];
+                            attempt.registered = outcome.getState() == TicketResponse.State.REGISTERED;
+                            attempt.resolvedAt = System.nanoTime();
+                            if (outcome.getState() == TicketResponse.State.PENDING
+                                    || outcome.getState() == TicketResponse.State.FAILED) {
+                                errors.incrementAndGet();
+                            }
+                        }
+                    }
+                } catch (Exception e) {
+                    errors.incrementAndGet();
+                } finally {
+                    finished.countDown();
+                }
+            });
+            student.setDaemon(true);
+            student.start();
+        }
+        long openedAt = System.nanoTime();
+        open.countDown();
+        finished.await();
+        long closedAt = Arrays.stream(attempts).mapToLong(a -> a.resolvedAt).max().orElse(openedAt);
+
+        long[] latencies = Arrays.stream(attempts).mapToLong(a -> a.resolvedAt - openedAt).sorted().toArray();
+        long registered = Arrays.stream(attempts).filter(a -> a.registered).count();
+        return new Result(closedAt - openedAt, latencies, registered, fairShare(attempts, courseIds), errors.get());
+    }
+
+    /**
+     * @return Seats that went to one of the first CAPACITY distinct students to ask for the course, as a share of all seats taken.
+     */
+    private static double fairShare(Attempt[] attempts, int[] courseIds) {
+        long fair = 0;
+        long taken = 0;
+        for (int courseId : courseIds) {
+            List<Attempt> forCourse = new ArrayList<>();
+            for (Attempt attempt : attempts) {
+                if (attempt.courseId == courseId) {
+                    forCourse.add(attempt);
+                }
+            }
+            forCourse.sort(Comparator.comparingLong(a -> a.arrivedAt));
+            List<Integer> earliest = new ArrayList<>(CAPACITY);
+            for (Attempt attempt : forCourse) {
+                if (earliest.size() < CAPACITY && !earliest.contains(attempt.studentId)) {
+                    earliest.add(attempt.studentId);
+                }
+            }
+            for (Attempt attempt : forCourse) {
+                if (attempt.registered) {
+                    taken++;
+                    if (earliest.contains(attempt.studentId)) {
+                        fair++;
+                    }
+                }
+            }
+        }
+        return taken == 0 ? 1 : (double) fair / taken;
+    }
+
+    private static final class Attempt {
+        final int studentId;
+        final int courseId;
+        long arrivedAt;
+        long resolvedAt;
+        boolean registered;
+
+        Attempt(int studentId, int courseId) {
+            this.studentId = studentId;
+            this.courseId = courseId;
+        }
+    }
+
+    private record Result(long makespanNanos, long[] sortedLatencies, long registered, double fairShare, long errors) {
+
+        double percentileMillis(double percentile) {
+            int index = (int) Math.min(sortedLatencies.length - 1, Math.ceil(percentile * sortedLatencies.length) - 1);
+            return sortedLatencies[Math.max(0, index)] / 1e6;
+        }
+
+        String describe(String mode) {
+            return String.format("%-6s %,d students x %d attempts: served in %.0f ms (%,.0f attempts/s), "
+                            + "p50 %.1f ms, p99 %.1f ms, %,d registered, %.1f%% of seats to the earliest askers, %d errors",
+                    mode, STUDENTS, CHOICES, makespanNanos / 1e6, sortedLatencies.length / (makespanNanos / 1e9),
+                    percentileMillis(0.50), percentileMillis(0.99), registered, fairShare * 100, errors);
+        }
+    }
+}
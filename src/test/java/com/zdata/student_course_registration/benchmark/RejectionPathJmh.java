@@ -0,0 +1,128 @@
+package com.zdata.student_course_registration.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.zdata.student_course_registration.TestServices;
+import com.zdata.student_course_registration.controller.GlobalExceptionHandler;
+import com.zdata.student_course_registration.dto.CourseCreateRequest;
+import com.zdata.student_course_registration.dto.StudentCreateRequest;
+import com.zdata.student_course_registration.exception.ConflictException;
+import com.zdata.student_course_registration.service.CourseService;
+import com.zdata.student_course_registration.service.RegistrationService;
+import com.zdata.student_course_registration.service.StudentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of rejecting a duplicate registration, from the service call to the serialized 409 body.
+ * {@code stackTraceAndMapBody} reproduces the previous path: an exception that captures its stack
+ * trace, a HashMap body with a LocalDateTime and reflective Jackson serialization.
+ * {@code stacklessAndTemplatedBody} is the current path through GlobalExceptionHandler.
+ * Both run {@code stackDepth} frames deep, since a controller call sits about a hundred frames deep
+ * inside Tomcat and Spring MVC, while the exception itself only unwinds a few frames to its handler.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class RejectionPathJmh {
+
+    private static final int STUDENT_ID = 1;
+    private static final int COURSE_ID = 1;
+    private static final String URI = "/students/" + STUDENT_ID + "/register/" + COURSE_ID;
+
+    @Param({"10", "100"})
+    public int stackDepth;
+
+    private RegistrationService registrationService;
+    private GlobalExceptionHandler exceptionHandler;
+    private MockHttpServletRequest request;
+    private ObjectWriter writer;
+
+    @Setup
+    public void prepare() {
+        TestServices services = TestServices.create();
+        StudentService studentService = services.studentService();
+        CourseService courseService = services.courseService();
+        registrationService = services.registrationService();
+        studentService.registerStudent(new StudentCreateRequest("Ada Lovelace", "ada@example.com"));
+        courseService.addCourse(new CourseCreateRequest("CS101", "Programming", "Instructor", null));
+        registrationService.registerForCourse(STUDENT_ID, COURSE_ID);
+
+        exceptionHandler = new GlobalExceptionHandler();
+        request = new MockHttpServletRequest("POST", URI);
+        writer = Jackson2ObjectMapperBuilder.json().build().writer();
+    }
+
+    @Benchmark
+    public byte[] stackTraceAndMapBody() throws JsonProcessingException {
+        return rejectAt(stackDepth, true);
+    }
+
+    @Benchmark
+    public byte[] stacklessAndTemplatedBody() throws JsonProcessingException {
+        return rejectAt(stackDepth, false);
+    }
+
+    private byte[] rejectAt(int depth, boolean withStackTrace) throws JsonProcessingException {
+        if (depth > 0) {
+            return rejectAt(depth - 1, withStackTrace);
+        }
+        return withStackTrace ? rejectWithStackTrace() : rejectStackless();
+    }
+
+    private byte[] rejectWithStackTrace() throws JsonProcessingException {
+        RuntimeException rejection;
+        try {
+            registrationService.registerForCourse(STUDENT_ID, COURSE_ID);
+            throw new IllegalStateException("Duplicate registration was accepted");
+        } catch (ConflictException ex) {
+            // The old exception captured the whole stack when it was created
+            rejection = new StackTraceConflictException(ex.getMessage());
+        }
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.CONFLICT.value());
+        body.put("error", "Conflict");
+        body.put("message", rejection.getMessage());
+        body.put("path", "uri=" + request.getRequestURI());
+        return writer.writeValueAsBytes(body);
+    }
+
+    private byte[] rejectStackless() {
+        try {
+            registrationService.registerForCourse(STUDENT_ID, COURSE_ID);
+            throw new IllegalStateException("Duplicate registration was accepted");
+        } catch (ConflictException ex) {
+            return exceptionHandler.handleConflictException(ex, request).getBody();
+        }
+    }
+
+    /**
+     * ConflictException as it was before it became stackless.
+     */
+    static class StackTraceConflictException extends RuntimeException {
+        StackTraceConflictException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.zdata.student_course_registration.benchmark;
+
+import com.zdata.student_course_registration.TestServices;
+import com.zdata.student_course_registration.dto.CourseCreateRequest;
+import com.zdata.student_course_registration.dto.CourseResponse;
+import com.zdata.student_course_registration.dto.StudentCreateRequest;
+import com.zdata.student_course_registration.dto.StudentResponse;
+import com.zdata.student_course_registration.model.Course;
+import com.zdata.student_course_registration.service.CourseService;
+import com.zdata.student_course_registration.service.RegistrationService;
+import com.zdata.student_course_registration.service.StudentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput of the service-layer hot paths against a pre-populated in-memory dataset.
+ * {@code datasetSize} is the number of students; there is one course per 20 students and every
+ * student is registered for {@link #COURSES_PER_STUDENT} courses.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ServiceHotPathJmh {
+
+    private static final int COURSES_PER_STUDENT = 5;
+
+    @State(Scope.Benchmark)
+    public static class Dataset {
+
+        @Param({"1000", "100000"})
+        public int datasetSize;
+
+        StudentService studentService;
+        CourseService courseService;
+        RegistrationService registrationService;
+        int courseCount;
+        final AtomicLong uniqueSuffix = new AtomicLong();
+
+        @Setup(Level.Trial)
+        public void populate() {
+            TestServices services = TestServices.create();
+            studentService = services.studentService();
+            courseService = services.courseService();
+            registrationService = services.registrationService();
+
+            courseCount = Math.max(COURSES_PER_STUDENT * 2, datasetSize / 20);
+            for (int i = 1; i <= courseCount; i++) {
+                courseService.addCourse(new CourseCreateRequest("C" + i, "Course " + i, "Instructor " + i, null));
+            }
+            for (int i = 1; i <= datasetSize; i++) {
+                StudentResponse student = studentService.registerStudent(
+                        new StudentCreateRequest("Student " + i, "student" + i + "@example.com"));
+                for (int k = 0; k < COURSES_PER_STUDENT; k++) {
+                    registrationService.registerForCourse(student.getId(), 1 + (i + k * 7) % courseCount);
+                }
+            }
+        }
+
+        int randomStudent() {
+            return 1 + ThreadLocalRandom.current().nextInt(datasetSize);
+        }
+    }
+
+    /**
+     * A student owned by one benchmark thread, so register/drop pairs never conflict across threads.
+     */
+    @State(Scope.Thread)
+    public static class OwnStudent {
+
+        int studentId;
+
+        @Setup(Level.Trial)
+        public void create(Dataset dataset) {
+            long n = dataset.uniqueSuffix.incrementAndGet();
+            studentId = dataset.studentService.registerStudent(
+                    new StudentCreateRequest("Bench " + n, "bench-thread" + n + "@example.com")).getId();
+        }
+    }
+
+    @Benchmark
+    public StudentResponse registerStudent(Dataset dataset) {
+        long n = dataset.uniqueSuffix.incrementAndGet();
+        return dataset.studentService.registerStudent(
+                new StudentCreateRequest("New " + n, "new" + n + "@example.com"));
+    }
+
+    @Benchmark
+    public CourseResponse addCourse(Dataset dataset) {
+        long n = dataset.uniqueSuffix.incrementAndGet();
+        return dataset.courseService.addCourse(new CourseCreateRequest("N" + n, "New course", "Instructor", null));
+    }
+
+    @Benchmark
+    public List<CourseResponse> listAllCourses(Dataset dataset) {
+        return dataset.courseService.listAllCourses();
+    }
+
+    /** One registration followed by the matching drop, keeping the dataset in a steady state. */
+    @Benchmark
+    public boolean registerThenDrop(Dataset dataset, OwnStudent own) {
+        int courseId = 1 + ThreadLocalRandom.current().nextInt(dataset.courseCount);
+        dataset.registrationService.registerForCourse(own.studentId, courseId);
+        return dataset.registrationService.dropCourse(own.studentId, courseId);
+    }
+
+    @Benchmark
+    public List<Course> getRegisteredCourses(Dataset dataset) {
+        return dataset.registrationService.getRegisteredCourses(dataset.randomStudent());
+    }
+}
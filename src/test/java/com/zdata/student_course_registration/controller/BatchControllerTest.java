@@ -0,0 +1,104 @@
+package com.zdata.student_course_registration.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The application context is shared with the other controller tests, so every test uses names of its own
+@SpringBootTest
+@AutoConfigureMockMvc
+class BatchControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    private ServletApi api;
+
+    @BeforeEach
+    void setUp() {
+        api = new ServletApi(mvc);
+    }
+
+    @Test
+    void aStudentBatchReportsEachItemAndAppliesTheValidOnes() throws Exception {
+        String body = """
+                [{"name": "Ada", "email": "batch.ada@uni.edu"},
+                 {"name": "Ada again", "email": "BATCH.ADA@uni.edu"},
+                 {"name": "", "email": "batch.blank@uni.edu"},
+                 {"name": "Bob", "email": "batch.bob@uni.edu"}]
+                """;
+
+        String results = api.perform(post("/students:batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[*].index").value(contains(0, 1, 2, 3)))
+                .andExpect(jsonPath("$[*].status").value(contains(201, 409, 400, 201)))
+                .andExpect(jsonPath("$[0].id").isNumber())
+                .andExpect(jsonPath("$[1].id").doesNotExist())
+                .andExpect(jsonPath("$[2].message").isString())
+                .andReturn().getResponse().getContentAsString();
+
+        int adaId = JsonPath.read(results, "$[0].id");
+        api.perform(get("/students/by-email").param("email", "batch.ada@uni.edu"))
+                .andExpect(jsonPath("$.id").value(adaId))
+                .andExpect(jsonPath("$.name").value("Ada"));
+        api.perform(get("/students/by-email").param("email", "batch.blank@uni.edu")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void aRegistrationBatchInNdjsonAnswersInNdjsonWithTheSingleEndpointStatuses() throws Exception {
+        int courseId = api.course("BATCH-CS101", 1);
+        int ada = api.student("batch.reg.ada");
+        int bob = api.student("batch.reg.bob");
+        String body = String.join("\n",
+                "{\"studentId\": " + ada + ", \"courseId\": " + courseId + "}",
+                "{\"studentId\": " + ada + ", \"courseId\": " + courseId + "}",
+                "{\"studentId\": " + bob + ", \"courseId\": " + courseId + "}",
+                "{\"studentId\": " + bob + ", \"courseId\": " + Integer.MAX_VALUE + "}") + "\n";
+
+        String results = api.perform(post("/students/registrations:batch")
+                        .contentType(MediaType.APPLICATION_NDJSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> lines = results.lines().toList();
+        assertThat(lines).hasSize(4);
+        List<Integer> statuses = lines.stream().map(line -> JsonPath.<Integer>read(line, "$.status")).toList();
+        // Registered, already registered, course full, course not found
+        assertThat(statuses).containsExactly(200, 409, 409, 404);
+        api.perform(get("/courses/{courseId}/enrollment-count", courseId)).andExpect(jsonPath("$.enrolled").value(1));
+    }
+
+    @Test
+    void aMalformedItemEndsTheBatchWithAFinalResult() throws Exception {
+        String body = """
+                [{"code": "BATCH-OK1", "title": "Fine", "instructor": "Ada"},
+                 {"code": "BATCH-OK2", "title": "Broken", "instructor": }]
+                """;
+
+        api.perform(post("/courses:batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].status").value(contains(201, 400)))
+                .andExpect(jsonPath("$[1].index").value(1))
+                .andExpect(jsonPath("$[1].message").value(startsWith("Malformed batch item")));
+        api.perform(get("/courses/by-code").param("code", "BATCH-OK1")).andExpect(status().isOk());
+        api.perform(get("/courses/by-code").param("code", "BATCH-OK2")).andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,108 @@
+package com.zdata.student_course_registration.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The application context is shared with the other controller tests, so every test uses names of its own
+@SpringBootTest
+@AutoConfigureMockMvc
+class CacheControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    private ServletApi api;
+
+    @BeforeEach
+    void setUp() {
+        api = new ServletApi(mvc);
+    }
+
+    private String etagOfCourses(int studentId) throws Exception {
+        return api.perform(get("/students/{studentId}/courses", studentId))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private long stat(String name) throws Exception {
+        String stats = api.perform(get("/cache/stats")).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return JsonPath.<Number>read(stats, "$." + name).longValue();
+    }
+
+    @Test
+    void anUnchangedCourseListIsAnswered304UntilARegistrationOrDropChangesIt() throws Exception {
+        int studentId = api.student("cache.ada");
+        int first = api.course("CACHE-CS101", null);
+        int second = api.course("CACHE-CS102", null);
+        api.register(studentId, first);
+        String etag = etagOfCourses(studentId);
+
+        api.perform(get("/students/{studentId}/courses", studentId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+
+        api.register(studentId, second);
+        api.perform(get("/students/{studentId}/courses", studentId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id").value(contains(first, second)));
+        String registered = etagOfCourses(studentId);
+        assertThat(registered).isNotEqualTo(etag);
+
+        api.perform(delete("/students/{studentId}/drop/{courseId}", studentId, first)).andExpect(status().isNoContent());
+        api.perform(get("/students/{studentId}/courses", studentId).header(HttpHeaders.IF_NONE_MATCH, registered))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id").value(contains(second)));
+    }
+
+    @Test
+    void theCatalogueIsInvalidatedByANewCourse() throws Exception {
+        api.course("CACHE-CAT1", null);
+        String etag = api.perform(get("/courses").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotNull();
+        api.perform(get("/courses").header(HttpHeaders.IF_NONE_MATCH, etag)).andExpect(status().isNotModified());
+
+        api.course("CACHE-CAT2", null);
+        api.perform(get("/courses").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.code == 'CACHE-CAT2')]").isNotEmpty());
+    }
+
+    @Test
+    void statsCountHitsMissesAndInvalidations() throws Exception {
+        int studentId = api.student("cache.stats");
+        int courseId = api.course("CACHE-STATS", null);
+        long hits = stat("hits");
+        long misses = stat("misses");
+        long invalidations = stat("invalidations");
+
+        etagOfCourses(studentId);
+        etagOfCourses(studentId);
+        api.register(studentId, courseId);
+        etagOfCourses(studentId);
+
+        assertThat(stat("misses") - misses).isEqualTo(2);
+        assertThat(stat("hits") - hits).isEqualTo(1);
+        assertThat(stat("invalidations")).isGreaterThan(invalidations);
+    }
+}
@@ -0,0 +1,131 @@
+package com.zdata.student_course_registration.controller;
+
+import com.zdata.student_course_registration.dto.CourseCreateRequest;
+import com.zdata.student_course_registration.dto.PageResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The application context is shared with the other controller tests, so every test uses codes of its own
+@SpringBootTest
+@AutoConfigureMockMvc
+class CourseControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    private ServletApi api;
+
+    @BeforeEach
+    void setUp() {
+        api = new ServletApi(mvc);
+    }
+
+    @Test
+    void aCourseIsFoundByCodeIgnoringCase() throws Exception {
+        int id = api.course("LOOKUP-CS101", 10);
+
+        api.perform(get("/courses/by-code").param("code", "lookup-cs101"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(id))
+                .andExpect(jsonPath("$.code").value("LOOKUP-CS101"));
+        api.perform(get("/courses/by-code").param("code", "LOOKUP-NONE"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void aSecondCourseWithTheSameCodeInAnotherCaseIsRejected() throws Exception {
+        api.course("UNIQUE-MA101", null);
+
+        api.perform(post("/courses").contentType(MediaType.APPLICATION_JSON)
+                        .content(api.json(new CourseCreateRequest("unique-ma101", "Calculus", "Ada", null))))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void theRosterAndEnrollmentCountFollowRegistrationsAndDrops() throws Exception {
+        int courseId = api.course("ROSTER-PH101", null);
+        int ada = api.student("roster.ada");
+        int bob = api.student("roster.bob");
+        int cy = api.student("roster.cy");
+        for (int studentId : new int[]{ada, bob, cy}) {
+            api.register(studentId, courseId);
+        }
+
+        api.perform(get("/courses/{courseId}/students", courseId).param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].id").value(contains(ada, bob)))
+                .andExpect(jsonPath("$.items[0].email").value("roster.ada@uni.edu"))
+                .andExpect(jsonPath("$.nextCursor").value(bob));
+        api.perform(get("/courses/{courseId}/students", courseId).param("after", "" + bob).param("limit", "2"))
+                .andExpect(jsonPath("$.items[*].id").value(contains(cy)))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+        api.perform(get("/courses/{courseId}/enrollment-count", courseId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.courseId").value(courseId))
+                .andExpect(jsonPath("$.enrolled").value(3));
+
+        api.perform(delete("/students/{studentId}/drop/{courseId}", bob, courseId)).andExpect(status().isNoContent());
+        api.perform(get("/courses/{courseId}/students", courseId))
+                .andExpect(jsonPath("$.items[*].id").value(contains(ada, cy)));
+        api.perform(get("/courses/{courseId}/enrollment-count", courseId))
+                .andExpect(jsonPath("$.enrolled").value(2));
+    }
+
+    @Test
+    void theRosterAndCountOfAnUnknownCourseAreNotFound() throws Exception {
+        api.perform(get("/courses/{courseId}/students", Integer.MAX_VALUE)).andExpect(status().isNotFound());
+        api.perform(get("/courses/{courseId}/enrollment-count", Integer.MAX_VALUE)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void coursesArePagedInIdOrderWithTheLimitChecked() throws Exception {
+        int first = api.course("PAGE-C1", null);
+        int second = api.course("PAGE-C2", null);
+
+        api.perform(get("/courses").param("after", "" + (first - 1)).param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].id").value(contains(first)))
+                .andExpect(jsonPath("$.nextCursor").value(first));
+        api.perform(get("/courses").param("after", "" + first).param("limit", "5"))
+                .andExpect(jsonPath("$.items[*].id").value(contains(second)))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+        api.perform(get("/courses").param("after", "" + second))
+                .andExpect(jsonPath("$.items").value(empty()))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+        api.perform(get("/courses").param("limit", "0")).andExpect(status().isBadRequest());
+        api.perform(get("/courses").param("limit", "" + (PageResponse.MAX_LIMIT + 1))).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void allCoursesAreListedAsAJsonArrayOrAsNdjson() throws Exception {
+        int id = api.course("STREAM-CS101", 30);
+
+        api.perform(get("/courses").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[*].id").value(hasItem(id)))
+                .andExpect(jsonPath("$[?(@.id == " + id + ")].capacity").value(contains(30)));
+        String ndjson = api.perform(get("/courses").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        assertThat(ndjson.lines()).anyMatch(line -> line.contains("\"code\":\"STREAM-CS101\""))
+                .allMatch(line -> line.startsWith("{") && line.endsWith("}"));
+    }
+}
@@ -0,0 +1,84 @@
+package com.zdata.student_course_registration.controller;
+
+import com.zdata.student_course_registration.dto.StudentCreateRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The application context is shared with the other controller tests, so every test uses names of its own
+@SpringBootTest
+@AutoConfigureMockMvc
+class GlobalExceptionHandlerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    private ServletApi api;
+
+    @BeforeEach
+    void setUp() {
+        api = new ServletApi(mvc);
+    }
+
+    private static void expectErrorBody(ResultActions response, int status, String error, String message,
+                                        String path) throws Exception {
+        response.andExpect(status().is(status))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.timestamp").value(matchesPattern("\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}(\\.\\d+)?")))
+                .andExpect(jsonPath("$.status").value(status))
+                .andExpect(jsonPath("$.error").value(error))
+                .andExpect(jsonPath("$.message").value(message))
+                .andExpect(jsonPath("$.path").value(path));
+    }
+
+    @Test
+    void domainRejectionsHaveTheTimestampStatusErrorMessageAndPathFields() throws Exception {
+        int studentId = api.student("errors.ada");
+        int courseId = api.course("ERRORS-CS101", 1);
+        api.register(studentId, courseId);
+
+        expectErrorBody(api.perform(post("/students/{studentId}/register/{courseId}", studentId, courseId)),
+                409, "Conflict", "Student " + studentId + " is already registered for course " + courseId + ".",
+                "uri=/students/" + studentId + "/register/" + courseId);
+        expectErrorBody(api.perform(delete("/students/{studentId}/drop/{courseId}", studentId, Integer.MAX_VALUE)),
+                404, "Not Found", "Course with ID " + Integer.MAX_VALUE + " not found.",
+                "uri=/students/" + studentId + "/drop/" + Integer.MAX_VALUE);
+        int other = api.course("ERRORS-CS102", null);
+        expectErrorBody(api.perform(delete("/students/{studentId}/drop/{courseId}", studentId, other)),
+                400, "Bad Request", "Student " + studentId + " is not registered for course " + other + ".",
+                "uri=/students/" + studentId + "/drop/" + other);
+    }
+
+    @Test
+    void messagesThatNeedJsonEscapingAreEscaped() throws Exception {
+        String email = "quote\"back\\slashé@uni.edu";
+
+        expectErrorBody(api.perform(get("/students/by-email").param("email", email)),
+                404, "Not Found", "Student with email '" + email + "' not found.", "uri=/students/by-email");
+    }
+
+    @Test
+    void validationFailuresListTheFieldsThatFailed() throws Exception {
+        api.perform(post("/students").contentType(MediaType.APPLICATION_JSON)
+                        .content(api.json(new StudentCreateRequest("", "not-an-email"))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400))
+                .andExpect(jsonPath("$.error").value("Bad Request"))
+                .andExpect(jsonPath("$.message").value("Validation failed"))
+                .andExpect(jsonPath("$.details.name").isNotEmpty())
+                .andExpect(jsonPath("$.details.email").isNotEmpty());
+    }
+}
@@ -0,0 +1,123 @@
+package com.zdata.student_course_registration.controller;
+
+import com.zdata.student_course_registration.dto.CourseCreateRequest;
+import com.zdata.student_course_registration.dto.CourseResponse;
+import com.zdata.student_course_registration.dto.PageResponse;
+import com.zdata.student_course_registration.dto.StudentCreateRequest;
+import com.zdata.student_course_registration.dto.StudentResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The WebFlux variant of the API, with the same contracts as the servlet one.
+ */
+@SpringBootTest(properties = "spring.main.web-application-type=reactive")
+@AutoConfigureWebTestClient
+class ReactiveControllerTest {
+
+    @Autowired
+    private WebTestClient client;
+
+    private int student(String name) {
+        return client.post().uri("/students").bodyValue(new StudentCreateRequest(name, name + "@uni.edu"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(StudentResponse.class).returnResult().getResponseBody().getId();
+    }
+
+    private int course(String code, Integer capacity) {
+        return client.post().uri("/courses").bodyValue(new CourseCreateRequest(code, code, "Ada", capacity))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(CourseResponse.class).returnResult().getResponseBody().getId();
+    }
+
+    @Test
+    void studentsAndCoursesAreCreatedAndFoundByTheirKeys() {
+        int studentId = student("reactive.ada");
+        int courseId = course("REACTIVE-CS101", 10);
+
+        client.get().uri("/students/by-email?email={email}", "Reactive.ADA@uni.edu").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.id").isEqualTo(studentId);
+        client.get().uri("/courses/by-code?code={code}", "reactive-cs101").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.id").isEqualTo(courseId);
+        client.post().uri("/students").bodyValue(new StudentCreateRequest("Ada", "REACTIVE.ada@uni.edu")).exchange()
+                .expectStatus().isEqualTo(409);
+    }
+
+    @Test
+    void registrationsShowInTheRosterCountAndStudentCourses() {
+        int courseId = course("REACTIVE-PH101", 1);
+        int ada = student("reactive.reg.ada");
+        int bob = student("reactive.reg.bob");
+
+        client.post().uri("/students/{studentId}/register/{courseId}", ada, courseId).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.studentId").isEqualTo(ada).jsonPath("$.courseId").isEqualTo(courseId);
+        client.post().uri("/students/{studentId}/register/{courseId}", bob, courseId).exchange()
+                .expectStatus().isEqualTo(409);
+
+        client.get().uri("/courses/{courseId}/students", courseId).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.items[*].id").isEqualTo(List.of(ada)).jsonPath("$.nextCursor").doesNotExist();
+        client.get().uri("/courses/{courseId}/enrollment-count", courseId).exchange()
+                .expectBody().jsonPath("$.enrolled").isEqualTo(1);
+        client.get().uri("/students/{studentId}/courses", ada).accept(MediaType.APPLICATION_JSON).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$[*].code").isEqualTo(List.of("REACTIVE-PH101"));
+
+        client.delete().uri("/students/{studentId}/drop/{courseId}", ada, courseId).exchange()
+                .expectStatus().isNoContent();
+        client.get().uri("/courses/{courseId}/enrollment-count", courseId).exchange()
+                .expectBody().jsonPath("$.enrolled").isEqualTo(0);
+    }
+
+    @Test
+    void listingsStreamAsNdjsonAndPagesStopAtTheEnd() {
+        int first = course("REACTIVE-LIST1", null);
+        int second = course("REACTIVE-LIST2", null);
+
+        List<CourseResponse> streamed = client.get().uri("/courses").accept(MediaType.APPLICATION_NDJSON).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(CourseResponse.class).getResponseBody().collectList().block();
+        assertThat(streamed).extracting(CourseResponse::getId).contains(first, second).isSorted();
+
+        client.get().uri("/courses?after={after}&limit=1", first - 1).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.items[*].id").isEqualTo(List.of(first)).jsonPath("$.nextCursor").isEqualTo(first);
+        client.get().uri("/courses?after={after}", second).exchange()
+                .expectBody().jsonPath("$.items").isEmpty().jsonPath("$.nextCursor").doesNotExist();
+        client.get().uri("/courses?limit=0").exchange().expectStatus().isBadRequest();
+        client.get().uri("/courses?limit={limit}", PageResponse.MAX_LIMIT + 1).exchange().expectStatus().isBadRequest();
+    }
+
+    @Test
+    void errorsHaveTheSameBodyAsOnTheServletStack() {
+        client.get().uri("/courses/{courseId}/enrollment-count", Integer.MAX_VALUE).exchange()
+                .expectStatus().isNotFound()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.timestamp").isNotEmpty()
+                .jsonPath("$.status").isEqualTo(404)
+                .jsonPath("$.error").isEqualTo("Not Found")
+                .jsonPath("$.message").isEqualTo("Course with ID " + Integer.MAX_VALUE + " not found.")
+                .jsonPath("$.path").isEqualTo("uri=/courses/" + Integer.MAX_VALUE + "/enrollment-count");
+        client.post().uri("/students").bodyValue(new StudentCreateRequest("", "not-an-email")).exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Validation failed")
+                .jsonPath("$.details.name").isNotEmpty()
+                .jsonPath("$.details.email").isNotEmpty();
+    }
+}
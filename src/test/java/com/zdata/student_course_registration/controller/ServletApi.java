@@ -0,0 +1,67 @@
+package com.zdata.student_course_registration.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
+import com.zdata.student_course_registration.dto.CourseCreateRequest;
+import com.zdata.student_course_registration.dto.StudentCreateRequest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Requests against the servlet stack through MockMvc, with shortcuts to create students and courses.
+ * Streamed listings are answered asynchronously, so their dispatch is completed before returning.
+ */
+final class ServletApi {
+
+    private final MockMvc mvc;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    ServletApi(MockMvc mvc) {
+        this.mvc = mvc;
+    }
+
+    ResultActions perform(RequestBuilder request) throws Exception {
+        ResultActions actions = mvc.perform(request);
+        MvcResult result = actions.andReturn();
+        return result.getRequest().isAsyncStarted() ? mvc.perform(asyncDispatch(result)) : actions;
+    }
+
+    String json(Object value) throws JsonProcessingException {
+        return objectMapper.writeValueAsString(value);
+    }
+
+    /**
+     * @return ID of a new student with the given name and the email {@code <name>@uni.edu}.
+     */
+    int student(String name) throws Exception {
+        return id(perform(post("/students").contentType(MediaType.APPLICATION_JSON)
+                .content(json(new StudentCreateRequest(name, name + "@uni.edu"))))
+                .andExpect(status().isCreated()));
+    }
+
+    /**
+     * @param capacity Seats of the course, or null for unlimited.
+     * @return ID of a new course taught by Ada, titled with its code.
+     */
+    int course(String code, Integer capacity) throws Exception {
+        return id(perform(post("/courses").contentType(MediaType.APPLICATION_JSON)
+                .content(json(new CourseCreateRequest(code, code, "Ada", capacity))))
+                .andExpect(status().isCreated()));
+    }
+
+    void register(int studentId, int courseId) throws Exception {
+        perform(post("/students/{studentId}/register/{courseId}", studentId, courseId)).andExpect(status().isOk());
+    }
+
+    private static int id(ResultActions actions) throws Exception {
+        return JsonPath.read(actions.andReturn().getResponse().getContentAsString(), "$.id");
+    }
+}
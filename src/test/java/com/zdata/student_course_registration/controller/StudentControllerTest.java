@@ -0,0 +1,157 @@
+package com.zdata.student_course_registration.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import com.zdata.student_course_registration.dto.PageResponse;
+import com.zdata.student_course_registration.dto.StudentCreateRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The application context is shared with the other controller tests, so every test uses names of its own
+@SpringBootTest
+@AutoConfigureMockMvc
+class StudentControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    private ServletApi api;
+
+    @BeforeEach
+    void setUp() {
+        api = new ServletApi(mvc);
+    }
+
+    @Test
+    void aStudentIsFoundByEmailIgnoringCase() throws Exception {
+        int id = api.student("lookup.grace");
+
+        api.perform(get("/students/by-email").param("email", "Lookup.GRACE@uni.edu"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(id))
+                .andExpect(jsonPath("$.email").value("lookup.grace@uni.edu"));
+        api.perform(get("/students/by-email").param("email", "nobody.lookup@uni.edu"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void aSecondStudentWithTheSameEmailInAnotherCaseIsRejected() throws Exception {
+        api.student("unique.alan");
+
+        api.perform(post("/students").contentType(MediaType.APPLICATION_JSON)
+                        .content(api.json(new StudentCreateRequest("Alan", "UNIQUE.Alan@uni.edu"))))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void studentsArePagedInIdOrderUntilTheCursorReachesTheEnd() throws Exception {
+        int first = api.student("page.s1");
+        int second = api.student("page.s2");
+        int third = api.student("page.s3");
+
+        api.perform(get("/students").param("after", "" + (first - 1)).param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].id").value(contains(first, second)))
+                .andExpect(jsonPath("$.nextCursor").value(second));
+        api.perform(get("/students").param("after", "" + second).param("limit", "2"))
+                .andExpect(jsonPath("$.items[*].id").value(contains(third)))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+        // A page that ends exactly at the last student still has a cursor; the page after it is empty
+        api.perform(get("/students").param("after", "" + second).param("limit", "1"))
+                .andExpect(jsonPath("$.nextCursor").value(third));
+        api.perform(get("/students").param("after", "" + third))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items").value(empty()))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void thePageLimitMustBeBetweenOneAndTheMaximum() throws Exception {
+        api.student("page.limit");
+
+        api.perform(get("/students").param("limit", "0")).andExpect(status().isBadRequest());
+        api.perform(get("/students").param("limit", "-1")).andExpect(status().isBadRequest());
+        api.perform(get("/students").param("limit", "" + (PageResponse.MAX_LIMIT + 1)))
+                .andExpect(status().isBadRequest());
+        api.perform(get("/students").param("limit", "" + PageResponse.MAX_LIMIT)).andExpect(status().isOk());
+        api.perform(get("/students").param("limit", "1"))
+                .andExpect(jsonPath("$.items").value(hasSize(1)))
+                .andExpect(jsonPath("$.nextCursor").isNumber());
+    }
+
+    @Test
+    void registeredCoursesArePagedInIdOrder() throws Exception {
+        int studentId = api.student("page.reg");
+        int first = api.course("PAGE-REG1", null);
+        int second = api.course("PAGE-REG2", null);
+        api.register(studentId, second);
+        api.register(studentId, first);
+
+        api.perform(get("/students/{studentId}/courses", studentId).param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].code").value(contains("PAGE-REG1")))
+                .andExpect(jsonPath("$.nextCursor").value(first));
+        api.perform(get("/students/{studentId}/courses", studentId).param("after", "" + first).param("limit", "1"))
+                .andExpect(jsonPath("$.items[*].id").value(contains(second)));
+        api.perform(get("/students/{studentId}/courses", studentId).param("after", "" + second))
+                .andExpect(jsonPath("$.items").value(empty()))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+        api.perform(get("/students/{studentId}/courses", studentId).param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void allStudentsAreStreamedAsAJsonArrayOrAsNdjson() throws Exception {
+        int id = api.student("stream.ada");
+
+        String array = api.perform(get("/students").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsString();
+        List<Integer> arrayIds = JsonPath.read(array, "$[*].id");
+        assertThat(arrayIds).contains(id).isSorted();
+        assertThat(JsonPath.<List<String>>read(array, "$[?(@.id == " + id + ")].email")).containsExactly("stream.ada@uni.edu");
+
+        String ndjson = api.perform(get("/students").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        assertThat(ndjson).endsWith("\n");
+        assertThat(ndjson.lines().map(line -> JsonPath.<Integer>read(line, "$.id")).toList()).isEqualTo(arrayIds);
+    }
+
+    @Test
+    void registeredCoursesAreStreamedInIdOrder() throws Exception {
+        int studentId = api.student("stream.reg");
+        int first = api.course("STREAM-REG1", null);
+        int second = api.course("STREAM-REG2", null);
+        api.register(studentId, second);
+        api.register(studentId, first);
+
+        api.perform(get("/students/{studentId}/courses", studentId).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id").value(contains(first, second)));
+        String ndjson = api.perform(get("/students/{studentId}/courses", studentId).accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        assertThat(ndjson.lines().map(line -> JsonPath.<String>read(line, "$.code")))
+                .containsExactly("STREAM-REG1", "STREAM-REG2");
+        api.perform(get("/students/{studentId}/courses", Integer.MAX_VALUE)).andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,49 @@
+package com.zdata.student_course_registration.event;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InOrderDeliveryTest {
+
+    private final List<String> delivered = new ArrayList<>();
+    private final InOrderDelivery<String> inOrder = new InOrderDelivery<>(10,
+            (sequence, item) -> delivered.add(sequence + "=" + item));
+
+    @Test
+    void earlyArrivalsWaitForTheGapToClose() {
+        inOrder.add(13, "c");
+        inOrder.add(12, "b");
+        assertThat(delivered).isEmpty();
+        assertThat(inOrder.delivered()).isEqualTo(10);
+
+        inOrder.add(11, "a");
+        assertThat(delivered).containsExactly("11=a", "12=b", "13=c");
+        assertThat(inOrder.delivered()).isEqualTo(13);
+
+        // Already delivered
+        inOrder.add(12, "again");
+        assertThat(delivered).hasSize(3);
+    }
+
+    @Test
+    void aSkippedChangeDoesNotHoldUpTheRest() {
+        inOrder.add(12, "b");
+        inOrder.add(11, null);
+        inOrder.add(14, null);
+        inOrder.add(13, "c");
+        assertThat(delivered).containsExactly("11=null", "12=b", "13=c", "14=null");
+    }
+
+    @Test
+    void aResetDropsEarlyArrivals() {
+        inOrder.add(12, "b");
+        inOrder.reset(20);
+        inOrder.add(21, "x");
+        inOrder.add(11, "a");
+        assertThat(delivered).containsExactly("21=x");
+    }
+}
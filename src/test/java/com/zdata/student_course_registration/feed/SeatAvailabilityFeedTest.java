@@ -0,0 +1,132 @@
+package com.zdata.student_course_registration.feed;
+
+import com.zdata.student_course_registration.TestServices;
+import com.zdata.student_course_registration.dto.CourseCreateRequest;
+import com.zdata.student_course_registration.dto.SeatAvailability;
+import com.zdata.student_course_registration.dto.StudentCreateRequest;
+import com.zdata.student_course_registration.event.ChangeEventPublisher;
+import com.zdata.student_course_registration.metrics.ServiceMetrics;
+import com.zdata.student_course_registration.service.CourseService;
+import com.zdata.student_course_registration.service.RegistrationService;
+import com.zdata.student_course_registration.service.StudentService;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.BaseSubscriber;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SeatAvailabilityFeedTest {
+
+    private final TestServices services = TestServices.create();
+    private final ChangeEventPublisher changeEvents = services.changeEvents();
+    private final ServiceMetrics metrics = services.metrics();
+    private final StudentService studentService = services.studentService();
+    private final CourseService courseService = services.courseService();
+    private final RegistrationService registrationService = services.registrationService();
+
+    private SeatAvailabilityFeed feed(int bufferSize) {
+        SeatFeedProperties properties = new SeatFeedProperties();
+        properties.setBufferSize(bufferSize);
+        // Flushed by the tests instead of by the scheduler, which afterPropertiesSet would start
+        return new SeatAvailabilityFeed(properties, courseService, registrationService, changeEvents, metrics);
+    }
+
+    private int course(String code, int capacity) {
+        return courseService.addCourse(new CourseCreateRequest(code, "Course " + code, "Ada", capacity)).getId();
+    }
+
+    private int student(int n) {
+        return studentService.registerStudent(new StudentCreateRequest("S" + n, "s" + n + "@uni.edu")).getId();
+    }
+
+    @Test
+    void changesAreCoalescedPerCourse() {
+        int a = course("A", 10);
+        int b = course("B", 10);
+        int c = course("C", 10);
+        SeatAvailabilityFeed feed = feed(16);
+        List<ServerSentEvent<List<SeatAvailability>>> events = new ArrayList<>();
+        feed.subscribe(null).subscribe(events::add);
+        assertThat(events.get(0).data()).extracting(SeatAvailability::getCourseId).containsExactly(a, b, c);
+
+        int[] s = {student(0), student(1), student(2)};
+        for (int studentId : s) {
+            registrationService.registerForCourse(studentId, a);
+        }
+        registrationService.dropCourse(s[0], a);
+        registrationService.changeCourses(s[1], List.of(b), List.of());
+        feed.flush();
+
+        assertThat(events).hasSize(2);
+        assertThat(events.get(1).data()).containsExactlyInAnyOrder(
+                new SeatAvailability(a, 10, 2, 8), new SeatAvailability(b, 10, 1, 9));
+    }
+
+    @Test
+    void resumingSendsOnlyCoursesChangedSinceTheLastEvent() {
+        int a = course("A", 10);
+        int b = course("B", 10);
+        course("C", 10);
+        SeatAvailabilityFeed feed = feed(16);
+        List<ServerSentEvent<List<SeatAvailability>>> events = new ArrayList<>();
+        feed.subscribe(null).subscribe(events::add).dispose();
+        String lastEventId = events.get(0).id();
+
+        registrationService.registerForCourse(student(0), a);
+        feed.flush();
+        registrationService.registerForCourse(student(1), b);
+        feed.flush();
+
+        List<ServerSentEvent<List<SeatAvailability>>> resumed = new ArrayList<>();
+        feed.subscribe(lastEventId).subscribe(resumed::add);
+        assertThat(resumed.get(0).data()).extracting(SeatAvailability::getCourseId).containsExactly(a, b);
+
+        List<ServerSentEvent<List<SeatAvailability>>> unknown = new ArrayList<>();
+        feed.subscribe("other-instance-7").subscribe(unknown::add);
+        assertThat(unknown.get(0).data()).hasSize(3);
+    }
+
+    @Test
+    void subscriberThatFallsBehindIsDisconnectedAfterItsBuffer() {
+        int a = course("A", 100);
+        SeatAvailabilityFeed feed = feed(4);
+        List<ServerSentEvent<List<SeatAvailability>>> received = new ArrayList<>();
+        AtomicBoolean completed = new AtomicBoolean();
+        BaseSubscriber<ServerSentEvent<List<SeatAvailability>>> slow = new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                // Requests nothing until the test catches up
+            }
+
+            @Override
+            protected void hookOnNext(ServerSentEvent<List<SeatAvailability>> event) {
+                received.add(event);
+            }
+
+            @Override
+            protected void hookOnComplete() {
+                completed.set(true);
+            }
+        };
+        feed.subscribe(null).subscribe(slow);
+
+        for (int i = 0; i < 10; i++) {
+            registrationService.registerForCourse(student(i), a);
+            feed.flush();
+        }
+        assertThat(completed).isFalse();
+        slow.request(Long.MAX_VALUE);
+
+        assertThat(completed).isTrue();
+        assertThat(received).hasSizeLessThan(11);
+        // The last event received is one it can resume from without missing a change
+        List<ServerSentEvent<List<SeatAvailability>>> resumed = new ArrayList<>();
+        feed.subscribe(received.get(received.size() - 1).id()).subscribe(resumed::add);
+        assertThat(resumed.get(0).data()).containsExactly(new SeatAvailability(a, 100, 10, 90));
+    }
+}
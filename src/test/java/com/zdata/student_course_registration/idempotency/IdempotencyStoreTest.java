@@ -0,0 +1,98 @@
+package com.zdata.student_course_registration.idempotency;
+
+import com.zdata.student_course_registration.TestServices;
+import com.zdata.student_course_registration.dto.RegistrationRequest;
+import com.zdata.student_course_registration.exception.BadRequestException;
+import com.zdata.student_course_registration.exception.ConflictException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyStoreTest {
+
+    private static final int THREADS = 32;
+
+    private final IdempotencyStore store = new IdempotencyStore(new IdempotencyProperties(), TestServices.inMemoryMetrics());
+
+    @Test
+    void concurrentDuplicatesRunTheActionOnce() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Integer>> results = new ArrayList<>(THREADS);
+            for (int i = 0; i < THREADS; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return store.execute("key", new RegistrationRequest(1, 2), () -> {
+                        try {
+                            // Keep the first request running while the duplicates arrive
+                            release.await(1, TimeUnit.MINUTES);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return runs.incrementAndGet();
+                    });
+                }));
+            }
+            start.countDown();
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<Integer> result : results) {
+                assertThat(result.get(1, TimeUnit.MINUTES)).isEqualTo(1);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertThat(runs.get()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectionsAreReplayedAndUnexpectedFailuresAreNot() {
+        AtomicInteger runs = new AtomicInteger();
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> store.execute("full", new RegistrationRequest(1, 2), () -> {
+                runs.incrementAndGet();
+                throw new ConflictException("Course 2 is full.");
+            })).isInstanceOf(ConflictException.class);
+        }
+        assertThat(runs.get()).isEqualTo(1);
+
+        assertThatThrownBy(() -> store.execute("broken", new RegistrationRequest(1, 2), () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(store.execute("broken", new RegistrationRequest(1, 2), () -> "retried")).isEqualTo("retried");
+    }
+
+    @Test
+    void keyCannotBeReusedForADifferentRequest() {
+        store.execute("key", new RegistrationRequest(1, 2), () -> "first");
+        assertThatThrownBy(() -> store.execute("key", new RegistrationRequest(1, 3), () -> "second"))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void oldestKeysAreEvictedBeyondCapacity() {
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.setMaxEntries(2);
+        properties.setTtl(Duration.ofHours(1));
+        IdempotencyStore small = new IdempotencyStore(properties, TestServices.inMemoryMetrics());
+        for (String key : List.of("a", "b", "c")) {
+            small.execute(key, key, () -> key);
+        }
+        assertThat(small.execute("a", "a", () -> "ran again")).isEqualTo("ran again");
+        assertThat(small.execute("c", "c", () -> "ran again")).isEqualTo("c");
+    }
+}
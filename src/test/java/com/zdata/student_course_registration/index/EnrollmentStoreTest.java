@@ -0,0 +1,87 @@
+package com.zdata.student_course_registration.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EnrollmentStoreTest {
+
+    private static Map<Integer, List<Integer>> contents(EnrollmentStore store) {
+        Map<Integer, List<Integer>> contents = new TreeMap<>();
+        store.forEach((studentId, courseIds) -> contents.put(studentId, IntStream.of(courseIds).boxed().toList()));
+        return contents;
+    }
+
+    @Test
+    void compactStoreAnswersLikeTheHashSetStore() {
+        EnrollmentStore compact = new CompactEnrollmentStore();
+        EnrollmentStore hashSet = new HashSetEnrollmentStore();
+        Random random = new Random(42);
+        for (int i = 0; i < 50_000; i++) {
+            // Mostly low IDs, so the same enrollments are added and removed again, plus some on far pages
+            int studentId = random.nextInt(10) == 0 ? 1 + random.nextInt(1_000_000) : 1 + random.nextInt(300);
+            int courseId = 1 + random.nextInt(40);
+            switch (random.nextInt(3)) {
+                case 0, 1 -> assertThat(compact.add(studentId, courseId)).isEqualTo(hashSet.add(studentId, courseId));
+                default -> assertThat(compact.remove(studentId, courseId)).isEqualTo(hashSet.remove(studentId, courseId));
+            }
+            assertThat(compact.contains(studentId, courseId)).isEqualTo(hashSet.contains(studentId, courseId));
+        }
+
+        assertThat(compact.size()).isEqualTo(hashSet.size());
+        assertThat(contents(compact)).isEqualTo(contents(hashSet));
+        for (int studentId = 0; studentId <= 301; studentId++) {
+            assertThat(compact.coursesOf(studentId)).isEqualTo(hashSet.coursesOf(studentId));
+            assertThat(compact.coursesOf(studentId, 10, 5)).isEqualTo(hashSet.coursesOf(studentId, 10, 5));
+        }
+    }
+
+    @Test
+    void studentsBeyondTheInitialDirectoryGrowItConcurrently() throws Exception {
+        CompactEnrollmentStore store = new CompactEnrollmentStore();
+        // The directory starts with 64 pages of 4096 students; each of these lands on a page of its own
+        int threads = 8;
+        int perThread = 2_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        int studentId = (i * threads + thread) * 8_191 + 1;
+                        assertThat(store.add(studentId, thread + 1)).isTrue();
+                        assertThat(store.add(studentId, 100)).isTrue();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(store.size()).isEqualTo(2L * threads * perThread);
+        Map<Integer, List<Integer>> contents = contents(store);
+        assertThat(contents).hasSize(threads * perThread);
+        for (int n = 0; n < threads * perThread; n++) {
+            int studentId = n * 8_191 + 1;
+            assertThat(contents.get(studentId)).containsExactly(n % threads + 1, 100);
+            assertThat(store.coursesOf(studentId)).containsExactly(n % threads + 1, 100);
+        }
+        assertThat(store.coursesOf(Integer.MAX_VALUE)).isEmpty();
+        assertThat(store.remove(Integer.MAX_VALUE, 1)).isFalse();
+    }
+}
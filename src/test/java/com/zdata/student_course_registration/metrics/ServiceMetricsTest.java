@@ -0,0 +1,59 @@
+package com.zdata.student_course_registration.metrics;
+
+import com.zdata.student_course_registration.TestServices;
+import com.zdata.student_course_registration.event.ChangeEventPublisher;
+import com.zdata.student_course_registration.index.CompactEnrollmentStore;
+import com.zdata.student_course_registration.service.CourseService;
+import com.zdata.student_course_registration.service.RegistrationService;
+import com.zdata.student_course_registration.service.StudentService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ServiceMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private TestServices services(boolean perCourse) {
+        ChangeEventPublisher changeEvents = new ChangeEventPublisher();
+        ServiceMetrics metrics = new ServiceMetrics(registry, perCourse);
+        StudentService studentService = new StudentService(changeEvents, metrics);
+        CourseService courseService = new CourseService(changeEvents, metrics);
+        return new TestServices(changeEvents, metrics, studentService, courseService,
+                new RegistrationService(studentService, courseService, new CompactEnrollmentStore(), changeEvents,
+                        metrics));
+    }
+
+    @Test
+    void eachCourseHasAnEnrollmentGaugeTaggedWithItsId() {
+        TestServices services = services(true);
+        List<Integer> studentIds = services.students(3);
+        Integer small = services.course("SMALL", 1);
+        Integer large = services.course("LARGE", null);
+        services.registrationService().registerForCourse(studentIds.get(0), small);
+        for (Integer studentId : studentIds) {
+            services.registrationService().registerForCourse(studentId, large);
+        }
+        services.registrationService().dropCourse(studentIds.get(1), large);
+
+        assertThat(registry.get("registration.course.enrollment").tag("course", small.toString()).gauge().value())
+                .isEqualTo(1);
+        assertThat(registry.get("registration.course.enrollment").tag("course", large.toString()).gauge().value())
+                .isEqualTo(2);
+        assertThat(registry.get("registration.course.enrollment").gauges()).hasSize(2);
+    }
+
+    @Test
+    void perCourseGaugesCanBeTurnedOff() {
+        TestServices services = services(false);
+        Integer studentId = services.student("ada");
+        Integer courseId = services.course("CS101", null);
+        services.registrationService().registerForCourse(studentId, courseId);
+
+        assertThat(registry.find("registration.course.enrollment").gauges()).isEmpty();
+        assertThat(registry.get("registration.registrations").gauge().value()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,184 @@
+package com.zdata.student_course_registration.persistence;
+
+import com.zdata.student_course_registration.TestServices;
+import com.zdata.student_course_registration.event.ChangeEvent;
+import com.zdata.student_course_registration.model.MeetingTime;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PersistenceManagerTest {
+
+    @TempDir
+    Path directory;
+
+    private final List<PersistenceManager> opened = new ArrayList<>();
+
+    @AfterEach
+    void closeAll() {
+        opened.forEach(PersistenceManager::destroy);
+    }
+
+    private PersistenceManager open(TestServices services) throws IOException {
+        PersistenceProperties properties = new PersistenceProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory);
+        PersistenceManager persistence = new PersistenceManager(properties, services.studentService(),
+                services.courseService(), services.registrationService(), services.changeEvents());
+        persistence.afterPropertiesSet();
+        opened.add(persistence);
+        return persistence;
+    }
+
+    private void restart(PersistenceManager persistence) {
+        persistence.destroy();
+        opened.remove(persistence);
+    }
+
+    /**
+     * Registrations, a waitlist, a promotion on drop and a transaction over a few students and courses.
+     */
+    private static void makeChanges(TestServices services, String prefix) {
+        Integer seminar = services.course(prefix + "SE", 1,
+                new MeetingTime(DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(11, 0)));
+        Integer lecture = services.course(prefix + "LE", null);
+        List<Integer> s = List.of(services.student(prefix + "a"), services.student(prefix + "b"),
+                services.student(prefix + "c"));
+        services.registrationService().registerForCourse(s.get(0), seminar);
+        services.registrationService().joinWaitlist(s.get(1), seminar);
+        services.registrationService().joinWaitlist(s.get(2), seminar);
+        services.registrationService().dropCourse(s.get(0), seminar);
+        services.registrationService().changeCourses(s.get(0), List.of(lecture), List.of());
+        services.registrationService().registerForCourse(s.get(2), lecture);
+    }
+
+    @Test
+    void aRestartRecoversTheSnapshotAndTheLogAfterIt() throws Exception {
+        TestServices services = TestServices.create();
+        PersistenceManager persistence = open(services);
+        makeChanges(services, "x");
+        long covered = persistence.snapshot();
+        makeChanges(services, "y");
+        ServiceState before = ServiceState.of(services);
+        long last = services.changeEvents().currentSequence();
+        assertThat(last).isGreaterThan(covered);
+        restart(persistence);
+
+        TestServices recovered = TestServices.create();
+        PersistenceManager reopened = open(recovered);
+        assertThat(ServiceState.of(recovered)).isEqualTo(before);
+        assertThat(recovered.changeEvents().currentSequence()).isEqualTo(last);
+
+        // Numbering continues, and a second restart sees the changes made after the first
+        makeChanges(recovered, "z");
+        ServiceState after = ServiceState.of(recovered);
+        restart(reopened);
+        TestServices again = TestServices.create();
+        open(again);
+        assertThat(ServiceState.of(again)).isEqualTo(after);
+    }
+
+    @Test
+    void aCrashMidRecordLosesOnlyThatRecord() throws Exception {
+        TestServices services = TestServices.create();
+        PersistenceManager persistence = open(services);
+        makeChanges(services, "x");
+        ServiceState before = ServiceState.of(services);
+        services.student("last");
+        restart(persistence);
+        List<Path> segments = WriteAheadLog.segments(directory);
+        try (FileChannel channel = FileChannel.open(segments.get(segments.size() - 1), StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        TestServices recovered = TestServices.create();
+        open(recovered);
+        assertThat(ServiceState.of(recovered)).isEqualTo(before);
+        // The lost create's ID and email are free again
+        assertThat(recovered.student("last")).isEqualTo(services.studentService().getStudentByEmail("last@uni.edu").getId());
+    }
+
+    @Test
+    void aSnapshotWaitsForTheCreatesItCovers() throws Exception {
+        TestServices services = TestServices.create();
+        PersistenceManager persistence = open(services);
+        services.student("early");
+
+        // Holds the create after it is logged but before the student is visible
+        CountDownLatch logged = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        services.changeEvents().addListener((sequence, event) -> {
+            if (event instanceof ChangeEvent.StudentCreated created && created.student().getName().equals("late")) {
+                logged.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        CompletableFuture<Integer> create = CompletableFuture.supplyAsync(() -> services.student("late"));
+        assertThat(logged.await(10, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<Long> snapshot = CompletableFuture.supplyAsync(() -> {
+            try {
+                return persistence.snapshot();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(200);
+        assertThat(snapshot).isNotDone();
+        release.countDown();
+        Integer lateId = create.get(10, TimeUnit.SECONDS);
+        assertThat(snapshot.get(10, TimeUnit.SECONDS)).isEqualTo(2);
+        restart(persistence);
+
+        TestServices recovered = TestServices.create();
+        open(recovered);
+        assertThat(recovered.studentService().getStudentById(lateId)).isEqualTo(services.studentService().getStudentById(lateId));
+        assertThat(recovered.studentService().studentCount()).isEqualTo(2);
+        assertThat(recovered.changeEvents().currentSequence()).isEqualTo(2);
+    }
+
+    @Test
+    void changesAfterATornFirstRecordSurviveTheNextRestart() throws Exception {
+        TestServices services = TestServices.create();
+        PersistenceManager persistence = open(services);
+        makeChanges(services, "x");
+        // The snapshot starts a new segment, whose first record is then torn by the crash
+        persistence.snapshot();
+        ServiceState before = ServiceState.of(services);
+        services.student("torn");
+        restart(persistence);
+        List<Path> segments = WriteAheadLog.segments(directory);
+        try (FileChannel channel = FileChannel.open(segments.get(segments.size() - 1), StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        TestServices recovered = TestServices.create();
+        PersistenceManager reopened = open(recovered);
+        assertThat(ServiceState.of(recovered)).isEqualTo(before);
+        makeChanges(recovered, "y");
+        ServiceState after = ServiceState.of(recovered);
+        restart(reopened);
+
+        TestServices again = TestServices.create();
+        open(again);
+        assertThat(ServiceState.of(again)).isEqualTo(after);
+    }
+}
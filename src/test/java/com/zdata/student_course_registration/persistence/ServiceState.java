@@ -0,0 +1,32 @@
+package com.zdata.student_course_registration.persistence;
+
+import com.zdata.student_course_registration.TestServices;
+import com.zdata.student_course_registration.model.Course;
+import com.zdata.student_course_registration.model.Student;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+/**
+ * Everything the services hold, in a form that compares by value, to check what was restored.
+ */
+record ServiceState(List<Student> students, List<Course> courses, Map<Integer, List<Integer>> registrations,
+                    Map<Integer, List<Integer>> waitlists) {
+
+    static ServiceState of(TestServices services) {
+        List<Student> students = new ArrayList<>();
+        services.studentService().forEachStudent(students::add);
+        List<Course> courses = new ArrayList<>();
+        services.courseService().forEachCourse(courses::add);
+        Map<Integer, List<Integer>> registrations = new TreeMap<>();
+        services.registrationService().forEachRegistration((studentId, courseIds) ->
+                registrations.put(studentId, IntStream.of(courseIds).boxed().toList()));
+        Map<Integer, List<Integer>> waitlists = new TreeMap<>();
+        services.registrationService().forEachWaitlist((courseId, studentIds) ->
+                waitlists.put(courseId, IntStream.of(studentIds).boxed().toList()));
+        return new ServiceState(students, courses, registrations, waitlists);
+    }
+}
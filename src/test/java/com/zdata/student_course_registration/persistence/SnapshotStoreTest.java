@@ -0,0 +1,179 @@
+package com.zdata.student_course_registration.persistence;
+
+import com.zdata.student_course_registration.TestServices;
+import com.zdata.student_course_registration.model.Course;
+import com.zdata.student_course_registration.model.MeetingTime;
+import com.zdata.student_course_registration.model.Student;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SnapshotStoreTest {
+
+    private static final int MAGIC = 0x53435253; // "SCRS"
+
+    // The same content in every format: two courses, three students, two with courses, one waiting
+    private static final List<Course> COURSES = List.of(new Course(1, "MA101", "Calculus", "Ada", 2),
+            new Course(2, "PH101", "Physics", "Alan", null));
+    private static final List<Student> STUDENTS = List.of(new Student(1, "ada", "ada@uni.edu"),
+            new Student(2, "bob", "bob@uni.edu"), new Student(3, "cy", "cy@uni.edu"));
+    private static final Map<Integer, List<Integer>> REGISTRATIONS = Map.of(1, List.of(1, 2), 2, List.of(1));
+
+    @TempDir
+    Path directory;
+
+    // Created per use, since the temp directory is only injected after construction
+    private SnapshotStore store() {
+        return new SnapshotStore(directory);
+    }
+
+    private TestServices restore(Path snapshot, long expectedSequence) throws IOException {
+        TestServices services = TestServices.create();
+        assertThat(store().restore(snapshot, services.studentService(), services.courseService(),
+                services.registrationService())).isEqualTo(expectedSequence);
+        return services;
+    }
+
+    private Path file(long sequence, byte[] bytes) throws IOException {
+        return Files.write(directory.resolve(String.format("snapshot-%020d.bin", sequence)), bytes);
+    }
+
+    @Test
+    void theCurrentFormatRoundTrips() throws IOException {
+        TestServices services = TestServices.create();
+        Integer seminar = services.course("SE101", 1,
+                new MeetingTime(DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(10, 30)),
+                new MeetingTime(DayOfWeek.THURSDAY, LocalTime.of(14, 15), LocalTime.of(15, 0)));
+        Integer lecture = services.course("LE101", null);
+        List<Integer> s = services.students(4);
+        services.registrationService().registerForCourse(s.get(0), seminar);
+        services.registrationService().registerForCourse(s.get(0), lecture);
+        services.registrationService().registerForCourse(s.get(1), lecture);
+        services.registrationService().joinWaitlist(s.get(2), seminar);
+        services.registrationService().joinWaitlist(s.get(3), seminar);
+
+        Path snapshot = store().write(42, services.studentService(), services.courseService(),
+                services.registrationService());
+        TestServices restored = restore(snapshot, 42);
+
+        assertThat(ServiceState.of(restored)).isEqualTo(ServiceState.of(services));
+        assertThat(restored.courseService().getCourseById(seminar).getMeetings()).hasSize(2);
+        assertThat(restored.registrationService().getWaitlistPosition(s.get(3), seminar).getPosition()).isEqualTo(2);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 3})
+    void mappedFilesOfEarlierVersionsAreRestored(int version) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.write(new byte[64]);
+        for (Course course : COURSES) {
+            out.writeInt(course.getId());
+            out.writeInt(course.getCapacity() == null ? 0 : course.getCapacity());
+            writeString(course.getCode(), out);
+            writeString(course.getTitle(), out);
+            writeString(course.getInstructor(), out);
+        }
+        long studentsOffset = out.size();
+        for (Student student : STUDENTS) {
+            out.writeInt(student.getId());
+            writeString(student.getName(), out);
+            writeString(student.getEmail(), out);
+        }
+        while (out.size() % Long.BYTES != 0) {
+            out.writeByte(0);
+        }
+        long enrollmentsOffset = out.size();
+        writeIdRun(1, List.of(1, 2), out);
+        writeIdRun(2, List.of(1), out);
+        long end = out.size();
+        if (version >= 3) {
+            writeIdRun(1, List.of(3), out);
+        }
+        byte[] file = bytes.toByteArray();
+        ByteBuffer.wrap(file).putInt(MAGIC).putInt(version).putLong(7)
+                .putInt(COURSES.size()).putInt(STUDENTS.size()).putInt(REGISTRATIONS.size())
+                .putLong(64).putLong(studentsOffset).putLong(enrollmentsOffset).putLong(end)
+                .putInt(version >= 3 ? 1 : 0);
+
+        ServiceState restored = ServiceState.of(restore(file(7, file), 7));
+
+        assertThat(restored).isEqualTo(new ServiceState(STUDENTS, COURSES, REGISTRATIONS,
+                version >= 3 ? Map.of(1, List.of(3)) : Map.of()));
+    }
+
+    @Test
+    void taggedRecordFilesAreRestored() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(1);
+        out.writeLong(5);
+        for (Course course : COURSES) {
+            out.writeByte(1);
+            ChangeEventCodec.writeCourse(course, out);
+        }
+        for (Student student : STUDENTS) {
+            out.writeByte(2);
+            ChangeEventCodec.writeStudent(student, out);
+        }
+        out.writeByte(3);
+        writeIdRun(1, List.of(1, 2), out);
+        out.writeByte(3);
+        writeIdRun(2, List.of(1), out);
+        out.writeByte(0);
+
+        ServiceState restored = ServiceState.of(restore(file(5, bytes.toByteArray()), 5));
+
+        assertThat(restored).isEqualTo(new ServiceState(STUDENTS, COURSES, REGISTRATIONS, Map.of()));
+    }
+
+    @Test
+    void theLatestSnapshotIsRestoredAndOlderOnesDeleted() throws IOException {
+        TestServices services = TestServices.create();
+        services.student("ada");
+        store().write(3, services.studentService(), services.courseService(), services.registrationService());
+        services.student("bob");
+        Path latest = store().write(9, services.studentService(), services.courseService(),
+                services.registrationService());
+
+        TestServices restored = TestServices.create();
+        assertThat(store().restoreLatest(restored.studentService(), restored.courseService(),
+                restored.registrationService())).isEqualTo(9);
+        assertThat(restored.studentService().studentCount()).isEqualTo(2);
+
+        store().deleteOlderThan(9);
+        try (var files = Files.list(directory)) {
+            assertThat(files.toList()).containsExactly(latest);
+        }
+    }
+
+    private static void writeString(String value, DataOutputStream out) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeIdRun(int id, List<Integer> ids, DataOutputStream out) throws IOException {
+        out.writeInt(id);
+        out.writeInt(ids.size());
+        for (int each : ids) {
+            out.writeInt(each);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.zdata.student_course_registration.persistence;
+
+import com.zdata.student_course_registration.event.ChangeEvent;
+import com.zdata.student_course_registration.model.Student;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WriteAheadLogTest {
+
+    @TempDir
+    Path directory;
+
+    private WriteAheadLog open(PersistenceProperties.FsyncPolicy fsync, long nextSequence) throws IOException {
+        return new WriteAheadLog(directory, fsync, Duration.ofMillis(10), nextSequence);
+    }
+
+    private static ChangeEvent created(long sequence) {
+        return new ChangeEvent.StudentCreated(new Student((int) sequence, "S" + sequence, "s" + sequence + "@uni.edu"));
+    }
+
+    private static List<Long> replay(Path segment, long afterSequence) throws IOException {
+        List<Long> sequences = new ArrayList<>();
+        WriteAheadLog.replay(segment, afterSequence, (sequence, event) -> {
+            assertThat(event).isEqualTo(created(sequence));
+            sequences.add(sequence);
+        });
+        return sequences;
+    }
+
+    private Path onlySegment() throws IOException {
+        List<Path> segments = WriteAheadLog.segments(directory);
+        assertThat(segments).hasSize(1);
+        return segments.get(0);
+    }
+
+    @Test
+    void concurrentAppendsAreLoggedInSequenceOrder() throws Exception {
+        int changes = 5_000;
+        AtomicLong sequences = new AtomicLong();
+        WriteAheadLog log = open(PersistenceProperties.FsyncPolicy.ALWAYS, 1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(pool.submit(() -> {
+                    for (long sequence = sequences.incrementAndGet(); sequence <= changes;
+                         sequence = sequences.incrementAndGet()) {
+                        log.append(sequence, created(sequence));
+                        // Group commit: returns once a shared write and fsync covered this change
+                        log.awaitDurable(sequence);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+            // Durable before the log is closed
+            assertThat(replay(onlySegment(), 0)).isEqualTo(LongStream.rangeClosed(1, changes).boxed().toList());
+        } finally {
+            pool.shutdownNow();
+            log.close();
+        }
+    }
+
+    @Test
+    void replayStopsAtATornTail() throws IOException {
+        WriteAheadLog log = open(PersistenceProperties.FsyncPolicy.INTERVAL, 1);
+        for (long sequence = 1; sequence <= 3; sequence++) {
+            log.append(sequence, created(sequence));
+        }
+        log.close();
+        Path segment = onlySegment();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 5);
+        }
+
+        assertThat(replay(segment, 0)).containsExactly(1L, 2L);
+        assertThat(WriteAheadLog.replay(segment, 0, (sequence, event) -> { })).isEqualTo(2);
+    }
+
+    @Test
+    void replayStopsAtARecordWithTheWrongChecksum() throws IOException {
+        WriteAheadLog log = open(PersistenceProperties.FsyncPolicy.NEVER, 1);
+        for (long sequence = 1; sequence <= 3; sequence++) {
+            log.append(sequence, created(sequence));
+        }
+        log.close();
+        Path segment = onlySegment();
+        byte[] bytes = Files.readAllBytes(segment);
+        int recordLength = bytes.length / 3;
+        // Last byte of the second record's payload
+        bytes[2 * recordLength - 1] ^= 0x40;
+        Files.write(segment, bytes);
+
+        assertThat(replay(segment, 0)).containsExactly(1L);
+    }
+
+    @Test
+    void rotationClosesASegmentThatCanBeDeleted() throws IOException {
+        WriteAheadLog log = open(PersistenceProperties.FsyncPolicy.INTERVAL, 11);
+        log.append(11, created(11));
+        log.append(12, created(12));
+        assertThat(log.rotate()).isEqualTo(12);
+        log.append(13, created(13));
+        log.close();
+
+        List<Path> segments = WriteAheadLog.segments(directory);
+        assertThat(segments).hasSize(2);
+        assertThat(replay(segments.get(0), 0)).containsExactly(11L, 12L);
+        assertThat(replay(segments.get(1), 0)).containsExactly(13L);
+        assertThat(replay(segments.get(0), 11)).containsExactly(12L);
+
+        WriteAheadLog.deleteSegmentsUpTo(directory, 12);
+        assertThat(WriteAheadLog.segments(directory)).containsExactly(segments.get(1));
+    }
+
+    @Test
+    void recoveryCutsATornFirstRecordSoLaterAppendsAreReplayed() throws IOException {
+        WriteAheadLog log = open(PersistenceProperties.FsyncPolicy.INTERVAL, 1);
+        log.append(1, created(1));
+        log.append(2, created(2));
+        log.rotate();
+        log.append(3, created(3));
+        log.close();
+        Path newest = WriteAheadLog.segmentPath(directory, 3);
+        try (FileChannel channel = FileChannel.open(newest, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        // As after a crash: the torn change 3 was lost, so the next log starts at 3 again
+        long last = 0;
+        for (Path segment : WriteAheadLog.segments(directory)) {
+            last = Math.max(last, WriteAheadLog.recover(segment, 0, (sequence, event) -> { }));
+        }
+        assertThat(last).isEqualTo(2);
+        WriteAheadLog reopened = open(PersistenceProperties.FsyncPolicy.INTERVAL, 3);
+        reopened.append(3, created(3));
+        reopened.append(4, created(4));
+        reopened.close();
+
+        List<Long> replayed = new ArrayList<>();
+        for (Path segment : WriteAheadLog.segments(directory)) {
+            replayed.addAll(replay(segment, 0));
+        }
+        assertThat(replayed).containsExactly(1L, 2L, 3L, 4L);
+    }
+
+    @Test
+    void recoveryKeepsTheIntactRecordsBeforeATornOne() throws IOException {
+        WriteAheadLog log = open(PersistenceProperties.FsyncPolicy.NEVER, 1);
+        for (long sequence = 1; sequence <= 3; sequence++) {
+            log.append(sequence, created(sequence));
+        }
+        log.close();
+        Path segment = onlySegment();
+        long intact = Files.size(segment) * 2 / 3;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(segment) - 5);
+        }
+
+        assertThat(WriteAheadLog.recover(segment, 0, (sequence, event) -> { })).isEqualTo(2);
+        assertThat(Files.size(segment)).isEqualTo(intact);
+        assertThat(replay(segment, 0)).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void rotatingWithoutNewChangesKeepsTheCurrentSegment() throws IOException {
+        WriteAheadLog log = open(PersistenceProperties.FsyncPolicy.INTERVAL, 1);
+        log.append(1, created(1));
+        assertThat(log.rotate()).isEqualTo(1);
+        assertThat(log.rotate()).isEqualTo(1);
+        log.append(2, created(2));
+        log.close();
+
+        List<Path> segments = WriteAheadLog.segments(directory);
+        assertThat(segments).containsExactly(WriteAheadLog.segmentPath(directory, 1), WriteAheadLog.segmentPath(directory, 2));
+        assertThat(replay(segments.get(1), 0)).containsExactly(2L);
+    }
+}
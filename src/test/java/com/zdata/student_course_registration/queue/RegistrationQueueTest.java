@@ -0,0 +1,154 @@
+package com.zdata.student_course_registration.queue;
+
+import com.zdata.student_course_registration.TestServices;
+import com.zdata.student_course_registration.dto.CourseCreateRequest;
+import com.zdata.student_course_registration.dto.StudentCreateRequest;
+import com.zdata.student_course_registration.dto.TicketResponse;
+import com.zdata.student_course_registration.event.ChangeEventPublisher;
+import com.zdata.student_course_registration.exception.ConflictException;
+import com.zdata.student_course_registration.exception.TooManyRequestsException;
+import com.zdata.student_course_registration.metrics.ServiceMetrics;
+import com.zdata.student_course_registration.service.CourseService;
+import com.zdata.student_course_registration.service.RegistrationService;
+import com.zdata.student_course_registration.service.StudentService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RegistrationQueueTest {
+
+    private static final int STUDENTS = 200;
+    private static final int CAPACITY = 30;
+
+    private final TestServices services = TestServices.create();
+    private final ChangeEventPublisher changeEvents = services.changeEvents();
+    private final ServiceMetrics metrics = services.metrics();
+    private final StudentService studentService = services.studentService();
+    private final CourseService courseService = services.courseService();
+    private final RegistrationService registrationService = services.registrationService();
+    private RegistrationQueue queue;
+
+    @AfterEach
+    void stopWorkers() throws InterruptedException {
+        queue.destroy();
+    }
+
+    private RegistrationQueue queue(int capacity) {
+        RegistrationQueueProperties properties = new RegistrationQueueProperties();
+        properties.setEnabled(true);
+        properties.setPartitions(2);
+        properties.setCapacity(capacity);
+        properties.setMaxBatch(16);
+        return new RegistrationQueue(properties, studentService, courseService, registrationService, metrics);
+    }
+
+    @Test
+    void seatsGoToTheEarliestAttemptsForEachCourse() throws Exception {
+        queue = queue(1_000);
+        List<Integer> courseIds = List.of(
+                courseService.addCourse(new CourseCreateRequest("CS101", "Intro", "Ada", CAPACITY)).getId(),
+                courseService.addCourse(new CourseCreateRequest("CS102", "Data", "Grace", CAPACITY)).getId());
+        Map<Integer, List<TicketResponse>> tickets = new HashMap<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            Integer studentId = studentService.registerStudent(new StudentCreateRequest("S" + i, "s" + i + "@uni.edu")).getId();
+            for (Integer courseId : courseIds) {
+                try {
+                    tickets.computeIfAbsent(courseId, k -> new ArrayList<>()).add(queue.submit(studentId, courseId));
+                } catch (ConflictException e) {
+                    // Rejected up front once the course has filled up
+                }
+            }
+        }
+
+        for (Integer courseId : courseIds) {
+            List<TicketResponse.State> states = new ArrayList<>();
+            for (TicketResponse ticket : tickets.get(courseId)) {
+                states.add(queue.awaitTicket(ticket.getTicketId(), Duration.ofSeconds(10))
+                        .get(1, TimeUnit.MINUTES).getState());
+            }
+            assertThat(states.subList(0, CAPACITY)).containsOnly(TicketResponse.State.REGISTERED);
+            assertThat(states.subList(CAPACITY, states.size())).containsOnly(TicketResponse.State.REJECTED);
+        }
+    }
+
+    @Test
+    void fullQueueRejectsNewAttempts() throws Exception {
+        queue = queue(1);
+        Integer courseId = courseService.addCourse(new CourseCreateRequest("CS101", "Intro", "Ada", CAPACITY)).getId();
+        Integer studentId = studentService.registerStudent(new StudentCreateRequest("Ada", "ada@uni.edu")).getId();
+        // Hold the worker inside its first batch, so the second attempt stays queued
+        CountDownLatch release = new CountDownLatch(1);
+        changeEvents.addAppliedListener(event -> {
+            try {
+                release.await(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        TicketResponse first = queue.submit(studentId, courseId);
+        while (queue.getTicket(first.getTicketId()).getState() == TicketResponse.State.PENDING
+                && registrationService.registrationCount() == 0) {
+            Thread.onSpinWait();
+        }
+        TicketResponse second = queue.submit(studentId, courseId);
+        assertThatThrownBy(() -> queue.submit(studentId, courseId)).isInstanceOf(TooManyRequestsException.class);
+        release.countDown();
+
+        assertThat(queue.awaitTicket(second.getTicketId(), Duration.ofSeconds(10)).get(1, TimeUnit.MINUTES).getStatus())
+                .isEqualTo(409);
+    }
+
+    @Test
+    void ticketsStillQueuedAtShutdownFailWith503() throws Exception {
+        queue = queue(10);
+        Integer courseId = courseService.addCourse(new CourseCreateRequest("CS101", "Intro", "Ada", CAPACITY)).getId();
+        List<Integer> studentIds = services.students(3);
+        // Hold the worker inside its first batch, so the later attempts stay queued
+        CountDownLatch applying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        changeEvents.addAppliedListener(event -> {
+            applying.countDown();
+            try {
+                release.await(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        TicketResponse first = queue.submit(studentIds.get(0), courseId);
+        assertThat(applying.await(10, TimeUnit.SECONDS)).isTrue();
+        TicketResponse second = queue.submit(studentIds.get(1), courseId);
+        CompletableFuture<TicketResponse> longPoll = queue.awaitTicket(second.getTicketId(), Duration.ofSeconds(25));
+        TicketResponse third = queue.submit(studentIds.get(2), courseId);
+
+        CompletableFuture<Void> shutdown = CompletableFuture.runAsync(() -> {
+            try {
+                queue.destroy();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(100);
+        release.countDown();
+        shutdown.get(10, TimeUnit.SECONDS);
+
+        assertThat(queue.getTicket(first.getTicketId()).getState()).isEqualTo(TicketResponse.State.REGISTERED);
+        // The long poll ends with the failure rather than its own timeout
+        TicketResponse polled = longPoll.get(1, TimeUnit.SECONDS);
+        assertThat(polled.getState()).isEqualTo(TicketResponse.State.FAILED);
+        assertThat(polled.getStatus()).isEqualTo(503);
+        assertThat(queue.getTicket(third.getTicketId()).getStatus()).isEqualTo(503);
+        assertThat(registrationService.registrationCount()).isEqualTo(1);
+    }
+}
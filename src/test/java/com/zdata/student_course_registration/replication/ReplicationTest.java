@@ -0,0 +1,122 @@
+package com.zdata.student_course_registration.replication;
+
+import com.zdata.student_course_registration.TestServices;
+import com.zdata.student_course_registration.dto.CourseCreateRequest;
+import com.zdata.student_course_registration.dto.StudentCreateRequest;
+import com.zdata.student_course_registration.model.Course;
+import com.zdata.student_course_registration.model.MeetingTime;
+import com.zdata.student_course_registration.persistence.PersistenceProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicationTest {
+
+    private final TestServices leaderNode = TestServices.create();
+    private final TestServices followerNode = TestServices.create();
+    private ReplicationLeader leader;
+    private ReplicationFollower follower;
+
+    @AfterEach
+    void stop() throws Exception {
+        if (follower != null) {
+            follower.destroy();
+        }
+        leader.destroy();
+    }
+
+    private ReplicationProperties properties(int backlog) {
+        ReplicationProperties properties = new ReplicationProperties();
+        properties.setPort(0);
+        properties.setBacklog(backlog);
+        properties.setHeartbeatInterval(Duration.ofMillis(100));
+        properties.setReconnectDelay(Duration.ofMillis(100));
+        properties.setStartupTimeout(Duration.ofSeconds(10));
+        return properties;
+    }
+
+    /**
+     * With a backlog of 8 the follower misses the first of the 9 changes and starts from a snapshot,
+     * yet the backlog still holds the 6 streamed afterwards if the sender lags;
+     * with a large one it receives every change from the first.
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {8, 1_000})
+    void followerCatchesUpAndThenAppliesEveryChange(int backlog) throws Exception {
+        leader = new ReplicationLeader(properties(backlog), leaderNode.studentService(), leaderNode.courseService(),
+                leaderNode.registrationService(), leaderNode.changeEvents(), leaderNode.metrics());
+        leader.afterPropertiesSet();
+
+        CourseCreateRequest scheduled = new CourseCreateRequest("CS101", "Intro", "Ada", 1);
+        scheduled.setMeetings(List.of(new MeetingTime(DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(10, 30))));
+        int small = leaderNode.courseService().addCourse(scheduled).getId();
+        int large = leaderNode.courseService().addCourse(new CourseCreateRequest("CS102", "Data", "Grace", 10)).getId();
+        List<Integer> s = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            s.add(leaderNode.studentService().registerStudent(new StudentCreateRequest("S" + i, "s" + i + "@uni.edu")).getId());
+        }
+        leaderNode.registrationService().registerForCourse(s.get(0), small);
+        leaderNode.registrationService().joinWaitlist(s.get(1), small);
+        leaderNode.registrationService().joinWaitlist(s.get(2), small);
+
+        ReplicationProperties followerProperties = properties(backlog);
+        followerProperties.setLeaderPort(leader.port());
+        follower = new ReplicationFollower(followerProperties, new PersistenceProperties(), followerNode.studentService(),
+                followerNode.courseService(), followerNode.registrationService(), followerNode.changeEvents(),
+                followerNode.metrics());
+        follower.afterPropertiesSet();
+        assertSameState(List.of(small, large), s);
+
+        // Streamed after the catch-up: a promotion off the waitlist, a transaction and a new course
+        leaderNode.registrationService().dropCourse(s.get(0), small);
+        leaderNode.registrationService().changeCourses(s.get(3), List.of(large), List.of());
+        leaderNode.registrationService().changeCourses(s.get(1), List.of(large), List.of(small));
+        int added = leaderNode.courseService().addCourse(new CourseCreateRequest("CS103", "Systems", "Linus", 5)).getId();
+        leaderNode.registrationService().registerForCourse(s.get(2), added);
+
+        long target = leaderNode.changeEvents().currentSequence();
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (follower.appliedSequence() < target && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(follower.appliedSequence()).isEqualTo(target);
+        assertThat(followerNode.changeEvents().currentSequence()).isEqualTo(target);
+        assertSameState(List.of(small, large, added), s);
+    }
+
+    private void assertSameState(List<Integer> courseIds, List<Integer> studentIds) {
+        for (int courseId : courseIds) {
+            Course course = followerNode.courseService().getCourseById(courseId);
+            assertThat(course).isEqualTo(leaderNode.courseService().getCourseById(courseId));
+            assertThat(followerNode.registrationService().getEnrollmentCount(courseId))
+                    .isEqualTo(leaderNode.registrationService().getEnrollmentCount(courseId));
+        }
+        for (int studentId : studentIds) {
+            assertThat(followerNode.studentService().getStudentById(studentId))
+                    .isEqualTo(leaderNode.studentService().getStudentById(studentId));
+            assertThat(followerNode.registrationService().getRegisteredCourses(studentId))
+                    .containsExactlyInAnyOrderElementsOf(leaderNode.registrationService().getRegisteredCourses(studentId));
+            assertThat(followerNode.registrationService().checkTimetable(studentId, courseIds))
+                    .isEqualTo(leaderNode.registrationService().checkTimetable(studentId, courseIds));
+        }
+        assertThat(waitlists(followerNode)).isEqualTo(waitlists(leaderNode));
+    }
+
+    private static Map<Integer, List<Integer>> waitlists(TestServices node) {
+        Map<Integer, List<Integer>> waitlists = new HashMap<>();
+        node.registrationService().forEachWaitlist((courseId, studentIds) ->
+                waitlists.put(courseId, IntStream.of(studentIds).boxed().toList()));
+        return waitlists;
+    }
+}
@@ -0,0 +1,85 @@
+package com.zdata.student_course_registration.service;
+
+import com.zdata.student_course_registration.TestServices;
+import com.zdata.student_course_registration.dto.CourseCreateRequest;
+import com.zdata.student_course_registration.exception.ConflictException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RegistrationServiceConcurrencyTest {
+
+    private static final int STUDENTS = 12_000;
+    private static final int CAPACITY = 250;
+    private static final int THREADS = 64;
+
+    @Test
+    void concurrentRegistrationsNeverOverbookACourse() throws Exception {
+        TestServices services = TestServices.create();
+        CourseService courseService = services.courseService();
+        RegistrationService registrationService = services.registrationService();
+
+        Integer courseId = courseService.addCourse(new CourseCreateRequest("CS101", "Intro", "Ada", CAPACITY)).getId();
+        List<Integer> studentIds = services.students(STUDENTS);
+
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>(STUDENTS);
+            for (Integer studentId : studentIds) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    try {
+                        registrationService.registerForCourse(studentId, courseId);
+                        accepted.incrementAndGet();
+                    } catch (ConflictException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(accepted.get()).isEqualTo(CAPACITY);
+        assertThat(rejected.get()).isEqualTo(STUDENTS - CAPACITY);
+        assertThat(registrationService.getEnrollmentCount(courseId).getEnrolled()).isEqualTo(CAPACITY);
+        assertThat(registrationService.getCourseRoster(courseId, null, 1000).getItems()).hasSize(CAPACITY);
+    }
+
+    @Test
+    void droppedSeatCanBeTakenAgain() {
+        TestServices services = TestServices.create();
+        CourseService courseService = services.courseService();
+        RegistrationService registrationService = services.registrationService();
+
+        Integer courseId = courseService.addCourse(new CourseCreateRequest("CS102", "Data", "Grace", 1)).getId();
+        Integer first = services.student("A");
+        Integer second = services.student("B");
+
+        registrationService.registerForCourse(first, courseId);
+        assertThatThrownBy(() -> registrationService.registerForCourse(second, courseId))
+                .isInstanceOf(ConflictException.class);
+
+        registrationService.dropCourse(first, courseId);
+        registrationService.registerForCourse(second, courseId);
+        assertThat(registrationService.getEnrollmentCount(courseId).getEnrolled()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,91 @@
+package com.zdata.student_course_registration.service;
+
+import com.zdata.student_course_registration.TestServices;
+import com.zdata.student_course_registration.dto.CourseCreateRequest;
+import com.zdata.student_course_registration.dto.CourseQuery;
+import com.zdata.student_course_registration.dto.CourseResponse;
+import com.zdata.student_course_registration.dto.PageResponse;
+import com.zdata.student_course_registration.dto.StudentCreateRequest;
+import com.zdata.student_course_registration.metrics.ServiceMetrics;
+import com.zdata.student_course_registration.model.Course;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RegistrationServiceSearchTest {
+
+    private final TestServices services = TestServices.create();
+    private final ServiceMetrics metrics = services.metrics();
+    private final StudentService studentService = services.studentService();
+    private final CourseService courseService = services.courseService();
+    private final RegistrationService registrationService = services.registrationService();
+
+    private Integer course(String code, String title, String instructor, Integer capacity) {
+        return courseService.addCourse(new CourseCreateRequest(code, title, instructor, capacity)).getId();
+    }
+
+    private List<Integer> search(String instructor, String codePrefix, String q, Boolean available) {
+        return ids(registrationService.searchCourses(new CourseQuery(instructor, codePrefix, q, available), null, 50));
+    }
+
+    private static List<Integer> ids(PageResponse<CourseResponse> page) {
+        return page.getItems().stream().map(CourseResponse::getId).toList();
+    }
+
+    @Test
+    void allGivenCriteriaMustMatch() {
+        Integer calculus = course("MA101", "Calculus I", "Ada Lovelace", null);
+        Integer linear = course("MA201", "Linear Algebra", "Alan Turing", null);
+        Integer analysis = course("MA301", "Real Analysis: Calculus, Revisited", "Ada Lovelace", null);
+        Integer physics = course("PH101", "Physics for Calculus Students", "Alan Turing", null);
+
+        assertThat(search("  ada LOVELACE ", null, null, null)).containsExactly(calculus, analysis);
+        assertThat(search(null, "ma", null, null)).containsExactly(calculus, linear, analysis);
+        assertThat(search(null, null, "calculus", null)).containsExactly(calculus, analysis, physics);
+        assertThat(search(null, null, "CALCULUS revisited", null)).containsExactly(analysis);
+        assertThat(search("Alan Turing", "PH", "calculus", null)).containsExactly(physics);
+        assertThat(search("Alan Turing", "MA1", null, null)).isEmpty();
+        assertThat(search("Grace Hopper", null, null, null)).isEmpty();
+        assertThat(search(null, null, "calc", null)).isEmpty();
+    }
+
+    @Test
+    void availabilityIsCheckedAgainstCurrentSeats() {
+        Integer small = course("CS101", "Programming", "Ada", 1);
+        Integer large = course("CS102", "Programming II", "Ada", 10);
+        Integer open = course("CS103", "Programming III", "Ada", null);
+        Integer studentId = studentService.registerStudent(new StudentCreateRequest("Bo", "bo@uni.edu")).getId();
+        registrationService.registerForCourse(studentId, small);
+
+        assertThat(search(null, null, null, true)).containsExactly(large, open);
+        assertThat(search(null, null, null, false)).containsExactly(small);
+        assertThat(search(null, "cs", "programming", false)).containsExactly(small);
+
+        registrationService.dropCourse(studentId, small);
+        assertThat(search(null, "cs", null, true)).containsExactly(small, large, open);
+    }
+
+    @Test
+    void resultsArePagedInIdOrder() {
+        // Restored out of ID order, as the index must also handle
+        for (int id = 30; id >= 1; id--) {
+            courseService.restoreCourse(new Course(id, "SE" + id, "Topic " + (id % 3 == 0 ? "even" : "odd"), "Ada", null));
+        }
+        courseService.restoreCourse(new Course(31, "SE31-VERY-LONG-COURSE-CODE", "Topic", "Ada", null));
+        courseService.restoreCourse(new Course(32, "SE31-VERY-LONG-COURSE-OTHER", "Topic", "Ada", null));
+
+        CourseQuery query = new CourseQuery(null, "se", "topic even", null);
+        PageResponse<CourseResponse> first = registrationService.searchCourses(query, null, 4);
+        assertThat(ids(first)).containsExactly(3, 6, 9, 12);
+        PageResponse<CourseResponse> second = registrationService.searchCourses(query, first.getNextCursor(), 4);
+        assertThat(ids(second)).containsExactly(15, 18, 21, 24);
+        PageResponse<CourseResponse> last = registrationService.searchCourses(query, second.getNextCursor(), 4);
+        assertThat(ids(last)).containsExactly(27, 30);
+        assertThat(last.getNextCursor()).isNull();
+
+        assertThat(search(null, "se31-very-long-course-c", null, null)).containsExactly(31);
+        assertThat(search(null, "SE31-VERY-LONG", null, null)).containsExactly(31, 32);
+    }
+}
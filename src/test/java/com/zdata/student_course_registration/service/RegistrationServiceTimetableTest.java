@@ -0,0 +1,97 @@
+package com.zdata.student_course_registration.service;
+
+import com.zdata.student_course_registration.TestServices;
+import com.zdata.student_course_registration.dto.CourseCreateRequest;
+import com.zdata.student_course_registration.dto.ScheduleConflict;
+import com.zdata.student_course_registration.dto.TimetableCheckResponse;
+import com.zdata.student_course_registration.exception.ConflictException;
+import com.zdata.student_course_registration.exception.ResourceNotFoundException;
+import com.zdata.student_course_registration.metrics.ServiceMetrics;
+import com.zdata.student_course_registration.model.MeetingTime;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RegistrationServiceTimetableTest {
+
+    private final TestServices services = TestServices.create();
+    private final ServiceMetrics metrics = services.metrics();
+    private final CourseService courseService = services.courseService();
+    private final RegistrationService registrationService = services.registrationService();
+
+    private static MeetingTime meeting(DayOfWeek day, String start, String end) {
+        return new MeetingTime(day, LocalTime.parse(start), LocalTime.parse(end));
+    }
+
+    @Test
+    void overlappingCoursesAreRejectedUntilTheOtherIsDropped() {
+        Integer algebra = services.course("MA101", null, meeting(DayOfWeek.MONDAY, "09:00", "10:30"),
+                meeting(DayOfWeek.WEDNESDAY, "09:00", "10:30"));
+        Integer physics = services.course("PH101", null, meeting(DayOfWeek.WEDNESDAY, "10:00", "11:00"));
+        Integer chemistry = services.course("CH101", null, meeting(DayOfWeek.MONDAY, "10:30", "12:00"));
+        Integer reading = courseService.addCourse(new CourseCreateRequest("EN101", "Reading", "Ada", null)).getId();
+        Integer studentId = services.student("ada");
+
+        registrationService.registerForCourse(studentId, algebra);
+        // Back to back is fine, and so is a course without meetings
+        registrationService.registerForCourse(studentId, chemistry);
+        registrationService.registerForCourse(studentId, reading);
+        assertThatThrownBy(() -> registrationService.registerForCourse(studentId, physics))
+                .isInstanceOf(ConflictException.class)
+                .hasMessage("Course " + physics + " clashes with course " + algebra + " on WEDNESDAY 10:00-10:30.");
+
+        registrationService.dropCourse(studentId, algebra);
+        registrationService.registerForCourse(studentId, physics);
+        assertThat(registrationService.getRegisteredCourses(studentId)).hasSize(3);
+    }
+
+    @Test
+    void promotionSkipsWaitingStudentsWhoseTimetableNowClashes() {
+        Integer seminar = services.course("SE101", 1, meeting(DayOfWeek.FRIDAY, "14:00", "16:00"));
+        Integer lab = services.course("LA101", null, meeting(DayOfWeek.FRIDAY, "15:00", "17:00"));
+        Integer first = services.student("first");
+        Integer busy = services.student("busy");
+        Integer free = services.student("free");
+
+        registrationService.registerForCourse(first, seminar);
+        registrationService.joinWaitlist(busy, seminar);
+        registrationService.joinWaitlist(free, seminar);
+        registrationService.registerForCourse(busy, lab);
+        assertThatThrownBy(() -> registrationService.joinWaitlist(first, lab))
+                .isInstanceOf(ConflictException.class);
+
+        registrationService.dropCourse(first, seminar);
+
+        assertThat(registrationService.getRegisteredCourses(free)).extracting("id").containsExactly(seminar);
+        assertThat(registrationService.getRegisteredCourses(busy)).extracting("id").containsExactly(lab);
+        assertThatThrownBy(() -> registrationService.getWaitlistPosition(busy, seminar))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void timetableCheckReportsEveryOverlapOfTheProposedCourses() {
+        Integer registered = services.course("MA101", null, meeting(DayOfWeek.TUESDAY, "09:00", "11:00"));
+        Integer early = services.course("PH101", null, meeting(DayOfWeek.TUESDAY, "10:00", "12:00"));
+        Integer late = services.course("CH101", null, meeting(DayOfWeek.TUESDAY, "11:30", "13:00"));
+        Integer elsewhere = services.course("BI101", null, meeting(DayOfWeek.THURSDAY, "10:00", "12:00"));
+        Integer studentId = services.student("ada");
+        registrationService.registerForCourse(studentId, registered);
+
+        TimetableCheckResponse fits = registrationService.checkTimetable(studentId, List.of(registered, elsewhere));
+        assertThat(fits.isConflictFree()).isTrue();
+        assertThat(fits.getConflicts()).isEmpty();
+
+        TimetableCheckResponse clashes = registrationService.checkTimetable(studentId, List.of(early, late, elsewhere));
+        assertThat(clashes.isConflictFree()).isFalse();
+        assertThat(clashes.getConflicts()).containsExactly(
+                new ScheduleConflict(registered, early, DayOfWeek.TUESDAY, LocalTime.of(10, 0), LocalTime.of(11, 0)),
+                new ScheduleConflict(early, late, DayOfWeek.TUESDAY, LocalTime.of(11, 30), LocalTime.of(12, 0)));
+        assertThatThrownBy(() -> registrationService.checkTimetable(studentId, List.of(early, 999)))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+}
@@ -0,0 +1,137 @@
+package com.zdata.student_course_registration.service;
+
+import com.zdata.student_course_registration.TestServices;
+import com.zdata.student_course_registration.event.ChangeEvent;
+import com.zdata.student_course_registration.event.ChangeEventPublisher;
+import com.zdata.student_course_registration.event.ChangeListener;
+import com.zdata.student_course_registration.exception.BadRequestException;
+import com.zdata.student_course_registration.exception.ConflictException;
+import com.zdata.student_course_registration.metrics.ServiceMetrics;
+import com.zdata.student_course_registration.model.Course;
+import com.zdata.student_course_registration.model.MeetingTime;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RegistrationServiceTransactionTest {
+
+    private final TestServices services = TestServices.create();
+    private final ChangeEventPublisher changeEvents = services.changeEvents();
+    private final ServiceMetrics metrics = services.metrics();
+    private final RegistrationService registrationService = services.registrationService();
+
+    private List<Integer> courseIdsOf(Integer studentId) {
+        return registrationService.getRegisteredCourses(studentId).stream().map(Course::getId).toList();
+    }
+
+    @Test
+    void aRejectedChangeLeavesEverythingAsItWas() {
+        Integer kept = services.course("MA101", null);
+        Integer dropped = services.course("PH101", 10);
+        Integer open = services.course("CH101", 10);
+        Integer full = services.course("BI101", 1);
+        Integer ada = services.student("ada");
+        Integer bob = services.student("bob");
+        registrationService.registerForCourse(ada, kept);
+        registrationService.registerForCourse(ada, dropped);
+        registrationService.registerForCourse(bob, full);
+
+        assertThatThrownBy(() -> registrationService.changeCourses(ada, List.of(open, full), List.of(dropped)))
+                .isInstanceOf(ConflictException.class)
+                .hasMessage("Course " + full + " is full.");
+        assertThatThrownBy(() -> registrationService.changeCourses(ada, List.of(open), List.of(dropped, full)))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> registrationService.changeCourses(ada, List.of(open, open), null))
+                .isInstanceOf(BadRequestException.class);
+
+        assertThat(courseIdsOf(ada)).containsExactly(kept, dropped);
+        // The seat reserved in the open course was given back
+        assertThat(registrationService.getEnrollmentCount(open).getEnrolled()).isZero();
+        assertThat(registrationService.isCourseFull(open)).isFalse();
+
+        registrationService.changeCourses(ada, List.of(open), List.of(dropped));
+        assertThat(courseIdsOf(ada)).containsExactly(kept, open);
+    }
+
+    @Test
+    void aSwapIsCheckedAgainstTheTimetableAfterTheDropsAndLoggedAsOneChange() {
+        MeetingTime monday = new MeetingTime(DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(11, 0));
+        Integer morning = services.course("MA101", 1, monday);
+        Integer sameTime = services.course("MA102", null, monday);
+        Integer waiting = services.student("waiting");
+        Integer ada = services.student("ada");
+        registrationService.registerForCourse(ada, morning);
+        registrationService.joinWaitlist(waiting, morning);
+        assertThatThrownBy(() -> registrationService.registerForCourse(ada, sameTime))
+                .isInstanceOf(ConflictException.class);
+
+        List<ChangeEvent> published = new CopyOnWriteArrayList<>();
+        changeEvents.addListener((ChangeListener) (sequence, event) -> published.add(event));
+        registrationService.changeCourses(ada, List.of(sameTime), List.of(morning));
+
+        assertThat(courseIdsOf(ada)).containsExactly(sameTime);
+        assertThat(courseIdsOf(waiting)).containsExactly(morning);
+        assertThat(published).containsExactly(new ChangeEvent.Transaction(List.of(
+                new ChangeEvent.Dropped(ada, morning),
+                new ChangeEvent.Registered(waiting, morning),
+                new ChangeEvent.Registered(ada, sameTime))));
+    }
+
+    @Test
+    void opposingSwapsNeitherDeadlockNorLoseSeats() throws Exception {
+        int pairs = 200;
+        // Room for everyone in either course, so no swap is rejected however they interleave
+        Integer left = services.course("LE101", 2 * pairs);
+        Integer right = services.course("RI101", 2 * pairs);
+        List<Integer> leftStudents = new ArrayList<>();
+        List<Integer> rightStudents = new ArrayList<>();
+        for (int i = 0; i < pairs; i++) {
+            leftStudents.add(services.student("l" + i));
+            registrationService.registerForCourse(leftStudents.get(i), left);
+            rightStudents.add(services.student("r" + i));
+            registrationService.registerForCourse(rightStudents.get(i), right);
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < pairs; i++) {
+                Integer fromLeft = leftStudents.get(i);
+                Integer fromRight = rightStudents.get(i);
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int round = 0; round < 10; round++) {
+                        boolean even = round % 2 == 0;
+                        registrationService.changeCourses(fromLeft, List.of(even ? right : left), List.of(even ? left : right));
+                        registrationService.changeCourses(fromRight, List.of(even ? left : right), List.of(even ? right : left));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertThat(registrationService.getEnrollmentCount(left).getEnrolled()).isEqualTo(pairs);
+        assertThat(registrationService.getEnrollmentCount(right).getEnrolled()).isEqualTo(pairs);
+        assertThat(courseIdsOf(leftStudents.get(0))).containsExactly(left);
+        assertThat(registrationService.registrationCount()).isEqualTo(2L * pairs);
+        assertThat(registrationService.getCourseRoster(left, null, 1000).getItems()).hasSize(pairs);
+    }
+}
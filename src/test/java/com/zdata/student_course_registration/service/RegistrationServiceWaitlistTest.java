@@ -0,0 +1,142 @@
+package com.zdata.student_course_registration.service;
+
+import com.zdata.student_course_registration.TestServices;
+import com.zdata.student_course_registration.dto.CourseCreateRequest;
+import com.zdata.student_course_registration.exception.BadRequestException;
+import com.zdata.student_course_registration.exception.ConflictException;
+import com.zdata.student_course_registration.exception.ResourceNotFoundException;
+import com.zdata.student_course_registration.metrics.ServiceMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RegistrationServiceWaitlistTest {
+
+    private final TestServices services = TestServices.create();
+    private final ServiceMetrics metrics = services.metrics();
+    private final CourseService courseService = services.courseService();
+    private final RegistrationService registrationService = services.registrationService();
+
+    @Test
+    void dropPromotesTheHeadOfTheWaitlist() {
+        Integer courseId = courseService.addCourse(new CourseCreateRequest("CS101", "Intro", "Ada", 1)).getId();
+        List<Integer> s = services.students(3);
+        assertThatThrownBy(() -> registrationService.joinWaitlist(s.get(0), courseId)).isInstanceOf(ConflictException.class);
+        registrationService.registerForCourse(s.get(0), courseId);
+        assertThat(registrationService.joinWaitlist(s.get(1), courseId).getPosition()).isEqualTo(1);
+        assertThat(registrationService.joinWaitlist(s.get(2), courseId).getPosition()).isEqualTo(2);
+        // Joining again keeps the place
+        assertThat(registrationService.joinWaitlist(s.get(1), courseId).getPosition()).isEqualTo(1);
+
+        registrationService.dropCourse(s.get(0), courseId);
+
+        assertThat(registrationService.getEnrollmentCount(courseId).getEnrolled()).isEqualTo(1);
+        assertThat(registrationService.getRegisteredCourses(s.get(1))).hasSize(1);
+        assertThatThrownBy(() -> registrationService.getWaitlistPosition(s.get(1), courseId))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThat(registrationService.getWaitlistPosition(s.get(2), courseId).getPosition()).isEqualTo(1);
+        // A seat dropped while the course is promoted into is never free for direct registration
+        assertThatThrownBy(() -> registrationService.registerForCourse(s.get(0), courseId))
+                .isInstanceOf(ConflictException.class);
+    }
+
+    @Test
+    void positionsAccountForStudentsWhoLeft() {
+        Integer courseId = courseService.addCourse(new CourseCreateRequest("CS101", "Intro", "Ada", 1)).getId();
+        List<Integer> s = services.students(101);
+        registrationService.registerForCourse(s.get(0), courseId);
+        for (int i = 1; i <= 100; i++) {
+            registrationService.joinWaitlist(s.get(i), courseId);
+        }
+        // Every third student leaves, including the head
+        int left = 0;
+        for (int i = 1; i <= 100; i += 3) {
+            registrationService.leaveWaitlist(s.get(i), courseId);
+            left++;
+        }
+        assertThatThrownBy(() -> registrationService.leaveWaitlist(s.get(1), courseId))
+                .isInstanceOf(BadRequestException.class);
+        int expected = 0;
+        for (int i = 1; i <= 100; i++) {
+            if ((i - 1) % 3 != 0) {
+                expected++;
+                assertThat(registrationService.getWaitlistPosition(s.get(i), courseId).getPosition()).isEqualTo(expected);
+                assertThat(registrationService.getWaitlistPosition(s.get(i), courseId).getWaiting()).isEqualTo(100 - left);
+            }
+        }
+        registrationService.dropCourse(s.get(0), courseId);
+        assertThat(registrationService.getRegisteredCourses(s.get(2))).hasSize(1);
+        assertThat(registrationService.getWaitlistPosition(s.get(3), courseId).getPosition()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentDropsAndJoinsNeverLoseOrDoubleBookASeat() throws Exception {
+        int capacity = 20;
+        Integer courseId = courseService.addCourse(new CourseCreateRequest("CS101", "Intro", "Ada", capacity)).getId();
+        List<Integer> s = services.students(capacity * 5);
+        for (int i = 0; i < capacity; i++) {
+            registrationService.registerForCourse(s.get(i), courseId);
+        }
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < s.size(); i++) {
+                Integer studentId = s.get(i);
+                boolean enrolled = i < capacity;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    if (enrolled) {
+                        registrationService.dropCourse(studentId, courseId);
+                    } else {
+                        boolean placed = false;
+                        while (!placed) {
+                            try {
+                                registrationService.joinWaitlist(studentId, courseId);
+                                placed = true;
+                            } catch (ConflictException e) {
+                                // A seat was free at that moment, unless another student takes it first
+                                try {
+                                    registrationService.registerForCourse(studentId, courseId);
+                                    placed = true;
+                                } catch (ConflictException full) {
+                                    // back to the waitlist
+                                }
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        int enrolled = registrationService.getEnrollmentCount(courseId).getEnrolled();
+        assertThat(enrolled).isEqualTo(registrationService.getCourseRoster(courseId, null, 1000).getItems().size());
+        // Either every seat is taken or nobody is left waiting for one
+        int waiting = 0;
+        for (Integer studentId : s) {
+            try {
+                waiting = registrationService.getWaitlistPosition(studentId, courseId).getWaiting();
+                break;
+            } catch (ResourceNotFoundException e) {
+                // not waiting
+            }
+        }
+        assertThat(enrolled == capacity || waiting == 0).isTrue();
+        assertThat(enrolled).isLessThanOrEqualTo(capacity);
+    }
+}
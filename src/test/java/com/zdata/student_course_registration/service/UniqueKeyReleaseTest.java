@@ -0,0 +1,56 @@
+package com.zdata.student_course_registration.service;
+
+import com.zdata.student_course_registration.TestServices;
+import com.zdata.student_course_registration.dto.CourseCreateRequest;
+import com.zdata.student_course_registration.dto.StudentCreateRequest;
+import com.zdata.student_course_registration.event.ChangeEvent;
+import com.zdata.student_course_registration.event.ChangeListener;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UniqueKeyReleaseTest {
+
+    private final TestServices services = TestServices.create();
+
+    // Fails like the write-ahead log does when it cannot write a create
+    private final ChangeListener failingLog = (sequence, event) -> {
+        if (event instanceof ChangeEvent.StudentCreated || event instanceof ChangeEvent.CourseCreated) {
+            throw new UncheckedIOException(new IOException("disk full"));
+        }
+    };
+
+    @Test
+    void aCreateThatCannotBePublishedFreesItsKey() {
+        services.changeEvents().addListener(failingLog);
+        assertThatThrownBy(() -> services.student("ada")).isInstanceOf(UncheckedIOException.class);
+        assertThatThrownBy(() -> services.course("CS101", null)).isInstanceOf(UncheckedIOException.class);
+
+        services.changeEvents().removeListener(failingLog);
+        assertThat(services.student("ada")).isNotNull();
+        assertThat(services.course("CS101", null)).isNotNull();
+        assertThat(services.studentService().getStudentByEmail("ada@uni.edu").getName()).isEqualTo("ada");
+    }
+
+    @Test
+    void aFailedChunkFreesTheKeysOfEveryUncreatedEntry() {
+        List<StudentCreateRequest> students = List.of(new StudentCreateRequest("A", "a@uni.edu"),
+                new StudentCreateRequest("B", "b@uni.edu"), new StudentCreateRequest("C", "c@uni.edu"));
+        List<CourseCreateRequest> courses = List.of(new CourseCreateRequest("MA101", "Calculus", "Ada", null),
+                new CourseCreateRequest("PH101", "Physics", "Ada", null));
+        services.changeEvents().addListener(failingLog);
+        assertThatThrownBy(() -> services.studentService().registerStudents(students))
+                .isInstanceOf(UncheckedIOException.class);
+        assertThatThrownBy(() -> services.courseService().addCourses(courses))
+                .isInstanceOf(UncheckedIOException.class);
+
+        services.changeEvents().removeListener(failingLog);
+        assertThat(services.studentService().registerStudents(students)).doesNotContainNull();
+        assertThat(services.courseService().addCourses(courses)).doesNotContainNull();
+    }
+}